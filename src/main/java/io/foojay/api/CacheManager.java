@@ -58,6 +58,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static io.foojay.api.util.Constants.API_VERSION_V3;
@@ -105,6 +106,8 @@ public enum CacheManager {
     public final         AtomicLong                   msToFillCacheWithPkgsFromDB = new AtomicLong(-1);
     public final         AtomicLong                   numberOfPackages            = new AtomicLong(-1);
     public final         AtomicReference<Instant>     lastSync                    = new AtomicReference<>(Instant.MIN);
+    public final         AtomicLong                   cacheGeneration             = new AtomicLong(0);
+    private final        Map<String, String>          renderedJsonCache           = new ConcurrentHashMap<>();
     private final        List<MajorVersion>           majorVersions               = new LinkedList<>();
     private final        List<MajorVersion>           graalvmMajorVersions        = new LinkedList<>();
 
@@ -139,6 +142,22 @@ public enum CacheManager {
         graalvmMajorVersions.addAll(mvgvm);
         
         updateMaintainedMajorVersions();
+
+        // Major versions and their maintained state are part of the rendered json
+        nextCacheGeneration();
+    }
+
+    /**
+     * Replaces the cached major versions of builds of OpenJDK and GraalVM without querying the database
+     * @param majorVersions Major versions of builds of OpenJDK
+     * @param graalvmMajorVersions Major versions of builds of GraalVM
+     */
+    public void setMajorVersions(final Collection<MajorVersion> majorVersions, final Collection<MajorVersion> graalvmMajorVersions) {
+        this.majorVersions.clear();
+        this.majorVersions.addAll(majorVersions);
+        this.graalvmMajorVersions.clear();
+        this.graalvmMajorVersions.addAll(graalvmMajorVersions);
+        nextCacheGeneration();
     }
 
     public void updateMaintainedMajorVersions() {
@@ -166,23 +185,49 @@ public enum CacheManager {
 
     public void updateJsonCacheV2() {
         StateManager.INSTANCE.setState(State.UPDATING, "Updating Json Cache V2");
-        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheV2.put(entry.getKey(), entry.getValue().toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V2)));
+        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheV2.putIfChanged(entry.getKey(), entry.getValue().getFingerprint(), () -> entry.getValue().toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V2)));
         final List<String> keysToRemove = jsonCacheV2.getEntrySet().parallelStream().filter(entry -> !pkgCache.containsKey(entry.getKey())).map(entry -> entry.getKey()).collect(Collectors.toList());
         jsonCacheV2.remove(keysToRemove);
     }
     public void updateJsonCacheV3() {
         StateManager.INSTANCE.setState(State.UPDATING, "Updating Json Cache V3");
-        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheV3.put(entry.getKey(), entry.getValue().toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V3)));
+        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheV3.putIfChanged(entry.getKey(), entry.getValue().getFingerprint(), () -> entry.getValue().toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V3)));
         final List<String> keysToRemove = jsonCacheV3.getEntrySet().parallelStream().filter(entry -> !pkgCache.containsKey(entry.getKey())).map(entry -> entry.getKey()).collect(Collectors.toList());
         jsonCacheV3.remove(keysToRemove);
     }
     public void updateJsonCacheMinimizedV3() {
         StateManager.INSTANCE.setState(State.UPDATING, "Updating Json Cache Reduced V3");
-        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheMinimizedV3.put(entry.getKey(), entry.getValue().toString(OutputFormat.MINIMIZED, Constants.API_VERSION_V3)));
+        pkgCache.getEntrySet().parallelStream().forEach(entry -> jsonCacheMinimizedV3.putIfChanged(entry.getKey(), entry.getValue().getFingerprint(), () -> entry.getValue().toString(OutputFormat.MINIMIZED, Constants.API_VERSION_V3)));
         final List<String> keysToRemove = jsonCacheMinimizedV3.getEntrySet().parallelStream().filter(entry -> !pkgCache.containsKey(entry.getKey())).map(entry -> entry.getKey()).collect(Collectors.toList());
         jsonCacheMinimizedV3.remove(keysToRemove);
     }
 
+    /**
+     * Returns the rendered json for the given key from the cache of the current cache generation.
+     * If there is no entry for the given key it will be rendered by the given renderer and cached.
+     * @param key Key that contains all parameters that have an influence on the rendered json
+     * @param renderer Supplier that renders the json
+     * @return the rendered json for the given key
+     */
+    public String getRenderedJson(final String key, final Supplier<String> renderer) {
+        final long   generation = cacheGeneration.get();
+        final String cacheKey   = generation + key;
+        final String cached     = renderedJsonCache.get(cacheKey);
+        if (null != cached) { return cached; }
+        final String json = renderer.get();
+        // Don't cache results that might be based on data of a previous generation
+        if (generation == cacheGeneration.get()) { renderedJsonCache.put(cacheKey, json); }
+        return json;
+    }
+
+    /**
+     * Invalidates all rendered json documents (e.g. after the pkg cache or the major versions changed)
+     */
+    public void nextCacheGeneration() {
+        cacheGeneration.incrementAndGet();
+        renderedJsonCache.clear();
+    }
+
     public List<MajorVersion> getMajorVersions() {
         return getMajorVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
@@ -207,12 +252,35 @@ public enum CacheManager {
         Distro.getAsListWithoutNoneAndNotFound().forEach(distro -> distro.lastUpdate.set(lastUpdates.get(distro)));
 
         LOGGER.debug("Fill cache with packages from mongodb");
-        final long      startRetrievingPkgFromMongodb = System.currentTimeMillis();
-        final List<Pkg> pkgsFromMongoDb               = MongoDbManager.INSTANCE.getPkgs();
-        LOGGER.debug("Got all pkgs from mongodb in {} ms", (System.currentTimeMillis() - startRetrievingPkgFromMongodb));
+        final long              startRetrievingPkgFromMongodb = System.currentTimeMillis();
+        final Map<String, Long> fingerprintsFromMongoDb       = pkgCache.isEmpty() ? Map.of() : MongoDbManager.INSTANCE.getPkgFingerprints();
+        final Map<String, Pkg>  patch;
+        if (fingerprintsFromMongoDb.isEmpty()) {
+            final List<Pkg> pkgsFromMongoDb = MongoDbManager.INSTANCE.getPkgs();
+            LOGGER.debug("Got all pkgs from mongodb in {} ms", (System.currentTimeMillis() - startRetrievingPkgFromMongodb));
+            patch = pkgsFromMongoDb.parallelStream().collect(Collectors.toMap(Pkg::getId, pkg -> pkg, (pkg1, pkg2) -> pkg2));
+        } else {
+            // Only load the pkgs that are new or whose fingerprint differs from the one in the cache
+            final List<String> idsToLoad = fingerprintsFromMongoDb.entrySet()
+                                                                  .stream()
+                                                                  .filter(entry -> {
+                                                                      final Pkg cachedPkg = pkgCache.get(entry.getKey());
+                                                                      return null == cachedPkg || null == entry.getValue() || cachedPkg.getFingerprint() != entry.getValue();
+                                                                  })
+                                                                  .map(Map.Entry::getKey)
+                                                                  .collect(Collectors.toList());
+            final List<Pkg> changedPkgs = MongoDbManager.INSTANCE.getPkgs(idsToLoad);
+            LOGGER.debug("Got {} changed of {} pkgs from mongodb in {} ms", changedPkgs.size(), fingerprintsFromMongoDb.size(), (System.currentTimeMillis() - startRetrievingPkgFromMongodb));
+            patch = new HashMap<>(fingerprintsFromMongoDb.size());
+            fingerprintsFromMongoDb.keySet().forEach(id -> {
+                final Pkg cachedPkg = pkgCache.get(id);
+                if (null != cachedPkg) { patch.put(id, cachedPkg); }
+            });
+            changedPkgs.forEach(pkg -> patch.put(pkg.getId(), pkg));
+        }
 
-        Map<String, Pkg> patch = pkgsFromMongoDb.parallelStream().collect(Collectors.toMap(Pkg::getId, pkg -> pkg));
-        pkgCache.setAll(patch);
+        // Only replace pkgs whose content changed to be able to skip re-rendering of unchanged pkgs
+        pkgCache.update(patch, true);
 
         numberOfPackages.set(pkgCache.size());
         msToFillCacheWithPkgsFromDB.set(System.currentTimeMillis() - startSyncronizingCache);
@@ -221,6 +289,7 @@ public enum CacheManager {
         updateMajorVersions();
 
         lastSync.set(Instant.now());
+        nextCacheGeneration();
         syncWithDatabaseInProgress.set(false);
         }
 
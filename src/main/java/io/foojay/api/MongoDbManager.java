@@ -19,18 +19,39 @@
 
 package io.foojay.api;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ErrorCategory;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
 import com.mongodb.MongoCredential;
 import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.MergeOptions;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Variable;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.ConnectionPoolListener;
 import eu.hansolo.jdktools.util.OutputFormat;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
@@ -38,12 +59,21 @@ import io.foojay.api.pkg.Pkg;
 import io.foojay.api.pkg.PkgField;
 import io.foojay.api.util.Config;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.DownloadCounter;
+import io.foojay.api.util.DownloadCounter.DayKey;
+import io.foojay.api.util.DownloadCounter.UserAgentDownload;
 import io.foojay.api.util.EphemeralIdCache;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpValidatorCache;
+import io.foojay.api.util.HttpValidatorCache.Validator;
+import io.foojay.api.util.WatermarkCache;
+import io.foojay.api.util.WatermarkCache.Watermark;
+import io.foojay.api.util.Partition;
 import io.foojay.api.util.State;
 import io.foojay.api.util.UpdaterState;
-import org.bson.BsonDocument;
-import org.bson.BsonString;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.json.JsonParseException;
@@ -51,28 +81,53 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
+import java.util.Locale;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.expr;
 import static com.mongodb.client.model.Filters.gte;
 import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
 import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.ne;
+import static com.mongodb.client.model.Filters.nin;
+import static com.mongodb.client.model.Projections.computed;
+import static com.mongodb.client.model.Projections.excludeId;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.descending;
 import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
 import static com.mongodb.client.model.Updates.set;
 import static io.foojay.api.util.Constants.API_VERSION_V3;
 import static io.foojay.api.util.Constants.COMMA;
@@ -86,31 +141,56 @@ import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
 public enum MongoDbManager {
     INSTANCE;
 
-    private static final Logger                           LOGGER                         = LoggerFactory.getLogger(MongoDbManager.class);
-    private static final String                           FIELD_PACKAGE_ID               = "id";
-    private static final String                           FIELD_EPHEMERAL_ID             = "ephemeral_id";
-    private static final String                           FIELD_DOWNLOADS                = "downloads";
-    private static final String                           FIELD_DISTRO                   = "distro";
-    private static final String                           FIELD_DISTRIBUTIONS            = "distributions";
-    private static final String                           FIELD_VERSION                  = "version";
-    private static final String                           FIELD_DAY                      = "day";
-    private static final String                           FIELD_TIMESTAMP                = "timestamp";
-    private static final String                           FIELD_STATE                    = "state";
-    private static final String                           FIELD_TYPE                     = "type";
-    private static final String                           FIELD_REMOVED_AT               = "removedat";
-    private static final String                           FIELD_AVAILABLE                = "available";
-    private static final String                           FIELD_USER_AGENT               = "useragent";
-    private static final String                           FIELD_COUNTRY_CODE             = "countrycode";
-    private static final String                           FIELD_LAST_EPHEMERAL_ID_UPDATE = "lastephemeralidupdate";
-    private static final String                           FIELD_LAST_UPDATE              = "lastupdate";
-    private static final String                           FIELD_MAJOR_VERSION            = "major_version";
-    private static final String                           FIELD_TERM_OF_SUPPORT          = "term_of_support";
-    private static final String                           FIELD_RELEASE_STATUS           = "release_status";
-    private static final String                           FIELD_MAINTAINED               = "maintained";
-    public final         EphemeralIdCache<String, String> ephemeralIdCache               = new EphemeralIdCache<>();
-    private              MongoClient                      mongoClient;
-    private              boolean                          connected;
-    private              MongoDatabase                    database;
+    private static final Logger                                 LOGGER                         = LoggerFactory.getLogger(MongoDbManager.class);
+    private static final String                                 FIELD_PACKAGE_ID               = "id";
+    private static final String                                 FIELD_EPHEMERAL_ID             = "ephemeral_id";
+    private static final String                                 FIELD_DOWNLOADS                = "downloads";
+    private static final String                                 FIELD_DISTRO                   = "distro";
+    private static final String                                 FIELD_DISTRIBUTIONS            = "distributions";
+    private static final String                                 FIELD_VERSION                  = "version";
+    private static final String                                 FIELD_DAY                      = "day";
+    private static final String                                 FIELD_TIMESTAMP                = "timestamp";
+    private static final String                                 FIELD_STATE                    = "state";
+    private static final String                                 FIELD_TYPE                     = "type";
+    private static final String                                 FIELD_REMOVED_AT               = "removedat";
+    private static final String                                 FIELD_AVAILABLE                = "available";
+    private static final String                                 FIELD_USER_AGENT               = "useragent";
+    private static final String                                 FIELD_COUNTRY_CODE             = "countrycode";
+    private static final String                                 FIELD_LAST_EPHEMERAL_ID_UPDATE = "lastephemeralidupdate";
+    private static final String                                 FIELD_LAST_UPDATE              = "lastupdate";
+    private static final String                                 FIELD_MAJOR_VERSION            = "major_version";
+    private static final String                                 FIELD_TERM_OF_SUPPORT          = "term_of_support";
+    private static final String                                 FIELD_RELEASE_STATUS           = "release_status";
+    private static final String                                 FIELD_MAINTAINED               = "maintained";
+    private static final String                                 FIELD_PKG                      = "pkg";
+    private static final String                                 VAR_PACKAGE_ID                 = "pkg_id";
+    private static final String                                 FIELD_GENERATION               = "generation";
+    private static final String                                 FIELD_EXPIRES_AT               = "expires_at";
+    private static final String                                 FIELD_URL                      = "url";
+    private static final String                                 FIELD_ETAG                     = "etag";
+    private static final String                                 FIELD_LAST_MODIFIED            = "last_modified";
+    private static final String                                 FIELD_VALIDATED_AT             = "validated_at";
+    private static final String                                 FIELD_SOURCE                   = "source";
+    private static final String                                 FIELD_RELEASE_ID               = "release_id";
+    private static final String                                 FIELD_TAG                      = "tag";
+    private static final String                                 FIELD_PUBLISHED_AT             = "published_at";
+    private static final String                                 FIELD_ASSETS_UPDATED_AT        = "assets_updated_at";
+    private static final String                                 UNKNOWN                        = "unknown";
+    private static final List<String>                           DOWNLOAD_STATS_FIELDS          = List.of(FIELD_DAY, FIELD_DISTRO, FIELD_MAJOR_VERSION, FIELD_COUNTRY_CODE);
+    private static final int                                    PKG_CURSOR_BATCH_SIZE          = 1000;
+    private static final int                                    EXPORT_CURSOR_BATCH_SIZE       = 1000;
+    public final         EphemeralIdCache<String, String>       ephemeralIdCache               = new EphemeralIdCache<>();
+    private              MongoClient                            mongoClient;
+    private              boolean                                connected;
+    private              MongoDatabase                          database;
+    private              ReadPreference                         syncReadPreference             = ReadPreference.primary();
+    private              ExecutorService                        workerExecutor;
+    private              ScheduledExecutorService               downloadFlushExecutor;
+    private              ScheduledExecutorService               downloadRollupExecutor;
+    private final        DownloadCounter                        downloadCounter                = new DownloadCounter(Config.INSTANCE.getFoojayDownloadsQueueSize());
+    private final        AtomicBoolean                          downloadFlushRequested         = new AtomicBoolean(false);
+    private final        Map<String, MongoCollection<Document>> collections                    = new ConcurrentHashMap<>();
+    private final        Set<String>                            knownIndexes                   = ConcurrentHashMap.newKeySet();
 
 
     MongoDbManager() {
@@ -133,21 +213,34 @@ public enum MongoDbManager {
                                                                                     Config.INSTANCE.getFoojayMongoDbPassword().toCharArray());
                 mongoClient = MongoClients.create(MongoClientSettings.builder()
                                                                      .applyToClusterSettings(builder -> builder.hosts(Arrays.asList(new ServerAddress(Config.INSTANCE.getFoojayMongoDbUrl(), Config.INSTANCE.getFoojayMongoDbPort()))))
+                                                                     .applyToConnectionPoolSettings(builder -> builder.maxSize(Config.INSTANCE.getFoojayMongoDbMaxPoolSize())
+                                                                                                                      .minSize(Math.min(Config.INSTANCE.getFoojayMongoDbMinPoolSize(), Config.INSTANCE.getFoojayMongoDbMaxPoolSize()))
+                                                                                                                      .maxWaitTime(Config.INSTANCE.getFoojayMongoDbMaxWaitTime(), TimeUnit.MILLISECONDS)
+                                                                                                                      .addConnectionPoolListener(createConnectionPoolListener()))
+                                                                     .applyToSocketSettings(builder -> builder.connectTimeout(Config.INSTANCE.getFoojayMongoDbConnectTimeout(), TimeUnit.MILLISECONDS)
+                                                                                                              .readTimeout(Config.INSTANCE.getFoojayMongoDbSocketTimeout(), TimeUnit.MILLISECONDS))
+                                                                     .compressorList(getCompressors(Config.INSTANCE.getFoojayMongoDbCompressors()))
+                                                                     .addCommandListener(createCommandListener())
                                                                      .credential(credential)
                                                                      .build());
+                syncReadPreference = getReadPreference(Config.INSTANCE.getFoojayMongoDbSyncReadPreference());
 
                 database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
                 connected = true;
                 LOGGER.debug("Established connection to mongodb at {}:{}", Config.INSTANCE.getFoojayMongoDbUrl(), Config.INSTANCE.getFoojayMongoDbPort());
 
-                if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
-                if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
-                if (!collectionExists(database, Constants.EPHEMERAL_IDS_COLLECTION)) { database.createCollection(Constants.EPHEMERAL_IDS_COLLECTION); }
-                if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
-                if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
-                if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
-                if (!collectionExists(database, Constants.SHEDLOCK_COLLECTION)) { database.createCollection(Constants.SHEDLOCK_COLLECTION); }
-
+                initCollections(Constants.STATE_COLLECTION, Constants.PACKAGES_COLLECTION, Constants.EPHEMERAL_IDS_COLLECTION, Constants.DOWNLOADS_COLLECTION,
+                                Constants.DOWNLOADS_USER_AGENT_COLLECTION, Constants.DOWNLOADS_PER_DAY_COLLECTION, Constants.DOWNLOADS_ROLLUP_COLLECTION, Constants.DISTRO_UPDATES_COLLECTION,
+                                Constants.SHEDLOCK_COLLECTION, Constants.UPDATER_STATE_COLLECTION, Constants.SENTINEL_COLLECTION, Constants.MAJOR_VERSIONS_COLLECTION,
+                                Constants.HTTP_VALIDATORS_COLLECTION, Constants.WATERMARKS_COLLECTION);
+
+                createIndexes();
+                HttpValidatorCache.INSTANCE.load(getHttpValidators());
+                HttpValidatorCache.INSTANCE.setPersister(this::upsertHttpValidator);
+                HttpValidatorCache.INSTANCE.setRemover(this::deleteHttpValidator);
+                WatermarkCache.INSTANCE.load(getWatermarks());
+                WatermarkCache.INSTANCE.setPersister(this::upsertWatermark);
+                startDownloadFlush();
                 updateEphemeralIds();
                 setState(State.IDLE);
             } catch (MongoException e) {
@@ -159,6 +252,51 @@ public enum MongoDbManager {
     }
 
 
+    /**
+     * Returns the listener that registers the connection pool metrics of the mongodb driver (mongodb.driver.pool.*)
+     * in the global registry, which contains the registry of the application (see MeterRegistryBinder)
+     * @return the listener that registers the connection pool metrics of the mongodb driver
+     */
+    static ConnectionPoolListener createConnectionPoolListener() { return new MongoMetricsConnectionPoolListener(Metrics.globalRegistry); }
+
+    /**
+     * Returns the listener that registers the command metrics of the mongodb driver (mongodb.driver.commands)
+     * in the global registry, which contains the registry of the application (see MeterRegistryBinder)
+     * @return the listener that registers the command metrics of the mongodb driver
+     */
+    static CommandListener createCommandListener() { return new MongoMetricsCommandListener(Metrics.globalRegistry); }
+
+    /**
+     * Returns the wire compressors for the given comma separated list of compressor names (zstd, snappy, zlib).
+     * Unknown names will be ignored and an empty list disables compression.
+     * @param compressorNames
+     * @return the wire compressors for the given comma separated list of compressor names
+     */
+    private static List<MongoCompressor> getCompressors(final String compressorNames) {
+        final List<MongoCompressor> compressors = new ArrayList<>();
+        if (null == compressorNames || compressorNames.isBlank()) { return compressors; }
+        for (String compressorName : compressorNames.split(COMMA)) {
+            switch (compressorName.trim().toLowerCase(Locale.ENGLISH)) {
+                case "zstd"   -> compressors.add(MongoCompressor.createZstdCompressor());
+                case "snappy" -> compressors.add(MongoCompressor.createSnappyCompressor());
+                case "zlib"   -> compressors.add(MongoCompressor.createZlibCompressor());
+                case ""       -> { }
+                default       -> LOGGER.warn("Unknown mongodb compressor {} will be ignored", compressorName);
+            }
+        }
+        return compressors;
+    }
+
+    private static ReadPreference getReadPreference(final String readPreferenceName) {
+        try {
+            return ReadPreference.valueOf(readPreferenceName.trim());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unknown mongodb read preference {}, will use primary", readPreferenceName);
+            return ReadPreference.primary();
+        }
+    }
+
+
     /**
      * Returns true if connected
      * @return true if connected
@@ -168,45 +306,83 @@ public enum MongoDbManager {
         return init();
     }
 
-    public MongoDatabase getDatabase() {
-        connect();
-        if (!connected) {
+    /**
+     * Returns true if connected to mongodb and the database is available.
+     * Once connected this is a check of two fields without a round trip to the server.
+     * @return true if connected to mongodb and the database is available
+     */
+    private boolean isReady() {
+        if (connected && null != database) { return true; }
+        if (!connect()) {
             LOGGER.debug("MongoDB not connected");
-            return null;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return null;
+            return false;
         }
         if (null == database) {
             LOGGER.error("Database is not set.");
             database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
         }
-        return database;
+        return true;
     }
 
-    public State getState() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned idle state");
-            return State.IDLE;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return state because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return State.IDLE;
+    /**
+     * Returns the collection with the given name from the registry of known collections.
+     * Collections that are not known yet will be created if they do not exist in the database.
+     * @param collectionName
+     * @return the collection with the given name
+     */
+    private MongoCollection<Document> getCollection(final String collectionName) {
+        final MongoCollection<Document> collection = collections.get(collectionName);
+        if (null != collection) { return collection; }
+        return collections.computeIfAbsent(collectionName, name -> {
+            if (!collectionExists(database, name)) { createCollection(name); }
+            return database.getCollection(name);
+        });
+    }
+
+    /**
+     * Returns the given collection with the read preference that is used to sync the cache with the database
+     * @param collectionName
+     * @return the given collection with the read preference that is used to sync the cache with the database
+     */
+    private MongoCollection<Document> getSyncCollection(final String collectionName) {
+        return getCollection(collectionName).withReadPreference(syncReadPreference);
+    }
+
+    /**
+     * Fills the registry of known collections with the given collections (which will be created
+     * if they do not exist) by fetching the names of the existing collections only once.
+     * @param collectionNames
+     */
+    private void initCollections(final String... collectionNames) {
+        collections.clear();
+        knownIndexes.clear();
+        final Set<String> existingCollectionNames = new HashSet<>();
+        database.listCollectionNames().forEach(name -> existingCollectionNames.add(name.toLowerCase()));
+        for (String collectionName : collectionNames) {
+            if (!existingCollectionNames.contains(collectionName.toLowerCase())) { createCollection(collectionName); }
+            collections.put(collectionName, database.getCollection(collectionName));
         }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+    }
+
+    private void createCollection(final String collectionName) {
+        try {
+            database.createCollection(collectionName);
+        } catch (MongoException e) {
+            // Most likely created in the meantime by another instance
+            LOGGER.debug("Collection {} not created. {}", collectionName, e.getMessage());
         }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return State.IDLE;
-        };
-        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+    }
+
+    public MongoDatabase getDatabase() {
+        if (!isReady()) { return null; }
+        return database;
+    }
+
+    public State getState() {
+        if (!isReady()) { return State.IDLE; }
 
         final Instant                   now        = Instant.now();
-        final MongoCollection<Document> collection = database.getCollection(Constants.STATE_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.STATE_COLLECTION);
         Document document = collection.find(eq(FIELD_TYPE, FIELD_STATE)).first();
         if (null == document) {
             collection.updateOne(eq(FIELD_TYPE, FIELD_STATE), combine(set(FIELD_TYPE, FIELD_STATE), set(FIELD_STATE, State.IDLE.name()), set(FIELD_TIMESTAMP, now.getEpochSecond())), new UpdateOptions().upsert(true));
@@ -250,29 +426,9 @@ public enum MongoDbManager {
         }
     }
     public String getStateJson() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned idle state");
-            return null;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return state because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return null;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return null;
-        };
-
-        if (!collectionExists(database, Constants.STATE_COLLECTION)) {
-            database.createCollection(Constants.STATE_COLLECTION);
-        }
+        if (!isReady()) { return null; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.STATE_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.STATE_COLLECTION);
         Document document = collection.find(eq(FIELD_TYPE, FIELD_STATE)).first();
         if (null == document) {
             return null;
@@ -281,49 +437,15 @@ public enum MongoDbManager {
         }
     }
     public void setState(final State state) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, state not set");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot set state because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return;
-        };
-        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
-        database.getCollection(Constants.STATE_COLLECTION)
+        if (!isReady()) { return; }
+        getCollection(Constants.STATE_COLLECTION)
                 .updateOne(eq(FIELD_TYPE, FIELD_STATE), combine(set(FIELD_TYPE, FIELD_STATE), set(FIELD_STATE, state.name()), set(FIELD_TIMESTAMP, Instant.now().getEpochSecond())), new UpdateOptions().upsert(true));
     }
 
     public UpdaterState getUpdaterState() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned idle state");
-            return UpdaterState.OFFLINE;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return state because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return UpdaterState.OFFLINE;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.UPDATER_STATE_COLLECTION) {
-            LOGGER.error("Constants.UPDATER_STATE_COLLECTION not set.");
-            return UpdaterState.OFFLINE;
-        }
-        if (!collectionExists(database, Constants.UPDATER_STATE_COLLECTION)) { database.createCollection(Constants.UPDATER_STATE_COLLECTION); }
+        if (!isReady()) { return UpdaterState.OFFLINE; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.UPDATER_STATE_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.UPDATER_STATE_COLLECTION);
         Document document = collection.find(eq(FIELD_TYPE, FIELD_STATE)).first();
         if (null == document) {
             return UpdaterState.OFFLINE;
@@ -341,33 +463,46 @@ public enum MongoDbManager {
     }
 
     /**
-     * Returns list of all packages in the packages collection
+     * Returns list of all packages in the packages collection.
+     * The collection is read in partitions (one per distribution) which are fetched and parsed concurrently.
      * @return list of all packages in the packages collection
      */
     public List<Pkg> getPkgs() {
         final long start = System.currentTimeMillis();
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of packages");
-            return new ArrayList<>();
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return new ArrayList<>();
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.BUNDLES_COLLECTION not set.");
-            return new ArrayList<>();
-        };
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
-
-        final MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        final List<Pkg>                 result     = new ArrayList<>();
-        final MongoCursor<Document>     cursor     = collection.find().iterator();
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final MongoCollection<Document>          collection = getSyncCollection(Constants.PACKAGES_COLLECTION);
+        final List<Distro>                       distros    = Distro.getAsListWithoutNoneAndNotFound();
+        final List<Bson>                         partitions = new ArrayList<>(distros.size() + 1);
+        distros.forEach(distro -> partitions.add(eq(PkgField.DISTRIBUTION.fieldName(), distro.getApiString())));
+        // Packages with an unknown distribution
+        partitions.add(nin(PkgField.DISTRIBUTION.fieldName(), distros.stream().map(Distro::getApiString).collect(Collectors.toList())));
+
+        final ExecutorService                    executor   = getWorkerExecutor();
+        final List<CompletableFuture<List<Pkg>>> futures    = partitions.stream()
+                                                                        .map(filter -> CompletableFuture.supplyAsync(() -> readPkgs(collection, filter), executor))
+                                                                        .collect(Collectors.toList());
+        final List<Pkg>                          result     = new ArrayList<>();
+        // join() rethrows errors of a partition to not return an incomplete list of packages
+        futures.forEach(future -> result.addAll(future.join()));
+
+        LOGGER.debug("Successfully returned {} packages from mongodb in {} ms.", result.size(), (System.currentTimeMillis() - start));
+        return result;
+    }
+
+    public List<Pkg> getPkgsForDistro(final Distro distro) {
+        final long start = System.currentTimeMillis();
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final MongoCollection<Document> collection = getCollection(Constants.PACKAGES_COLLECTION);
+        final List<Pkg>                 result     = readPkgs(collection, eq(PkgField.DISTRIBUTION.fieldName(), distro.getApiString()));
+        LOGGER.debug("Successfully returned {} packages for distribution {} from mongodb in {} ms.", result.size(), distro.name(), (System.currentTimeMillis() - start));
+        return result;
+    }
+
+    private List<Pkg> readPkgs(final MongoCollection<Document> collection, final Bson filter) {
+        final List<Pkg>             result = new ArrayList<>();
+        final MongoCursor<Document> cursor = collection.find(filter).batchSize(PKG_CURSOR_BATCH_SIZE).iterator();
         try {
             while(cursor.hasNext()) {
                 Document document = cursor.next();
@@ -381,82 +516,83 @@ public enum MongoDbManager {
         } finally {
             cursor.close();
         }
-
-        LOGGER.debug("Successfully returned {} packages from mongodb in {} ms.", result.size(), (System.currentTimeMillis() - start));
         return result;
     }
 
-    public List<Pkg> getPkgsForDistro(final Distro distro) {
+    /**
+     * Returns the packages with the given ids. The ids are queried in chunks.
+     * @param pkgIds
+     * @return the packages with the given ids
+     */
+    public List<Pkg> getPkgs(final Collection<String> pkgIds) {
         final long start = System.currentTimeMillis();
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of packages");
-            return new ArrayList<>();
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return new ArrayList<>();
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.BUNDLES_COLLECTION not set.");
-            return new ArrayList<>();
-        };
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
-
-        final MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        final List<Pkg>                 result     = new ArrayList<>();
-        final MongoCursor<Document>     cursor     = collection.find(eq(PkgField.DISTRIBUTION.fieldName(), distro.getApiString())).iterator();
-        try {
-            while(cursor.hasNext()) {
-                Document document = cursor.next();
+        if (null == pkgIds || pkgIds.isEmpty()) { return new ArrayList<>(); }
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final MongoCollection<Document> collection = getSyncCollection(Constants.PACKAGES_COLLECTION);
+        final List<Pkg>                 result     = new ArrayList<>(pkgIds.size());
+        for (List<String> chunk : new Partition<>(pkgIds, Config.INSTANCE.getFoojayMongoDbBulkSize())) {
+            collection.find(in(FIELD_PACKAGE_ID, chunk)).forEach(document -> {
                 try {
-                    Pkg pkg = new Pkg(document.toJson());
-                    result.add(pkg);
+                    result.add(new Pkg(document.toJson()));
                 } catch (Exception e) {
                     LOGGER.error("Error creating pkg from {}", document.toJson());
                 }
-            }
-        } finally {
-            cursor.close();
+            });
         }
-        LOGGER.debug("Successfully returned {} packages for distribution {} from mongodb in {} ms.", result.size(), distro.name(), (System.currentTimeMillis() - start));
+        LOGGER.debug("Successfully returned {} of {} requested packages from mongodb in {} ms.", result.size(), pkgIds.size(), (System.currentTimeMillis() - start));
         return result;
     }
 
+    /**
+     * Returns the ids of all packages, only the id field will be fetched from the database
+     * @return the ids of all packages
+     */
+    public List<String> getPkgIds() {
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final List<String> pkgIds = new ArrayList<>();
+        getCollection(Constants.PACKAGES_COLLECTION)
+                .find()
+                .projection(fields(include(FIELD_PACKAGE_ID), excludeId()))
+                .forEach(document -> pkgIds.add(document.getString(FIELD_PACKAGE_ID)));
+        return pkgIds;
+    }
+
+    /**
+     * Returns a map with the id of all packages as key and their stored content fingerprint as value.
+     * The value is null for packages that have been stored without a fingerprint.
+     * Only the id and fingerprint fields will be fetched from the database.
+     * @return a map with the id of all packages as key and their stored content fingerprint as value
+     */
+    public Map<String, Long> getPkgFingerprints() {
+        if (!isReady()) { return new HashMap<>(); }
+
+        final Map<String, Long> fingerprints = new HashMap<>();
+        getSyncCollection(Constants.PACKAGES_COLLECTION)
+                .find()
+                .projection(fields(include(FIELD_PACKAGE_ID, PkgField.FINGERPRINT.fieldName()), excludeId()))
+                .forEach(document -> {
+                    final Object fingerprint = document.get(PkgField.FINGERPRINT.fieldName());
+                    fingerprints.put(document.getString(FIELD_PACKAGE_ID), fingerprint instanceof Long ? (Long) fingerprint : null);
+                });
+        return fingerprints;
+    }
+
     /**
      * Inserts given list of packages to packages collection
      * @param pkgs
      */
     public void insertAllPkgs(final Collection<Pkg> pkgs) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages inserted");
-            return;
-        }
+        if (!isReady()) { return; }
         if (null == pkgs || pkgs.isEmpty()) {
             LOGGER.debug("Packages are null or empty.");
             return;
         }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Packages not inserted because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.BUNDLES_COLLECTION not set.");
-            return;
-        }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        final List<Document>            documents  = new ArrayList<>();
+        final MongoCollection<Document> collection  = getCollection(Constants.PACKAGES_COLLECTION);
+        final Set<String>               existingIds = getExistingIds(collection, pkgs.stream().map(Pkg::getId).collect(Collectors.toList()));
+        final List<Document>            documents   = new ArrayList<>();
         pkgs.stream()
             .filter(pkg -> !pkg.getArchitecture().getApiString().isEmpty())
             .filter(pkg -> !pkg.getArchiveType().getApiString().isEmpty())
@@ -467,48 +603,48 @@ public enum MongoDbManager {
             .filter(pkg -> !pkg.getFilename().isEmpty())
             .forEach(pkg -> {
                 try {
-                    long count = collection.countDocuments(new BsonDocument(FIELD_PACKAGE_ID, new BsonString(pkg.getId())));
-                    if (count == 0) { documents.add(Document.parse(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3))); }
+                    // existingIds also prevents inserting the same pkg twice from the given collection
+                    if (existingIds.add(pkg.getId())) { documents.add(Document.parse(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3)).append(PkgField.FINGERPRINT.fieldName(), pkg.getFingerprint())); }
                 } catch (JsonParseException e) {
                     LOGGER.error("Error parsing json when adding package {}. {}", pkg.getId(), e);
                 }
             });
+        if (documents.isEmpty()) {
+            LOGGER.debug("No new packages to insert to mongodb.");
+            return;
+        }
 
-        collection.insertMany(documents);
-        LOGGER.debug("Successfully inserted {} packages to mongodb.", pkgs.size());
+        int duplicates = 0;
+        try {
+            // Unordered so that a pkg that was inserted in the meantime (unique index on id) does not stop the others
+            collection.insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            duplicates = (int) e.getWriteErrors().stream().filter(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY).count();
+            if (duplicates < e.getWriteErrors().size()) {
+                LOGGER.error("Error inserting {} packages to mongodb. {}", e.getWriteErrors().size() - duplicates, e.getMessage());
+            }
+        }
+        LOGGER.debug("Successfully inserted {} packages to mongodb ({} already existed).", documents.size() - duplicates, pkgs.size() - documents.size() + duplicates);
     }
 
     /**
-     * Upsert the given list of packages to the packages collection where existing packages will be updated
+     * Upsert the given list of packages to the packages collection where existing packages will be updated.
+     * Staged watermarks and http validators are committed by the UpdateManager (see updateDistros()).
      * @param pkgs
-     * @return true when packages have been added successfully
+     * @return true when all packages have been added successfully
      */
     public boolean upsertPkgs(final Collection<Pkg> pkgs) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages added");
-            return false;
-        }
+        if (!isReady()) { return false; }
         if (null == pkgs || pkgs.isEmpty()) {
             LOGGER.debug("Packages are null or empty.");
             return false;
         }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("New packages not added because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return false;
-        }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        ReplaceOptions replaceOptions = new ReplaceOptions().upsert(true);
+        MongoCollection<Document>  collection     = getCollection(Constants.PACKAGES_COLLECTION);
+        ReplaceOptions             replaceOptions = new ReplaceOptions().upsert(true);
+        Map<String, Long>          fingerprints   = getFingerprints(collection, pkgs.stream().map(Pkg::getId).collect(Collectors.toList()));
+        AtomicInteger              skipped        = new AtomicInteger(0);
+        List<WriteModel<Document>> writes         = new ArrayList<>();
         pkgs.stream()
             .filter(pkg -> !pkg.getArchitecture().getApiString().isEmpty())
             .filter(pkg -> !pkg.getArchiveType().getApiString().isEmpty())
@@ -519,14 +655,38 @@ public enum MongoDbManager {
             .filter(pkg -> !pkg.getFilename().isEmpty())
             .forEach(pkg -> {
             try {
-                Document document = Document.parse(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3));
-                collection.replaceOne(eq(FIELD_PACKAGE_ID, pkg.getId()), document, replaceOptions);
+                final String id          = pkg.getId();
+                final long   fingerprint = pkg.getFingerprint();
+                // Skip pkgs that did not change since they have been written the last time
+                if (fingerprints.containsKey(id) && fingerprints.get(id) == fingerprint) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                Document document = Document.parse(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3)).append(PkgField.FINGERPRINT.fieldName(), fingerprint);
+                writes.add(new ReplaceOneModel<>(eq(FIELD_PACKAGE_ID, id), document, replaceOptions));
             } catch (JsonParseException e) {
                 LOGGER.error("Error parsing json when adding package {}. {}", pkg.getId(), e.getMessage());
             }
         });
-        LOGGER.debug("Successfully added {} new packages to mongodb.", pkgs.size());
-        return true;
+        final int failed = bulkWrite(collection, writes, "upsert packages");
+        LOGGER.debug("Successfully added {} new packages to mongodb ({} unchanged packages skipped, {} failed).", writes.size() - failed, skipped.get(), failed);
+        return 0 == failed;
+    }
+
+    /**
+     * Upserts the given packages that were fetched for the given distribution. An update without packages
+     * counts as persisted if the database is available. The UpdateManager commits the staged watermarks and
+     * http validators of the distribution once this returned true.
+     * @param distro
+     * @param pkgs the packages that were fetched for the distribution (can be empty)
+     * @return true when the packages have been persisted successfully
+     */
+    public boolean upsertPkgs(final Distro distro, final Collection<Pkg> pkgs) {
+        if (null == pkgs || pkgs.isEmpty()) {
+            LOGGER.debug("No packages of {} to upsert.", distro.getApiString());
+            return isReady();
+        }
+        return upsertPkgs(pkgs);
     }
 
     /**
@@ -535,39 +695,16 @@ public enum MongoDbManager {
      * @return true when packages have been removed successfully
      */
     public boolean removePkgs(final Collection<Pkg> pkgs) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages have been removed");
-            return false;
-        }
+        if (!isReady()) { return false; }
         if (null == pkgs || pkgs.isEmpty()) {
             LOGGER.debug("Packages are null or empty.");
             return false;
         }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Packages have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return false;
-        }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        for (Pkg pkg : pkgs) {
-            try {
-                Bson deleteFilter = eq(PkgField.FILENAME.fieldName(), pkg.getFilename());
-                collection.deleteOne(deleteFilter);
-            } catch (JsonParseException e) {
-                LOGGER.error("Error when deleting package {}. {}", pkg.getId(), e.getMessage());
-            }
-        }
-        LOGGER.debug("Successfully deleted {} packages from mongodb.", pkgs.size());
+        MongoCollection<Document>  collection = getCollection(Constants.PACKAGES_COLLECTION);
+        List<WriteModel<Document>> writes     = pkgs.stream().map(pkg -> new DeleteOneModel<Document>(eq(PkgField.FILENAME.fieldName(), pkg.getFilename()))).collect(Collectors.toList());
+        final int failed = bulkWrite(collection, writes, "remove packages");
+        LOGGER.debug("Successfully deleted {} packages from mongodb ({} failed).", pkgs.size() - failed, failed);
         return true;
     }
 
@@ -578,26 +715,9 @@ public enum MongoDbManager {
      * @return true when all documents have been removed successfully
      */
     public boolean removeAllPkgs() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages have been removed");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Packages have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.PACKAGES_COLLECTION);
         collection.deleteMany(new Document());
 
         LOGGER.debug("Successfully deleted all packages from mongodb.");
@@ -610,74 +730,34 @@ public enum MongoDbManager {
      * @return a map with the packageId as key and the number of downloads as value
      */
     public Map<String, Long> getDowloads() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, return empty map of downloads");
-            return new HashMap<>();
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return downloads because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return new HashMap<>();
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_COLLECTION not set.");
-            return new HashMap<>();
-        };
-        if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
+        if (!isReady()) { return new HashMap<>(); }
 
         final Map<String, Long>  downloads        = new ConcurrentHashMap<>();
         final Consumer<Document> downloadConsumer = document -> downloads.put(document.getString(FIELD_PACKAGE_ID), ((Number) document.get(FIELD_DOWNLOADS)).longValue());
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_COLLECTION);
-        collection.find().forEach(downloadConsumer);
+        final MongoCollection<Document> collection = getCollection(Constants.DOWNLOADS_COLLECTION);
+        collection.find().projection(fields(include(FIELD_PACKAGE_ID, FIELD_DOWNLOADS), excludeId())).batchSize(EXPORT_CURSOR_BATCH_SIZE).forEach(downloadConsumer);
 
         LOGGER.debug("Successfully restored downloads for {} package ids from mongodb.", downloads.size());
         return downloads;
     }
 
     /**
-     * Returns a json string that contains all entries within the given range of timestamps
+     * Returns a json string that contains all entries within the given range of timestamps.
+     * The whole result is built in memory, use streamPkgDownloadsInclUserAgent() for large ranges.
      * @param from epoch seconds from where to include
      * @param to epoch seconds to where
      * @return a json string that contains all entries within the given range of timestamps
      */
     public String getPkgDownloadsInclUserAgent(final Long from, final Long to) {
-        Long start = null == from ? Instant.MIN.getEpochSecond() : from;
-        Long end   = null == to   ? Instant.MAX.getEpochSecond() : to;
-        if (null != from && null != to) {
-            if (from > to) { start = Instant.MIN.getEpochSecond(); }
-            if (to < from) { end = Instant.MAX.getEpochSecond(); }
-        }
-
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, return empty map of downloads");
-            return CURLY_BRACKET_OPEN + CURLY_BRACKET_CLOSE;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return downloads because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return CURLY_BRACKET_OPEN + CURLY_BRACKET_CLOSE;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION not set.");
-            return CURLY_BRACKET_OPEN + CURLY_BRACKET_CLOSE;
-        }
-        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+        if (!isReady()) { return CURLY_BRACKET_OPEN + CURLY_BRACKET_CLOSE; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
 
         final StringBuilder      msgBuilder       = new StringBuilder();
         final Consumer<Document> downloadConsumer = document -> msgBuilder.append(document.toJson()).append(COMMA_NEW_LINE);
 
-        collection.find(and(gte(FIELD_TIMESTAMP, start), lte(FIELD_TIMESTAMP, end))).forEach(downloadConsumer);
+        collection.find(getTimestampFilter(from, to)).forEach(downloadConsumer);
         if (msgBuilder.length() > 2) {
             msgBuilder.setLength(msgBuilder.length() - 2);
         }
@@ -691,137 +771,248 @@ public enum MongoDbManager {
      * @param noOfDownloads
      */
     public void upsertDownloadForId(final String pkgId, final Long noOfDownloads) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages updated");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not upsert download because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_COLLECTION not set.");
-            return;
-        }
-        if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
+        if (!isReady()) { return; }
 
-        database.getCollection(Constants.DOWNLOADS_COLLECTION)
+        getCollection(Constants.DOWNLOADS_COLLECTION)
                 .updateOne(eq(FIELD_PACKAGE_ID, pkgId), combine(set(FIELD_PACKAGE_ID, pkgId), set(FIELD_DOWNLOADS, noOfDownloads)), new UpdateOptions().upsert(true));
 
         LOGGER.debug("Successfully updated no of downloads for id {}", pkgId);
     }
 
+    /**
+     * Adds a download for the given package id. The download will only be counted in memory
+     * and written to the database with the next flush.
+     * @param pkgId
+     */
+    public void addDownloadForId(final String pkgId) {
+        downloadCounter.addDownload(pkgId);
+    }
+
+    /**
+     * Adds a download incl. user agent. The download will only be queued in memory
+     * and written to the database with the next flush.
+     * @param pkgId
+     * @param userAgent
+     * @param countryCode
+     */
     public void addDownloadFromUserAgent(final String pkgId, final String userAgent, final String countryCode) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages updated");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not upsert download because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION not set.");
-            return;
+        if (!downloadCounter.addUserAgentDownload(pkgId, userAgent, countryCode, Instant.now().getEpochSecond())) { return; }
+        // Flush early if the queue is filling up faster than the flush interval
+        if (downloadCounter.getNoOfQueuedUserAgentDownloads() >= Config.INSTANCE.getFoojayMongoDbBulkSize() && null != downloadFlushExecutor && downloadFlushRequested.compareAndSet(false, true)) {
+            downloadFlushExecutor.execute(this::flushDownloads);
         }
-        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
-
-        Document document = new Document();
-        document.append(FIELD_PACKAGE_ID, pkgId);
-        document.append(FIELD_USER_AGENT, userAgent);
-        document.append(FIELD_COUNTRY_CODE, countryCode);
-        document.append(FIELD_TIMESTAMP, Instant.now().getEpochSecond());
-
-        database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION).insertOne(document);
-
-        LOGGER.debug("Successfully added download for id {} and user-agent {}", pkgId, userAgent);
     }
 
+    /**
+     * Adds a download of the given distro and major version to the downloads of today. The download will
+     * only be counted in memory and written to the database with the next flush.
+     * @param distro
+     * @param majorVersion
+     */
     public void addDownloadToToday(final Distro distro, final int majorVersion) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, downloads per distro not set.");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not upsert update because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_PER_DAY_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_PER_DAY_COLLECTION not set.");
-            return;
-        }
-        if (!collectionExists(database, Constants.DOWNLOADS_PER_DAY_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION); }
+        downloadCounter.addDownloadToDay(DateTimeFormatter.ISO_LOCAL_DATE.format(ZonedDateTime.now()), distro.getApiString(), majorVersion);
+    }
 
-        final String featureVersion = Integer.toString(majorVersion);
-        final String day            = DateTimeFormatter.ISO_LOCAL_DATE.format(ZonedDateTime.now());
+    /**
+     * Writes the downloads that have been aggregated in memory since the last flush to the database.
+     * Counters are written with atomic $inc upserts in bulk writes, counts of failed writes will be
+     * kept in memory for the next flush.
+     */
+    public void flushDownloads() {
+        downloadFlushRequested.set(false);
+        if (!isReady()) { return; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION);
+        final long start = System.currentTimeMillis();
 
-        Document dayDoc = collection.find(eq(FIELD_DAY, day)).first();
-        if (null == dayDoc) {
-            dayDoc = new Document();
+        // Downloads per package
+        final Map<String, Long>          downloadsPerPkg = downloadCounter.drainDownloadsPerPkg();
+        final List<WriteModel<Document>> pkgWrites       = new ArrayList<>(downloadsPerPkg.size());
+        final List<Runnable>             pkgRestores     = new ArrayList<>(downloadsPerPkg.size());
+        downloadsPerPkg.forEach((pkgId, noOfDownloads) -> {
+            pkgWrites.add(new UpdateOneModel<>(eq(FIELD_PACKAGE_ID, pkgId), inc(FIELD_DOWNLOADS, noOfDownloads), new UpdateOptions().upsert(true)));
+            pkgRestores.add(() -> downloadCounter.restoreDownloadsPerPkg(Map.of(pkgId, noOfDownloads)));
+        });
+        writeCounts(getCollection(Constants.DOWNLOADS_COLLECTION), pkgWrites, pkgRestores, "downloads per package");
+
+        // Downloads per day, one update per day that increments all distros and versions of that day
+        final String                         today          = DateTimeFormatter.ISO_LOCAL_DATE.format(ZonedDateTime.now());
+        final Map<String, Map<DayKey, Long>> downloadsByDay = new HashMap<>();
+        downloadCounter.drainDownloadsPerDay(today).forEach((key, noOfDownloads) -> downloadsByDay.computeIfAbsent(key.getDay(), day -> new HashMap<>()).put(key, noOfDownloads));
+        final List<WriteModel<Document>>     dayWrites      = new ArrayList<>(downloadsByDay.size());
+        final List<Runnable>                 dayRestores    = new ArrayList<>(downloadsByDay.size());
+        downloadsByDay.forEach((day, downloads) -> {
+            final Map<String, Long> increments = new HashMap<>();
+            downloads.forEach((key, noOfDownloads) -> {
+                final String distroField = FIELD_DISTRIBUTIONS + "." + key.getDistro();
+                increments.merge(distroField + "." + FIELD_DOWNLOADS, noOfDownloads, Long::sum);
+                increments.merge(distroField + "." + FIELD_VERSION + "." + key.getMajorVersion(), noOfDownloads, Long::sum);
+            });
+            dayWrites.add(new UpdateOneModel<>(eq(FIELD_DAY, day), combine(increments.entrySet().stream().map(entry -> inc(entry.getKey(), toIncValue(entry.getValue()))).collect(Collectors.toList())), new UpdateOptions().upsert(true)));
+            dayRestores.add(() -> downloadCounter.restoreDownloadsPerDay(downloads));
+        });
+        writeCounts(getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION), dayWrites, dayRestores, "downloads per day");
+
+        // Downloads incl. user agent, drained in batches to keep the memory bounded
+        final MongoCollection<Document> userAgentCollection = getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        int noOfUserAgentDownloads = 0;
+        List<UserAgentDownload> userAgentDownloads;
+        while (!(userAgentDownloads = downloadCounter.drainUserAgentDownloads(Config.INSTANCE.getFoojayMongoDbBulkSize())).isEmpty()) {
+            final List<WriteModel<Document>> inserts = userAgentDownloads.stream()
+                                                                         .map(download -> new InsertOneModel<>(new Document().append(FIELD_PACKAGE_ID, download.getPkgId())
+                                                                                                                             .append(FIELD_USER_AGENT, download.getUserAgent())
+                                                                                                                             .append(FIELD_COUNTRY_CODE, download.getCountryCode())
+                                                                                                                             .append(FIELD_TIMESTAMP, download.getTimestamp())))
+                                                                         .collect(Collectors.toList());
+            noOfUserAgentDownloads += inserts.size() - bulkWrite(userAgentCollection, inserts, "downloads incl. user agent");
+        }
+        final long dropped = downloadCounter.getAndResetNoOfDroppedUserAgentDownloads();
+        if (dropped > 0) { LOGGER.warn("Dropped {} downloads incl. user agent because the queue was full", dropped); }
+
+        LOGGER.debug("Successfully flushed downloads of {} packages, {} days and {} downloads incl. user agent in {} ms", downloadsPerPkg.size(), downloadsByDay.size(), noOfUserAgentDownloads, (System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Stops the periodic flush and rollup of the downloads, writes the remaining downloads to the
+     * database and stops the mongodb worker threads.
+     */
+    public void shutdown() {
+        final ScheduledExecutorService flushExecutor;
+        final ScheduledExecutorService rollupExecutor;
+        synchronized (this) {
+            flushExecutor          = downloadFlushExecutor;
+            rollupExecutor         = downloadRollupExecutor;
+            downloadFlushExecutor  = null;
+            downloadRollupExecutor = null;
+        }
+        // A running rollup will not be awaited, it will be repeated with the next start
+        if (null != rollupExecutor) { rollupExecutor.shutdownNow(); }
+        if (null != flushExecutor) {
+            flushExecutor.shutdown();
+            try {
+                if (!flushExecutor.awaitTermination(30, TimeUnit.SECONDS)) { flushExecutor.shutdownNow(); }
+            } catch (InterruptedException e) {
+                flushExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
         }
+        flushDownloads();
 
-        Document distributionsDoc;
-        if (dayDoc.containsKey(FIELD_DISTRIBUTIONS)) {
-            distributionsDoc = (Document) dayDoc.get(FIELD_DISTRIBUTIONS);
-            Document distroDoc;
-            int     numberOfAllDownloads = 0;
-            Document versionsDoc;
-            int     downloadsPerVersion = 0;
-            if (distributionsDoc.containsKey(distro.getApiString())) {
-                distroDoc = (Document) distributionsDoc.get(distro.getApiString());
-                if (distroDoc.containsKey(FIELD_DOWNLOADS)) {
-                    numberOfAllDownloads = distroDoc.getInteger(FIELD_DOWNLOADS);
-                }
-                if (distroDoc.containsKey(FIELD_VERSION)) {
-                    versionsDoc = (Document) distroDoc.get(FIELD_VERSION);
-                    if (versionsDoc.containsKey(featureVersion)) {
-                        downloadsPerVersion = versionsDoc.getInteger(featureVersion);
-                    }
-                } else {
-                    versionsDoc = new Document();
-                }
-                versionsDoc.put(featureVersion, downloadsPerVersion + 1);
-            } else {
-                versionsDoc = new Document();
-                versionsDoc.put(featureVersion, downloadsPerVersion + 1);
-                distroDoc = new Document();
+        synchronized (this) {
+            if (null != workerExecutor) {
+                workerExecutor.shutdown();
+                workerExecutor = null;
             }
-            distroDoc.put(FIELD_DOWNLOADS, numberOfAllDownloads + 1);
-            distroDoc.put(FIELD_VERSION, versionsDoc);
+        }
+        LOGGER.debug("Successfully shut down mongodb manager");
+    }
 
-            distributionsDoc.append(distro.getApiString(), distroDoc);
-        } else {
-            Document versions = new Document();
-            versions.put(featureVersion, 1);
+    /**
+     * Starts the periodic flush of the downloads and the periodic rollup of the downloads incl. user agent.
+     * The rollup runs on its own thread so that a long running aggregation does not delay the flushes.
+     */
+    private synchronized void startDownloadFlush() {
+        if (null != downloadFlushExecutor) { return; }
+        final int interval = Config.INSTANCE.getFoojayDownloadsFlushInterval();
+        downloadFlushExecutor  = createScheduledExecutor("mongodb-download-flush");
+        downloadRollupExecutor = createScheduledExecutor("mongodb-download-rollup");
+        // Exceptions are caught because a periodic task that throws will not be executed again
+        downloadFlushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flushDownloads();
+            } catch (RuntimeException e) {
+                LOGGER.error("Error flushing downloads to mongodb. {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        // Yesterday is rolled up as well to include the downloads that have been flushed after midnight
+        downloadRollupExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                final LocalDate today = LocalDate.now();
+                rollupDownloads(today.minusDays(1));
+                rollupDownloads(today);
+            } catch (RuntimeException e) {
+                LOGGER.error("Error rolling up downloads in mongodb. {}", e.getMessage());
+            }
+        }, 1, Constants.DOWNLOADS_ROLLUP_INTERVAL_IN_MINUTES, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "mongodb-shutdown"));
+    }
 
-            Document distroDoc = new Document();
-            distroDoc.put(FIELD_DOWNLOADS, 1);
-            distroDoc.put(FIELD_VERSION, versions);
+    private static ScheduledExecutorService createScheduledExecutor(final String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-            distributionsDoc = new Document();
-            distributionsDoc.put(distro.getApiString(), distroDoc);
+    /**
+     * Executes the given counter writes in unordered bulk writes and calls the restore action of every
+     * write that failed so that its counts will be part of the next flush.
+     * @param collection
+     * @param writes
+     * @param restores restore action per write (same order as the writes)
+     * @param operation
+     */
+    private void writeCounts(final MongoCollection<Document> collection, final List<WriteModel<Document>> writes, final List<Runnable> restores, final String operation) {
+        if (writes.isEmpty()) { return; }
+        final BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+        final int              size    = Config.INSTANCE.getFoojayMongoDbBulkSize();
+        for (int offset = 0 ; offset < writes.size() ; offset += size) {
+            final int                        end   = Math.min(offset + size, writes.size());
+            final List<WriteModel<Document>> batch = writes.subList(offset, end);
+            try {
+                collection.bulkWrite(batch, options);
+            } catch (MongoBulkWriteException e) {
+                final int batchOffset = offset;
+                e.getWriteErrors().forEach(error -> restores.get(batchOffset + error.getIndex()).run());
+                LOGGER.error("Bulk write {}: {} of {} writes failed. {}", operation, e.getWriteErrors().size(), batch.size(), e.getMessage());
+            } catch (MongoException e) {
+                restores.subList(offset, end).forEach(Runnable::run);
+                LOGGER.error("Bulk write {} failed. {}", operation, e.getMessage());
+            }
         }
-        dayDoc.put(day, distributionsDoc);
+    }
 
-        collection.updateOne(eq(FIELD_DAY, day), combine(set(FIELD_DISTRIBUTIONS, distributionsDoc)), new UpdateOptions().upsert(true));
-        LOGGER.debug("Successfully added download to distro {} to database", distro.getName());
+    private static Bson getTimestampFilter(final Long from, final Long to) {
+        Long start = null == from ? Instant.MIN.getEpochSecond() : from;
+        Long end   = null == to   ? Instant.MAX.getEpochSecond() : to;
+        if (null != from && null != to) {
+            if (from > to) { start = Instant.MIN.getEpochSecond(); }
+            if (to < from) { end = Instant.MAX.getEpochSecond(); }
+        }
+        return and(gte(FIELD_TIMESTAMP, start), lte(FIELD_TIMESTAMP, end));
+    }
+
+    /**
+     * Returns an expression that evaluates to the first element of the given array field or the given default value
+     * @param arrayField
+     * @param defaultValue
+     * @return an expression that evaluates to the first element of the given array field or the given default value
+     */
+    private static Document firstOrDefault(final String arrayField, final Object defaultValue) {
+        return new Document("$ifNull", Arrays.asList(new Document("$arrayElemAt", Arrays.asList("$" + arrayField, 0)), defaultValue));
+    }
+
+    private static long writeNdJson(final FindIterable<Document> documents, final Writer writer) throws IOException {
+        long count = 0;
+        try (MongoCursor<Document> cursor = documents.batchSize(EXPORT_CURSOR_BATCH_SIZE).iterator()) {
+            while (cursor.hasNext()) {
+                writer.write(cursor.next().toJson());
+                writer.write('\n');
+                // Hand every chunk over to the writer to keep the memory bounded
+                if (++count % EXPORT_CURSOR_BATCH_SIZE == 0) { writer.flush(); }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Returns the given value as int if possible to keep the type of existing counters in the database
+     * @param value
+     * @return the given value as int if possible, otherwise as long
+     */
+    private static Number toIncValue(final long value) {
+        return value <= Integer.MAX_VALUE ? (Number) (int) value : (Number) value;
     }
 
     public String getDownloadsPerDay(final Set<ZonedDateTime> days) {
@@ -831,26 +1022,9 @@ public enum MongoDbManager {
         }
         List<String> daysToFetch = days.stream().map(day -> DateTimeFormatter.ISO_LOCAL_DATE.format(day)).collect(Collectors.toList());
 
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of downloads");
-            return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_PER_DAY_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_PER_DAY_COLLECTION not set.");
-            return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
-        };
-        if (!collectionExists(database, Constants.DOWNLOADS_PER_DAY_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION); }
+        if (!isReady()) { return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION);
 
         StringBuilder msgBuilder = new StringBuilder();
         msgBuilder.append(SQUARE_BRACKET_OPEN);
@@ -858,86 +1032,167 @@ public enum MongoDbManager {
             msgBuilder.append(document.toJson());
             msgBuilder.append(COMMA);
         });
+        if (msgBuilder.length() > 1) { msgBuilder.setLength(msgBuilder.length() - 1); }
         msgBuilder.append(SQUARE_BRACKET_CLOSE);
         return msgBuilder.toString();
     }
 
-    public void updateLatestBuildAvailable(final List<Pkg> pkgs) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no packages updated");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not update latest build available because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return;
+    /**
+     * Writes all downloads incl. user agent within the given range of timestamps as newline delimited json
+     * (one document per line) to the given writer. The documents are streamed from the cursor in chunks
+     * and never kept in memory as a whole.
+     * @param from epoch seconds from where to include
+     * @param to epoch seconds to where
+     * @param writer
+     * @return the number of documents written
+     * @throws IOException
+     */
+    public long streamPkgDownloadsInclUserAgent(final Long from, final Long to, final Writer writer) throws IOException {
+        if (!isReady()) { return 0; }
+        return writeNdJson(getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION).find(getTimestampFilter(from, to)).projection(excludeId()), writer);
+    }
+
+    /**
+     * Writes the downloads of the given days as newline delimited json (one document per line) to the given writer
+     * @param days
+     * @param writer
+     * @return the number of documents written
+     * @throws IOException
+     */
+    public long streamDownloadsPerDay(final Set<ZonedDateTime> days, final Writer writer) throws IOException {
+        if (!isReady()) { return 0; }
+        final List<String> daysToFetch = days.stream().map(day -> DateTimeFormatter.ISO_LOCAL_DATE.format(day)).collect(Collectors.toList());
+        final Bson         filter      = daysToFetch.isEmpty() ? new Document() : in(FIELD_DAY, daysToFetch);
+        return writeNdJson(getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION).find(filter).projection(excludeId()), writer);
+    }
+
+    /**
+     * Returns the given number of packages with the most downloads (sorted and limited in the database)
+     * @param limit
+     * @return a json string that contains the package ids with the most downloads
+     */
+    public String getMostDownloadedPkgs(final int limit) {
+        if (!isReady()) { return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE; }
+        final List<String> documents = new ArrayList<>();
+        getCollection(Constants.DOWNLOADS_COLLECTION).find()
+                                                     .projection(fields(include(FIELD_PACKAGE_ID, FIELD_DOWNLOADS), excludeId()))
+                                                     .sort(descending(FIELD_DOWNLOADS))
+                                                     .limit(Math.max(1, limit))
+                                                     .forEach(document -> documents.add(document.toJson()));
+        return SQUARE_BRACKET_OPEN + String.join(COMMA, documents) + SQUARE_BRACKET_CLOSE;
+    }
+
+    /**
+     * Aggregates the downloads incl. user agent of the given day by distro, major version and country
+     * in the database and merges the result into the rollup collection. Running it again for the same
+     * day replaces the rollup documents of that day, so today can be rolled up repeatedly.
+     * The downloads are counted per package and country first, so that the distro and major version
+     * only have to be looked up once per package instead of joining the whole package per download.
+     * @param day
+     */
+    public void rollupDownloads(final LocalDate day) {
+        if (!isReady()) { return; }
+
+        final long   start     = System.currentTimeMillis();
+        final String dayString = DateTimeFormatter.ISO_LOCAL_DATE.format(day);
+        final long   dayStart  = day.atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        final long   dayEnd    = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+
+        final List<Bson> pipeline = List.of(
+            Aggregates.match(and(gte(FIELD_TIMESTAMP, dayStart), lt(FIELD_TIMESTAMP, dayEnd))),
+            Aggregates.group(new Document(FIELD_PACKAGE_ID, "$" + FIELD_PACKAGE_ID)
+                                       .append(FIELD_COUNTRY_CODE, new Document("$ifNull", Arrays.asList("$" + FIELD_COUNTRY_CODE, ""))),
+                             Accumulators.sum(FIELD_DOWNLOADS, 1)),
+            Aggregates.lookup(Constants.PACKAGES_COLLECTION,
+                              List.of(new Variable<>(VAR_PACKAGE_ID, "$_id." + FIELD_PACKAGE_ID)),
+                              List.of(Aggregates.match(expr(new Document("$eq", Arrays.asList("$" + FIELD_PACKAGE_ID, "$$" + VAR_PACKAGE_ID)))),
+                                      Aggregates.project(fields(include(PkgField.DISTRIBUTION.fieldName(), PkgField.MAJOR_VERSION.fieldName()), excludeId())),
+                                      Aggregates.limit(1)),
+                              FIELD_PKG),
+            Aggregates.group(new Document(FIELD_DISTRO, firstOrDefault(FIELD_PKG + "." + PkgField.DISTRIBUTION.fieldName(), UNKNOWN))
+                                       .append(FIELD_MAJOR_VERSION, firstOrDefault(FIELD_PKG + "." + PkgField.MAJOR_VERSION.fieldName(), 0))
+                                       .append(FIELD_COUNTRY_CODE, "$_id." + FIELD_COUNTRY_CODE),
+                             Accumulators.sum(FIELD_DOWNLOADS, "$" + FIELD_DOWNLOADS)),
+            Aggregates.project(fields(excludeId(),
+                                      computed(FIELD_DAY, new Document("$literal", dayString)),
+                                      computed(FIELD_DISTRO, "$_id." + FIELD_DISTRO),
+                                      computed(FIELD_MAJOR_VERSION, "$_id." + FIELD_MAJOR_VERSION),
+                                      computed(FIELD_COUNTRY_CODE, "$_id." + FIELD_COUNTRY_CODE),
+                                      include(FIELD_DOWNLOADS))),
+            Aggregates.merge(Constants.DOWNLOADS_ROLLUP_COLLECTION, new MergeOptions().uniqueIdentifier(DOWNLOAD_STATS_FIELDS)
+                                                                                      .whenMatched(MergeOptions.WhenMatched.REPLACE)
+                                                                                      .whenNotMatched(MergeOptions.WhenNotMatched.INSERT)));
+        try {
+            getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION).aggregate(pipeline).allowDiskUse(true).toCollection();
+            LOGGER.debug("Successfully rolled up downloads of {} in {} ms", dayString, (System.currentTimeMillis() - start));
+        } catch (MongoException e) {
+            LOGGER.error("Error rolling up downloads of {}. {}", dayString, e.getMessage());
         }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
+    }
+
+    /**
+     * Returns the downloads between the given days (incl.) grouped by the given fields, sorted by downloads.
+     * The statistics are aggregated in the database from the rollup collection, so downloads of today
+     * are included up to the last rollup.
+     * @param from first day to include
+     * @param to last day to include
+     * @param groupBy any of day, distro, major_version and countrycode (unknown fields will be ignored)
+     * @return a json string that contains the downloads grouped by the given fields
+     */
+    public String getDownloadStats(final LocalDate from, final LocalDate to, final Collection<String> groupBy) {
+        if (!isReady()) { return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE; }
+
+        final Document groupId = new Document();
+        if (null != groupBy) {
+            DOWNLOAD_STATS_FIELDS.stream().filter(groupBy::contains).forEach(field -> groupId.append(field, "$" + field));
+        }
+        final List<Bson> pipeline = new ArrayList<>();
+        pipeline.add(Aggregates.match(and(gte(FIELD_DAY, DateTimeFormatter.ISO_LOCAL_DATE.format(from)), lte(FIELD_DAY, DateTimeFormatter.ISO_LOCAL_DATE.format(to)))));
+        pipeline.add(Aggregates.group(groupId.isEmpty() ? null : groupId, Accumulators.sum(FIELD_DOWNLOADS, "$" + FIELD_DOWNLOADS)));
+        pipeline.add(Aggregates.sort(descending(FIELD_DOWNLOADS)));
+
+        final List<String> documents = new ArrayList<>();
+        getCollection(Constants.DOWNLOADS_ROLLUP_COLLECTION).aggregate(pipeline).forEach(document -> {
+            final Document result = new Document();
+            if (document.get("_id") instanceof Document) { result.putAll((Document) document.get("_id")); }
+            result.append(FIELD_DOWNLOADS, document.get(FIELD_DOWNLOADS));
+            documents.add(result.toJson());
+        });
+        return SQUARE_BRACKET_OPEN + String.join(COMMA, documents) + SQUARE_BRACKET_CLOSE;
+    }
+
+    /**
+     * Marks the given packages as not being the latest build (in the database and in the given packages).
+     * The stored fingerprint will be updated as well so that the change will be picked up by the cache syncs.
+     * @param pkgs
+     */
+    public void updateLatestBuildAvailable(final List<Pkg> pkgs) {
+        if (!isReady()) { return; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        pkgs.forEach(pkg -> collection.updateOne(eq(FIELD_PACKAGE_ID, pkg.getId()), set(PkgField.LATEST_BUILD_AVAILABLE.fieldName(), false)));
+        pkgs.forEach(pkg -> pkg.setLatestBuildAvailable(false));
+        MongoCollection<Document>  collection = getCollection(Constants.PACKAGES_COLLECTION);
+        List<WriteModel<Document>> writes     = pkgs.stream().map(pkg -> new UpdateOneModel<Document>(eq(FIELD_PACKAGE_ID, pkg.getId()), getLatestBuildAvailableUpdate(pkg))).collect(Collectors.toList());
+        final int failed = bulkWrite(collection, writes, "update latest build available");
 
-        LOGGER.debug("Successfully updated latest build available for {} packages", pkgs.size());
+        LOGGER.debug("Successfully updated latest build available for {} packages ({} failed)", pkgs.size() - failed, failed);
     }
 
     public Map<Distro, Instant> getLastUpdatesForDistros() {
-        connect();
         final Map<Distro, Instant> updateMap = new HashMap<>();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of packages");
-            return updateMap;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return updateMap;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DISTRO_UPDATES_COLLECTION) {
-            LOGGER.error("Constants.DISTRO_UPDATES_COLLECTION not set.");
-            return updateMap;
-        };
-        if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
+        if (!isReady()) { return updateMap; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DISTRO_UPDATES_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.DISTRO_UPDATES_COLLECTION);
 
-        collection.find().forEach(document -> updateMap.put(Distro.fromText(document.getString(FIELD_DISTRO)), Instant.ofEpochSecond(((Number) document.get(FIELD_TIMESTAMP)).longValue())));
+        collection.find().projection(fields(include(FIELD_DISTRO, FIELD_TIMESTAMP), excludeId())).forEach(document -> updateMap.put(Distro.fromText(document.getString(FIELD_DISTRO)), Instant.ofEpochSecond(((Number) document.get(FIELD_TIMESTAMP)).longValue())));
         return updateMap;
     }
 
     public Instant getLastUpdateForDistro(final Distro distro) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of packages");
-            return Instant.ofEpochSecond(0);
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return Instant.ofEpochSecond(0);
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DISTRO_UPDATES_COLLECTION) {
-            LOGGER.error("Constants.DISTRO_UPDATES_COLLECTION not set.");
-            return Instant.ofEpochSecond(0);
-        };
-        if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
+        if (!isReady()) { return Instant.ofEpochSecond(0); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DISTRO_UPDATES_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.DISTRO_UPDATES_COLLECTION);
 
-        Document document = collection.find(eq(FIELD_DISTRO, distro.getApiString())).first();
+        Document document = collection.find(eq(FIELD_DISTRO, distro.getApiString())).projection(fields(include(FIELD_TIMESTAMP), excludeId())).first();
         if (null == document) {
             return Instant.ofEpochSecond(0);
         } else {
@@ -945,51 +1200,17 @@ public enum MongoDbManager {
         }
     }
     public void setLastUpdateForDistro(final Distro distro) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, last update for distro not set.");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not upsert update because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DISTRO_UPDATES_COLLECTION) {
-            LOGGER.error("Constants.DISTRO_UPDATES_COLLECTION not set.");
-            return;
-        }
-        if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
+        if (!isReady()) { return; }
 
-        database.getCollection(Constants.DISTRO_UPDATES_COLLECTION)
+        getCollection(Constants.DISTRO_UPDATES_COLLECTION)
                 .updateOne(eq(FIELD_DISTRO, distro.getApiString()), combine(set(FIELD_TIMESTAMP, Instant.now().getEpochSecond())), new UpdateOptions().upsert(true));
 
         LOGGER.debug("Successfully updated last update for distro {}", distro.getApiString());
     }
     public boolean removeLastUpdates() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, last update entries have not been removed");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Last update entries have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DISTRO_UPDATES_COLLECTION) {
-            LOGGER.error("Constants.DISTRO_UPDATES_COLLECTION not set.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.DISTRO_UPDATES_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.DISTRO_UPDATES_COLLECTION);
         collection.deleteMany(new Document());
 
         LOGGER.debug("Successfully deleted all last update entries from mongodb.");
@@ -997,26 +1218,9 @@ public enum MongoDbManager {
     }
 
     public boolean removeDownloads() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no downloads have been removed");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Downloads have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_COLLECTION not set.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.DOWNLOADS_COLLECTION);
         collection.deleteMany(new Document());
 
         LOGGER.debug("Successfully deleted all downloads from mongodb.");
@@ -1024,26 +1228,9 @@ public enum MongoDbManager {
     }
 
     public boolean removeDownloadsPerPkg() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no locks have been removed");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Locks have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION not set.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
         collection.deleteMany(new Document());
 
         LOGGER.debug("Successfully deleted all downloads per pkg from mongodb.");
@@ -1051,26 +1238,9 @@ public enum MongoDbManager {
     }
 
     public boolean removePkgsOfDistro(final Distro distro) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, last update for distro not set.");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not upsert update because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return false;
-        }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.PACKAGES_COLLECTION);
         try {
             Bson deleteFilter = eq(PkgField.DISTRIBUTION.fieldName(), distro.getApiString());
             collection.deleteMany(deleteFilter);
@@ -1083,26 +1253,9 @@ public enum MongoDbManager {
     }
 
     public List<MajorVersion> getMajorVersions() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, returned empty list of major versions");
-            return new ArrayList<>();
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot return major versions because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return new ArrayList<>();
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.MAJOR_VERSIONS_COLLECTION) {
-            LOGGER.error("Constants.MAJOR_VERSIONS_COLLECTIONS not set.");
-            return new ArrayList<>();
-        };
-        if (!collectionExists(database, Constants.MAJOR_VERSIONS_COLLECTION)) { database.createCollection(Constants.MAJOR_VERSIONS_COLLECTION); }
+        if (!isReady()) { return new ArrayList<>(); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.MAJOR_VERSIONS_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.MAJOR_VERSIONS_COLLECTION);
         final List<MajorVersion>        result     = new ArrayList<>();
         collection.find().forEach(document -> {
             MajorVersion majorVersion = new MajorVersion(document.toJson());
@@ -1112,41 +1265,69 @@ public enum MongoDbManager {
         return result;
     }
 
-    public void updateEphemeralIds() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no ephemeral id's updated");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not update ephemeral id's because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return;
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return;
-        }
-        if (null == Constants.EPHEMERAL_IDS_COLLECTION) {
-            LOGGER.error("Constants.EPHEMERAL_IDS_COLLECTION not set.");
-            return;
-        }
+    public List<Validator> getHttpValidators() {
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final List<Validator> validators = new ArrayList<>();
+        getCollection(Constants.HTTP_VALIDATORS_COLLECTION).find()
+                                                          .projection(excludeId())
+                                                          .forEach(document -> validators.add(new Validator(document.getString(FIELD_URL), document.getString(FIELD_ETAG), document.getString(FIELD_LAST_MODIFIED),
+                                                                                                            Instant.ofEpochSecond(((Number) document.get(FIELD_VALIDATED_AT)).longValue()))));
+        return validators;
+    }
 
-        if (!collectionExists(database, Constants.STATE_COLLECTION))         { database.createCollection(Constants.STATE_COLLECTION); }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION))      { database.createCollection(Constants.PACKAGES_COLLECTION); }
-        if (!collectionExists(database, Constants.EPHEMERAL_IDS_COLLECTION)) { database.createCollection(Constants.EPHEMERAL_IDS_COLLECTION); }
+    public void upsertHttpValidator(final Validator validator) {
+        if (!isReady()) { return; }
+
+        getCollection(Constants.HTTP_VALIDATORS_COLLECTION)
+                .updateOne(eq(FIELD_URL, validator.getUrl()), combine(set(FIELD_ETAG, validator.getEtag()),
+                                                                     set(FIELD_LAST_MODIFIED, validator.getLastModified()),
+                                                                     set(FIELD_VALIDATED_AT, validator.getValidatedAt().getEpochSecond())), new UpdateOptions().upsert(true));
+    }
+
+    public void deleteHttpValidator(final String url) {
+        if (!isReady()) { return; }
+
+        getCollection(Constants.HTTP_VALIDATORS_COLLECTION).deleteOne(eq(FIELD_URL, url));
+    }
+
+    public List<Watermark> getWatermarks() {
+        if (!isReady()) { return new ArrayList<>(); }
+
+        final List<Watermark> watermarks = new ArrayList<>();
+        getCollection(Constants.WATERMARKS_COLLECTION).find()
+                                                     .projection(excludeId())
+                                                     .forEach(document -> watermarks.add(new Watermark(document.getString(FIELD_DISTRO), document.getString(FIELD_SOURCE), ((Number) document.get(FIELD_RELEASE_ID)).longValue(),
+                                                                                                       document.getString(FIELD_TAG), document.getString(FIELD_URL),
+                                                                                                       Instant.ofEpochSecond(((Number) document.get(FIELD_PUBLISHED_AT)).longValue()),
+                                                                                                       document.get(FIELD_ASSETS_UPDATED_AT) instanceof Number ? Instant.ofEpochSecond(((Number) document.get(FIELD_ASSETS_UPDATED_AT)).longValue()) : null)));
+        return watermarks;
+    }
+
+    public void upsertWatermark(final Watermark watermark) {
+        if (!isReady()) { return; }
+
+        getCollection(Constants.WATERMARKS_COLLECTION)
+                .updateOne(and(eq(FIELD_DISTRO, watermark.getDistro()), eq(FIELD_SOURCE, watermark.getSource())), combine(set(FIELD_RELEASE_ID, watermark.getReleaseId()),
+                                                                                                                         set(FIELD_TAG, watermark.getTag()),
+                                                                                                                         set(FIELD_URL, watermark.getUrl()),
+                                                                                                                         set(FIELD_PUBLISHED_AT, watermark.getPublishedAt().getEpochSecond()),
+                                                                                                                         set(FIELD_ASSETS_UPDATED_AT, watermark.getAssetsUpdatedAt().getEpochSecond())), new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Updates the ephemeral id cache and rotates the ephemeral ids if they are older than 10 minutes.
+     * A rotation writes a new generation of ephemeral ids next to the current one and then atomically
+     * switches the generation pointer in the state collection, so readers never see an empty or
+     * partially written collection. Superseded generations get an expiry date and will be removed
+     * by the TTL index on the ephemeral ids collection.
+     */
+    public void updateEphemeralIds() {
+        if (!isReady()) { return; }
 
         final long                      start                  = System.currentTimeMillis();
-        final MongoCollection<Document> stateCollection        = database.getCollection(Constants.STATE_COLLECTION);
-        final MongoCollection<Document> pkgsCollection         = database.getCollection(Constants.PACKAGES_COLLECTION);
-        final MongoCollection<Document> ephemeralIdsCollection = database.getCollection(Constants.EPHEMERAL_IDS_COLLECTION);
+        final MongoCollection<Document> stateCollection        = getCollection(Constants.STATE_COLLECTION);
+        final MongoCollection<Document> ephemeralIdsCollection = getCollection(Constants.EPHEMERAL_IDS_COLLECTION);
         final Instant                   now                    = Instant.now();
         final boolean doUpdate;
         // Check for last update of ephemeral ids
@@ -1158,52 +1339,83 @@ public enum MongoDbManager {
             doUpdate = (Duration.between(timestamp, now).toMinutes() > 10);
         }
 
-        final Map<String, String> tmpEphemeralIdCache = new HashMap<>();
+        Map<String, String> tmpEphemeralIdCache = null;
         if (doUpdate) {
-            final List<Document> ephemeralIdDocuments = new ArrayList<>();
-            final long epoch = now.getEpochSecond();
-            pkgsCollection.find().forEach(document -> {
-                final String pkgId       = document.get(FIELD_PACKAGE_ID).toString();
-                final String ephemeralId = Helper.createEphemeralId(epoch, pkgId);
-                ephemeralIdDocuments.add(new Document().append(FIELD_EPHEMERAL_ID, ephemeralId).append(FIELD_PACKAGE_ID, pkgId));
-                tmpEphemeralIdCache.put(ephemeralId, pkgId);
-            });
-            // Clear ephemeralIdsCollection
-            ephemeralIdsCollection.deleteMany(new Document());
-            // Insert updated ephemeral ids
-            ephemeralIdsCollection.insertMany(ephemeralIdDocuments);
-
-            // Update last ephemeral id update
-            stateCollection.updateOne(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), combine(set(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), set(FIELD_TIMESTAMP, epoch)), new UpdateOptions().upsert(true));
-        } else {
-            ephemeralIdsCollection.find().forEach(document -> tmpEphemeralIdCache.put(document.getString(FIELD_EPHEMERAL_ID), document.getString(FIELD_PACKAGE_ID)));
+            tmpEphemeralIdCache = rotateEphemeralIds(lastEphemeralIdUpdateDocument, now.getEpochSecond());
+        }
+        if (null == tmpEphemeralIdCache) {
+            // No rotation needed or another instance rotated in the meantime -> load the current generation
+            lastEphemeralIdUpdateDocument = stateCollection.find(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE)).first();
+            final Object              generation          = null == lastEphemeralIdUpdateDocument ? null : lastEphemeralIdUpdateDocument.get(FIELD_GENERATION);
+            // Ephemeral ids that have been written before generations were introduced do not have a generation
+            final Bson                generationFilter    = null == generation ? exists(FIELD_GENERATION, false) : eq(FIELD_GENERATION, generation);
+            final Map<String, String> currentEphemeralIds = new HashMap<>();
+            ephemeralIdsCollection.find(generationFilter).projection(fields(include(FIELD_EPHEMERAL_ID, FIELD_PACKAGE_ID), excludeId())).batchSize(PKG_CURSOR_BATCH_SIZE).forEach(document -> currentEphemeralIds.put(document.getString(FIELD_EPHEMERAL_ID), document.getString(FIELD_PACKAGE_ID)));
+            tmpEphemeralIdCache = currentEphemeralIds;
         }
         ephemeralIdCache.setAll(tmpEphemeralIdCache);
         LOGGER.debug("Successfully updated ephemeral id cache in {} ms", (System.currentTimeMillis() - start));
     }
 
-    public Instant getLastUpdateTimestamp() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected.");
-            return Instant.ofEpochSecond(0);
+    /**
+     * Writes a new generation of ephemeral ids for all packages and makes it the current one.
+     * The ephemeral ids are computed and inserted in parallel batches. The generation pointer will
+     * only be switched if no other instance rotated the ephemeral ids in the meantime.
+     * @param lastEphemeralIdUpdateDocument the state document that points to the current generation (might be null)
+     * @param generation the new generation (epoch seconds which are also used to create the ephemeral ids)
+     * @return the ephemeral ids of the new generation or null if the new generation was not activated
+     */
+    private Map<String, String> rotateEphemeralIds(final Document lastEphemeralIdUpdateDocument, final long generation) {
+        final MongoCollection<Document>     stateCollection        = getCollection(Constants.STATE_COLLECTION);
+        final MongoCollection<Document>     ephemeralIdsCollection = getCollection(Constants.EPHEMERAL_IDS_COLLECTION);
+        final Map<String, String>           ephemeralIds           = new ConcurrentHashMap<>();
+        final ExecutorService               executor               = getWorkerExecutor();
+        final List<CompletableFuture<Void>> futures                = new ArrayList<>();
+        for (List<String> batch : Partition.ofSize(getPkgIds(), Config.INSTANCE.getFoojayMongoDbBulkSize())) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                final List<Document> ephemeralIdDocuments = new ArrayList<>(batch.size());
+                for (String pkgId : batch) {
+                    final String ephemeralId = Helper.createEphemeralId(generation, pkgId);
+                    ephemeralIdDocuments.add(new Document().append(FIELD_EPHEMERAL_ID, ephemeralId).append(FIELD_PACKAGE_ID, pkgId).append(FIELD_GENERATION, generation));
+                    ephemeralIds.put(ephemeralId, pkgId);
+                }
+                ephemeralIdsCollection.insertMany(ephemeralIdDocuments, new InsertManyOptions().ordered(false));
+            }, executor));
         }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return Instant.ofEpochSecond(0);
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            LOGGER.error("Error writing ephemeral ids of generation {}, current generation will be kept. {}", generation, e.getMessage());
+            ephemeralIdsCollection.deleteMany(eq(FIELD_GENERATION, generation));
+            return null;
         }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+
+        // Switch to the new generation, only if the pointer was not changed by another instance in the meantime
+        final Bson    update = combine(set(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), set(FIELD_TIMESTAMP, generation), set(FIELD_GENERATION, generation));
+        final boolean switched;
+        if (null == lastEphemeralIdUpdateDocument) {
+            switched = stateCollection.updateOne(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), update, new UpdateOptions().upsert(true)).wasAcknowledged();
+        } else {
+            switched = stateCollection.updateOne(and(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), eq(FIELD_TIMESTAMP, lastEphemeralIdUpdateDocument.get(FIELD_TIMESTAMP))), update).getModifiedCount() > 0;
+        }
+        if (!switched) {
+            LOGGER.debug("Ephemeral ids have been rotated by another instance, generation {} will be removed", generation);
+            ephemeralIdsCollection.deleteMany(eq(FIELD_GENERATION, generation));
+            return null;
         }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return Instant.ofEpochSecond(0);
-        };
-        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.STATE_COLLECTION);
-        final Document                  document   = collection.find(eq(FIELD_TYPE, FIELD_LAST_UPDATE)).first();
+        // Let all previous generations expire after a grace period for readers that still use them
+        final Date expiresAt = Date.from(Instant.now().plus(Duration.ofMinutes(Constants.EPHEMERAL_ID_EXPIRY_IN_MINUTES)));
+        ephemeralIdsCollection.updateMany(and(ne(FIELD_GENERATION, generation), exists(FIELD_EXPIRES_AT, false)), set(FIELD_EXPIRES_AT, expiresAt));
+        LOGGER.debug("Successfully rotated {} ephemeral ids to generation {}", ephemeralIds.size(), generation);
+        return ephemeralIds;
+    }
+
+    public Instant getLastUpdateTimestamp() {
+        if (!isReady()) { return Instant.ofEpochSecond(0); }
+
+        final MongoCollection<Document> collection = getCollection(Constants.STATE_COLLECTION);
+        final Document                  document   = collection.find(eq(FIELD_TYPE, FIELD_LAST_UPDATE)).projection(fields(include(FIELD_TIMESTAMP), excludeId())).first();
         if (null == document) {
             return Instant.ofEpochSecond(0);
         } else {
@@ -1212,26 +1424,9 @@ public enum MongoDbManager {
         }
 
     public boolean isSentinelAvailable() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, cannot get sentinel");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Cannot get sentinel because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set, cannot get sentinel.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.SENTINEL_COLLECTION) {
-            LOGGER.error("Constants.SENTINEL_COLLECTION not set, cannot get sentinel.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.SENTINEL_COLLECTION)) { database.createCollection(Constants.SENTINEL_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.SENTINEL_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.SENTINEL_COLLECTION);
         final Document                  sentinel   = collection.find(eq(PkgField.ID.fieldName(), Constants.SENTINEL_PKG_ID)).first();
 
         if (null == sentinel) {
@@ -1245,26 +1440,9 @@ public enum MongoDbManager {
     }
     }
     public Instant getSentinelLastRemovedAt() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected.");
-            return Instant.ofEpochSecond(0);
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return Instant.ofEpochSecond(0);
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.SENTINEL_COLLECTION) {
-            LOGGER.error("Constants.SENTINEL_COLLECTION not set.");
-            return Instant.ofEpochSecond(0);
-        };
-        if (!collectionExists(database, Constants.SENTINEL_COLLECTION)) { database.createCollection(Constants.SENTINEL_COLLECTION); }
+        if (!isReady()) { return Instant.ofEpochSecond(0); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.SENTINEL_COLLECTION);
+        final MongoCollection<Document> collection = getCollection(Constants.SENTINEL_COLLECTION);
         final Document                  document   = collection.find(eq(PkgField.ID.fieldName(), Constants.SENTINEL_PKG_ID)).first();
         if (null == document) {
             return Instant.ofEpochSecond(0);
@@ -1274,26 +1452,9 @@ public enum MongoDbManager {
     }
 
     public boolean removeLocks() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no locks have been removed");
-            return false;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Locks have not been removed because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return false;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.SHEDLOCK_COLLECTION) {
-            LOGGER.error("Constants.SHEDLOCK_COLLECTION not set.");
-            return false;
-        };
-        if (!collectionExists(database, Constants.SHEDLOCK_COLLECTION)) { database.createCollection(Constants.SHEDLOCK_COLLECTION); }
+        if (!isReady()) { return false; }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.SHEDLOCK_COLLECTION);
+        MongoCollection<Document> collection = getCollection(Constants.SHEDLOCK_COLLECTION);
         collection.deleteMany(new Document());
 
         LOGGER.debug("Successfully deleted all locks from mongodb.");
@@ -1301,29 +1462,150 @@ public enum MongoDbManager {
     }
 
     public void syncLatestBuildAvailableInDatabaseWithCache(final Collection<Pkg> pkgs) {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not conntected, database was not synced");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not sync cache with database because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        if (!isReady()) { return; }
+
+        MongoCollection<Document>  collection = getCollection(Constants.PACKAGES_COLLECTION);
+        List<WriteModel<Document>> writes     = pkgs.stream().map(pkg -> new UpdateOneModel<Document>(eq(FIELD_PACKAGE_ID, pkg.getId()), getLatestBuildAvailableUpdate(pkg))).collect(Collectors.toList());
+        final int failed = bulkWrite(collection, writes, "sync latest build available");
+
+        LOGGER.debug("Successfully synced latest build available for all packages in cache {} ({} failed)", pkgs.size() - failed, failed);
+    }
+
+    /**
+     * Sets the latest build available flag of the given package together with its fingerprint,
+     * otherwise the fingerprint based upsert skip and cache sync would not notice the change
+     * @param pkg
+     * @return the update of the latest build available flag and the fingerprint of the given package
+     */
+    private static Bson getLatestBuildAvailableUpdate(final Pkg pkg) {
+        return combine(set(PkgField.LATEST_BUILD_AVAILABLE.fieldName(), pkg.isLatestBuildAvailable()), set(PkgField.FINGERPRINT.fieldName(), pkg.getFingerprint()));
+    }
+
+    /**
+     * Writes the given models to the given collection in unordered bulk writes of
+     * Config.getFoojayMongoDbBulkSize() models. Up to Config.getFoojayMongoDbBulkConcurrency()
+     * batches will be written concurrently. The result of each batch will be logged.
+     * @param collection
+     * @param writes
+     * @param operation Name of the operation used in the log messages
+     * @return the number of writes that failed
+     */
+    private int bulkWrite(final MongoCollection<Document> collection, final List<WriteModel<Document>> writes, final String operation) {
+        if (null == writes || writes.isEmpty()) { return 0; }
+        final BulkWriteOptions                 options  = new BulkWriteOptions().ordered(false);
+        final List<List<WriteModel<Document>>> batches  = Partition.ofSize(writes, Config.INSTANCE.getFoojayMongoDbBulkSize());
+        final AtomicInteger                    failed   = new AtomicInteger(0);
+        final ExecutorService                  executor = getWorkerExecutor();
+        final List<CompletableFuture<Void>>    futures  = new ArrayList<>(batches.size());
+        for (int i = 0 ; i < batches.size() ; i++) {
+            final int                        batchNo = i + 1;
+            final List<WriteModel<Document>> batch   = batches.get(i);
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    final BulkWriteResult result = collection.bulkWrite(batch, options);
+                    LOGGER.debug("Bulk write {} batch {}/{}: {} matched, {} modified, {} upserted, {} deleted", operation, batchNo, batches.size(), result.getMatchedCount(), result.getModifiedCount(), result.getUpserts().size(), result.getDeletedCount());
+                } catch (MongoBulkWriteException e) {
+                    failed.addAndGet(e.getWriteErrors().size());
+                    LOGGER.error("Bulk write {} batch {}/{}: {} of {} writes failed. {}", operation, batchNo, batches.size(), e.getWriteErrors().size(), batch.size(), e.getMessage());
+                } catch (MongoException e) {
+                    failed.addAndGet(batch.size());
+                    LOGGER.error("Bulk write {} batch {}/{} failed. {}", operation, batchNo, batches.size(), e.getMessage());
+                }
+            }, executor));
         }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return;
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return failed.get();
+    }
+
+    private synchronized ExecutorService getWorkerExecutor() {
+        if (null == workerExecutor) {
+            workerExecutor = Executors.newFixedThreadPool(Config.INSTANCE.getFoojayMongoDbBulkConcurrency(), runnable -> {
+                final Thread thread = new Thread(runnable, "mongodb-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
+        return workerExecutor;
+    }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        pkgs.forEach(pkg -> collection.updateOne(eq(FIELD_PACKAGE_ID, pkg.getId()), set(PkgField.LATEST_BUILD_AVAILABLE.fieldName(), pkg.isLatestBuildAvailable())));
+    /**
+     * Returns the ids of all given package ids that already exist in the given collection.
+     * The ids are queried in chunks and only the id field will be fetched from the database.
+     * @param collection
+     * @param pkgIds
+     * @return the ids of all given package ids that already exist in the given collection
+     */
+    private Set<String> getExistingIds(final MongoCollection<Document> collection, final List<String> pkgIds) {
+        final Set<String> existingIds = new HashSet<>();
+        if (null == pkgIds || pkgIds.isEmpty()) { return existingIds; }
+        for (List<String> chunk : Partition.ofSize(pkgIds, Config.INSTANCE.getFoojayMongoDbBulkSize())) {
+            collection.find(in(FIELD_PACKAGE_ID, chunk))
+                      .projection(fields(include(FIELD_PACKAGE_ID), excludeId()))
+                      .forEach(document -> existingIds.add(document.getString(FIELD_PACKAGE_ID)));
+        }
+        return existingIds;
+    }
 
-        LOGGER.debug("Successfully synced latest build available for all packages in cache {}", pkgs.size());
+    /**
+     * Creates the indexes that are needed by the queries on the collections.
+     * Creating an index that already exists is a no-op in mongodb.
+     */
+    private void createIndexes() {
+        createIndex(Constants.PACKAGES_COLLECTION, true, FIELD_PACKAGE_ID);
+        createIndex(Constants.PACKAGES_COLLECTION, false, PkgField.DISTRIBUTION.fieldName());
+        createIndex(Constants.EPHEMERAL_IDS_COLLECTION, false, FIELD_EPHEMERAL_ID);
+        createIndex(Constants.EPHEMERAL_IDS_COLLECTION, false, FIELD_GENERATION);
+        // Documents of superseded generations will be removed once their expiry date is reached
+        createIndex(Constants.EPHEMERAL_IDS_COLLECTION, new IndexOptions().expireAfter(0L, TimeUnit.SECONDS), FIELD_EXPIRES_AT);
+        createIndex(Constants.DOWNLOADS_COLLECTION, false, FIELD_PACKAGE_ID);
+        createIndex(Constants.DOWNLOADS_USER_AGENT_COLLECTION, false, FIELD_TIMESTAMP);
+        createIndex(Constants.DOWNLOADS_PER_DAY_COLLECTION, false, FIELD_DAY);
+        // Needed by $merge to match the rollup documents
+        createIndex(Constants.DOWNLOADS_ROLLUP_COLLECTION, true, DOWNLOAD_STATS_FIELDS.toArray(new String[0]));
+        createIndex(Constants.HTTP_VALIDATORS_COLLECTION, true, FIELD_URL);
+        createIndex(Constants.WATERMARKS_COLLECTION, true, FIELD_DISTRO, FIELD_SOURCE);
+    }
+
+    private void createIndex(final String collectionName, final boolean unique, final String... fieldNames) {
+        createIndex(collectionName, new IndexOptions().unique(unique), fieldNames);
+    }
+    private void createIndex(final String collectionName, final IndexOptions options, final String... fieldNames) {
+        final String index = collectionName + "." + String.join("_", fieldNames);
+        if (knownIndexes.contains(index)) { return; }
+        try {
+            getCollection(collectionName).createIndex(Indexes.ascending(fieldNames), options);
+            knownIndexes.add(index);
+        } catch (MongoException e) {
+            // e.g. the collection already contains duplicates of a field that should be unique
+            LOGGER.error("Error creating index on {} in collection {}. {}", String.join(COMMA, fieldNames), collectionName, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a map with the package id as key and the stored content fingerprint as value
+     * for all given package ids that exist in the given collection and have a fingerprint.
+     * Only the id and fingerprint fields will be fetched from the database, the ids will be queried
+     * in chunks of Config.getFoojayMongoDbBulkSize().
+     * @param collection
+     * @param pkgIds
+     * @return a map with the package id as key and the stored content fingerprint as value
+     */
+    private Map<String, Long> getFingerprints(final MongoCollection<Document> collection, final List<String> pkgIds) {
+        final Map<String, Long> fingerprints = new HashMap<>();
+        if (null == pkgIds || pkgIds.isEmpty()) { return fingerprints; }
+        try {
+            for (List<String> chunk : new Partition<>(pkgIds, Config.INSTANCE.getFoojayMongoDbBulkSize())) {
+                collection.find(in(FIELD_PACKAGE_ID, chunk))
+                          .projection(fields(include(FIELD_PACKAGE_ID, PkgField.FINGERPRINT.fieldName()), excludeId()))
+                          .forEach(document -> {
+                              final Object fingerprint = document.get(PkgField.FINGERPRINT.fieldName());
+                              if (fingerprint instanceof Long) { fingerprints.put(document.getString(FIELD_PACKAGE_ID), (Long) fingerprint); }
+                          });
+            }
+        } catch (MongoException e) {
+            LOGGER.error("Error fetching package fingerprints from mongodb. {}", e.getMessage());
+        }
+        return fingerprints;
     }
 
     public boolean collectionExists(final MongoDatabase database, final String collectionName) {
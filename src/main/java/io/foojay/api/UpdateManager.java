@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.foojay.api.distribution.BiSheng;
+import io.foojay.api.distribution.Corretto;
+import io.foojay.api.distribution.Debian;
+import io.foojay.api.distribution.GluonGraalVM;
+import io.foojay.api.distribution.GraalVM_Community;
+import io.foojay.api.distribution.JetBrains;
+import io.foojay.api.distribution.Kona;
+import io.foojay.api.distribution.LibericaNative;
+import io.foojay.api.distribution.Mandrel;
+import io.foojay.api.distribution.Microsoft;
+import io.foojay.api.distribution.OpenLogic;
+import io.foojay.api.distribution.OracleOpenJDK;
+import io.foojay.api.distribution.SAPMachine;
+import io.foojay.api.distribution.Semeru;
+import io.foojay.api.distribution.SemeruCertified;
+import io.foojay.api.distribution.Temurin;
+import io.foojay.api.distribution.Trava;
+import io.foojay.api.distribution.Zulu;
+import io.foojay.api.distribution.ZuluPrime;
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.Config;
+import io.foojay.api.util.HostLimiter;
+import io.foojay.api.util.HttpValidatorCache;
+import io.foojay.api.util.WatermarkCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+
+/**
+ * Updates distributions concurrently on a bounded pool of threads. Every distribution update and all
+ * requests it makes share the deadline of the distribution, requests per host are limited by the HostLimiter.
+ * With this a full update takes about as long as the slowest distribution instead of the sum of all.
+ * The fetches within a distribution update (e.g. one per major version) run on a separate pool.
+ * The parsers only stage the scraping watermarks and http validators of a distribution, they will be
+ * committed once the packages of the distribution have been stored and discarded otherwise.
+ */
+public enum UpdateManager {
+    INSTANCE;
+
+    private static final Logger          LOGGER = LoggerFactory.getLogger(UpdateManager.class);
+    private        final ExecutorService distroExecutor;
+    private        final ExecutorService fetchExecutor;
+
+
+    UpdateManager() {
+        final int concurrency = Config.INSTANCE.getFoojayUpdaterConcurrency();
+        distroExecutor = Executors.newFixedThreadPool(concurrency, createThreadFactory("distro-updater"));
+        // Separate pool for the requests within a distribution to avoid waiting for the pool of the distributions
+        fetchExecutor  = Executors.newFixedThreadPool(concurrency * 2, createThreadFactory("distro-fetcher"));
+    }
+
+
+    /**
+     * Returns the distros that are due for an update, which are the distros that have never been updated
+     * or whose last update is longer ago than their update interval
+     * @param distros
+     * @param lastUpdates last update per distro (e.g. from MongoDbManager.getLastUpdatesForDistros())
+     * @param now
+     * @return the distros that are due for an update
+     */
+    public List<Distro> getDueDistros(final Collection<Distro> distros, final Map<Distro, Instant> lastUpdates, final Instant now) {
+        return distros.stream()
+                      .filter(distro -> {
+                          final Instant lastUpdate = lastUpdates.get(distro);
+                          return null == lastUpdate || !lastUpdate.plus(Duration.ofMinutes(distro.getUpdateIntervalInMinutes())).isAfter(now);
+                      })
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the fetchers of the maintained distributions that fetch all of their packages with one call
+     * @param onlyNewPkgs
+     * @return the fetcher per distro
+     */
+    public Map<Distro, Callable<List<Pkg>>> getFetchers(final boolean onlyNewPkgs) {
+        final Map<Distro, Callable<List<Pkg>>> fetchers = new LinkedHashMap<>();
+        fetchers.put(Distro.BISHENG,           () -> ((BiSheng) Distro.BISHENG.get()).getAllPackagesFromCDN(onlyNewPkgs));
+        fetchers.put(Distro.CORRETTO,          () -> ((Corretto) Distro.CORRETTO.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.DEBIAN,            () -> ((Debian) Distro.DEBIAN.get()).getAllPackages());
+        fetchers.put(Distro.GLUON_GRAALVM,     () -> ((GluonGraalVM) Distro.GLUON_GRAALVM.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.GRAALVM_COMMUNITY, () -> ((GraalVM_Community) Distro.GRAALVM_COMMUNITY.get()).getAllPkgs(true, onlyNewPkgs));
+        fetchers.put(Distro.JETBRAINS,         () -> ((JetBrains) Distro.JETBRAINS.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.KONA,              () -> ((Kona) Distro.KONA.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.LIBERICA_NATIVE,   () -> ((LibericaNative) Distro.LIBERICA_NATIVE.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.MANDREL,           () -> ((Mandrel) Distro.MANDREL.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.MICROSOFT,         () -> ((Microsoft) Distro.MICROSOFT.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.OPEN_LOGIC,        () -> ((OpenLogic) Distro.OPEN_LOGIC.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.ORACLE_OPEN_JDK,   () -> new ArrayList<>(((OracleOpenJDK) Distro.ORACLE_OPEN_JDK.get()).getAllPkgs(onlyNewPkgs)));
+        fetchers.put(Distro.SAP_MACHINE,       () -> ((SAPMachine) Distro.SAP_MACHINE.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.SEMERU,            () -> ((Semeru) Distro.SEMERU.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.SEMERU_CERTIFIED,  () -> ((SemeruCertified) Distro.SEMERU_CERTIFIED.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.TEMURIN,           () -> ((Temurin) Distro.TEMURIN.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.TRAVA,             () -> ((Trava) Distro.TRAVA.get()).getAllPkgs(onlyNewPkgs));
+        fetchers.put(Distro.ZULU,              () -> ((Zulu) Distro.ZULU.get()).getAllPackagesFromCDN(onlyNewPkgs));
+        fetchers.put(Distro.ZULU_PRIME,        () -> ((ZuluPrime) Distro.ZULU_PRIME.get()).getAllPkgs(onlyNewPkgs));
+        return fetchers;
+    }
+
+    /**
+     * Updates all distributions of getFetchers() that are due concurrently and stores their packages in mongodb
+     * @param onlyNewPkgs
+     * @param timeout max duration of the whole update
+     * @return the stored packages per distro
+     */
+    public Map<Distro, List<Pkg>> updateDistros(final boolean onlyNewPkgs, final Duration timeout) {
+        return updateDistros(getFetchers(onlyNewPkgs), MongoDbManager.INSTANCE.getLastUpdatesForDistros(), timeout, UpdateManager::storePkgs);
+    }
+
+    /**
+     * Fetches the packages of all given distros that are due for an update concurrently and stores the packages
+     * of every distro that finished in time with the given store. Every distro has its own deadline which is the
+     * given timeout or its update interval if that is shorter. The staged watermarks and http validators of a
+     * distro will be committed once its packages have been stored. Distros that fail, do not finish before their
+     * deadline or cannot be stored will not be part of the result, their staged watermarks and http validators
+     * will be discarded and they will be fetched again with the next update.
+     * @param fetchers function per distro that fetches its packages
+     * @param lastUpdates last update per distro
+     * @param timeout max duration of the whole update
+     * @param store stores the packages of a distro and returns true if all of them have been stored
+     * @return the stored packages per distro
+     */
+    public Map<Distro, List<Pkg>> updateDistros(final Map<Distro, Callable<List<Pkg>>> fetchers, final Map<Distro, Instant> lastUpdates, final Duration timeout, final BiPredicate<Distro, List<Pkg>> store) {
+        final long                 start     = System.currentTimeMillis();
+        final Instant              now       = Instant.now();
+        final Map<Distro, Instant> deadlines = new LinkedHashMap<>();
+        // Ordered by deadline so that waiting for a distro never delays the deadline of the next one
+        getDueDistros(fetchers.keySet(), lastUpdates, now).stream()
+                                                          .sorted(Comparator.comparing(distro -> getDeadline(distro, now, timeout)))
+                                                          .forEach(distro -> deadlines.put(distro, getDeadline(distro, now, timeout)));
+
+        final Map<Distro, Future<List<Pkg>>> futures = new LinkedHashMap<>();
+        deadlines.forEach((distro, deadline) -> {
+            final Callable<List<Pkg>> fetcher = fetchers.get(distro);
+            futures.put(distro, distroExecutor.submit(withDeadline(() -> {
+                discardStaged(distro);
+                return fetcher.call();
+            }, deadline)));
+        });
+
+        final Map<Distro, List<Pkg>> result = new LinkedHashMap<>();
+        for (Entry<Distro, Future<List<Pkg>>> entry : futures.entrySet()) {
+            final Distro    distro = entry.getKey();
+            final List<Pkg> pkgs;
+            try {
+                final List<Pkg> fetchedPkgs = entry.getValue().get(Math.max(0, Duration.between(Instant.now(), deadlines.get(distro)).toMillis()), TimeUnit.MILLISECONDS);
+                pkgs = null == fetchedPkgs ? new ArrayList<>() : fetchedPkgs;
+            } catch (TimeoutException | CancellationException e) {
+                entry.getValue().cancel(true);
+                discardStaged(distro);
+                LOGGER.error("Update of {} did not finish before its deadline", distro.getName());
+                continue;
+            } catch (ExecutionException e) {
+                discardStaged(distro);
+                LOGGER.error("Error updating {}. {}", distro.getName(), null == e.getCause() ? e.getMessage() : e.getCause().getMessage());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                break;
+            }
+            boolean stored = false;
+            try {
+                stored = store.test(distro, pkgs);
+            } catch (RuntimeException e) {
+                LOGGER.error("Error storing {} packages of {}. {}", pkgs.size(), distro.getName(), e.getMessage());
+            }
+            if (stored) {
+                WatermarkCache.INSTANCE.commit(distro.getApiString());
+                HttpValidatorCache.INSTANCE.commit(distro.getApiString());
+                result.put(distro, pkgs);
+            } else {
+                discardStaged(distro);
+                LOGGER.error("Error storing {} packages of {}", pkgs.size(), distro.getName());
+            }
+        }
+        LOGGER.debug("Updated {} of {} due distributions in {} ms", result.size(), deadlines.size(), (System.currentTimeMillis() - start));
+        return result;
+    }
+
+    /**
+     * Runs the given fetches (e.g. one per major version of a distribution) concurrently and returns all
+     * packages. The deadline of the calling thread is used for all fetches, fetches that fail or do not
+     * finish before the deadline will be skipped.
+     * @param fetches
+     * @return the packages of all fetches that finished in time
+     */
+    public List<Pkg> fetchAll(final List<Callable<List<Pkg>>> fetches) {
+        final List<Pkg> pkgs = new ArrayList<>();
+        invokeAll(fetches).forEach(result -> { if (null != result) { pkgs.addAll(result); } });
+        return pkgs;
+    }
+
+    /**
+     * Runs the given tasks concurrently with the deadline of the calling thread and returns their results
+     * in the order of the tasks. The result of a task that fails or does not finish before the deadline is null.
+     * @param tasks
+     * @return the results of the tasks in the order of the tasks
+     */
+    public <T> List<T> invokeAll(final List<Callable<T>> tasks) {
+        final Instant           deadline      = HostLimiter.INSTANCE.getDeadline();
+        final Duration          timeout       = HostLimiter.INSTANCE.getRemainingTime(Duration.ofMinutes(30));
+        final List<Callable<T>> deadlineTasks = tasks.stream().map(task -> withDeadline(task, deadline)).collect(Collectors.toList());
+        final List<T>           results       = new ArrayList<>();
+        try {
+            for (Future<T> future : fetchExecutor.invokeAll(deadlineTasks, Math.max(0, timeout.toMillis()), TimeUnit.MILLISECONDS)) {
+                try {
+                    results.add(future.get());
+                } catch (CancellationException e) {
+                    LOGGER.debug("Fetch did not finish before the deadline");
+                    results.add(null);
+                } catch (ExecutionException e) {
+                    LOGGER.debug("Error fetching packages. {}", null == e.getCause() ? e.getMessage() : e.getCause().getMessage());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (results.size() < tasks.size()) { results.add(null); }
+        return results;
+    }
+
+    private static void discardStaged(final Distro distro) {
+        WatermarkCache.INSTANCE.discard(distro.getApiString());
+        HttpValidatorCache.INSTANCE.discard(distro.getApiString());
+    }
+
+    private static Instant getDeadline(final Distro distro, final Instant now, final Duration timeout) {
+        final Duration interval = Duration.ofMinutes(distro.getUpdateIntervalInMinutes());
+        return now.plus(interval.isZero() || interval.compareTo(timeout) > 0 ? timeout : interval);
+    }
+
+    /**
+     * Stores the given packages of the given distro in mongodb and sets the last update of the distro
+     * @param distro
+     * @param pkgs
+     * @return true if all packages have been stored
+     */
+    private static boolean storePkgs(final Distro distro, final List<Pkg> pkgs) {
+        if (!MongoDbManager.INSTANCE.upsertPkgs(distro, pkgs)) { return false; }
+        MongoDbManager.INSTANCE.setLastUpdateForDistro(distro);
+        return true;
+    }
+
+    private static <T> Callable<T> withDeadline(final Callable<T> callable, final Instant deadline) {
+        return () -> {
+            HostLimiter.INSTANCE.setDeadline(deadline);
+            try {
+                return callable.call();
+            } finally {
+                HostLimiter.INSTANCE.setDeadline(null);
+            }
+        };
+    }
+
+    private static ThreadFactory createThreadFactory(final String name) {
+        final AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
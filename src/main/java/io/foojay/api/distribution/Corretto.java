@@ -52,7 +52,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -66,7 +65,6 @@ public class Corretto implements Distribution {
     private static final Logger                       LOGGER                  = LoggerFactory.getLogger(Corretto.class);
 
     private static final Pattern                      FILENAME_PREFIX_PATTERN = Pattern.compile("(java-(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.?-)|(amazon-corretto-)(jdk_|devel-)?");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String                       PACKAGE_URL             = "https://api.github.com/repos/corretto/";// jdk8: corretto-8, jdk11: corretto-11, jdk15,jdk16: corretto-jdk
     private static final List<Integer>                REPOS                   = List.of(8, 11, 17, 18, 19, 20);
     private static final String                       PREFIX                  = "amazon-corretto-";
@@ -203,7 +201,7 @@ public class Corretto implements Distribution {
                 if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(url)).count() > 0) { continue; }
             }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
             pkg.setDistribution(Distro.CORRETTO.get());
             pkg.setFileName(filename);
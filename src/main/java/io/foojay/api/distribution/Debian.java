@@ -30,6 +30,7 @@ import eu.hansolo.jdktools.TermOfSupport;
 import eu.hansolo.jdktools.versioning.Semver;
 import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.CacheManager;
+import io.foojay.api.UpdateManager;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
@@ -43,8 +44,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -75,7 +76,6 @@ public class Debian implements Distribution {
     private static final Logger                       LOGGER                 = LoggerFactory.getLogger(Debian.class);
     private static final String                       CDN_URL                = "http://ftp.debian.org/debian/pool/main/o/";
     private static final Pattern                      DEB_PKG_PATTERN        = Pattern.compile("(openjdk-)([0-9]{1,2})-(jre|jdk)_(([1-9]\\d*)((u(\\d+))|(\\.?(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.(\\d+)))?((_|b)(\\d+))?((-|\\+|\\.)([a-zA-Z0-9\\-\\+]+)(\\.[0-9]+)?)?)_(.*)(\\.deb)");
-    private static final Matcher                      DEB_PKG_MATCHER        = DEB_PKG_PATTERN.matcher("");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM     = "";
@@ -158,16 +158,22 @@ public class Debian implements Distribution {
     public List<Pkg> getAllPackages() {
         List<Pkg> pkgs = new ArrayList<>();
         int latestMajorVersion = CacheManager.INSTANCE.getMajorVersions().stream().max(Comparator.comparing(MajorVersion::getAsInt)).get().getAsInt();
+        // Fetch the packages of all LTS versions concurrently
+        final List<Callable<List<Pkg>>> fetches = new ArrayList<>();
         for (int i = 7 ; i < latestMajorVersion ; i++) {
             final String cdnUrl = CDN_URL + "openjdk-"+ i + "/";
             if (TermOfSupport.LTS == new MajorVersion(i).getTermOfSupport()) {
-                try {
-                    pkgs.addAll(getAllPackagesFromCDN(cdnUrl));
-                } catch (Exception e) {
-                    LOGGER.debug("Error fetching packages from {} url {}. {}", getName(), cdnUrl, e.getMessage());
-                }
+                fetches.add(() -> {
+                    try {
+                        return getAllPackagesFromCDN(cdnUrl);
+                    } catch (Exception e) {
+                        LOGGER.debug("Error fetching packages from {} url {}. {}", getName(), cdnUrl, e.getMessage());
+                        return new ArrayList<>();
+                    }
+                });
             }
         }
+        pkgs.addAll(UpdateManager.INSTANCE.fetchAll(fetches));
 
         Helper.checkPkgsForTooEarlyGA(pkgs);
 
@@ -186,9 +192,7 @@ public class Debian implements Distribution {
             for (String href : fileHrefs) {
                 String filename = Helper.getFileNameFromText(href);
                 if (!filename.endsWith("deb")) { continue; }
-
-                DEB_PKG_MATCHER.reset(filename);
-                final List<MatchResult> results     = DEB_PKG_MATCHER.results().collect(Collectors.toList());
+                final List<MatchResult> results     = DEB_PKG_PATTERN.matcher(filename).results().collect(Collectors.toList());
                 final int               noOfResults = results.size();
                 if (noOfResults > 0) {
                     MatchResult   result        = results.get(0);
@@ -53,7 +53,6 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -71,7 +70,6 @@ public class GluonGraalVM implements Distribution {
     private static final String  GITHUB_USER      = "gluonhq";
     private static final String  PACKAGE_URL      = "https://api.github.com/repos/" + GITHUB_USER + "/graal/releases";
     private static final Pattern FILENAME_PATTERN = Pattern.compile("^(graalvm-svm-java)(.*)(\\.zip)$");
-    private static final Matcher FILENAME_MATCHER = FILENAME_PATTERN.matcher("");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM      = "";
@@ -123,7 +121,7 @@ public class GluonGraalVM implements Distribution {
     @Override public String getOfficialUri() { return OFFICIAL_URI; }
 
     @Override public List<String> getSynonyms() {
-        return List.of("gluon_graalvm", "GLUON_GRAALVM", "gluongraalvm", "GLUONGRAALVM", "gluon graalvm", "Gluon GraalVM", "GluonGraalVM");
+        return List.of("gluon_graalvm", "GLUON_GRAALVM", "gluongraalvm", "GLUONGRAALVM", "gluon graalvm", "Gluon GraalVM", "GluonGraalVM", "gluon", "GLUON", "Gluon");
     }
 
     @Override public List<Semver> getVersions() {
@@ -58,7 +58,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -75,7 +74,6 @@ public class GraalVM implements Distribution {
     private static final Logger  LOGGER                        = LoggerFactory.getLogger(GraalVM.class);
     private static final String  PACKAGE_URL                   = "https://download.oracle.com/graalvm/";
     private static final Pattern FILENAME_PATTERN              = Pattern.compile(new StringBuilder().append("^(graalvm-jdk-").append(")(.*)(_bin)(\\.tar\\.gz|\\.zip)$").toString());
-    private static final Matcher FILENAME_MATCHER              = FILENAME_PATTERN.matcher("");
     private static final String  EA_BUILDS_URL                 = "https://raw.githubusercontent.com/graalvm/oracle-graalvm-ea-builds/main/versions/";
 
 
@@ -185,8 +183,7 @@ public class GraalVM implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            FILENAME_MATCHER.reset(filename);
-            if (!FILENAME_MATCHER.matches()) { continue; }
+            if (!FILENAME_PATTERN.matcher(filename).matches()) { continue; }
 
             String filenameWithoutPreset = filename.replaceFirst("graalvm-community-jdk-", "").replaceAll("(\\.tar\\.gz|\\.zip)", "").replaceAll("_bin", "");
             String strippedFilename = filenameWithoutPreset.substring(filenameWithoutPreset.indexOf("_"));
@@ -55,7 +55,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -73,7 +72,6 @@ public abstract class GraalVM_CE implements Distribution {
     protected        final String        distroName;
     protected        final int           jdkVersion;
     protected        final Pattern       filenamePattern;
-    protected        final Matcher       filenameMatcher;
     protected static final String        GITHUB_USER             = "graalvm";
     protected static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-builds/releases";
     protected static final String        PACKAGE_EA_URL          = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-dev-builds/releases";
@@ -99,7 +97,6 @@ public abstract class GraalVM_CE implements Distribution {
         this.distroName      = distroName;
         this.jdkVersion      = jdkVersion;
         this.filenamePattern = Pattern.compile(new StringBuilder().append("^(graalvm-ce-java").append(this.jdkVersion).append(")(.*)(\\.tar\\.gz|\\.zip)$").toString());
-        this.filenameMatcher = filenamePattern.matcher("");
     }
 
 
@@ -200,8 +197,7 @@ public abstract class GraalVM_CE implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            filenameMatcher.reset(filename);
-            if (!filenameMatcher.matches()) { continue; }
+            if (!filenamePattern.matcher(filename).matches()) { continue; }
             String   strippedFilename = filename.replaceFirst(new StringBuilder("graalvm-ce-java").append(this.jdkVersion).append("-").toString(), "").replaceAll("(\\.tar\\.gz|\\.zip)", "");
             String[] filenameParts    = strippedFilename.split("-");
 
@@ -60,7 +60,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -78,7 +77,6 @@ public class GraalVM_Community implements Distribution {
     private static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-builds/releases";
     private static final String        PACKAGE_EA_URL          = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-dev-builds/releases";
     private static final Pattern       FILENAME_PATTERN        = Pattern.compile(new StringBuilder().append("^(graalvm-community-jdk-").append(")(.*)(_bin)(\\.tar\\.gz|\\.zip)$").toString());
-    private static final Matcher       FILENAME_MATCHER        = FILENAME_PATTERN.matcher("");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM      = "";
@@ -134,7 +132,7 @@ public class GraalVM_Community implements Distribution {
     @Override public String getOfficialUri() { return OFFICIAL_URI; }
 
     @Override public List<String> getSynonyms() {
-        return List.of("graalvm_community", "GRAALVM_COMMUNITY", "GraalVM Community", "graalvm community");
+        return List.of("graalvm_community", "GRAALVM_COMMUNITY", "GraalVM Community", "graalvm community", "graalvmcommunity", "GraalVMCommunity", "GraalVM-Community", "GRAALVM-COMMUNITY");
     }
 
     @Override public List<Semver> getVersions() {
@@ -192,8 +190,7 @@ public class GraalVM_Community implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            FILENAME_MATCHER.reset(filename);
-            if (!FILENAME_MATCHER.matches()) { continue; }
+            if (!FILENAME_PATTERN.matcher(filename).matches()) { continue; }
 
             String filenameWithoutPreset = filename.replaceFirst("graalvm-community-jdk-", "").replaceAll("(\\.tar\\.gz|\\.zip)", "").replaceAll("_bin", "");
             String strippedFilename = filenameWithoutPreset.substring(filenameWithoutPreset.indexOf("_"));
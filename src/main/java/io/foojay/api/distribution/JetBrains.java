@@ -94,9 +94,7 @@ public class JetBrains implements Distribution {
     private static final String        OFFICIAL_URI           = "https://github.com/JetBrains/JetBrainsRuntime";
 
     private static final Pattern       JBRSDK_PATTERN         = Pattern.compile("JBRSDK\\s+\\|\\s+\\[([0-9a-zA-Z_.-]+)\\]\\(([0-9a-z:/._-]+)\\)");
-    private static final Matcher       JBRSDK_MATCHER         = JBRSDK_PATTERN.matcher("");
     private static final Pattern       JBRSDK_JCEF_PATTERN    = Pattern.compile("(https:\\/\\/[a-zA-Z0-9_\\/\\.\\-]+)((jbrsdk_jcef)-([a-zA-Z0-9\\.]*)-([a-zA-Z]*)-([a-zA-Z0-9]*)-([bB0-9\\.]*)(((\\.tar\\.gz)|(\\.zip)|(\\.pkg)|(\\.msi))(\\.checksum)?))");//Pattern.compile("(https:\\/\\/[a-zA-Z0-9_\\/\\.\\-]+)((jbrsdk_jcef)-([a-zA-Z0-9\\.]*)-([a-zA-Z]*)-([a-zA-Z0-9]*)-([bB0-9\\.]*)((\\.tar\\.gz)|(\\.zip))(?!\\.checksum))");
-    private static final Matcher       JBRSDK_JCEF_MATCHER    = JBRSDK_JCEF_PATTERN.matcher("");
     // Group 0 -> download link
     // Group 2 -> filename
     // Group 4 -> version number
@@ -279,15 +277,15 @@ public class JetBrains implements Distribution {
         List<Pkg> pkgs = new ArrayList<>();
         
         // SDK + JCEF
-        JBRSDK_JCEF_MATCHER.reset(bodyText);
-        while(JBRSDK_JCEF_MATCHER.find()) {
-            final String downloadLink     = JBRSDK_JCEF_MATCHER.group(0);
-            final String filename         = JBRSDK_JCEF_MATCHER.group(2);
-            final String versionNumber    = JBRSDK_JCEF_MATCHER.group(4);
-            final String operatingSystem  = JBRSDK_JCEF_MATCHER.group(5);
-            final String architecture     = JBRSDK_JCEF_MATCHER.group(6);
-            final String buildNumber      = JBRSDK_JCEF_MATCHER.group(7).replaceAll("\\.", "");
-            final String fileEnding       = JBRSDK_JCEF_MATCHER.group(8);
+        final Matcher jbrsdkJcefMatcher = JBRSDK_JCEF_PATTERN.matcher(bodyText);
+        while(jbrsdkJcefMatcher.find()) {
+            final String downloadLink     = jbrsdkJcefMatcher.group(0);
+            final String filename         = jbrsdkJcefMatcher.group(2);
+            final String versionNumber    = jbrsdkJcefMatcher.group(4);
+            final String operatingSystem  = jbrsdkJcefMatcher.group(5);
+            final String architecture     = jbrsdkJcefMatcher.group(6);
+            final String buildNumber      = jbrsdkJcefMatcher.group(7).replaceAll("\\.", "");
+            final String fileEnding       = jbrsdkJcefMatcher.group(8);
 
             // Fetch checksum
             if (fileEnding.endsWith("checksum")) {
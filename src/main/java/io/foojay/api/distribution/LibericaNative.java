@@ -160,7 +160,7 @@ public class LibericaNative implements Distribution {
     @Override public String getOfficialUri() { return OFFICIAL_URI; }
 
     @Override public List<String> getSynonyms() {
-        return List.of("liberica_native", "LIBERICA_NATIVE", "libericaNative", "LibericaNative", "liberica native", "LIBERICA NATIVE", "Liberica Native");
+        return List.of("liberica_native", "LIBERICA_NATIVE", "libericaNative", "LibericaNative", "liberica native", "LIBERICA NATIVE", "Liberica Native", "liberica_nik", "LIBERICA_NIK", "liberica nik", "LIBERICA NIK", "Liberica NIK");
     }
 
     @Override public List<Semver> getVersions() {
@@ -52,7 +52,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -70,7 +69,6 @@ public class Mandrel implements Distribution {
     private static final String        GITHUB_USER             = "graalvm";
     private static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/mandrel/releases";
     private static final Pattern       FILENAME_PATTERN        = Pattern.compile("^(mandrel-java)([0-9]{2,3})(.*)(Final\\.tar\\.gz|\\.zip)$");
-    private static final Matcher       FILENAME_MATCHER        = FILENAME_PATTERN.matcher("");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM      = "";
@@ -172,8 +170,7 @@ public class Mandrel implements Distribution {
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256) ||
                 filename.endsWith(Constants.FILE_ENDING_SOURCE_TAR_GZ)) { continue; }
 
-            FILENAME_MATCHER.reset(filename);
-            if (!FILENAME_MATCHER.matches()) { continue; }
+            if (!FILENAME_PATTERN.matcher(filename).matches()) { continue; }
 
             String[] filenameParts         = filename.split("-");
             String   strippedFilename = filename.replaceFirst("mandrel-java[0-9]+-", "").replaceAll("\\.Final.*", "");
@@ -37,13 +37,14 @@ import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.OptionalInt;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -57,7 +58,6 @@ public class Microsoft implements Distribution {
     private static final Logger        LOGGER = LoggerFactory.getLogger(Microsoft.class);
 
     private static final Pattern       FILENAME_PREFIX_PATTERN = Pattern.compile("microsoft-");
-    private static final Matcher       FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String        PACKAGE_URL             = "https://docs.microsoft.com/java/openjdk/download";
     private static final String        OLDER_PACKAGES_URL      = "https://docs.microsoft.com/en-us/java/openjdk/older-releases";
     public  static final String        PKGS_PROPERTIES         = "https://github.com/foojayio/openjdk_releases/raw/main/microsoft.properties";
@@ -146,10 +146,10 @@ public class Microsoft implements Distribution {
     public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         try {
-            String htmlCurrentPkgs = Helper.getTextFromUrl(PACKAGE_URL);
+            String htmlCurrentPkgs = getHtml(PACKAGE_URL, onlyNewPkgs);
             pkgs.addAll(getAllPkgsFromHtml(htmlCurrentPkgs, onlyNewPkgs));
 
-            String htmlOlderPkgs = Helper.getTextFromUrl(OLDER_PACKAGES_URL);
+            String htmlOlderPkgs = getHtml(OLDER_PACKAGES_URL, onlyNewPkgs);
             pkgs.addAll(getAllPkgsFromHtml(htmlOlderPkgs, onlyNewPkgs));
         } catch (Exception e) {
             LOGGER.error("Error fetching all packages from Microsoft. {}", e);
@@ -160,6 +160,22 @@ public class Microsoft implements Distribution {
         return pkgs;
     }
 
+    /**
+     * Returns the html of the given page or an empty string if the request failed or
+     * (in case of onlyNewPkgs) the page did not change since the last update
+     * @param url
+     * @param onlyNewPkgs
+     * @return the html of the given page
+     */
+    private String getHtml(final String url, final boolean onlyNewPkgs) {
+        final HttpResponse<String> response = Helper.getConditional(getDistro().getApiString(), url, Map.of(), onlyNewPkgs);
+        if (null == response || response.statusCode() != 200) {
+            if (Helper.isNotModified(response)) { LOGGER.debug("No new packages for {}, {} did not change", getName(), url); }
+            return "";
+        }
+        return response.body();
+    }
+
     public List<Pkg> getAllPkgsFromHtml(final String html, final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         if (null == html || html.isEmpty()) { return pkgs; }
@@ -53,7 +53,6 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -67,7 +66,6 @@ public class OJDKBuild implements Distribution {
     private static final Logger        LOGGER                  = LoggerFactory.getLogger(OJDKBuild.class);
 
     private static final Pattern       FILENAME_PREFIX_PATTERN = Pattern.compile(".*-openjdk(-debug)?(-jre)?-");
-    private static final Matcher       FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String        GITHUB_USER             = "ojdkbuild";
     private static final String        GITHUB_REPOSITORY       = "ojdkbuild";
     private static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/" + GITHUB_REPOSITORY + "/releases?per_page=100";
@@ -177,7 +175,7 @@ public class OJDKBuild implements Distribution {
 
             if (filename.endsWith("txt") || filename.endsWith("symbols.tar.gz")) { continue; }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
             VersionNumber vNumber = VersionNumber.fromText(withoutPrefix);
             if (latest) {
@@ -338,7 +336,7 @@ public class OJDKBuild implements Distribution {
                 if (null == filename || filename.isEmpty() || filename.startsWith("openjfx") || filename.endsWith("txt") || filename.endsWith("debuginfo.zip") || filename.endsWith("sha256")) { continue; }
                 if (filename.contains("-debug-")) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+                String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
                 VersionNumber numberFound = VersionNumber.fromText(withoutPrefix);
                 VersionNumber vNumber = numberFound;
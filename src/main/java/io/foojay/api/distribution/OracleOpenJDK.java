@@ -89,9 +89,7 @@ public class OracleOpenJDK implements Distribution {
     private static final String                       GITHUB_CRAC_URL            = "https://api.github.com/repos/CRaC/openjdk-builds/releases";
     private static final String                       FILENAME_PREFIX            = "openjdk-";
     private static final Pattern                      FILENAME_PREFIX_PATTERN    = Pattern.compile("OpenJDK(8|11)U-");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER    = FILENAME_PREFIX_PATTERN.matcher("");
     private static final Pattern                      BUILD_NUMBER_PATTERN       = Pattern.compile("\\/([0-9]{1,3})\\/GPL\\/");
-    private static final Matcher                      BUILD_NUMBER_MATCHER       = BUILD_NUMBER_PATTERN.matcher("");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM         = "";
@@ -263,7 +261,7 @@ public class OracleOpenJDK implements Distribution {
 
                 if (filename.contains("debuginfo") || filename.contains("sources") || filename.contains("static-libs") || filename.contains("testimage") || filename.endsWith("sign")) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+                String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
                 String[] nameParts = withoutPrefix.split("_");
 
@@ -415,7 +413,7 @@ public class OracleOpenJDK implements Distribution {
                 ArchiveType archiveType = ArchiveType.getFromFileName(filename);
                 if (ArchiveType.SRC_TAR == archiveType) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+                String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
                 String withoutSuffix = withoutPrefix.replaceAll(archiveType.getFileEndings().get(0), "");
 
                 String[] nameParts = withoutSuffix.split("_");
@@ -534,8 +532,13 @@ public class OracleOpenJDK implements Distribution {
     public List<Pkg> getCRaCPkgs(final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         try {
-            HttpResponse<String> response = Helper.get(GITHUB_CRAC_URL, Map.of("accept", "application/vnd.github.v3+json",
-                                                                               "authorization", GithubTokenPool.INSTANCE.next()));
+            HttpResponse<String> response = Helper.getConditional(getDistro().getApiString(), GITHUB_CRAC_URL, Map.of("accept", "application/vnd.github.v3+json",
+                                                                                          "authorization", GithubTokenPool.INSTANCE.next()), onlyNewPkgs);
+            if (null == response) { return pkgs; }
+            if (Helper.isNotModified(response)) {
+                LOGGER.debug("No new CRaC packages for {}, releases did not change", getName());
+                return pkgs;
+            }
             if (response.statusCode() == 200) {
                 String      bodyText = response.body();
                 Gson        gson     = new Gson();
@@ -674,8 +677,8 @@ public class OracleOpenJDK implements Distribution {
 
         // Get packages from archive
         try {
-            HttpResponse<String> response = Helper.get(JDK_ARCHIVE_URL);
-            if (null != response) {
+            HttpResponse<String> response = Helper.getConditional(getDistro().getApiString(), JDK_ARCHIVE_URL, Map.of(), onlyNewPkgs);
+            if (null != response && !Helper.isNotModified(response)) {
                 String html = response.body();
                 if (!html.isEmpty()) {
                     List<Pkg> pkgsFromHtml = extractPackagesFromHtml(html, false, onlyNewPkgs);
@@ -700,8 +703,8 @@ public class OracleOpenJDK implements Distribution {
             String jdkUrl = JDK_URL + i + "/";
             boolean isReleaseCandidate = false;
             try {
-                HttpResponse<String> response = Helper.get(jdkUrl);
-                if (null != response) {
+                HttpResponse<String> response = Helper.getConditional(getDistro().getApiString(), jdkUrl, Map.of(), onlyNewPkgs);
+                if (null != response && !Helper.isNotModified(response)) {
                     String html = response.body();
                     if (!html.isEmpty()) {
                         isReleaseCandidate = html.contains("Release-Candidate");
@@ -803,16 +806,16 @@ public class OracleOpenJDK implements Distribution {
 
                 VersionNumber versionNumber = VersionNumber.fromText(filename);
 
-                BUILD_NUMBER_MATCHER.reset(downloadLink);
-                while(BUILD_NUMBER_MATCHER.find()) {
-                    if (BUILD_NUMBER_MATCHER.groupCount() > 0) {
+                final Matcher buildNumberMatcher = BUILD_NUMBER_PATTERN.matcher(downloadLink);
+                while(buildNumberMatcher.find()) {
+                    if (buildNumberMatcher.groupCount() > 0) {
                         try {
-                            Integer buildNo = Integer.valueOf(BUILD_NUMBER_MATCHER.group(1));
+                            Integer buildNo = Integer.valueOf(buildNumberMatcher.group(1));
                             if (versionNumber.getBuild().isEmpty()) {
                                     versionNumber.setBuild(buildNo);
                                 }
                         } catch (NumberFormatException e) {
-                            LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", BUILD_NUMBER_MATCHER.group(1));
+                            LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", buildNumberMatcher.group(1));
                         }
                     }
                 }
@@ -980,16 +983,16 @@ public class OracleOpenJDK implements Distribution {
                 if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
             }
 
-            BUILD_NUMBER_MATCHER.reset(downloadLink);
-            while(BUILD_NUMBER_MATCHER.find()) {
-                if (BUILD_NUMBER_MATCHER.groupCount() > 0) {
+            final Matcher buildNumberMatcher = BUILD_NUMBER_PATTERN.matcher(downloadLink);
+            while(buildNumberMatcher.find()) {
+                if (buildNumberMatcher.groupCount() > 0) {
                     try {
-                        Integer buildNo = Integer.valueOf(BUILD_NUMBER_MATCHER.group(1));
+                        Integer buildNo = Integer.valueOf(buildNumberMatcher.group(1));
                         if (versionNumber.getBuild().isEmpty()) {
                         versionNumber.setBuild(buildNo);
                             }
                     } catch (NumberFormatException e) {
-                        LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", BUILD_NUMBER_MATCHER.group(1));
+                        LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", buildNumberMatcher.group(1));
                     }
                 }
             }
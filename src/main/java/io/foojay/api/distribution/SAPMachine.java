@@ -41,13 +41,12 @@ import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpClientManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpClient.Redirect;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
@@ -60,7 +59,6 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -84,7 +82,6 @@ public class SAPMachine implements Distribution {
 
     public  static final Pattern                      SAP_MACHINE_EA_PATTERN  = Pattern.compile("(-ea\\.|-eabeta\\.)([0-9]*)");
     private static final Pattern                      FILENAME_PREFIX_PATTERN = Pattern.compile("sapmachine-");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String                       GITHUB_USER             = "SAP";
     private static final String                       GITHUB_REPOSITORY       = "SapMachine";
     private static final String                       PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/" + GITHUB_REPOSITORY + "/releases";
@@ -189,7 +186,7 @@ public class SAPMachine implements Distribution {
 
             if (null == filename || filename.isEmpty() || filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_SYMBOLS_TAR_GZ) || filename.contains("beta") || filename.contains("internal")) { continue; }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
             VersionNumber vNumber = VersionNumber.fromText(withoutPrefix);
             if (latest) {
@@ -481,19 +478,14 @@ public class SAPMachine implements Distribution {
         OptionalInt nextEA       = Helper.getNextEA();
         OptionalInt nextButOneEA = Helper.getNextButOneEA();
 
-        HttpClient  clientSAP = HttpClient.newBuilder()
-                                          .followRedirects(Redirect.NEVER)
-                                          .version(java.net.http.HttpClient.Version.HTTP_2)
-                                          .connectTimeout(Duration.ofSeconds(20))
-                                          .build();
-        HttpRequest request   = HttpRequest.newBuilder()
-                                           .uri(URI.create(PACKAGE_JSON_URL))
-                                           .setHeader("User-Agent", "DiscoAPI")
-                                           .timeout(Duration.ofSeconds(60))
-                                           .GET()
-                                           .build();
+        HttpRequest request = HttpRequest.newBuilder()
+                                         .uri(URI.create(PACKAGE_JSON_URL))
+                                         .setHeader("User-Agent", "DiscoAPI")
+                                         .timeout(Duration.ofSeconds(60))
+                                         .GET()
+                                         .build();
         try {
-            HttpResponse<String> response = clientSAP.send(request, BodyHandlers.ofString());
+            HttpResponse<String> response = HttpClientManager.INSTANCE.send(request, BodyHandlers.ofString(), false);
             if (response.statusCode() == 200) {
                 String      bodyText = response.body();
                 Gson        gson     = new Gson();
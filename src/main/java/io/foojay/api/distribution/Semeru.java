@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,21 +38,19 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.GithubReleaseFetcher;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.TreeSet;
-import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ReleaseStatus.EA;
@@ -158,29 +155,16 @@ public class Semeru implements Distribution {
         final int latestEA = nextButOneEA.isPresent() ? nextButOneEA.getAsInt() : MajorVersion.getLatest(true).getAsInt();
 
         try {
+            // Fetch the releases of all versions in one batch (only the new ones for incremental updates)
+            final List<String> releasesUrls = new ArrayList<>();
             for (int i = 8 ; i <= latestEA ; i++) {
                 if (i < 17 && TermOfSupport.LTS != new MajorVersion(i).getTermOfSupport()) { continue; }
-                String packageUrl = PACKAGE_URL + "semeru" + i + "-binaries/releases";
-                // Get all packages from github
-                try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
-                } catch (CompletionException e) {
-                    LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
-                }
+                releasesUrls.add(PACKAGE_URL + "semeru" + i + "-binaries/releases");
             }
+            GithubReleaseFetcher.INSTANCE.fetchReleases(Distro.SEMERU.getApiString(), releasesUrls, onlyNewPkgs).forEach((releasesUrl, jsonArray) -> {
+                pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
+                GithubReleaseFetcher.INSTANCE.stageWatermark(Distro.SEMERU.getApiString(), releasesUrl, jsonArray);
+            });
         } catch (Exception e) {
             LOGGER.error("Error fetching all packages from Semeru. {}", e);
         }
@@ -191,113 +175,27 @@ public class Semeru implements Distribution {
     }
 
     public List<Pkg> getAllPkgsFromJson(final JsonArray jsonArray, final boolean onlyNewPkgs) {
-        List<Pkg> pkgs = new ArrayList<>();
-
-        OptionalInt nextEA       = Helper.getNextEA();
-        OptionalInt nextButOneEA = Helper.getNextButOneEA();
+        final OptionalInt nextEA       = Helper.getNextEA();
+        final OptionalInt nextButOneEA = Helper.getNextButOneEA();
 
+        final List<JsonObject> releaseAssets = new ArrayList<>();
         for (int i = 0; i < jsonArray.size(); i++) {
             JsonObject jsonObj = jsonArray.get(i).getAsJsonObject();
             if (jsonObj.has("prerelease")) {
                 boolean prerelease = jsonObj.get("prerelease").getAsBoolean();
                 if (prerelease) { continue; }
             }
-            JsonArray assets = jsonObj.getAsJsonArray("assets");
-            for (JsonElement element : assets) {
-                JsonObject assetJsonObj = element.getAsJsonObject();
-                String     filename     = assetJsonObj.get("name").getAsString();
-
-                if (null == filename || filename.isEmpty() || filename.endsWith("txt") || filename.contains("debugimage") || filename.contains("testimage") || filename.endsWith("json") || filename.endsWith("bin") || filename.endsWith("sig")) { continue; }
-                if (filename.contains("-debug-")) { continue; }
-                if (null == filename || !filename.startsWith("ibm-semeru-open")) { continue; }
-
-                final String withoutPrefix    = filename.replaceAll("ibm-semeru-open-", "");
-                final String withoutLeadingNo = withoutPrefix.replaceAll("^[0-9]+-", "");
-
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> withoutLeadingNo.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NOT_FOUND);
-                if (PackageType.NOT_FOUND == packageType) {
-                    LOGGER.debug("Package type not found in Semeru for filename: {}", filename);
-                    continue;
-                }
-
-                if (filename.endsWith("rpm")) { continue; }
-
-                final String   withoutSuffix = withoutLeadingNo.substring(4);
-
-                final String[] filenameParts = withoutSuffix.split("_");
-
-                final VersionNumber versionNumber;
-                try {
-                    versionNumber = VersionNumber.fromText(filenameParts[2] + (filenameParts.length == 6 ? ("+b" + filenameParts[3]) : ""));
-                } catch (IllegalArgumentException e) {
-                    continue;
-                }
-                final MajorVersion  majorVersion  = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
-
-                String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
-
-                if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
-                }
-
-                OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                                   .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                   .findFirst()
-                                                                                   .map(Entry::getValue)
-                                                                                   .orElse(OperatingSystem.NOT_FOUND);
-                if (OperatingSystem.NOT_FOUND == operatingSystem) {
-                    LOGGER.debug("Operating System not found in Semeru for filename: {}", filename);
-                    continue;
-                }
-
+            jsonObj.getAsJsonArray("assets").forEach(element -> releaseAssets.add(element.getAsJsonObject()));
+        }
 
-                final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(Architecture.NOT_FOUND);
-                if (Architecture.NOT_FOUND == architecture) {
-                    LOGGER.debug("Architecture not found in Semeru for filename: {}", filename);
-                    continue;
-                }
+        // The assets are independent of each other and will be parsed in parallel
+        final List<Pkg> pkgs = releaseAssets.parallelStream()
+                                            .map(assetJsonObj -> getPkgFromAsset(assetJsonObj, nextEA, nextButOneEA, onlyNewPkgs))
+                                            .filter(Objects::nonNull)
+                                            .collect(Collectors.toCollection(ArrayList::new));
 
-                final ArchiveType archiveType = Helper.getFileEnding(filename);
-                if (OperatingSystem.MACOS == operatingSystem) {
-                    switch(archiveType) {
-                        case DEB, RPM      -> operatingSystem = OperatingSystem.LINUX;
-                        case CAB, MSI, EXE -> operatingSystem = OperatingSystem.WINDOWS;
-                    }
-                }
-
-                Pkg pkg = new Pkg();
-                pkg.setDistribution(Distro.SEMERU.get());
-                pkg.setArchitecture(architecture);
-                pkg.setBitness(architecture.getBitness());
-                pkg.setVersionNumber(versionNumber);
-                pkg.setJavaVersion(versionNumber);
-                pkg.setDistributionVersion(versionNumber);
-                pkg.setJdkVersion(new MajorVersion(versionNumber.getFeature().getAsInt()));
-                pkg.setDirectDownloadUri(downloadLink);
-                pkg.setFileName(filename);
-                pkg.setArchiveType(archiveType);
-                pkg.setJavaFXBundled(false);
-                pkg.setTermOfSupport(majorVersion.getTermOfSupport());
-                if (nextEA.isPresent()) {
-                    pkg.setReleaseStatus((filename.contains("-ea.") || majorVersion.getAsInt() == nextEA.getAsInt() || majorVersion.getAsInt() == nextButOneEA.getAsInt()) ? EA : GA);
-                } else {
-                    pkg.setReleaseStatus((filename.contains("-ea.") || majorVersion.equals(MajorVersion.getLatest(true))) ? EA : GA);
-                }
-                pkg.setPackageType(packageType);
-                pkg.setOperatingSystem(operatingSystem);
-                pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
-                pkgs.add(pkg);
-            }
-        }
+        // Probe the sizes of all new packages concurrently instead of one request per package
+        Helper.awaitFileSizes(pkgs.stream().map(pkg -> Helper.probeFileSize(pkg.getDirectDownloadUri(), pkg::setSize)).collect(Collectors.toList()));
 
         // Fetch checksums
         for (int i = 0 ; i < jsonArray.size(); i++) {
@@ -332,4 +230,97 @@ public class Semeru implements Distribution {
         LOGGER.debug("Successfully fetched {} packages from {}", pkgs.size(), PACKAGE_URL);
         return pkgs;
     }
+
+    private Pkg getPkgFromAsset(final JsonObject assetJsonObj, final OptionalInt nextEA, final OptionalInt nextButOneEA, final boolean onlyNewPkgs) {
+        final String filename = assetJsonObj.get("name").getAsString();
+
+        if (null == filename || filename.isEmpty() || filename.endsWith("txt") || filename.contains("debugimage") || filename.contains("testimage") || filename.endsWith("json") || filename.endsWith("bin") || filename.endsWith("sig")) { return null; }
+        if (filename.contains("-debug-")) { return null; }
+        if (null == filename || !filename.startsWith("ibm-semeru-open")) { return null; }
+
+        final String withoutPrefix    = filename.replaceAll("ibm-semeru-open-", "");
+        final String withoutLeadingNo = withoutPrefix.replaceAll("^[0-9]+-", "");
+
+        PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
+                                                               .filter(entry -> withoutLeadingNo.contains(entry.getKey()))
+                                                               .findFirst()
+                                                               .map(Entry::getValue)
+                                                               .orElse(PackageType.NOT_FOUND);
+        if (PackageType.NOT_FOUND == packageType) {
+            LOGGER.debug("Package type not found in Semeru for filename: {}", filename);
+            return null;
+        }
+
+        if (filename.endsWith("rpm")) { return null; }
+
+        final String   withoutSuffix = withoutLeadingNo.substring(4);
+
+        final String[] filenameParts = withoutSuffix.split("_");
+
+        final VersionNumber versionNumber;
+        try {
+            versionNumber = VersionNumber.fromText(filenameParts[2] + (filenameParts.length == 6 ? ("+b" + filenameParts[3]) : ""));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        final MajorVersion  majorVersion  = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
+
+        String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
+
+        if (onlyNewPkgs) {
+            if (CacheManager.INSTANCE.pkgCache.containsPkg(filename, downloadLink)) { return null; }
+        }
+
+        OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
+                                                                           .filter(entry -> withoutSuffix.contains(entry.getKey()))
+                                                                           .findFirst()
+                                                                           .map(Entry::getValue)
+                                                                           .orElse(OperatingSystem.NOT_FOUND);
+        if (OperatingSystem.NOT_FOUND == operatingSystem) {
+            LOGGER.debug("Operating System not found in Semeru for filename: {}", filename);
+            return null;
+        }
+
+
+        final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
+                                                                       .filter(entry -> withoutSuffix.contains(entry.getKey()))
+                                                                       .findFirst()
+                                                                       .map(Entry::getValue)
+                                                                       .orElse(Architecture.NOT_FOUND);
+        if (Architecture.NOT_FOUND == architecture) {
+            LOGGER.debug("Architecture not found in Semeru for filename: {}", filename);
+            return null;
+        }
+
+        final ArchiveType archiveType = Helper.getFileEnding(filename);
+        if (OperatingSystem.MACOS == operatingSystem) {
+            switch(archiveType) {
+                case DEB, RPM      -> operatingSystem = OperatingSystem.LINUX;
+                case CAB, MSI, EXE -> operatingSystem = OperatingSystem.WINDOWS;
+            }
+        }
+
+        Pkg pkg = new Pkg();
+        pkg.setDistribution(Distro.SEMERU.get());
+        pkg.setArchitecture(architecture);
+        pkg.setBitness(architecture.getBitness());
+        pkg.setVersionNumber(versionNumber);
+        pkg.setJavaVersion(versionNumber);
+        pkg.setDistributionVersion(versionNumber);
+        pkg.setJdkVersion(new MajorVersion(versionNumber.getFeature().getAsInt()));
+        pkg.setDirectDownloadUri(downloadLink);
+        pkg.setFileName(filename);
+        pkg.setArchiveType(archiveType);
+        pkg.setJavaFXBundled(false);
+        pkg.setTermOfSupport(majorVersion.getTermOfSupport());
+        if (nextEA.isPresent()) {
+            pkg.setReleaseStatus((filename.contains("-ea.") || majorVersion.getAsInt() == nextEA.getAsInt() || majorVersion.getAsInt() == nextButOneEA.getAsInt()) ? EA : GA);
+        } else {
+            pkg.setReleaseStatus((filename.contains("-ea.") || majorVersion.equals(MajorVersion.getLatest(true))) ? EA : GA);
+        }
+        pkg.setPackageType(packageType);
+        pkg.setOperatingSystem(operatingSystem);
+        pkg.setFreeUseInProduction(Boolean.TRUE);
+        return pkg;
+    }
 }
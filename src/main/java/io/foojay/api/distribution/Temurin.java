@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -35,16 +34,16 @@ import eu.hansolo.jdktools.TermOfSupport;
 import eu.hansolo.jdktools.versioning.Semver;
 import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.CacheManager;
+import io.foojay.api.UpdateManager;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.GithubReleaseFetcher;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -52,10 +51,13 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.TreeSet;
-import java.util.concurrent.CompletionException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
@@ -85,6 +87,7 @@ public class Temurin implements Distribution {
 
     private static final String        PACKAGE_URL            = "https://api.github.com/repos/adoptium/";
     private static final String        PACKAGE_API_URL        = "https://api.adoptium.net/v3/assets/feature_releases/";
+    private static final Pattern       ASSET_PREFIX_PATTERN   = Pattern.compile("OpenJDK[0-9]+U?\\-");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM     = "architecture";
@@ -234,7 +237,8 @@ public class Temurin implements Distribution {
     @Override public List<Pkg> getPkgFromJson(final JsonObject jsonObj, final VersionNumber versionNumber, final boolean latest, final OperatingSystem operatingSystem,
                                               final Architecture architecture, final Bitness bitness, final ArchiveType archiveType, final PackageType packageType,
                                               final Boolean javafxBundled, final ReleaseStatus releaseStatus, final TermOfSupport termOfSupport, final boolean onlyNewPkgs) {
-        List<Pkg> pkgs = new ArrayList<>();
+        List<Pkg>                     pkgs       = new ArrayList<>();
+        List<CompletableFuture<Void>> sizeProbes = new ArrayList<>();
 
         TermOfSupport supTerm = Helper.getTermOfSupport(versionNumber);
         supTerm = MTS == supTerm ? STS : supTerm;
@@ -325,14 +329,14 @@ public class Temurin implements Distribution {
                     installerPkg.setChecksumUri(checksumLink.isEmpty()  ? ""                 : checksumLink);
                     installerPkg.setChecksumType(checksumLink.isEmpty() ? HashAlgorithm.NONE : HashAlgorithm.SHA256);
                 }
-                installerPkg.setSize(Helper.getFileSize(installerDownloadLink));
+                sizeProbes.add(Helper.probeFileSize(installerDownloadLink, installerPkg::setSize));
                 if(ArchiveType.NONE == archiveType || ext == archiveType) {
                     installerPkg.setArchiveType(ext);
                     installerPkg.setFileName(installerName);
                     installerPkg.setDirectDownloadUri(installerDownloadLink);
                     installerPkg.setFreeUseInProduction(Boolean.TRUE);
                     if (onlyNewPkgs) {
-                        if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(installerName)).filter(p -> p.getDirectDownloadUri().equals(installerDownloadLink)).count() == 0) {
+                        if (!CacheManager.INSTANCE.pkgCache.containsPkg(installerName, installerDownloadLink)) {
                             pkgs.add(installerPkg);
                         }
                     }
@@ -366,7 +370,7 @@ public class Temurin implements Distribution {
                 }
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(packageName)).filter(p -> p.getDirectDownloadUri().equals(packageDownloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsPkg(packageName, packageDownloadLink)) { continue; }
                 }
 
                 Pkg packagePkg = new Pkg();
@@ -403,9 +407,10 @@ public class Temurin implements Distribution {
                     packagePkg.setChecksumUri(checksumLink.isEmpty()  ? ""                 : checksumLink);
                     packagePkg.setChecksumType(checksumLink.isEmpty() ? HashAlgorithm.NONE : HashAlgorithm.SHA256);
                 }
-                packagePkg.setSize(Helper.getFileSize(packageDownloadLink));
+                sizeProbes.add(Helper.probeFileSize(packageDownloadLink, packagePkg::setSize));
             }
         }
+        Helper.awaitFileSizes(sizeProbes);
 
         Helper.checkPkgsForTooEarlyGA(pkgs);
 
@@ -418,28 +423,24 @@ public class Temurin implements Distribution {
         final OptionalInt nextButOneEA = Helper.getNextButOneEA();
         final int latestEA = nextButOneEA.isPresent() ? nextButOneEA.getAsInt() : MajorVersion.getLatest(true).getAsInt();
         try {
+            // Fetch the releases of all feature versions in one batch (only the new ones for incremental updates)
+            final List<String> releasesUrls = new ArrayList<>();
+            for (int i = 8 ; i <= latestEA ; i++) { releasesUrls.add(PACKAGE_URL + "temurin" + i + "-binaries/releases"); }
+            final Map<String, JsonArray> releases = GithubReleaseFetcher.INSTANCE.fetchReleases(Distro.TEMURIN.getApiString(), releasesUrls, onlyNewPkgs);
+
+            final List<Callable<List<Pkg>>> parses = new ArrayList<>();
             for (int i = 8 ; i <= latestEA ; i++) {
-                String packageUrl = PACKAGE_URL + "temurin" + i + "-binaries/releases";
-                // Get all packages from github
-                try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, i, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
-                } catch (CompletionException e) {
-                    LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
-                }
+                final int       featureVersion = i;
+                final String    releasesUrl    = releasesUrls.get(i - 8);
+                final JsonArray jsonArray      = releases.get(releasesUrl);
+                if (null == jsonArray || jsonArray.isEmpty()) { continue; }
+                parses.add(() -> {
+                    final List<Pkg> pkgsOfFeatureVersion = getAllPkgsFromJson(jsonArray, featureVersion, onlyNewPkgs);
+                    GithubReleaseFetcher.INSTANCE.stageWatermark(Distro.TEMURIN.getApiString(), releasesUrl, jsonArray);
+                    return pkgsOfFeatureVersion;
+                });
             }
+            pkgs.addAll(UpdateManager.INSTANCE.fetchAll(parses));
         } catch (Exception e) {
             LOGGER.error("Error fetching all packages from Temurin. {}", e);
         }
@@ -458,6 +459,7 @@ public class Temurin implements Distribution {
             boolean isEarlyAccessOnly = majorVersionOpt.get().isEarlyAccessOnly();
             LocalDateTime publishedAt     = LocalDateTime.MIN;
             LocalDateTime lastPublishedAt = publishedAt;
+            final List<JsonObject> releaseAssets = new ArrayList<>();
             for (int i = 0; i < jsonArray.size(); i++) {
                 JsonObject jsonObj = jsonArray.get(i).getAsJsonObject();
                 if (jsonObj.has("prerelease")) {
@@ -467,105 +469,112 @@ public class Temurin implements Distribution {
                 if (jsonObj.has("published_at")) {
                     publishedAt = LocalDateTime.parse(jsonObj.get("published_at").getAsString(), DateTimeFormatter.ISO_DATE_TIME);
                 }
-                JsonArray assets = jsonObj.getAsJsonArray("assets");
-                for (JsonElement element : assets) {
-                    JsonObject assetJsonObj = element.getAsJsonObject();
-                    String     filename     = assetJsonObj.get("name").getAsString();
-
-                    if (null == filename || filename.isEmpty() || filename.endsWith("txt") || filename.contains("debugimage") || filename.contains("testimage") || filename.endsWith("json")) { continue; }
-                    if (filename.contains("-debug-")) { continue; }
-                    if (null == filename || !filename.startsWith("OpenJDK")) { continue; }
-
-                    final String   withoutPrefix = filename.replaceAll("OpenJDK[0-9]+U?\\-", "");
-                    final String   withoutSuffix = withoutPrefix.substring(0, withoutPrefix.lastIndexOf("."));
-                    final String[] filenameParts = withoutSuffix.split("_");
-
-                    final VersionNumber versionNumber;
-                    final MajorVersion  majorVersion;
-                    final ReleaseStatus releaseStatus;
-                    if (isEarlyAccessOnly) {
-                        versionNumber = majorVersionOpt.get().getVersionNumber();
-                        majorVersion  = majorVersionOpt.get();
-                        releaseStatus = EA;
-                    } else {
-                        versionNumber = VersionNumber.fromText(filenameParts[4] + (filenameParts.length == 6 ? ("+b" + filenameParts[5]) : ""));
-                        majorVersion  = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
-                        if (nextEA.isPresent()) {
-                            releaseStatus = (filename.contains("-ea.") || majorVersion.getAsInt() == nextEA.getAsInt() || majorVersion.getAsInt() == nextButOneEA.getAsInt()) ? EA : GA;
-                        } else {
-                            releaseStatus = (filename.contains("-ea.") || majorVersion.equals(MajorVersion.getLatest(true))) ? EA : GA;
-                        }
-                    }
-                    String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
-
-                    if (onlyNewPkgs) {
-                        if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
-                    }
-
-                    PackageType packageType = PackageType.fromText(filenameParts[0]);
-
-                    OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                                       .stream()
-                                                                                       .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                       .findFirst()
-                                                                                       .map(Entry::getValue)
-                                                                                       .orElse(OperatingSystem.NOT_FOUND);
-                    if (OperatingSystem.NOT_FOUND == operatingSystem) {
-                        LOGGER.debug("Operating System not found in Temurin for filename: {}", filename);
-                        continue;
-                    }
-
-                    final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                                   .stream()
-                                                                                   .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                   .findFirst()
-                                                                                   .map(Entry::getValue)
-                                                                                   .orElse(Architecture.NOT_FOUND);
-                    if (Architecture.NOT_FOUND == architecture) {
-                        LOGGER.debug("Architecture not found in Temurin for filename: {}", filename);
-                        continue;
-                    }
-
-                    final ArchiveType archiveType = Helper.getFileEnding(filename);
-                    if (OperatingSystem.MACOS == operatingSystem) {
-                        switch (archiveType) {
-                            case DEB, RPM      -> operatingSystem = OperatingSystem.LINUX;
-                            case CAB, MSI, EXE -> operatingSystem = OperatingSystem.WINDOWS;
-                        }
-                    }
-
-                    Pkg pkg = new Pkg();
-                    pkg.setDistribution(Distro.TEMURIN.get());
-                    pkg.setArchitecture(architecture);
-                    pkg.setBitness(architecture.getBitness());
-                    pkg.setVersionNumber(versionNumber);
-                    pkg.setJavaVersion(versionNumber);
-                    pkg.setDistributionVersion(versionNumber);
-                    pkg.setJdkVersion(new MajorVersion(versionNumber.getFeature().getAsInt()));
-                    pkg.setDirectDownloadUri(downloadLink);
-                    pkg.setFileName(filename);
-                    pkg.setArchiveType(archiveType);
-                    pkg.setJavaFXBundled(false);
-                    pkg.setTermOfSupport(majorVersion.getTermOfSupport());
-                    pkg.setReleaseStatus(releaseStatus);
-                    pkg.setPackageType(packageType);
-                    pkg.setOperatingSystem(operatingSystem);
-                    pkg.setFreeUseInProduction(Boolean.TRUE);
-                    pkg.setSize(Helper.getFileSize(downloadLink));
-
-                    if (isEarlyAccessOnly) {
-                        if (publishedAt.isAfter(lastPublishedAt)) { pkgs.add(pkg); }
-                    } else {
-                        pkgs.add(pkg);
-                    }
+                // Packages of early access only versions will only be added if the release is newer than the previous one
+                if (!isEarlyAccessOnly || publishedAt.isAfter(lastPublishedAt)) {
+                    jsonObj.getAsJsonArray("assets").forEach(element -> releaseAssets.add(element.getAsJsonObject()));
                 }
                 lastPublishedAt = publishedAt;
             }
+
+            // The assets are independent of each other and will be parsed in parallel
+            final MajorVersion featureMajorVersion = majorVersionOpt.get();
+            pkgs.addAll(releaseAssets.parallelStream()
+                                     .map(assetJsonObj -> getPkgFromAsset(assetJsonObj, featureMajorVersion, isEarlyAccessOnly, nextEA, nextButOneEA, onlyNewPkgs))
+                                     .filter(Objects::nonNull)
+                                     .collect(Collectors.toList()));
         }
+        // Probe the sizes of all new packages concurrently instead of one request per package
+        Helper.awaitFileSizes(pkgs.stream().map(pkg -> Helper.probeFileSize(pkg.getDirectDownloadUri(), pkg::setSize)).collect(Collectors.toList()));
 
         Helper.checkPkgsForTooEarlyGA(pkgs);
 
         LOGGER.debug("Successfully fetched {} packages from {}", pkgs.size(), PACKAGE_URL);
         return pkgs;
     }
+
+    private Pkg getPkgFromAsset(final JsonObject assetJsonObj, final MajorVersion featureMajorVersion, final boolean isEarlyAccessOnly, final OptionalInt nextEA, final OptionalInt nextButOneEA, final boolean onlyNewPkgs) {
+        final String filename = assetJsonObj.get("name").getAsString();
+
+        if (null == filename || filename.isEmpty() || filename.endsWith("txt") || filename.contains("debugimage") || filename.contains("testimage") || filename.endsWith("json")) { return null; }
+        if (filename.contains("-debug-")) { return null; }
+        if (null == filename || !filename.startsWith("OpenJDK")) { return null; }
+
+        final String   withoutPrefix = ASSET_PREFIX_PATTERN.matcher(filename).replaceAll("");
+        final String   withoutSuffix = withoutPrefix.substring(0, withoutPrefix.lastIndexOf("."));
+        final String[] filenameParts = withoutSuffix.split("_");
+
+        final VersionNumber versionNumber;
+        final MajorVersion  majorVersion;
+        final ReleaseStatus releaseStatus;
+        if (isEarlyAccessOnly) {
+            versionNumber = featureMajorVersion.getVersionNumber();
+            majorVersion  = featureMajorVersion;
+            releaseStatus = EA;
+        } else {
+            versionNumber = VersionNumber.fromText(filenameParts[4] + (filenameParts.length == 6 ? ("+b" + filenameParts[5]) : ""));
+            majorVersion  = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
+            if (nextEA.isPresent()) {
+                releaseStatus = (filename.contains("-ea.") || majorVersion.getAsInt() == nextEA.getAsInt() || majorVersion.getAsInt() == nextButOneEA.getAsInt()) ? EA : GA;
+            } else {
+                releaseStatus = (filename.contains("-ea.") || majorVersion.equals(MajorVersion.getLatest(true))) ? EA : GA;
+            }
+        }
+        String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
+
+        if (onlyNewPkgs) {
+            if (CacheManager.INSTANCE.pkgCache.containsPkg(filename, downloadLink)) { return null; }
+        }
+
+        PackageType packageType = PackageType.fromText(filenameParts[0]);
+
+        OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
+                                                                           .stream()
+                                                                           .filter(entry -> withoutSuffix.contains(entry.getKey()))
+                                                                           .findFirst()
+                                                                           .map(Entry::getValue)
+                                                                           .orElse(OperatingSystem.NOT_FOUND);
+        if (OperatingSystem.NOT_FOUND == operatingSystem) {
+            LOGGER.debug("Operating System not found in Temurin for filename: {}", filename);
+            return null;
+        }
+
+        final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
+                                                                       .stream()
+                                                                       .filter(entry -> withoutSuffix.contains(entry.getKey()))
+                                                                       .findFirst()
+                                                                       .map(Entry::getValue)
+                                                                       .orElse(Architecture.NOT_FOUND);
+        if (Architecture.NOT_FOUND == architecture) {
+            LOGGER.debug("Architecture not found in Temurin for filename: {}", filename);
+            return null;
+        }
+
+        final ArchiveType archiveType = Helper.getFileEnding(filename);
+        if (OperatingSystem.MACOS == operatingSystem) {
+            switch (archiveType) {
+                case DEB, RPM      -> operatingSystem = OperatingSystem.LINUX;
+                case CAB, MSI, EXE -> operatingSystem = OperatingSystem.WINDOWS;
+            }
+        }
+
+        Pkg pkg = new Pkg();
+        pkg.setDistribution(Distro.TEMURIN.get());
+        pkg.setArchitecture(architecture);
+        pkg.setBitness(architecture.getBitness());
+        pkg.setVersionNumber(versionNumber);
+        pkg.setJavaVersion(versionNumber);
+        pkg.setDistributionVersion(versionNumber);
+        pkg.setJdkVersion(new MajorVersion(versionNumber.getFeature().getAsInt()));
+        pkg.setDirectDownloadUri(downloadLink);
+        pkg.setFileName(filename);
+        pkg.setArchiveType(archiveType);
+        pkg.setJavaFXBundled(false);
+        pkg.setTermOfSupport(majorVersion.getTermOfSupport());
+        pkg.setReleaseStatus(releaseStatus);
+        pkg.setPackageType(packageType);
+        pkg.setOperatingSystem(operatingSystem);
+        pkg.setFreeUseInProduction(Boolean.TRUE);
+
+        return pkg;
+    }
 }
@@ -50,7 +50,6 @@ import java.util.Map.Entry;
 import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -64,7 +63,6 @@ public class Trava implements Distribution {
     private static final Logger LOGGER = LoggerFactory.getLogger(Trava.class);
 
     private static final Pattern      DOWNLOAD_PATTERN = Pattern.compile("(.*\\/download\\/dcevm)(\\-)?(.*)(\\/.*)");
-    private static final Matcher      DOWNLOAD_MATCHER = DOWNLOAD_PATTERN.matcher("");
     private static final String       GITHUB_USER      = "TravaOpenJDK";
     private static final String       PACKAGE_URL      = "https://github.com/TravaOpenJDK/";
     public  static final List<String> PACKAGE_URLS     = List.of("https://api.github.com/repos/" + GITHUB_USER + "/trava-jdk-8-dcevm/releases?per_page=100",
@@ -178,8 +176,7 @@ public class Trava implements Distribution {
             }
 
             VersionNumber vNumber = new VersionNumber();
-            DOWNLOAD_MATCHER.reset(downloadLink);
-            final List<MatchResult> results = DOWNLOAD_MATCHER.results().collect(Collectors.toList());
+            final List<MatchResult> results = DOWNLOAD_PATTERN.matcher(downloadLink).results().collect(Collectors.toList());
             if (results.size() > 0) {
                 MatchResult result = results.get(0);
                 vNumber = VersionNumber.fromText(result.group(3));
@@ -343,8 +340,7 @@ public class Trava implements Distribution {
                 }
 
                 VersionNumber vNumber = new VersionNumber();
-                DOWNLOAD_MATCHER.reset(downloadLink);
-                final List<MatchResult> results = DOWNLOAD_MATCHER.results().collect(Collectors.toList());
+                final List<MatchResult> results = DOWNLOAD_PATTERN.matcher(downloadLink).results().collect(Collectors.toList());
                 if (results.size() > 0) {
                     MatchResult result = results.get(0);
                     vNumber = VersionNumber.fromText(result.group(3));
@@ -25,7 +25,6 @@ import com.google.gson.JsonObject;
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
 import eu.hansolo.jdktools.Bitness;
-import eu.hansolo.jdktools.FPU;
 import eu.hansolo.jdktools.HashAlgorithm;
 import eu.hansolo.jdktools.OperatingSystem;
 import eu.hansolo.jdktools.PackageType;
@@ -41,6 +40,8 @@ import io.foojay.api.pkg.Feature;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.FilenameClassifier.Classification;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,9 +51,8 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -91,10 +91,10 @@ public class Zulu implements Distribution {
     private static final Logger                       LOGGER                     = LoggerFactory.getLogger(Zulu.class);
 
     private static final Pattern                      FILENAME_PREFIX_PATTERN    = Pattern.compile("(zulu|zre)(\\d+)\\.(\\d+)\\.(\\d+)(\\.|_?)(\\d+)?");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER    = FILENAME_PREFIX_PATTERN.matcher("");
     private static final Pattern                      FILENAME_PREFIX_VN_PATTERN = Pattern.compile("(zulu-repo-|zulu-repo_|zulu|zre)[0-9]{1,3}\\.[0-9]{1,3}(\\.|\\+)[0-9]{1,4}(\\.|-|_)([0-9]{1,3}-)?([0-9]{1,4}_[0-9]{1,4}-)?(ca-|ea-)?(fx-)?(dbg-)?(hl)?(cp(1|2|3)-)?(oem-)?(-|jre|jdk)?");
     private static final Pattern                      FEATURE_PREFIX_PATTERN     = Pattern.compile("^((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?");
-    private static final Matcher                      FEATURE_PREFIX_MATCHER     = FEATURE_PREFIX_PATTERN.matcher("");
+    private static final Pattern                      CDN_PREFIX_VERSION_PATTERN = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)((-|_)?)(\\d+)\\.(\\d+)(\\.|\\+)(\\d+)(\\.|_?)(\\d+)?(-|_)([0-9]+-)?((ca|ea)(-))?(hl-)?(fx-)?(cp[0-9]+-)?(jdk|jre)?");
+    private static final Pattern                      CDN_PREFIX_DISTRO_PATTERN  = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)");
     private static final String                       PACKAGE_URL                = "https://api.azul.com/metadata/v1/zulu/packages/";
     private static final String                       CDN_URL                    = "https://cdn.azul.com/zulu/bin/";
 
@@ -272,7 +272,7 @@ public class Zulu implements Distribution {
             vNumber = new VersionNumber(jdkVersionArray.get(0).getAsInt(), jdkVersionArray.get(1).getAsInt(), jdkVersionArray.get(2).getAsInt(), 0);
         } else {
             //Get the real version number from the filename without the prefix
-            final String fileNameWithoutPrefix = filename.replaceAll(FILENAME_PREFIX_VN_PATTERN.pattern(), "");
+            final String fileNameWithoutPrefix = FILENAME_PREFIX_VN_PATTERN.matcher(filename).replaceAll("");
             vNumber = VersionNumber.fromText(fileNameWithoutPrefix);
         }
 
@@ -322,32 +322,21 @@ public class Zulu implements Distribution {
             }
         }
 
-        FPU fpu;
-        if (filename.contains("32sf.")) {
-            fpu = FPU.SOFT_FLOAT;
-        } else if (filename.contains("32hf.")) {
-            fpu = FPU.HARD_FLOAT;
-        } else {
-            fpu = FPU.UNKNOWN;
-        }
-        pkg.setFPU(fpu);
+        final Classification classification = FilenameClassifier.INSTANCE.classify(filename);
+        pkg.setFPU(classification.getFPU());
 
         if (filename.contains("crac")) {
             pkg.getFeatures().add(Feature.CRAC);
         }
 
-        String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+        String withoutPrefix = FILENAME_PREFIX_PATTERN.matcher(filename).replaceAll("");
 
         if (null != javafxBundled && javafxBundled && !withoutPrefix.contains(Constants.FX_POSTFIX)) { return pkgs; }
         pkg.setJavaFXBundled(withoutPrefix.contains(Constants.FX_POSTFIX));
 
-        ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(ArchiveType.NONE);
+        ArchiveType ext = classification.getArchiveType();
 
-        if (ArchiveType.NONE == ext) {
+        if (ArchiveType.NOT_FOUND == ext) {
             LOGGER.debug("Archive Type not found in Zulu for filename: {}", filename);
             return pkgs;
         }
@@ -384,34 +373,26 @@ public class Zulu implements Distribution {
                 break;
         }
 
-        String withoutFeaturePrefix = FEATURE_PREFIX_MATCHER.reset(withoutPrefix).replaceAll("");
+        String withoutFeaturePrefix = FEATURE_PREFIX_PATTERN.matcher(withoutPrefix).replaceAll("");
 
         pkg.setHeadless(withoutFeaturePrefix.contains(Constants.HEADLESS_POSTFIX));
 
-        Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                         .findFirst()
-                                                         .map(Entry::getValue)
-                                                         .orElse(Architecture.NONE);
+        Architecture arch = classification.getArchitecture();
 
-        if (Architecture.NONE == arch && filename.contains("macos")) {
+        if (Architecture.NOT_FOUND == arch && filename.contains("macos")) {
             arch = X64;
         }
 
-        if (Architecture.NONE == arch) {
+        if (Architecture.NOT_FOUND == arch) {
             LOGGER.debug("Architecture not found in Zulu for filename: {}", filename);
             return pkgs;
         }
         pkg.setArchitecture(arch);
         pkg.setBitness(arch.getBitness());
 
-        OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                              .filter(entry -> filename.contains(entry.getKey()))
-                                                              .findFirst()
-                                                              .map(Entry::getValue)
-                                                              .orElse(OperatingSystem.NONE);
+        OperatingSystem os = classification.getOperatingSystem();
 
-        if (OperatingSystem.NONE == os) {
+        if (OperatingSystem.NOT_FOUND == os) {
             switch (pkg.getArchiveType()) {
                 case DEB, RPM, TAR_GZ -> os = LINUX;
                 case MSI, ZIP         -> os = WINDOWS;
@@ -456,30 +437,34 @@ public class Zulu implements Distribution {
     public List<Pkg> getAllPackagesFromCDN(final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         try {
-            final HttpResponse<String> response = Helper.get(CDN_URL);
+            final HttpResponse<String> response = Helper.getConditional(getDistro().getApiString(), CDN_URL, Map.of(), onlyNewPkgs);
             if (null == response) { return pkgs; }
+            if (Helper.isNotModified(response)) {
+                LOGGER.debug("No new packages for {}, CDN index did not change", getName());
+                return pkgs;
+            }
             final String html = response.body();
             if (html.isEmpty()) { return pkgs; }
 
-            final Pattern      filenamePrefixVersion       = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)((-|_)?)(\\d+)\\.(\\d+)(\\.|\\+)(\\d+)(\\.|_?)(\\d+)?(-|_)([0-9]+-)?((ca|ea)(-))?(hl-)?(fx-)?(cp[0-9]+-)?(jdk|jre)?");
-            final Pattern      filenamePrefixDistroVersion = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)");
             final List<String> fileHrefs                   = new ArrayList<>(Helper.getFileHrefsFromString(html));
+            // The CDN index is not sorted by release, so known files will be skipped instead of stopping at the first one
+            final Set<String>  knownDownloadLinks          = onlyNewPkgs ? CacheManager.INSTANCE.pkgCache.getPkgs().stream()
+                                                                                                       .filter(pkg -> Distro.ZULU.get().equals(pkg.getDistribution()))
+                                                                                                       .map(Pkg::getDirectDownloadUri)
+                                                                                                       .collect(Collectors.toSet()) : Set.of();
             for (String href : fileHrefs) {
                 String filename = Helper.getFileNameFromText(href);
                 if (filename.contains("noarch")) { continue; }
+                if (knownDownloadLinks.contains(CDN_URL + filename)) { continue; }
 
-                String          reducedToVersionFilename       = filename.startsWith("zulu1.") ? filename.replaceAll(filenamePrefixDistroVersion.pattern(), "") : filename.replaceAll(filenamePrefixVersion.pattern(), "");
+                String          reducedToVersionFilename       = (filename.startsWith("zulu1.") ? CDN_PREFIX_DISTRO_PATTERN : CDN_PREFIX_VERSION_PATTERN).matcher(filename).replaceAll("");
                 VersionNumber   versionNumber                  = VersionNumber.fromText(reducedToVersionFilename);
                 TermOfSupport   termOfSupport                  = Helper.getTermOfSupport(versionNumber);
                 String          downloadLink                   = CDN_URL + filename;
 
-                String          reducedToDistroVersionFilename = filename.startsWith("zulu1.") ? filename.replaceAll(filenamePrefixVersion.pattern(), "") : filename.replaceAll(filenamePrefixDistroVersion.pattern(), "");
+                String          reducedToDistroVersionFilename = (filename.startsWith("zulu1.") ? CDN_PREFIX_VERSION_PATTERN : CDN_PREFIX_DISTRO_PATTERN).matcher(filename).replaceAll("");
                 VersionNumber   distroVersionNumber            = VersionNumber.fromText(reducedToDistroVersionFilename);
 
-                if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(pkg -> pkg.getFilename().equals(filename)).filter(pkg -> pkg.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return pkgs; }
-                }
-
                 Pkg pkg = new Pkg();
                 pkg.setDistribution(Distro.ZULU.get());
                 pkg.setVersionNumber(versionNumber);
@@ -487,41 +472,23 @@ public class Zulu implements Distribution {
                 pkg.setDistributionVersion(distroVersionNumber);
                 pkg.setJdkVersion(new MajorVersion(versionNumber.getFeature().getAsInt()));
 
-                FPU fpu;
-                if (filename.contains("32sf.")) {
-                    fpu = FPU.SOFT_FLOAT;
-                } else if (filename.contains("32hf.")) {
-                    fpu = FPU.HARD_FLOAT;
-                } else {
-                    fpu = FPU.UNKNOWN;
-                }
-                pkg.setFPU(fpu);
+                // Classify the filename in one scan instead of checking every key of every lookup
+                final Classification classification = FilenameClassifier.INSTANCE.classify(filename);
+                pkg.setFPU(classification.getFPU());
 
                 if (filename.contains("crac")) {
                     pkg.getFeatures().add(Feature.CRAC);
                 }
 
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> filename.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NOT_FOUND);
+                PackageType packageType = classification.getPackageType();
                 if (PackageType.NOT_FOUND == packageType) { packageType = JDK; }
                 pkg.setPackageType(packageType);
 
-                ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(ArchiveType.NOT_FOUND);
+                ArchiveType archiveType = classification.getArchiveType();
                 if (ArchiveType.NOT_FOUND == archiveType) { continue; }
                 pkg.setArchiveType(archiveType);
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NOT_FOUND);
+                OperatingSystem os = classification.getOperatingSystem();
                 if (OperatingSystem.NOT_FOUND == os) {
                     os = Helper.fetchOperatingSystemByArchiveType(archiveType.getUiString());
                 }
@@ -529,11 +496,7 @@ public class Zulu implements Distribution {
                 if (OperatingSystem.NOT_FOUND == os) { continue; }
                 pkg.setOperatingSystem(os);
 
-                Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                                         .findFirst()
-                                                                         .map(Entry::getValue)
-                                                                         .orElse(Architecture.NOT_FOUND);
+                Architecture architecture = classification.getArchitecture();
                 if (Architecture.NOT_FOUND == architecture) {
                     if (MACOS == pkg.getOperatingSystem()) {
                         architecture = X64;
@@ -552,7 +515,6 @@ public class Zulu implements Distribution {
                 pkg.setJavaFXBundled(filename.contains("-fx"));
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
 
                 String directDownloadUri = pkg.getDirectDownloadUri();
                 //String tckCertUri        = directDownloadUri.replaceAll("/bin/", "/pdf/cert\\.") + ".pdf";
@@ -567,6 +529,8 @@ public class Zulu implements Distribution {
         } catch (Exception e) {
             LOGGER.debug("Error fetching packages from Zulu CDN. {}", e.getMessage());
         }
+        // Probe the sizes of all new packages concurrently instead of one request per package
+        Helper.awaitFileSizes(pkgs.stream().map(pkg -> Helper.probeFileSize(pkg.getDirectDownloadUri(), pkg::setSize)).collect(Collectors.toList()));
 
         Helper.checkPkgsForTooEarlyGA(pkgs);
 
@@ -28,6 +28,7 @@ import eu.hansolo.jdktools.util.OutputFormat;
 import eu.hansolo.jdktools.versioning.Semver;
 import io.foojay.api.CacheManager;
 import io.foojay.api.distribution.*;
+import io.foojay.api.util.TextLookup;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -120,6 +121,16 @@ public enum Distro implements Api {
     public         final AtomicReference<Instant>  lastUpdate;
     public         final AtomicReference<Instant>  lastValidationCheck;
     public         final AtomicReference<Instant>  lastRefresh;
+    private static final TextLookup<Distro>        LOOKUP                    = new TextLookup<>(NOT_FOUND);
+
+    static {
+        // Api string, ui string, name and synonyms of all distributions in one case insensitive lookup
+        for (Distro distro : values()) {
+            if (NONE == distro || NOT_FOUND == distro) { continue; }
+            LOOKUP.add(distro, distro.getApiString(), distro.getUiString(), distro.name());
+            LOOKUP.add(distro, distro.get().getSynonyms());
+        }
+    }
 
 
     Distro(final String uiString, final String apiString, final Distribution distribution, final int updateIntervalInMinutes, final boolean maintained, final boolean available, final Scope buildScope) {
@@ -150,256 +161,7 @@ public enum Distro implements Api {
 
     public static Distribution distributionFromText(final String text) { return fromText(text).get(); }
 
-    public static Distro fromText(final String text) {
-        if (null == text) { return NOT_FOUND; }
-        switch (text) {
-            case "zulu":
-            case "ZULU":
-            case "Zulu":
-            case "zulucore":
-            case "ZULUCORE":
-            case "ZuluCore":
-            case "zulu_core":
-            case "ZULU_CORE":
-            case "Zulu_Core":
-            case "zulu core":
-            case "ZULU CORE":
-            case "Zulu Core":
-                return ZULU;
-            case "zing":
-            case "ZING":
-            case "Zing":
-            case "prime":
-            case "PRIME":
-            case "Prime":
-            case "zuluprime":
-            case "ZULUPRIME":
-            case "ZuluPrime":
-            case "zulu_prime":
-            case "ZULU_PRIME":
-            case "Zulu_Prime":
-            case "zulu prime":
-            case "ZULU PRIME":
-            case "Zulu Prime":
-                return ZULU_PRIME;
-            case "aoj":
-            case "AOJ":
-                return AOJ;
-            case "aoj_openj9":
-            case "AOJ_OpenJ9":
-            case "AOJ_OPENJ9":
-            case "AOJ OpenJ9":
-            case "AOJ OPENJ9":
-            case "aoj openj9":
-                return AOJ_OPENJ9;
-            case "corretto":
-            case "CORRETTO":
-            case "Corretto":
-                return CORRETTO;
-            case "dragonwell":
-            case "DRAGONWELL":
-            case "Dragonwell":
-                return DRAGONWELL;
-            case "gluon_graalvm":
-            case "GLUON_GRAALVM":
-            case "gluongraalvm":
-            case "GLUONGRAALVM":
-            case "gluon graalvm":
-            case "GLUON GRAALVM":
-            case "Gluon GraalVM":
-            case "Gluon":
-                return GLUON_GRAALVM;
-            case "graalvm_ce8":
-            case "graalvmce8":
-            case "GraalVM CE 8":
-            case "GraalVMCE8":
-            case "GraalVM_CE8":
-                return GRAALVM_CE8;
-            case "graalvm_ce11":
-            case "graalvmce11":
-            case "GraalVM CE 11":
-            case "GraalVMCE11":
-            case "GraalVM_CE11":
-                return GRAALVM_CE11;
-            case "graalvm_ce16":
-            case "graalvmce16":
-            case "GraalVM CE 16":
-            case "GraalVMCE16":
-            case "GraalVM_CE16":
-                return GRAALVM_CE16;
-            case "graalvm_ce17":
-            case "graalvmce17":
-            case "GraalVM CE 17":
-            case "GraalVMCE17":
-            case "GraalVM_CE17":
-                return GRAALVM_CE17;
-            case "graalvm_ce19":
-            case "graalvmce19":
-            case "GraalVM CE 19":
-            case "GraalVMCE19":
-            case "GraalVM_CE19":
-                return GRAALVM_CE19;
-            case "graalvm_ce20":
-            case "graalvmce20":
-            case "GraalVM CE 20":
-            case "GraalVMCE20":
-            case "GraalVM_CE20":
-                return GRAALVM_CE20;
-            case "graalvm_community":
-            case "graalvmcommunity":
-            case "GraalVM Community":
-            case "GraalVM_Community":
-            case "GraalVMCommunity":
-            case "GraalVM-Community":
-            case "GRAALVM_COMMUNITY":
-            case "GRAALVM-COMMUNITY":
-                return GRAALVM_COMMUNITY;
-            case "graalvm":
-            case "GRAALVM":
-            case "GraalVM":
-                return GRAALVM;
-            case "jetbrains":
-            case "JetBrains":
-            case "JETBRAINS":
-                return JETBRAINS;
-            case "liberica":
-            case "LIBERICA":
-            case "Liberica":
-                return LIBERICA;
-            case "liberica_native":
-            case "LIBERICA_NATIVE":
-            case "libericaNative":
-            case "LibericaNative":
-            case "liberica native":
-            case "LIBERICA NATIVE":
-            case "Liberica Native":
-            case "Liberica NIK":
-            case "liberica nik":
-            case "LIBERICA NIK":
-            case "liberica_nik":
-            case "LIBERICA_NIK":
-                return LIBERICA_NATIVE;
-            case "mandrel":
-            case "MANDREL":
-            case "Mandrel":
-                return MANDREL;
-            case "microsoft":
-            case "Microsoft":
-            case "MICROSOFT":
-            case "Microsoft OpenJDK":
-            case "Microsoft Build of OpenJDK":
-                return MICROSOFT;
-            case "ojdk_build":
-            case "OJDK_BUILD":
-            case "OJDK Build":
-            case "ojdk build":
-            case "ojdkbuild":
-            case "OJDKBuild":
-                return OJDK_BUILD;
-            case "openlogic":
-            case "OPENLOGIC":
-            case "OpenLogic":
-            case "open_logic":
-            case "OPEN_LOGIC":
-            case "Open Logic":
-            case "OPEN LOGIC":
-            case "open logic":
-                return OPEN_LOGIC;
-            case "oracle":
-            case "Oracle":
-            case "ORACLE":
-                return ORACLE;
-            case "oracle_open_jdk":
-            case "ORACLE_OPEN_JDK":
-            case "oracle_openjdk":
-            case "ORACLE_OPENJDK":
-            case "Oracle_OpenJDK":
-            case "Oracle OpenJDK":
-            case "oracle openjdk":
-            case "ORACLE OPENJDK":
-            case "open_jdk":
-            case "openjdk":
-            case "OpenJDK":
-            case "Open JDK":
-            case "OPEN_JDK":
-            case "open-jdk":
-            case "OPEN-JDK":
-            case "Oracle-OpenJDK":
-            case "oracle-openjdk":
-            case "ORACLE-OPENJDK":
-            case "oracle-open-jdk":
-            case "ORACLE-OPEN-JDK":
-                return ORACLE_OPEN_JDK;
-            case "RedHat":
-            case "redhat":
-            case "REDHAT":
-            case "Red Hat":
-            case "red hat":
-            case "RED HAT":
-            case "Red_Hat":
-            case "red_hat":
-            case "red-hat":
-            case "Red-Hat":
-            case "RED-HAT":
-                return RED_HAT;
-            case "sap_machine":
-            case "sapmachine":
-            case "SAPMACHINE":
-            case "SAP_MACHINE":
-            case "SAPMachine":
-            case "SAP Machine":
-            case "sap-machine":
-            case "SAP-Machine":
-            case "SAP-MACHINE":
-                return SAP_MACHINE;
-            case "semeru":
-            case "Semeru":
-            case "SEMERU":
-                return SEMERU;
-            case "semeru_certified":
-            case "SEMERU_CERTIFIED":
-            case "Semeru_Certified":
-            case "Semeru_certified":
-            case "semeru certified":
-            case "SEMERU CERTIFIED":
-            case "Semeru Certified":
-            case "Semeru certified":
-                return SEMERU_CERTIFIED;
-            case "temurin":
-            case "Temurin":
-            case "TEMURIN":
-                return TEMURIN;
-            case "trava":
-            case "TRAVA":
-            case "Trava":
-            case "trava_openjdk":
-            case "TRAVA_OPENJDK":
-            case "trava openjdk":
-            case "TRAVA OPENJDK":
-                return TRAVA;
-            case "kona":
-            case "KONA":
-            case "Kona":
-                return KONA;
-            case "bisheng":
-            case "BISHENG":
-            case "BiSheng":
-            case "bi_sheng":
-            case "BI_SHENG":
-            case "bi-sheng":
-            case "BI-SHENG":
-            case "bi sheng":
-            case "Bi Sheng":
-            case "BI SHENG":
-                return BISHENG;
-            case "debian":
-            case "DEBIAN":
-            case "Debian":
-                return DEBIAN;
-            default:
-                return NOT_FOUND;
-        }
-    }
+    public static Distro fromText(final String text) { return LOOKUP.get(text); }
 
     public Distribution get() { return distribution; }
 
@@ -489,9 +251,20 @@ public enum Distro implements Api {
         return toString(outputFormat, include_versions, include_synonyms, latest_per_update, true);
     }
     public String toString(final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        final String key = new StringBuilder("distro").append(COLON).append(name()).append(COLON).append(outputFormat.name()).append(COLON)
+                                                      .append(include_versions).append(COMMA).append(include_synonyms).append(COMMA)
+                                                      .append(latest_per_update).append(COMMA).append(include_ea).toString();
+        return CacheManager.INSTANCE.getRenderedJson(key, () -> render(outputFormat, include_versions, include_synonyms, latest_per_update, include_ea));
+    }
+
+    private String render(final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
         final StringBuilder msgBuilder = new StringBuilder();
         final List<Semver>  versions;
-        if (latest_per_update) {
+        // Versions are only part of the full output formats
+        final boolean needsVersions = include_versions && (OutputFormat.FULL == outputFormat || OutputFormat.FULL_COMPRESSED == outputFormat);
+        if (!needsVersions) {
+            versions = List.of();
+        } else if (latest_per_update) {
             final List<Semver> allVersions;
             if (include_ea) {
                 allVersions = get().getVersions();
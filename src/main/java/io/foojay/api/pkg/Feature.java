@@ -21,6 +21,7 @@ package io.foojay.api.pkg;
 
 import eu.hansolo.jdktools.Api;
 import eu.hansolo.jdktools.util.OutputFormat;
+import io.foojay.api.util.TextLookup;
 
 import java.util.Arrays;
 import java.util.List;
@@ -45,8 +46,16 @@ public enum Feature implements Api {
     NONE("-", ""),
     NOT_FOUND("", "");
 
-    private final String uiString;
-    private final String apiString;
+    private static final TextLookup<Feature> LOOKUP = new TextLookup<>(NOT_FOUND);
+    private        final String              uiString;
+    private        final String              apiString;
+
+    static {
+        for (Feature feature : values()) {
+            if (NONE == feature || NOT_FOUND == feature) { continue; }
+            LOOKUP.add(feature, feature.getApiString(), feature.getUiString(), feature.name());
+        }
+    }
 
 
     Feature(final String uiString, final String apiString) {
@@ -88,42 +97,7 @@ public enum Feature implements Api {
 
     @Override public String toString() { return toString(OutputFormat.FULL_COMPRESSED); }
 
-    public static Feature fromText(final String text) {
-        if (null == text) { return NOT_FOUND; }
-        switch (text) {
-            case "loom":
-            case "LOOM":
-            case "Loom":
-                return LOOM;
-            case "panama":
-            case "PANAMA":
-            case "Panama":
-                return PANAMA;
-            case "lanai":
-            case "LANAI":
-            case "Lanai":
-                return LANAI;
-            case "valhalla":
-            case "VALHALLA":
-            case "Valhalla":
-                return VALHALLA;
-            case "kona_fiber":
-            case "KONA_FIBER":
-            case "Kona Fiber":
-            case "KONA FIBER":
-            case "Kona_Fiber":
-            case "KonaFiber":
-            case "konafiber":
-            case "KONAFIBER":
-                return KONA_FIBER;
-            case "crac":
-            case "CRAC":
-            case "CRaC":
-                return CRAC;
-            default:
-                return NOT_FOUND;
-        }
-    }
+    public static Feature fromText(final String text) { return LOOKUP.get(text); }
 
     public static List<Feature> getAsList() { return Arrays.asList(values()); }
 }
@@ -351,6 +351,13 @@ public class MajorVersion implements Comparable<MajorVersion> {
     }
 
     public String toString(final boolean includingEarlyAccess, final BuildScope scope) {
+        final String key = new StringBuilder("major_version").append(COLON).append(majorVersion).append(COLON).append(termOfSupport.name()).append(COLON)
+                                                             .append(maintained).append(COLON).append(this.scope.getApiString()).append(COLON)
+                                                             .append(includingEarlyAccess).append(COLON).append(scope.getApiString()).toString();
+        return CacheManager.INSTANCE.getRenderedJson(key, () -> render(includingEarlyAccess, scope));
+    }
+
+    private String render(final boolean includingEarlyAccess, final BuildScope scope) {
         final List<Semver> versions = includingEarlyAccess ? getVersionsIncludingEarlyAccess(scope) : getVersions(scope);
         final StringBuilder majorVersionMsgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN).append(NEW_LINE)
                                                                         .append(INDENTED_QUOTES).append(FIELD_MAJOR_VERSION).append(QUOTES).append(COLON).append(majorVersion).append(COMMA_NEW_LINE)
@@ -19,9 +19,6 @@
 
 package io.foojay.api.pkg;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
 import eu.hansolo.jdktools.Bitness;
@@ -45,10 +42,13 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static io.foojay.api.util.Constants.API_VERSION_V1;
@@ -72,6 +72,16 @@ import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
 
 
 public class Pkg {
+    private static final Map<String, Architecture>    ARCHITECTURE_LOOKUP     = new ConcurrentHashMap<>();
+    private static final Map<String, FPU>             FPU_LOOKUP              = new ConcurrentHashMap<>();
+    private static final Map<String, OperatingSystem> OPERATING_SYSTEM_LOOKUP = new ConcurrentHashMap<>();
+    private static final Map<String, LibCType>        LIB_C_TYPE_LOOKUP       = new ConcurrentHashMap<>();
+    private static final Map<String, PackageType>     PACKAGE_TYPE_LOOKUP     = new ConcurrentHashMap<>();
+    private static final Map<String, ReleaseStatus>   RELEASE_STATUS_LOOKUP   = new ConcurrentHashMap<>();
+    private static final Map<String, TermOfSupport>   TERM_OF_SUPPORT_LOOKUP  = new ConcurrentHashMap<>();
+    private static final Map<String, ArchiveType>     ARCHIVE_TYPE_LOOKUP     = new ConcurrentHashMap<>();
+    private static final Map<String, HashAlgorithm>   HASH_ALGORITHM_LOOKUP   = new ConcurrentHashMap<>();
+    private static final Map<String, Verification>    VERIFICATION_LOOKUP     = new ConcurrentHashMap<>();
     private             Distribution    distribution;
     private             VersionNumber   versionNumber;
     private             VersionNumber   javaVersion;
@@ -155,66 +165,49 @@ public class Pkg {
     }
     public Pkg(final String jsonText) {
         if (null == jsonText || jsonText.isEmpty()) { throw new IllegalArgumentException("Json text cannot be null or empty"); }
-        final Gson       gson = new Gson();
-        final JsonObject json = gson.fromJson(jsonText, JsonObject.class);
+        final PkgJsonParser json = PkgJsonParser.parse(jsonText);
 
-        final Distro distro       = Distro.fromText(json.get(PkgField.DISTRIBUTION.fieldName()).getAsString());
+        final String javaVersionText = json.getString(PkgField.JAVA_VERSION);
+        final Distro distro          = Distro.fromText(json.getString(PkgField.DISTRIBUTION));
         this.distribution         = distro.get();
-        this.versionNumber        = VersionNumber.fromText(json.get(PkgField.JAVA_VERSION.fieldName()).getAsString());
-        this.javaVersion          = VersionNumber.fromText(json.get(PkgField.JAVA_VERSION.fieldName()).getAsString());
-        this.distributionVersion  = VersionNumber.fromText(json.get(PkgField.DISTRIBUTION_VERSION.fieldName()).getAsString());
-        this.jdkVersion           = new MajorVersion(json.has(PkgField.JDK_VERSION.fieldName()) ? json.get(PkgField.JDK_VERSION.fieldName()).getAsInt() : this.javaVersion.getFeature().getAsInt());
-        this.latestBuildAvailable = json.has(PkgField.LATEST_BUILD_AVAILABLE.fieldName()) ? json.get(PkgField.LATEST_BUILD_AVAILABLE.fieldName()).getAsBoolean() : Boolean.FALSE;
-        this.architecture         = Architecture.fromText(json.get(PkgField.ARCHITECTURE.fieldName()).getAsString());
+        this.versionNumber        = VersionNumber.fromText(javaVersionText);
+        this.javaVersion          = VersionNumber.fromText(javaVersionText);
+        this.distributionVersion  = VersionNumber.fromText(json.getString(PkgField.DISTRIBUTION_VERSION));
+        this.jdkVersion           = new MajorVersion(json.has(PkgField.JDK_VERSION) ? json.getInt(PkgField.JDK_VERSION) : this.javaVersion.getFeature().getAsInt());
+        this.latestBuildAvailable = json.has(PkgField.LATEST_BUILD_AVAILABLE) ? json.getBoolean(PkgField.LATEST_BUILD_AVAILABLE) : Boolean.FALSE;
+        this.architecture         = lookup(ARCHITECTURE_LOOKUP, json.getString(PkgField.ARCHITECTURE), Architecture::fromText);
         this.bitness              = this.architecture.getBitness();
-        this.fpu                  = json.has(PkgField.FPU.fieldName()) ? FPU.fromText(json.get(PkgField.FPU.fieldName()).getAsString()) : FPU.UNKNOWN;
-        this.operatingSystem      = OperatingSystem.fromText(json.get(PkgField.OPERATING_SYSTEM.fieldName()).getAsString());
-        this.libCType             = LibCType.fromText(json.get(PkgField.LIB_C_TYPE.fieldName()).getAsString());
-        this.packageType          = PackageType.fromText(json.get(PkgField.PACKAGE_TYPE.fieldName()).getAsString());
-        this.releaseStatus        = ReleaseStatus.fromText(json.get(PkgField.RELEASE_STATUS.fieldName()).getAsString());
-        this.termOfSupport        = TermOfSupport.fromText(json.get(PkgField.TERM_OF_SUPPORT.fieldName()).getAsString());
-        this.javafxBundled        = json.get(PkgField.JAVAFX_BUNDLED.fieldName()).getAsBoolean();
-        this.directlyDownloadable = json.has(PkgField.DIRECTLY_DOWNLOADABLE.fieldName()) ? json.get(PkgField.DIRECTLY_DOWNLOADABLE.fieldName()).getAsBoolean() : Boolean.TRUE;
+        this.fpu                  = json.has(PkgField.FPU) ? lookup(FPU_LOOKUP, json.getString(PkgField.FPU), FPU::fromText) : FPU.UNKNOWN;
+        this.operatingSystem      = lookup(OPERATING_SYSTEM_LOOKUP, json.getString(PkgField.OPERATING_SYSTEM), OperatingSystem::fromText);
+        this.libCType             = lookup(LIB_C_TYPE_LOOKUP, json.getString(PkgField.LIB_C_TYPE), LibCType::fromText);
+        this.packageType          = lookup(PACKAGE_TYPE_LOOKUP, json.getString(PkgField.PACKAGE_TYPE), PackageType::fromText);
+        this.releaseStatus        = lookup(RELEASE_STATUS_LOOKUP, json.getString(PkgField.RELEASE_STATUS), ReleaseStatus::fromText);
+        this.termOfSupport        = lookup(TERM_OF_SUPPORT_LOOKUP, json.getString(PkgField.TERM_OF_SUPPORT), TermOfSupport::fromText);
+        this.javafxBundled        = json.getBoolean(PkgField.JAVAFX_BUNDLED);
+        this.directlyDownloadable = json.has(PkgField.DIRECTLY_DOWNLOADABLE) ? json.getBoolean(PkgField.DIRECTLY_DOWNLOADABLE) : Boolean.TRUE;
         this.headless             = Boolean.FALSE;
-        this.filename             = json.get(PkgField.FILENAME.fieldName()).getAsString();
-        this.archiveType          = json.get(PkgField.ARCHIVE_TYPE.fieldName()).getAsString().isEmpty() ? Helper.fetchArchiveType(this.filename) : ArchiveType.fromText(json.get(PkgField.ARCHIVE_TYPE.fieldName()).getAsString());
-        this.directDownloadUri    = json.get(PkgField.DIRECT_DOWNLOAD_URI.fieldName()).getAsString();
-        this.downloadSiteUri      = json.get(PkgField.DOWNLOAD_SITE_URI.fieldName()).getAsString();
-        this.signatureUri         = json.has(PkgField.SIGNATURE_URI.fieldName()) ? json.get(PkgField.SIGNATURE_URI.fieldName()).getAsString() : "";
-        this.checksumUri          = json.has(PkgField.CHECKSUM_URI.fieldName()) ? json.get(PkgField.CHECKSUM_URI.fieldName()).getAsString() : "";
-        this.checksum             = json.has(PkgField.CHECKSUM.fieldName()) ? json.get(PkgField.CHECKSUM.fieldName()).getAsString() : "";
-        this.checksumType         = json.has(PkgField.CHECKSUM_TYPE.fieldName()) ? HashAlgorithm.fromText(json.get(PkgField.CHECKSUM_TYPE.fieldName()).getAsString()) : HashAlgorithm.NONE;
-        this.semver               = Semver.fromText(json.get(PkgField.JAVA_VERSION.fieldName()).getAsString()).getSemver1();
-        this.freeUseInProduction  = json.has(PkgField.FREE_USE_IN_PROD.fieldName()) ? json.get(PkgField.FREE_USE_IN_PROD.fieldName()).getAsBoolean() : Boolean.FALSE;
-        this.tckTested            = json.has(PkgField.TCK_TESTED.fieldName()) ? Verification.fromText(json.get(PkgField.TCK_TESTED.fieldName()).getAsString()) : Verification.UNKNOWN;
-        this.tckCertUri           = json.has(PkgField.TCK_CERT_URI.fieldName()) ? json.get(PkgField.TCK_CERT_URI.fieldName()).getAsString() : "";
-        this.aqavitCertified      = json.has(PkgField.AQAVIT_CERTIFIED.fieldName()) ? Verification.fromText(json.get(PkgField.AQAVIT_CERTIFIED.fieldName()).getAsString()) : Verification.UNKNOWN;
-        this.aqavitCertUri        = json.has(PkgField.AQAVIT_CERT_URI.fieldName()) ? json.get(PkgField.AQAVIT_CERT_URI.fieldName()).getAsString() : "";
-        this.validatedAt          = json.has(PkgField.VALIDATED_AT.fieldName()) ? json.get(PkgField.VALIDATED_AT.fieldName()).getAsLong() : Instant.now().getEpochSecond() - Constants.SECONDS_PER_MONTH;
-        this.urlValid             = json.has(PkgField.URL_VALID.fieldName()) ? json.get(PkgField.URL_VALID.fieldName()).getAsBoolean() : Boolean.TRUE;
-        this.size                 = json.has(PkgField.SIZE.fieldName()) ? json.get(PkgField.SIZE.fieldName()).getAsLong() : -1;
-        if (json.has(PkgField.FEATURE.fieldName())) {
-            features = new HashSet<>();
-            JsonArray featureArray = json.getAsJsonArray(PkgField.FEATURE.fieldName());
-            for (int i = 0 ; i < featureArray.size() ; i++) {
-                if (featureArray.get(i).isJsonObject()) {
-                    JsonObject featureObj = featureArray.get(i).getAsJsonObject();
-                    Feature feat = Feature.fromText(featureObj.get("name").getAsString());
-                    if (Feature.NOT_FOUND == feat || Feature.NONE == feat) {
-                        continue;
-                    }
-                    features.add(feat);
-                } else {
-                    String  featureString = featureArray.get(i).getAsString();
-                    Feature feat          = Feature.fromText(featureString);
-                    if (Feature.NOT_FOUND == feat || Feature.NONE == feat) {
-                        continue;
-                    }
-                    features.add(feat);
-                }
-            }
-        } else {
-            features = new HashSet<>();
+        this.filename             = json.getString(PkgField.FILENAME);
+        this.archiveType          = json.getString(PkgField.ARCHIVE_TYPE).isEmpty() ? Helper.fetchArchiveType(this.filename) : lookup(ARCHIVE_TYPE_LOOKUP, json.getString(PkgField.ARCHIVE_TYPE), ArchiveType::fromText);
+        this.directDownloadUri    = json.getString(PkgField.DIRECT_DOWNLOAD_URI);
+        this.downloadSiteUri      = json.getString(PkgField.DOWNLOAD_SITE_URI);
+        this.signatureUri         = json.has(PkgField.SIGNATURE_URI) ? json.getString(PkgField.SIGNATURE_URI) : "";
+        this.checksumUri          = json.has(PkgField.CHECKSUM_URI) ? json.getString(PkgField.CHECKSUM_URI) : "";
+        this.checksum             = json.has(PkgField.CHECKSUM) ? json.getString(PkgField.CHECKSUM) : "";
+        this.checksumType         = json.has(PkgField.CHECKSUM_TYPE) ? lookup(HASH_ALGORITHM_LOOKUP, json.getString(PkgField.CHECKSUM_TYPE), HashAlgorithm::fromText) : HashAlgorithm.NONE;
+        this.semver               = Semver.fromText(javaVersionText).getSemver1();
+        this.freeUseInProduction  = json.has(PkgField.FREE_USE_IN_PROD) ? json.getBoolean(PkgField.FREE_USE_IN_PROD) : Boolean.FALSE;
+        this.tckTested            = json.has(PkgField.TCK_TESTED) ? lookup(VERIFICATION_LOOKUP, json.getString(PkgField.TCK_TESTED), Verification::fromText) : Verification.UNKNOWN;
+        this.tckCertUri           = json.has(PkgField.TCK_CERT_URI) ? json.getString(PkgField.TCK_CERT_URI) : "";
+        this.aqavitCertified      = json.has(PkgField.AQAVIT_CERTIFIED) ? lookup(VERIFICATION_LOOKUP, json.getString(PkgField.AQAVIT_CERTIFIED), Verification::fromText) : Verification.UNKNOWN;
+        this.aqavitCertUri        = json.has(PkgField.AQAVIT_CERT_URI) ? json.getString(PkgField.AQAVIT_CERT_URI) : "";
+        this.validatedAt          = json.has(PkgField.VALIDATED_AT) ? json.getLong(PkgField.VALIDATED_AT) : Instant.now().getEpochSecond() - Constants.SECONDS_PER_MONTH;
+        this.urlValid             = json.has(PkgField.URL_VALID) ? json.getBoolean(PkgField.URL_VALID) : Boolean.TRUE;
+        this.size                 = json.has(PkgField.SIZE) ? json.getLong(PkgField.SIZE) : -1;
+        this.features             = new HashSet<>();
+        for (String featureName : json.getFeatures()) {
+            final Feature feat = Feature.fromText(featureName);
+            if (Feature.NOT_FOUND == feat || Feature.NONE == feat) { continue; }
+            this.features.add(feat);
         }
 
         if (ArchiveType.NOT_FOUND     == this.archiveType)     { this.archiveType     = ArchiveType.getFromFileName(this.filename); }
@@ -402,6 +395,51 @@ public class Pkg {
         return directlyDownloadable ? Helper.getMD5(directDownloadUri.getBytes(StandardCharsets.UTF_8)) : Helper.getMD5((directDownloadUri + filename).getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Returns a stable 64-bit fingerprint over all fields that end up in the serialized
+     * representations of the package (in contrast to equals() which only covers the identity
+     * relevant fields). Two packages with the same fingerprint render to the same json, which
+     * makes it possible to skip re-rendering and re-writing unchanged packages.
+     * The fingerprint does not depend on the jvm instance and can be persisted.
+     * @return a stable 64-bit fingerprint over all serialized fields of the package
+     */
+    public long getFingerprint() {
+        long hash = Helper.FNV_64_OFFSET_BASIS;
+        hash = Helper.fnv1a64(hash, null == distribution ? "" : distribution.getDistro().getApiString());
+        hash = Helper.fnv1a64(hash, null == semver ? "" : semver.toString());
+        hash = Helper.fnv1a64(hash, null == distributionVersion ? "" : distributionVersion.toString(OutputFormat.REDUCED_COMPRESSED, false, false));
+        hash = Helper.fnv1a64(hash, null == jdkVersion ? 0 : jdkVersion.getAsInt());
+        hash = Helper.fnv1a64(hash, String.valueOf(isLatestBuildAvailable()));
+        hash = Helper.fnv1a64(hash, releaseStatus.getApiString());
+        hash = Helper.fnv1a64(hash, termOfSupport.getApiString());
+        hash = Helper.fnv1a64(hash, operatingSystem.getApiString());
+        hash = Helper.fnv1a64(hash, libCType.getApiString());
+        hash = Helper.fnv1a64(hash, architecture.getApiString());
+        hash = Helper.fnv1a64(hash, fpu.getApiString());
+        hash = Helper.fnv1a64(hash, packageType.getApiString());
+        hash = Helper.fnv1a64(hash, archiveType.getApiString());
+        hash = Helper.fnv1a64(hash, String.valueOf(javafxBundled));
+        hash = Helper.fnv1a64(hash, String.valueOf(directlyDownloadable));
+        hash = Helper.fnv1a64(hash, filename);
+        hash = Helper.fnv1a64(hash, directDownloadUri);
+        hash = Helper.fnv1a64(hash, downloadSiteUri);
+        hash = Helper.fnv1a64(hash, signatureUri);
+        hash = Helper.fnv1a64(hash, checksumUri);
+        hash = Helper.fnv1a64(hash, checksum);
+        hash = Helper.fnv1a64(hash, checksumType.getApiString());
+        hash = Helper.fnv1a64(hash, String.valueOf(freeUseInProduction));
+        hash = Helper.fnv1a64(hash, tckTested.getApiString());
+        hash = Helper.fnv1a64(hash, tckCertUri);
+        hash = Helper.fnv1a64(hash, aqavitCertified.getApiString());
+        hash = Helper.fnv1a64(hash, aqavitCertUri);
+        hash = Helper.fnv1a64(hash, validatedAt);
+        hash = Helper.fnv1a64(hash, String.valueOf(urlValid));
+        hash = Helper.fnv1a64(hash, size);
+        // Sort features by name because the iteration order of the set is not stable
+        hash = Helper.fnv1a64(hash, null == features ? "" : features.stream().map(Feature::getApiString).sorted().collect(Collectors.joining(COMMA)));
+        return hash;
+    }
+
     /**
      * Returns a json representation of the package depending on the given outputFormat
      * @param outputFormat The compressed versions do not contain the real download link but the current api url to track downloads
@@ -882,6 +920,21 @@ public class Pkg {
         }
     }
 
+    /**
+     * Returns the enum constant for the given text. The result of fromText() is memoized
+     * per text because the number of different texts is small but fromText() has to walk
+     * through all the synonyms of the enum for each call.
+     * @param lookup Map that memoizes the results of fromText()
+     * @param text
+     * @param fromText
+     * @return the enum constant for the given text
+     */
+    private static <E> E lookup(final Map<String, E> lookup, final String text, final Function<String, E> fromText) {
+        final E value = lookup.get(text);
+        if (null != value) { return value; }
+        return lookup.computeIfAbsent(text, fromText);
+    }
+
     public boolean isNewerThan(final Pkg pkg) {
         return (equalsExceptUpdate(pkg) && getSemver().compareTo(pkg.getSemver()) >= 0);
     }
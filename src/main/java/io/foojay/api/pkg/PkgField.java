@@ -19,6 +19,9 @@
 
 package io.foojay.api.pkg;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 public enum PkgField {
     ID("id"),
@@ -65,8 +68,14 @@ public enum PkgField {
     URL_VALID("url_valid"),
     SIZE("size"),
     HEADLESS("headless"),
+    FINGERPRINT("fingerprint"),
     FEATURE("feature");
 
+    private static final Map<String, PkgField> LOOKUP = new HashMap<>();
+    static {
+        for (PkgField pkgField : values()) { LOOKUP.put(pkgField.fieldName, pkgField); }
+    }
+
     private final String fieldName;
 
 
@@ -77,5 +86,16 @@ public enum PkgField {
 
     public final String fieldName() { return fieldName; }
 
+    /**
+     * Returns the PkgField with the given field name or null if no field with
+     * the given name exists (case sensitive)
+     * @param fieldName
+     * @return the PkgField with the given field name or null
+     */
+    public static PkgField fromFieldName(final String fieldName) {
+        if (null == fieldName) { return null; }
+        return LOOKUP.get(fieldName);
+    }
+
     @Override public String toString() { return fieldName; }
 }
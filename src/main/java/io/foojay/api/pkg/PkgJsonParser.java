@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Single pass json parser that is specialized for the flat package documents
+ * (e.g. the FULL_COMPRESSED format that is stored in mongodb).
+ * Instead of building a full json tree it only keeps the raw values of the known
+ * PkgFields in an array indexed by the ordinal of the PkgField. Unknown fields
+ * (e.g. the mongodb _id) will be skipped without creating any objects.
+ * The value semantics follow the ones of Gson's JsonPrimitive so that the
+ * result is the same as parsing the text with Gson.
+ */
+public final class PkgJsonParser {
+    private static final String       FIELD_FEATURE_NAME = "name";
+    private        final String       json;
+    private        final int          length;
+    private        final String[]     values;
+    private        final List<String> features;
+    private              long         quoted;
+    private              long         nonPrimitive;
+    private              boolean      hasFeatures;
+    private              int          pos;
+
+
+    private PkgJsonParser(final String json) {
+        this.json         = json;
+        this.length       = json.length();
+        this.values       = new String[PkgField.values().length];
+        this.features     = new ArrayList<>(2);
+        this.quoted       = 0;
+        this.nonPrimitive = 0;
+        this.hasFeatures  = false;
+        this.pos          = 0;
+    }
+
+
+    /**
+     * Returns a parser that contains the values of all known PkgFields found in the given json text
+     * @param json Json text of a package
+     * @return a parser that contains the values of all known PkgFields found in the given json text
+     * @throws IllegalArgumentException if the given text is not a valid json object
+     */
+    public static PkgJsonParser parse(final String json) {
+        if (null == json || json.isEmpty()) { throw new IllegalArgumentException("Json text cannot be null or empty"); }
+        final PkgJsonParser parser = new PkgJsonParser(json);
+        parser.parseObject();
+        return parser;
+    }
+
+
+    public boolean has(final PkgField field) {
+        return PkgField.FEATURE == field ? hasFeatures : null != values[field.ordinal()];
+    }
+
+    public String getString(final PkgField field) {
+        final String value = values[field.ordinal()];
+        if (null == value)         { throw new IllegalArgumentException("Field " + field.fieldName() + " not found"); }
+        if (isNonPrimitive(field)) { throw new IllegalArgumentException("Field " + field.fieldName() + " does not contain a primitive value"); }
+        return value;
+    }
+
+    public boolean getBoolean(final PkgField field) {
+        return Boolean.parseBoolean(getString(field));
+    }
+
+    public int getInt(final PkgField field) {
+        final String value = getString(field);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            if (isQuoted(field)) { throw e; }
+            return new BigDecimal(value).intValue();
+        }
+    }
+
+    public long getLong(final PkgField field) {
+        final String value = getString(field);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            if (isQuoted(field)) { throw e; }
+            return new BigDecimal(value).longValue();
+        }
+    }
+
+    /**
+     * Returns the feature names, either taken from the name field of feature objects
+     * or directly from feature strings
+     * @return the feature names
+     */
+    public List<String> getFeatures() { return features; }
+
+    private boolean isQuoted(final PkgField field) { return (quoted & (1L << field.ordinal())) != 0; }
+
+    private boolean isNonPrimitive(final PkgField field) { return (nonPrimitive & (1L << field.ordinal())) != 0; }
+
+
+    // ******************** Parsing *******************************************
+    private void parseObject() {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') { pos++; return; }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            final String   key   = readString();
+            final PkgField field = PkgField.fromFieldName(key);
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (null == field) {
+                skipValue();
+            } else if (PkgField.FEATURE == field) {
+                parseFeatures();
+            } else {
+                parseValue(field);
+            }
+            skipWhitespace();
+            final char c = next();
+            if (c == ',') { continue; }
+            if (c == '}') { return; }
+            throw error("Expected ',' or '}'");
+        }
+    }
+
+    private void parseValue(final PkgField field) {
+        final long mask = 1L << field.ordinal();
+        final char c    = peek();
+        quoted       &= ~mask;
+        nonPrimitive &= ~mask;
+        if (c == '"') {
+            pos++;
+            values[field.ordinal()] = readString();
+            quoted |= mask;
+        } else if (c == '{' || c == '[') {
+            // Objects and arrays (e.g. links) are not needed to create a package, only remember that the field exists
+            skipStructure();
+            values[field.ordinal()] = "";
+            nonPrimitive |= mask;
+        } else {
+            final String literal = readLiteral();
+            values[field.ordinal()] = literal;
+            if ("null".equals(literal)) { nonPrimitive |= mask; }
+        }
+    }
+
+    private void parseFeatures() {
+        hasFeatures = true;
+        features.clear();
+        if (peek() != '[') { throw error("Field " + PkgField.FEATURE.fieldName() + " must be an array"); }
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') { pos++; return; }
+        while (true) {
+            skipWhitespace();
+            final char c = peek();
+            if (c == '{') {
+                features.add(parseFeatureObject());
+            } else if (c == '"') {
+                pos++;
+                features.add(readString());
+            } else if (c == '[') {
+                throw error("Feature must not be an array");
+            } else {
+                final String literal = readLiteral();
+                if ("null".equals(literal)) { throw error("Feature must not be null"); }
+                features.add(literal);
+            }
+            skipWhitespace();
+            final char d = next();
+            if (d == ',') { continue; }
+            if (d == ']') { return; }
+            throw error("Expected ',' or ']'");
+        }
+    }
+
+    private String parseFeatureObject() {
+        String name = null;
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') { pos++; throw error("Feature object must contain a name"); }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            final String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (FIELD_FEATURE_NAME.equals(key) && peek() == '"') {
+                pos++;
+                name = readString();
+            } else {
+                skipValue();
+            }
+            skipWhitespace();
+            final char c = next();
+            if (c == ',') { continue; }
+            if (c == '}') { break; }
+            throw error("Expected ',' or '}'");
+        }
+        if (null == name) { throw error("Feature object must contain a name"); }
+        return name;
+    }
+
+    private void skipValue() {
+        final char c = peek();
+        if (c == '"') {
+            pos++;
+            skipString();
+        } else if (c == '{' || c == '[') {
+            skipStructure();
+        } else {
+            readLiteral();
+        }
+    }
+
+    private void skipStructure() {
+        int depth = 0;
+        while (pos < length) {
+            final char c = json.charAt(pos++);
+            switch (c) {
+                case '{', '[' -> depth++;
+                case '}', ']' -> { if (--depth == 0) { return; } }
+                case '"'      -> skipString();
+                default       -> { }
+            }
+        }
+        throw error("Unexpected end of json");
+    }
+
+    private void skipString() {
+        while (pos < length) {
+            final char c = json.charAt(pos++);
+            if (c == '"')  { return; }
+            if (c == '\\') { pos++; }
+        }
+        throw error("Unterminated string");
+    }
+
+    private String readString() {
+        final int start = pos;
+        // Fast path for strings without escape sequences
+        while (pos < length) {
+            final char c = json.charAt(pos);
+            if (c == '"')  { return json.substring(start, pos++); }
+            if (c == '\\') { break; }
+            pos++;
+        }
+        final StringBuilder builder = new StringBuilder(pos - start + 16).append(json, start, pos);
+        while (pos < length) {
+            final char c = json.charAt(pos++);
+            if (c == '"') { return builder.toString(); }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (pos >= length) { break; }
+            final char escaped = json.charAt(pos++);
+            switch (escaped) {
+                case '"', '\\', '/' -> builder.append(escaped);
+                case 'b'            -> builder.append('\b');
+                case 'f'            -> builder.append('\f');
+                case 'n'            -> builder.append('\n');
+                case 'r'            -> builder.append('\r');
+                case 't'            -> builder.append('\t');
+                case 'u'            -> {
+                    if (pos + 4 > length) { throw error("Invalid unicode escape sequence"); }
+                    try {
+                        builder.append((char) Integer.parseInt(json, pos, pos + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape sequence");
+                    }
+                    pos += 4;
+                }
+                default             -> throw error("Invalid escape sequence");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private String readLiteral() {
+        final int start = pos;
+        while (pos < length) {
+            final char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) { break; }
+            pos++;
+        }
+        if (start == pos) { throw error("Expected value"); }
+        return json.substring(start, pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < length && Character.isWhitespace(json.charAt(pos))) { pos++; }
+    }
+
+    private char peek() {
+        if (pos >= length) { throw error("Unexpected end of json"); }
+        return json.charAt(pos);
+    }
+
+    private char next() {
+        if (pos >= length) { throw error("Unexpected end of json"); }
+        return json.charAt(pos++);
+    }
+
+    private void expect(final char expected) {
+        if (next() != expected) { throw error("Expected '" + expected + "'"); }
+    }
+
+    private IllegalArgumentException error(final String msg) {
+        return new IllegalArgumentException(msg + " at position " + pos);
+    }
+}
@@ -21,6 +21,7 @@ package io.foojay.api.requester;
 
 import eu.hansolo.jdktools.Api;
 import eu.hansolo.jdktools.util.OutputFormat;
+import io.foojay.api.util.TextLookup;
 
 import java.util.Arrays;
 import java.util.List;
@@ -39,8 +40,16 @@ public enum Requester implements Api {
     NONE("-", ""),
     NOT_FOUND("", "");
 
-    final String uiString;
-    final String apiString;
+    private static final TextLookup<Requester> LOOKUP = new TextLookup<>(NOT_FOUND);
+                   final String                uiString;
+                   final String                apiString;
+
+    static {
+        for (Requester requester : values()) {
+            if (NONE == requester || NOT_FOUND == requester) { continue; }
+            LOOKUP.add(requester, requester.getApiString(), requester.getUiString(), requester.name());
+        }
+    }
 
 
     Requester(final String uiString, final String apiString) {
@@ -82,13 +91,7 @@ public enum Requester implements Api {
 
     @Override public String toString() { return toString(OutputFormat.FULL_COMPRESSED); }
 
-    public static Requester fromText(final String text) {
-        if (null == text) { return NOT_FOUND; }
-        switch (text) {
-            default:
-                return NOT_FOUND;
-        }
-    }
+    public static Requester fromText(final String text) { return LOOKUP.get(text); }
 
     public static List<Requester> getAsList() { return Arrays.asList(values()); }
 }
@@ -20,6 +20,7 @@
 package io.foojay.api.scopes;
 
 import eu.hansolo.jdktools.scopes.Scope;
+import io.foojay.api.util.TextLookup;
 
 import java.util.Arrays;
 import java.util.List;
@@ -28,8 +29,15 @@ import java.util.List;
 public enum IDEScope implements Scope {
     VISUAL_STUDIO_CODE("Visual Studio Code", "vscode");
 
-    private final String uiString;
-    private final String apiString;
+    private static final TextLookup<Scope> LOOKUP = new TextLookup<>(NOT_FOUND);
+    private        final String            uiString;
+    private        final String            apiString;
+
+    static {
+        for (IDEScope ideScope : values()) {
+            LOOKUP.add(ideScope, ideScope.getApiString(), ideScope.getUiString(), ideScope.name());
+        }
+    }
 
 
     IDEScope(final String uiString, final String apiString) {
@@ -43,14 +51,7 @@ public enum IDEScope implements Scope {
     @Override public String getApiString() { return apiString; }
 
 
-    public static Scope fromText(final String text) {
-        switch(text) {
-            case "vscode":
-                return VISUAL_STUDIO_CODE;
-            default:
-                return NOT_FOUND;
-        }
-    }
+    public static Scope fromText(final String text) { return LOOKUP.get(text); }
 
     public static List<IDEScope> getAsList() { return Arrays.asList(values()); }
 }
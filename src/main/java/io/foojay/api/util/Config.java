@@ -22,24 +22,48 @@ package io.foojay.api.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
 
 public enum Config {
     INSTANCE;
 
-    private static final Logger LOGGER                     = LoggerFactory.getLogger(Config.class);
+    private static final Logger LOGGER                                 = LoggerFactory.getLogger(Config.class);
 
-    public static final String FOOJAY_API_BASE_URL         = "FOOJAY_API_BASE_URL";
-    public static final String FOOJAY_API_ENVIRONMENT      = "FOOJAY_API_ENVIRONMENT";
-    public static final String FOOJAY_API_MONGODB_URL      = "FOOJAY_API_MONGODB_URL";
-    public static final String FOOJAY_API_MONGODB_PORT     = "FOOJAY_API_MONGODB_PORT";
-    public static final String FOOJAY_API_MONGODB_DATABASE = "FOOJAY_API_MONGODB_DATABASE";
-    public static final String FOOJAY_API_MONGODB_USER     = "FOOJAY_API_MONGODB_USER";
-    public static final String FOOJAY_API_MONGODB_PASSWORD = "FOOJAY_API_MONGODB_PASSWORD";
+    public static final String FOOJAY_API_BASE_URL                     = "FOOJAY_API_BASE_URL";
+    public static final String FOOJAY_API_ENVIRONMENT                  = "FOOJAY_API_ENVIRONMENT";
+    public static final String FOOJAY_API_MONGODB_URL                  = "FOOJAY_API_MONGODB_URL";
+    public static final String FOOJAY_API_MONGODB_PORT                 = "FOOJAY_API_MONGODB_PORT";
+    public static final String FOOJAY_API_MONGODB_DATABASE             = "FOOJAY_API_MONGODB_DATABASE";
+    public static final String FOOJAY_API_MONGODB_USER                 = "FOOJAY_API_MONGODB_USER";
+    public static final String FOOJAY_API_MONGODB_PASSWORD             = "FOOJAY_API_MONGODB_PASSWORD";
+    public static final String FOOJAY_API_MONGODB_BULK_SIZE            = "FOOJAY_API_MONGODB_BULK_SIZE";
+    public static final String FOOJAY_API_MONGODB_BULK_CONCURRENCY     = "FOOJAY_API_MONGODB_BULK_CONCURRENCY";
+    public static final String FOOJAY_API_MONGODB_MAX_POOL_SIZE        = "FOOJAY_API_MONGODB_MAX_POOL_SIZE";
+    public static final String FOOJAY_API_MONGODB_MIN_POOL_SIZE        = "FOOJAY_API_MONGODB_MIN_POOL_SIZE";
+    public static final String FOOJAY_API_MONGODB_MAX_WAIT_TIME        = "FOOJAY_API_MONGODB_MAX_WAIT_TIME";
+    public static final String FOOJAY_API_MONGODB_CONNECT_TIMEOUT      = "FOOJAY_API_MONGODB_CONNECT_TIMEOUT";
+    public static final String FOOJAY_API_MONGODB_SOCKET_TIMEOUT       = "FOOJAY_API_MONGODB_SOCKET_TIMEOUT";
+    public static final String FOOJAY_API_MONGODB_COMPRESSORS          = "FOOJAY_API_MONGODB_COMPRESSORS";
+    public static final String FOOJAY_API_MONGODB_SYNC_READ_PREFERENCE = "FOOJAY_API_MONGODB_SYNC_READ_PREFERENCE";
+    public static final String FOOJAY_API_DOWNLOADS_FLUSH_INTERVAL     = "FOOJAY_API_DOWNLOADS_FLUSH_INTERVAL";
+    public static final String FOOJAY_API_DOWNLOADS_QUEUE_SIZE         = "FOOJAY_API_DOWNLOADS_QUEUE_SIZE";
+    public static final String FOOJAY_API_UPDATER_CONCURRENCY          = "FOOJAY_API_UPDATER_CONCURRENCY";
+    public static final String FOOJAY_API_HOST_LIMITS                  = "FOOJAY_API_HOST_LIMITS";
+    public static final String FOOJAY_API_DEFAULT_HOST_LIMIT           = "FOOJAY_API_DEFAULT_HOST_LIMIT";
+    public static final String FOOJAY_API_HTTP_CLIENT_THREADS          = "FOOJAY_API_HTTP_CLIENT_THREADS";
+    public static final String FOOJAY_API_HTTP_CONNECT_TIMEOUT         = "FOOJAY_API_HTTP_CONNECT_TIMEOUT";
+    public static final String FOOJAY_API_HTTP_FIXTURES_MODE           = "FOOJAY_API_HTTP_FIXTURES_MODE";
+    public static final String FOOJAY_API_HTTP_FIXTURES_DIR            = "FOOJAY_API_HTTP_FIXTURES_DIR";
+    public static final String FOOJAY_API_BENCHMARKS                   = "FOOJAY_API_BENCHMARKS";
+    public static final String FOOJAY_API_GITHUB_TOKENS                = "FOOJAY_API_GITHUB_TOKENS";
 
-    public static final String FOOJAY_MQTT_BROKER          = "FOOJAY_MQTT_BROKER";
-    public static final String FOOJAY_MQTT_PORT            = "FOOJAY_MQTT_PORT";
-    public static final String FOOJAY_MQTT_USER            = "FOOJAY_MQTT_USER";
-    public static final String FOOJAY_MQTT_PASSWORD        = "FOOJAY_MQTT_PASSWORD";
+    public static final String FOOJAY_MQTT_BROKER                      = "FOOJAY_MQTT_BROKER";
+    public static final String FOOJAY_MQTT_PORT                        = "FOOJAY_MQTT_PORT";
+    public static final String FOOJAY_MQTT_USER                        = "FOOJAY_MQTT_USER";
+    public static final String FOOJAY_MQTT_PASSWORD                    = "FOOJAY_MQTT_PASSWORD";
 
 
     public String getFoojayApiBaseUrl() {
@@ -120,6 +144,159 @@ public enum Config {
         }
     }
 
+    public Integer getFoojayMongoDbBulkSize() {
+        final String bulkSizeString = System.getenv(FOOJAY_API_MONGODB_BULK_SIZE);
+        if (null == bulkSizeString) {
+            return 500;
+        } else {
+            try {
+                Integer bulkSize = Integer.valueOf(bulkSizeString);
+                return bulkSize > 0 ? bulkSize : 500;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_API_MONGODB_BULK_SIZE);
+                return 500;
+            }
+        }
+    }
+
+    public Integer getFoojayMongoDbBulkConcurrency() {
+        final String concurrencyString = System.getenv(FOOJAY_API_MONGODB_BULK_CONCURRENCY);
+        if (null == concurrencyString) {
+            return 4;
+        } else {
+            try {
+                Integer concurrency = Integer.valueOf(concurrencyString);
+                return concurrency > 0 ? concurrency : 4;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_API_MONGODB_BULK_CONCURRENCY);
+                return 4;
+            }
+        }
+    }
+
+    /**
+     * Returns the max number of connections in the mongodb connection pool (default 100)
+     * @return the max number of connections in the mongodb connection pool
+     */
+    public Integer getFoojayMongoDbMaxPoolSize() { return getIntegerFromEnv(FOOJAY_API_MONGODB_MAX_POOL_SIZE, 100, 1); }
+
+    /**
+     * Returns the min number of connections that are kept in the mongodb connection pool (default 0)
+     * @return the min number of connections that are kept in the mongodb connection pool
+     */
+    public Integer getFoojayMongoDbMinPoolSize() { return getIntegerFromEnv(FOOJAY_API_MONGODB_MIN_POOL_SIZE, 0, 0); }
+
+    /**
+     * Returns the max time in ms a thread waits for a connection from the pool (default 120000)
+     * @return the max time in ms a thread waits for a connection from the pool
+     */
+    public Integer getFoojayMongoDbMaxWaitTime() { return getIntegerFromEnv(FOOJAY_API_MONGODB_MAX_WAIT_TIME, 120_000, 0); }
+
+    /**
+     * Returns the connect timeout in ms (default 10000)
+     * @return the connect timeout in ms
+     */
+    public Integer getFoojayMongoDbConnectTimeout() { return getIntegerFromEnv(FOOJAY_API_MONGODB_CONNECT_TIMEOUT, 10_000, 0); }
+
+    /**
+     * Returns the socket read timeout in ms, 0 means no timeout (default 0)
+     * @return the socket read timeout in ms
+     */
+    public Integer getFoojayMongoDbSocketTimeout() { return getIntegerFromEnv(FOOJAY_API_MONGODB_SOCKET_TIMEOUT, 0, 0); }
+
+    /**
+     * Returns the comma separated list of wire compressors in order of preference (default zstd,snappy).
+     * The server picks the first one it supports, an empty value disables compression.
+     * @return the comma separated list of wire compressors
+     */
+    public String getFoojayMongoDbCompressors() {
+        final String compressors = System.getenv(FOOJAY_API_MONGODB_COMPRESSORS);
+        return null == compressors ? "zstd,snappy" : compressors;
+    }
+
+    /**
+     * Returns the read preference that is used to read the packages when syncing the cache with the database (default primary).
+     * Use secondaryPreferred to move these reads away from the primary.
+     * @return the read preference that is used when syncing the cache with the database
+     */
+    public String getFoojayMongoDbSyncReadPreference() {
+        final String readPreference = System.getenv(FOOJAY_API_MONGODB_SYNC_READ_PREFERENCE);
+        return null == readPreference || readPreference.isBlank() ? "primary" : readPreference;
+    }
+
+    /**
+     * Returns the interval in seconds in which the aggregated downloads will be written to mongodb (default 10)
+     * @return the interval in seconds in which the aggregated downloads will be written to mongodb
+     */
+    public Integer getFoojayDownloadsFlushInterval() { return getIntegerFromEnv(FOOJAY_API_DOWNLOADS_FLUSH_INTERVAL, 10, 1); }
+
+    /**
+     * Returns the max number of downloads incl. user agent that will be queued until they are written to mongodb (default 50000)
+     * @return the max number of downloads incl. user agent that will be queued until they are written to mongodb
+     */
+    public Integer getFoojayDownloadsQueueSize() { return getIntegerFromEnv(FOOJAY_API_DOWNLOADS_QUEUE_SIZE, 50_000, 1); }
+
+    /**
+     * Returns the max number of distributions that will be updated in parallel (default 8)
+     * @return the max number of distributions that will be updated in parallel
+     */
+    public Integer getFoojayUpdaterConcurrency() { return getIntegerFromEnv(FOOJAY_API_UPDATER_CONCURRENCY, 8, 1); }
+
+    /**
+     * Returns the max number of concurrent requests per host in the form host=limit,host=limit
+     * (default api.github.com=4,api.azul.com=4,cdn.azul.com=8)
+     * @return the max number of concurrent requests per host
+     */
+    public String getFoojayHostLimits() {
+        final String hostLimits = System.getenv(FOOJAY_API_HOST_LIMITS);
+        return null == hostLimits ? "api.github.com=4,api.azul.com=4,cdn.azul.com=8" : hostLimits;
+    }
+
+    /**
+     * Returns the max number of concurrent requests for hosts without an explicit limit (default 6)
+     * @return the max number of concurrent requests for hosts without an explicit limit
+     */
+    public Integer getFoojayDefaultHostLimit() { return getIntegerFromEnv(FOOJAY_API_DEFAULT_HOST_LIMIT, 6, 1); }
+
+    /**
+     * Returns the number of threads of the shared http client that handle responses (default 16)
+     * @return the number of threads of the shared http client
+     */
+    public Integer getFoojayHttpClientThreads() { return getIntegerFromEnv(FOOJAY_API_HTTP_CLIENT_THREADS, 16, 1); }
+
+    /**
+     * Returns the connect timeout of the shared http client in milliseconds (default 20000)
+     * @return the connect timeout of the shared http client in milliseconds
+     */
+    public Integer getFoojayHttpConnectTimeout() { return getIntegerFromEnv(FOOJAY_API_HTTP_CONNECT_TIMEOUT, 20_000, 1); }
+
+    /**
+     * Returns if the upstream responses will be recorded to or replayed from fixture files (off, record or replay, default off)
+     * @return if the upstream responses will be recorded to or replayed from fixture files
+     */
+    public String getFoojayHttpFixturesMode() {
+        final String mode = System.getenv(FOOJAY_API_HTTP_FIXTURES_MODE);
+        return null == mode ? "off" : mode.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Returns the directory of the fixture files of recorded upstream responses (default fixtures)
+     * @return the directory of the fixture files of recorded upstream responses
+     */
+    public String getFoojayHttpFixturesDir() {
+        final String dir = System.getenv(FOOJAY_API_HTTP_FIXTURES_DIR);
+        return null == dir ? "fixtures" : dir;
+    }
+
+    /**
+     * Returns the GitHub tokens that will be used for requests to the GitHub api (comma separated)
+     * @return the GitHub tokens that will be used for requests to the GitHub api
+     */
+    public List<String> getFoojayGithubTokens() {
+        final String tokens = System.getenv(FOOJAY_API_GITHUB_TOKENS);
+        return null == tokens ? List.of() : Arrays.asList(tokens.split(","));
+    }
+
 
     public String getFoojayMqttBroker() {
         final String mqttBroker = System.getenv(FOOJAY_MQTT_BROKER);
@@ -166,5 +343,20 @@ public enum Config {
             return mqttPassword;
         }
     }
-}
 
+
+    private Integer getIntegerFromEnv(final String name, final int defaultValue, final int minValue) {
+        final String valueString = System.getenv(name);
+        if (null == valueString) {
+            return defaultValue;
+        } else {
+            try {
+                Integer value = Integer.valueOf(valueString.trim());
+                return value >= minValue ? value : defaultValue;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", name);
+                return defaultValue;
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ package io.foojay.api.util;
 
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.FPU;
 import eu.hansolo.jdktools.OperatingSystem;
 import eu.hansolo.jdktools.PackageType;
 import eu.hansolo.jdktools.ReleaseStatus;
@@ -57,6 +58,7 @@ public class Constants {
     public static final String            DOWNLOADS_COLLECTION                   = "downloads";
     public static final String            DOWNLOADS_USER_AGENT_COLLECTION        = "downloadsUserAgent";
     public static final String            DOWNLOADS_PER_DAY_COLLECTION           = "downloadsPerDay";
+    public static final String            DOWNLOADS_ROLLUP_COLLECTION            = "downloadsRollup";
     public static final String            DISTRO_UPDATES_COLLECTION              = "distroupdates";
     public static final String            EPHEMERAL_IDS_COLLECTION               = "ephemeralIds";
     public static final String            SHEDLOCK_COLLECTION                    = "shedLock";
@@ -64,6 +66,8 @@ public class Constants {
     public static final String            UPDATER_STATE_COLLECTION               = "updaterState";
     public static final String            SENTINEL_COLLECTION                    = "sentinel";
     public static final String            MAJOR_VERSIONS_COLLECTION              = "majorVersions";
+    public static final String            HTTP_VALIDATORS_COLLECTION             = "httpValidators";
+    public static final String            WATERMARKS_COLLECTION                  = "watermarks";
 
     public static final String            ENDPOINT_PACKAGES                      = "packages";
     public static final String            ENDPOINT_EPHEMERAL_IDS                 = "ephemeral_ids";
@@ -114,6 +118,8 @@ public class Constants {
     public static final long              PRELOAD_TIMEOUT_IN_MINUTES             = 15;
     public static final long              UPLOAD_TIMEOUT_IN_MINUTES              = 10;
     public static final long              SYNCHRONIZING_TIMEOUT_IN_MINUTES       = 15;
+    public static final long              DOWNLOADS_ROLLUP_INTERVAL_IN_MINUTES   = 15;
+    public static final long              EPHEMERAL_ID_EXPIRY_IN_MINUTES         = 30;
 
     public static final boolean           ALL_PKGS                               = false;
     public static final boolean           ONLY_NEW_PKGS                          = true;
@@ -321,6 +327,11 @@ public class Constants {
         put("GA", ReleaseStatus.GA);
     }};
 
+    public static final LinkedHashMap<String, FPU> FPU_LOOKUP = new LinkedHashMap<>() {{
+        put("32sf.", FPU.SOFT_FLOAT);
+        put("32hf.", FPU.HARD_FLOAT);
+    }};
+
     public static final ConcurrentHashMap<Distro, List<Scope>> SCOPE_LOOKUP = new ConcurrentHashMap<>() {{
         // Builds of OpenJDK
         put(Distro.AOJ, List.of(BasicScope.PUBLIC, IDEScope.VISUAL_STUDIO_CODE, BuildScope.BUILD_OF_OPEN_JDK, DownloadScope.DIRECTLY, UsageScope.FREE_TO_USE_IN_PRODUCTION));
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * In memory aggregation of downloads that will be written to the database periodically.
+ * Downloads per package and per (day, distro, major version) are counted in LongAdders so that
+ * concurrent requests do not contend on a single counter. Downloads incl. user agent are kept
+ * in a bounded queue, if the queue is full new entries will be dropped (and counted as dropped).
+ * Draining a counter does not lose concurrent increments, they will be part of the next drain.
+ * Counters of past days are removed by the drain, which is why the downloads per day are incremented
+ * within the lock of their map entry so that an increment cannot go to a counter that has been removed.
+ */
+public class DownloadCounter {
+    private final Map<String, LongAdder>           downloadsPerPkg;
+    private final Map<DayKey, LongAdder>           downloadsPerDay;
+    private final BlockingQueue<UserAgentDownload> userAgentDownloads;
+    private final LongAdder                        droppedUserAgentDownloads;
+
+
+    public DownloadCounter(final int queueCapacity) {
+        this.downloadsPerPkg           = new ConcurrentHashMap<>();
+        this.downloadsPerDay           = new ConcurrentHashMap<>();
+        this.userAgentDownloads        = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.droppedUserAgentDownloads = new LongAdder();
+    }
+
+
+    public void addDownload(final String pkgId) {
+        if (null == pkgId || pkgId.isEmpty()) { return; }
+        downloadsPerPkg.computeIfAbsent(pkgId, k -> new LongAdder()).increment();
+    }
+
+    public void addDownloadToDay(final String day, final String distro, final int majorVersion) {
+        if (null == day || null == distro) { return; }
+        downloadsPerDay.compute(new DayKey(day, distro, majorVersion), (key, adder) -> {
+            final LongAdder downloads = null == adder ? new LongAdder() : adder;
+            downloads.increment();
+            return downloads;
+        });
+    }
+
+    /**
+     * Adds a download incl. user agent to the queue
+     * @param pkgId
+     * @param userAgent
+     * @param countryCode
+     * @param timestamp epoch seconds of the download
+     * @return false if the queue is full and the download was dropped
+     */
+    public boolean addUserAgentDownload(final String pkgId, final String userAgent, final String countryCode, final long timestamp) {
+        if (userAgentDownloads.offer(new UserAgentDownload(pkgId, userAgent, countryCode, timestamp))) { return true; }
+        droppedUserAgentDownloads.increment();
+        return false;
+    }
+
+    public int getNoOfQueuedUserAgentDownloads() { return userAgentDownloads.size(); }
+
+    public long getAndResetNoOfDroppedUserAgentDownloads() { return droppedUserAgentDownloads.sumThenReset(); }
+
+    /**
+     * Returns the downloads per package id since the last drain and resets the counters
+     * @return the downloads per package id since the last drain
+     */
+    public Map<String, Long> drainDownloadsPerPkg() {
+        final Map<String, Long> result = new HashMap<>();
+        // The number of entries is bounded by the number of packages, so they will be kept for reuse
+        downloadsPerPkg.forEach((pkgId, adder) -> {
+            final long downloads = adder.sumThenReset();
+            if (downloads > 0) { result.put(pkgId, downloads); }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the downloads per (day, distro, major version) since the last drain and resets the counters.
+     * Entries of other days than the given current day without new downloads will be removed.
+     * @param currentDay
+     * @return the downloads per (day, distro, major version) since the last drain
+     */
+    public Map<DayKey, Long> drainDownloadsPerDay(final String currentDay) {
+        final Map<DayKey, Long> result = new HashMap<>();
+        downloadsPerDay.forEach((key, adder) -> {
+            final long downloads = adder.sumThenReset();
+            if (downloads > 0) {
+                result.put(key, downloads);
+            } else if (!key.getDay().equals(currentDay)) {
+                // Only remove the counter if no download was added since it has been drained
+                downloadsPerDay.computeIfPresent(key, (k, a) -> 0 == a.sum() ? null : a);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Removes up to the given number of downloads incl. user agent from the queue and returns them
+     * @param maxElements
+     * @return up to the given number of downloads incl. user agent
+     */
+    public List<UserAgentDownload> drainUserAgentDownloads(final int maxElements) {
+        final List<UserAgentDownload> result = new ArrayList<>(Math.min(maxElements, userAgentDownloads.size()));
+        userAgentDownloads.drainTo(result, maxElements);
+        return result;
+    }
+
+    /**
+     * Adds the given downloads again, e.g. if they could not be written to the database
+     * @param downloads
+     */
+    public void restoreDownloadsPerPkg(final Map<String, Long> downloads) {
+        downloads.forEach((pkgId, noOfDownloads) -> downloadsPerPkg.computeIfAbsent(pkgId, k -> new LongAdder()).add(noOfDownloads));
+    }
+
+    /**
+     * Adds the given downloads again, e.g. if they could not be written to the database
+     * @param downloads
+     */
+    public void restoreDownloadsPerDay(final Map<DayKey, Long> downloads) {
+        downloads.forEach((key, noOfDownloads) -> downloadsPerDay.computeIfAbsent(key, k -> new LongAdder()).add(noOfDownloads));
+    }
+
+
+    public static final class DayKey {
+        private final String day;
+        private final String distro;
+        private final int    majorVersion;
+
+
+        public DayKey(final String day, final String distro, final int majorVersion) {
+            this.day          = day;
+            this.distro       = distro;
+            this.majorVersion = majorVersion;
+        }
+
+
+        public String getDay() { return day; }
+
+        public String getDistro() { return distro; }
+
+        public int getMajorVersion() { return majorVersion; }
+
+        @Override public boolean equals(final Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof DayKey)) { return false; }
+            final DayKey other = (DayKey) o;
+            return majorVersion == other.majorVersion && day.equals(other.day) && distro.equals(other.distro);
+        }
+
+        @Override public int hashCode() { return Objects.hash(day, distro, majorVersion); }
+
+        @Override public String toString() { return day + "/" + distro + "/" + majorVersion; }
+    }
+
+
+    public static final class UserAgentDownload {
+        private final String pkgId;
+        private final String userAgent;
+        private final String countryCode;
+        private final long   timestamp;
+
+
+        public UserAgentDownload(final String pkgId, final String userAgent, final String countryCode, final long timestamp) {
+            this.pkgId       = pkgId;
+            this.userAgent   = userAgent;
+            this.countryCode = countryCode;
+            this.timestamp   = timestamp;
+        }
+
+
+        public String getPkgId() { return pkgId; }
+
+        public String getUserAgent() { return userAgent; }
+
+        public String getCountryCode() { return countryCode; }
+
+        public long getTimestamp() { return timestamp; }
+    }
+}
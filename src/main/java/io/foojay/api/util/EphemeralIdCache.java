@@ -24,56 +24,62 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 
+/**
+ * Bidirectional cache of ephemeral ids (key) and package ids (value).
+ * The forward and the reverse map are always changed together while holding the lock of the cache,
+ * lookups in both directions are lock free. setAll() replaces both maps at once.
+ */
 public class EphemeralIdCache<T extends String, U extends String> implements Cache<T, U> {
     private static final Logger LOGGER = LoggerFactory.getLogger(EphemeralIdCache.class);
 
-    private final ConcurrentHashMap<T, U> ephemeralIdCache = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private volatile Maps<T, U> maps = new Maps<>(16);
 
     @Override public void add(final T ephemeralId, final U pkgId) {
         if (null == ephemeralId) { return; }
         if (null == pkgId) {
             LOGGER.debug("EphemeralId cannot be null -> removed key {}", ephemeralId);
-            ephemeralIdCache.remove(ephemeralId);
+            remove(ephemeralId);
         } else {
-            ephemeralIdCache.put(ephemeralId, pkgId);
+            synchronized (this) { maps.put(ephemeralId, pkgId); }
         }
     }
 
     @Override public U get(final T ephemeralId) {
-        if (null == ephemeralId || !ephemeralIdCache.containsKey(ephemeralId)) { return null; }
-        return ephemeralIdCache.get(ephemeralId);
+        if (null == ephemeralId) { return null; }
+        return maps.forward.get(ephemeralId);
     }
 
-    @Override public void remove(final T bundleInfoId) {
-        ephemeralIdCache.remove(bundleInfoId);
+    @Override public synchronized void remove(final T bundleInfoId) {
+        if (null == bundleInfoId) { return; }
+        maps.remove(bundleInfoId);
     }
-    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> ephemeralIdCache.remove(key)); }
+    @Override public synchronized void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> maps.remove(key)); }
 
-    @Override public void addAll(final Map<T,U> entries) { ephemeralIdCache.putAll(entries); }
+    @Override public synchronized void addAll(final Map<T,U> entries) { entries.forEach(maps::put); }
 
-    @Override public void clear() {
-        ephemeralIdCache.clear();
+    @Override public synchronized void clear() {
+        maps = new Maps<>(16);
         LOGGER.debug("EphemeralID cache cleared");
     }
 
-    @Override public synchronized long size() {
-        return ephemeralIdCache.size();
+    @Override public long size() {
+        return maps.forward.size();
     }
 
-    @Override public synchronized boolean isEmpty() { return ephemeralIdCache.isEmpty(); }
+    @Override public boolean isEmpty() { return maps.forward.isEmpty(); }
 
     public void setAll(final Map<T, U> entries) {
-        ephemeralIdCache.clear();
-        ephemeralIdCache.putAll(entries);
+        final Maps<T, U> newMaps = new Maps<>(entries.size());
+        entries.forEach(newMaps::put);
+        synchronized (this) { maps = newMaps; }
         LOGGER.debug("EphemeralID cache cleared and set with new values");
     }
 
@@ -82,7 +88,11 @@ public class EphemeralIdCache<T extends String, U extends String> implements Cac
      * existing entries.
      * @param patch Map that contains existing and new entries
      */
-    public void synchronize(final Map<T, U> patch) { patch.forEach(ephemeralIdCache::putIfAbsent); }
+    public synchronized void synchronize(final Map<T, U> patch) {
+        patch.forEach((key, value) -> {
+            if (!maps.forward.containsKey(key)) { maps.put(key, value); }
+        });
+    }
 
     /**
      * Updates the cache with the values from the given patch map including updates
@@ -91,34 +101,66 @@ public class EphemeralIdCache<T extends String, U extends String> implements Cac
      * @param patch
      * @param removeIfNotInPatch
      */
-    public void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-            patch.forEach((key, value) -> ephemeralIdCache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
-            if (removeIfNotInPatch) {
-                if (ephemeralIdCache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    ephemeralIdCache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> ephemeralIdCache.remove(key));
-                }
-            }
+    public synchronized void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
+        patch.forEach(maps::put);
+        if (removeIfNotInPatch && maps.forward.size() > patch.size()) {
+            final List<T> toRemoveFromTarget = maps.forward.keySet().stream().filter(key -> !patch.containsKey(key)).collect(Collectors.toList());
+            toRemoveFromTarget.forEach(maps::remove);
         }
+    }
 
-    public boolean containsEphemeralId(final T ephemeralId) { return ephemeralIdCache.containsKey(ephemeralId); }
+    public boolean containsEphemeralId(final T ephemeralId) { return null != ephemeralId && maps.forward.containsKey(ephemeralId); }
 
+    /**
+     * Returns the ephemeral id of the given package id. If there is no ephemeral id for the package yet,
+     * a new one will be created and added. Concurrent calls for the same package id return the same ephemeral id.
+     * @param pkgId
+     * @return the ephemeral id of the given package id
+     */
     public T getEphemeralIdForPkgId(final U pkgId) {
-        Optional<Entry<T, U>> optionalEntry = ephemeralIdCache.entrySet().stream().filter(entry -> entry.getValue().equals(pkgId)).findFirst();
-
-        if (optionalEntry.isPresent()) {
-            return optionalEntry.get().getKey();
-        } else {
-            final T ephemeralId = (T) Helper.createEphemeralId(Instant.now().getEpochSecond(), pkgId);
-            add(ephemeralId, pkgId);
-            return ephemeralId;
+        final T ephemeralId = maps.reverse.get(pkgId);
+        if (null != ephemeralId) { return ephemeralId; }
+        synchronized (this) {
+            final T existingEphemeralId = maps.reverse.get(pkgId);
+            if (null != existingEphemeralId) { return existingEphemeralId; }
+            final T newEphemeralId = (T) Helper.createEphemeralId(Instant.now().getEpochSecond(), pkgId);
+            maps.put(newEphemeralId, pkgId);
+            return newEphemeralId;
         }
     }
 
-    public Set<Entry<T,U>> getEntrySet() { return ephemeralIdCache.entrySet(); }
+    public Set<Entry<T,U>> getEntrySet() { return maps.forward.entrySet(); }
+
+    public Collection<T> getEphemeralIds() { return maps.forward.keySet(); }
+
+    public Collection<U> getPkgIds() { return maps.forward.values(); }
+
 
-    public Collection<T> getEphemeralIds() { return ephemeralIdCache.keySet(); }
+    /**
+     * Forward (ephemeral id -> package id) and reverse (package id -> ephemeral id) map.
+     * Every package id has exactly one ephemeral id, changes must be done while holding the lock of the cache.
+     */
+    private static final class Maps<T, U> {
+        private final ConcurrentHashMap<T, U> forward;
+        private final ConcurrentHashMap<U, T> reverse;
+
+
+        private Maps(final int initialCapacity) {
+            this.forward = new ConcurrentHashMap<>(Math.max(16, initialCapacity), 0.9f, 1);
+            this.reverse = new ConcurrentHashMap<>(Math.max(16, initialCapacity), 0.9f, 1);
+        }
 
-    public Collection<U> getPkgIds() { return ephemeralIdCache.values(); }
+
+        private void put(final T ephemeralId, final U pkgId) {
+            final U previousPkgId = forward.put(ephemeralId, pkgId);
+            if (null != previousPkgId && !previousPkgId.equals(pkgId)) { reverse.remove(previousPkgId, ephemeralId); }
+            final T previousEphemeralId = reverse.put(pkgId, ephemeralId);
+            if (null != previousEphemeralId && !previousEphemeralId.equals(ephemeralId)) { forward.remove(previousEphemeralId, pkgId); }
+        }
+
+        private void remove(final T ephemeralId) {
+            final U pkgId = forward.remove(ephemeralId);
+            if (null != pkgId) { reverse.remove(pkgId, ephemeralId); }
+        }
+    }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+
+/**
+ * Classifies filenames (operating system, architecture, archive type, package type, release status and fpu)
+ * in one scan of the filename. All keys of the lookups in Constants are compiled once into an Aho-Corasick
+ * automaton. The result is the same as checking the keys of each lookup in insertion order with contains()
+ * (endsWith() for the archive type) and taking the first match, which is what the parsers did before.
+ */
+public enum FilenameClassifier {
+    INSTANCE;
+
+    private static final int               OPERATING_SYSTEM = 0;
+    private static final int               ARCHITECTURE     = 1;
+    private static final int               ARCHIVE_TYPE     = 2;
+    private static final int               PACKAGE_TYPE     = 3;
+    private static final int               RELEASE_STATUS   = 4;
+    private static final int               FPU_TYPE         = 5;
+    private        final Automaton         automaton;
+    private        final OperatingSystem[] operatingSystems;
+    private        final Architecture[]    architectures;
+    private        final ArchiveType[]     archiveTypes;
+    private        final PackageType[]     packageTypes;
+    private        final ReleaseStatus[]   releaseStatus;
+    private        final FPU[]             fpus;
+
+
+    FilenameClassifier() {
+        automaton        = new Automaton(List.of(Constants.OPERATING_SYSTEM_LOOKUP.keySet(), Constants.ARCHITECTURE_LOOKUP.keySet(), Constants.ARCHIVE_TYPE_LOOKUP.keySet(),
+                                                 Constants.PACKAGE_TYPE_LOOKUP.keySet(), Constants.RELEASE_STATUS_LOOKUP.keySet(), Constants.FPU_LOOKUP.keySet()), ARCHIVE_TYPE);
+        operatingSystems = Constants.OPERATING_SYSTEM_LOOKUP.values().toArray(new OperatingSystem[0]);
+        architectures    = Constants.ARCHITECTURE_LOOKUP.values().toArray(new Architecture[0]);
+        archiveTypes     = Constants.ARCHIVE_TYPE_LOOKUP.values().toArray(new ArchiveType[0]);
+        packageTypes     = Constants.PACKAGE_TYPE_LOOKUP.values().toArray(new PackageType[0]);
+        releaseStatus    = Constants.RELEASE_STATUS_LOOKUP.values().toArray(new ReleaseStatus[0]);
+        fpus             = Constants.FPU_LOOKUP.values().toArray(new FPU[0]);
+    }
+
+
+    /**
+     * Returns the classification of the given filename (or url), values that could not be found are NOT_FOUND
+     * (UNKNOWN for the fpu)
+     * @param filename
+     * @return the classification of the given filename
+     */
+    public Classification classify(final String filename) {
+        final int[] matches = automaton.scan(filename);
+        return new Classification(get(operatingSystems, matches[OPERATING_SYSTEM], OperatingSystem.NOT_FOUND),
+                                  get(architectures, matches[ARCHITECTURE], Architecture.NOT_FOUND),
+                                  get(archiveTypes, matches[ARCHIVE_TYPE], ArchiveType.NOT_FOUND),
+                                  get(packageTypes, matches[PACKAGE_TYPE], PackageType.NOT_FOUND),
+                                  get(releaseStatus, matches[RELEASE_STATUS], ReleaseStatus.NOT_FOUND),
+                                  get(fpus, matches[FPU_TYPE], FPU.UNKNOWN));
+    }
+
+    private static <T> T get(final T[] values, final int index, final T notFound) { return index < 0 ? notFound : values[index]; }
+
+
+    public static final class Classification {
+        private final OperatingSystem operatingSystem;
+        private final Architecture    architecture;
+        private final ArchiveType     archiveType;
+        private final PackageType     packageType;
+        private final ReleaseStatus   releaseStatus;
+        private final FPU             fpu;
+
+
+        Classification(final OperatingSystem operatingSystem, final Architecture architecture, final ArchiveType archiveType, final PackageType packageType, final ReleaseStatus releaseStatus, final FPU fpu) {
+            this.operatingSystem = operatingSystem;
+            this.architecture    = architecture;
+            this.archiveType     = archiveType;
+            this.packageType     = packageType;
+            this.releaseStatus   = releaseStatus;
+            this.fpu             = fpu;
+        }
+
+
+        public OperatingSystem getOperatingSystem() { return operatingSystem; }
+
+        public Architecture getArchitecture() { return architecture; }
+
+        /**
+         * @return the archive type of the first key the filename ends with
+         */
+        public ArchiveType getArchiveType() { return archiveType; }
+
+        public PackageType getPackageType() { return packageType; }
+
+        public ReleaseStatus getReleaseStatus() { return releaseStatus; }
+
+        public FPU getFPU() { return fpu; }
+    }
+
+
+    /**
+     * Aho-Corasick automaton over the keys of several lookups, compiled into a dense transition table.
+     * For every state the table holds the index of the first key (in lookup order) per lookup that ends in
+     * this state, so a scan only needs one table lookup per character plus a min() per lookup.
+     */
+    static final class Automaton {
+        private static final int   ALPHABET_LIMIT = 128;
+        private        final int   noOfLookups;
+        private        final int[] charClasses;
+        private        final int   noOfCharClasses;
+        private        final int[] transitions;
+        private        final int[] firstMatches;
+        private        final int   suffixLookup;
+
+
+        /**
+         * @param lookups the keys of each lookup in priority order
+         * @param suffixLookup index of the lookup whose keys only match at the end of the text (-1 for none)
+         */
+        Automaton(final List<? extends Iterable<String>> lookups, final int suffixLookup) {
+            this.noOfLookups  = lookups.size();
+            this.suffixLookup = suffixLookup;
+
+            // Map all characters that appear in keys to a compact alphabet, class 0 is every other character
+            charClasses = new int[ALPHABET_LIMIT];
+            int classes = 1;
+            for (Iterable<String> keys : lookups) {
+                for (String key : keys) {
+                    for (char c : key.toCharArray()) {
+                        if (c >= ALPHABET_LIMIT) { throw new IllegalArgumentException("Only ascii keys are supported: " + key); }
+                        if (0 == charClasses[c]) { charClasses[c] = classes++; }
+                    }
+                }
+            }
+            noOfCharClasses = classes;
+
+            // Build the trie
+            final List<int[]> gotos   = new ArrayList<>();
+            final List<int[]> matches = new ArrayList<>();
+            gotos.add(newGoto());
+            matches.add(newMatches());
+            for (int lookup = 0 ; lookup < noOfLookups ; lookup++) {
+                int priority = 0;
+                for (String key : lookups.get(lookup)) {
+                    int state = 0;
+                    for (char c : key.toCharArray()) {
+                        final int charClass = charClasses[c];
+                        if (gotos.get(state)[charClass] < 0) {
+                            gotos.get(state)[charClass] = gotos.size();
+                            gotos.add(newGoto());
+                            matches.add(newMatches());
+                        }
+                        state = gotos.get(state)[charClass];
+                    }
+                    final int[] stateMatches = matches.get(state);
+                    if (stateMatches[lookup] < 0) { stateMatches[lookup] = priority; }
+                    priority++;
+                }
+            }
+
+            // Add the failure transitions breadth first and merge the matches of the failure states
+            final int   noOfStates = gotos.size();
+            final int[] failures   = new int[noOfStates];
+            transitions  = new int[noOfStates * noOfCharClasses];
+            firstMatches = new int[noOfStates * noOfLookups];
+            final Deque<Integer> queue = new ArrayDeque<>();
+            for (int charClass = 0 ; charClass < noOfCharClasses ; charClass++) {
+                final int next = gotos.get(0)[charClass];
+                if (next > 0) {
+                    transitions[charClass] = next;
+                    queue.add(next);
+                }
+            }
+            System.arraycopy(matches.get(0), 0, firstMatches, 0, noOfLookups);
+            while (!queue.isEmpty()) {
+                final int state = queue.poll();
+                final int[] stateMatches = matches.get(state);
+                for (int lookup = 0 ; lookup < noOfLookups ; lookup++) {
+                    firstMatches[state * noOfLookups + lookup] = min(stateMatches[lookup], firstMatches[failures[state] * noOfLookups + lookup]);
+                }
+                for (int charClass = 0 ; charClass < noOfCharClasses ; charClass++) {
+                    final int next = gotos.get(state)[charClass];
+                    if (next > 0) {
+                        failures[next] = transitions[failures[state] * noOfCharClasses + charClass];
+                        transitions[state * noOfCharClasses + charClass] = next;
+                        queue.add(next);
+                    } else {
+                        transitions[state * noOfCharClasses + charClass] = transitions[failures[state] * noOfCharClasses + charClass];
+                    }
+                }
+            }
+        }
+
+
+        /**
+         * Scans the given text once
+         * @param text
+         * @return the index of the first key (in lookup order) found in the text per lookup, -1 if no key was found
+         */
+        int[] scan(final String text) {
+            final int[] result = new int[noOfLookups];
+            Arrays.fill(result, -1);
+            int state = 0;
+            for (int i = 0, length = text.length() ; i < length ; i++) {
+                final char c = text.charAt(i);
+                state = transitions[state * noOfCharClasses + (c < ALPHABET_LIMIT ? charClasses[c] : 0)];
+                final int offset = state * noOfLookups;
+                for (int lookup = 0 ; lookup < noOfLookups ; lookup++) {
+                    if (lookup != suffixLookup) { result[lookup] = min(result[lookup], firstMatches[offset + lookup]); }
+                }
+            }
+            // Keys of the suffix lookup only count if they end at the last character
+            if (suffixLookup >= 0) { result[suffixLookup] = firstMatches[state * noOfLookups + suffixLookup]; }
+            return result;
+        }
+
+        private int[] newGoto() {
+            final int[] gotos = new int[noOfCharClasses];
+            Arrays.fill(gotos, -1);
+            return gotos;
+        }
+
+        private int[] newMatches() {
+            final int[] matches = new int[noOfLookups];
+            Arrays.fill(matches, -1);
+            return matches;
+        }
+
+        private static int min(final int a, final int b) {
+            if (a < 0) { return b; }
+            if (b < 0) { return a; }
+            return Math.min(a, b);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Transport that records the upstream responses to fixture files or replays recorded ones without
+ * any network access, e.g. to benchmark the parsers of the distributions offline.
+ * A fixture is stored per method and url in directory/host/sha256(method url).json and contains the
+ * status, the headers and the body of the response. Conditional request headers will not be sent while
+ * recording so that the fixtures always contain the full content.
+ */
+public final class FixtureTransport implements HttpTransport {
+    public enum Mode { RECORD, REPLAY }
+
+    private static final Logger        LOGGER                    = LoggerFactory.getLogger(FixtureTransport.class);
+    private static final Set<String>   EXCLUDED_REQUEST_HEADERS  = Set.of(HttpValidatorCache.HEADER_IF_NONE_MATCH.toLowerCase(Locale.ENGLISH), HttpValidatorCache.HEADER_IF_MODIFIED_SINCE.toLowerCase(Locale.ENGLISH));
+    private static final Set<String>   EXCLUDED_RESPONSE_HEADERS = Set.of("set-cookie");
+    private static final String        FIELD_METHOD              = "method";
+    private static final String        FIELD_URI                 = "uri";
+    private static final String        FIELD_STATUS              = "status";
+    private static final String        FIELD_HEADERS             = "headers";
+    private static final String        FIELD_BODY                = "body";
+    private        final Mode          mode;
+    private        final Path          directory;
+    private        final HttpTransport delegate;
+
+
+    /**
+     * @param mode RECORD or REPLAY
+     * @param directory the directory of the fixture files
+     * @param delegate the transport that sends the requests while recording (not used for replaying)
+     */
+    public FixtureTransport(final Mode mode, final Path directory, final HttpTransport delegate) {
+        if (null == mode || null == directory) { throw new IllegalArgumentException("Mode and directory must not be null"); }
+        if (Mode.RECORD == mode && null == delegate) { throw new IllegalArgumentException("Recording needs a transport that sends the requests"); }
+        this.mode      = mode;
+        this.directory = directory;
+        this.delegate  = delegate;
+    }
+
+
+    public Mode getMode() { return mode; }
+
+    public Path getDirectory() { return directory; }
+
+    @Override public <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler, final boolean followRedirects) throws IOException, InterruptedException {
+        if (Mode.REPLAY == mode) { return replay(request, bodyHandler, load(request, followRedirects)); }
+        final HttpResponse<byte[]> response = delegate.send(withoutConditionalHeaders(request), BodyHandlers.ofByteArray(), followRedirects);
+        return replay(request, bodyHandler, record(request, followRedirects, response));
+    }
+
+    @Override public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final BodyHandler<T> bodyHandler) {
+        if (Mode.REPLAY == mode) {
+            try {
+                return CompletableFuture.completedFuture(replay(request, bodyHandler, load(request, true)));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return delegate.sendAsync(withoutConditionalHeaders(request), BodyHandlers.ofByteArray()).thenApply(response -> {
+            try {
+                return replay(request, bodyHandler, record(request, true, response));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the path of the fixture file of the given request
+     * @param request
+     * @param followRedirects
+     * @return the path of the fixture file of the given request
+     */
+    public Path getFixturePath(final HttpRequest request, final boolean followRedirects) {
+        final String host = request.uri().getHost();
+        final String key  = request.method() + " " + request.uri() + (followRedirects ? "" : " (no redirects)");
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(UTF_8));
+            return directory.resolve(null == host ? "unknown" : host.toLowerCase(Locale.ENGLISH)).resolve(HexFormat.of().formatHex(hash) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Fixture record(final HttpRequest request, final boolean followRedirects, final HttpResponse<byte[]> response) throws IOException {
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        response.headers().map().forEach((name, values) -> {
+            if (!EXCLUDED_RESPONSE_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) { headers.put(name, values); }
+        });
+        final Fixture fixture = new Fixture(request.method(), response.uri(), response.statusCode(), headers, null == response.body() ? new byte[0] : response.body());
+        final Path    path    = getFixturePath(request, followRedirects);
+        final Path    tmpPath = path.resolveSibling(path.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        Files.createDirectories(path.getParent());
+        Files.writeString(tmpPath, fixture.toJson().toString(), UTF_8);
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("Recorded {} {} ({}) to {}", request.method(), request.uri(), response.statusCode(), path);
+        return fixture;
+    }
+
+    private Fixture load(final HttpRequest request, final boolean followRedirects) throws IOException {
+        final Path path = getFixturePath(request, followRedirects);
+        if (!Files.exists(path)) { throw new IOException("No fixture for " + request.method() + " " + request.uri() + " in " + directory); }
+        try {
+            return Fixture.fromJson(JsonParser.parseString(Files.readString(path, UTF_8)).getAsJsonObject());
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Error reading fixture " + path + ". " + e.getMessage(), e);
+        }
+    }
+
+    private static HttpRequest withoutConditionalHeaders(final HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> !EXCLUDED_REQUEST_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))).build();
+    }
+
+    /**
+     * Feeds the body of the given fixture through the given body handler like the http client would do
+     */
+    private static <T> HttpResponse<T> replay(final HttpRequest request, final BodyHandler<T> bodyHandler, final Fixture fixture) throws IOException {
+        final HttpHeaders  headers      = HttpHeaders.of(fixture.headers, (name, value) -> true);
+        final ResponseInfo responseInfo = new ResponseInfo() {
+            @Override public int statusCode() { return fixture.status; }
+            @Override public HttpHeaders headers() { return headers; }
+            @Override public Version version() { return Version.HTTP_1_1; }
+        };
+        final BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+
+            @Override public void request(final long n) {
+                if (done || n <= 0) { return; }
+                done = true;
+                if (fixture.body.length > 0) { subscriber.onNext(List.of(ByteBuffer.wrap(fixture.body))); }
+                subscriber.onComplete();
+            }
+
+            @Override public void cancel() { done = true; }
+        });
+        try {
+            return new ReplayedResponse<>(request, fixture, headers, subscriber.getBody().toCompletableFuture().join());
+        } catch (CompletionException e) {
+            throw new IOException("Error replaying fixture for " + request.uri() + ". " + e.getMessage(), e);
+        }
+    }
+
+
+    private static final class Fixture {
+        private final String                    method;
+        private final URI                       uri;
+        private final int                       status;
+        private final Map<String, List<String>> headers;
+        private final byte[]                    body;
+
+
+        Fixture(final String method, final URI uri, final int status, final Map<String, List<String>> headers, final byte[] body) {
+            this.method  = method;
+            this.uri     = uri;
+            this.status  = status;
+            this.headers = headers;
+            this.body    = body;
+        }
+
+
+        JsonObject toJson() {
+            final JsonObject json        = new JsonObject();
+            final JsonObject jsonHeaders = new JsonObject();
+            headers.forEach((name, values) -> {
+                final JsonArray jsonValues = new JsonArray();
+                values.forEach(jsonValues::add);
+                jsonHeaders.add(name, jsonValues);
+            });
+            json.addProperty(FIELD_METHOD, method);
+            json.addProperty(FIELD_URI, uri.toString());
+            json.addProperty(FIELD_STATUS, status);
+            json.add(FIELD_HEADERS, jsonHeaders);
+            json.addProperty(FIELD_BODY, Base64.getEncoder().encodeToString(body));
+            return json;
+        }
+
+        static Fixture fromJson(final JsonObject json) {
+            final Map<String, List<String>> headers = new LinkedHashMap<>();
+            json.getAsJsonObject(FIELD_HEADERS).entrySet().forEach(entry -> {
+                final List<String> values = new ArrayList<>();
+                for (JsonElement value : entry.getValue().getAsJsonArray()) { values.add(value.getAsString()); }
+                headers.put(entry.getKey(), values);
+            });
+            return new Fixture(json.get(FIELD_METHOD).getAsString(), URI.create(json.get(FIELD_URI).getAsString()), json.get(FIELD_STATUS).getAsInt(),
+                               headers, Base64.getDecoder().decode(json.get(FIELD_BODY).getAsString()));
+        }
+    }
+
+
+    private static final class ReplayedResponse<T> implements HttpResponse<T> {
+        private final HttpRequest request;
+        private final Fixture     fixture;
+        private final HttpHeaders headers;
+        private final T           body;
+
+
+        ReplayedResponse(final HttpRequest request, final Fixture fixture, final HttpHeaders headers, final T body) {
+            this.request = request;
+            this.fixture = fixture;
+            this.headers = headers;
+            this.body    = body;
+        }
+
+
+        @Override public int statusCode() { return fixture.status; }
+
+        @Override public HttpRequest request() { return request; }
+
+        @Override public Optional<HttpResponse<T>> previousResponse() { return Optional.empty(); }
+
+        @Override public HttpHeaders headers() { return headers; }
+
+        @Override public T body() { return body; }
+
+        @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+
+        @Override public URI uri() { return fixture.uri; }
+
+        @Override public Version version() { return Version.HTTP_1_1; }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.foojay.api.UpdateManager;
+import io.foojay.api.util.WatermarkCache.Watermark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+
+/**
+ * Fetches the releases of GitHub repositories with paginated requests (100 releases per page).
+ * For incremental updates only releases that are newer than the watermark of a distribution for a repository
+ * (the highest release id that was processed, see WatermarkCache) will be returned. Because assets are often
+ * uploaded to existing releases later on, known releases that were published within the rescan window before
+ * the watermark will be returned as well if one of their assets was updated after the watermark. The paging
+ * stops at the first known release that is older than the rescan window. The releases of many repositories
+ * are fetched concurrently.
+ */
+public enum GithubReleaseFetcher {
+    INSTANCE;
+
+    private static final Logger   LOGGER             = LoggerFactory.getLogger(GithubReleaseFetcher.class);
+    private static final String   FIELD_ID           = "id";
+    private static final String   FIELD_TAG_NAME     = "tag_name";
+    private static final String   FIELD_HTML_URL     = "html_url";
+    private static final String   FIELD_PUBLISHED_AT = "published_at";
+    private static final String   FIELD_ASSETS       = "assets";
+    private static final String   FIELD_UPDATED_AT   = "updated_at";
+    private static final int      PER_PAGE           = 100;
+    private static final int      MAX_PAGES          = 5;
+    private static final String   ACCEPT             = "application/vnd.github.v3+json";
+    private static final Duration RESCAN_WINDOW      = Duration.ofDays(14);
+
+
+    /**
+     * Fetches the releases of the given repositories concurrently
+     * @param distro api string of the distribution the watermarks belong to
+     * @param releasesUrls e.g. https://api.github.com/repos/adoptium/temurin17-binaries/releases
+     * @param onlyNewReleases if true only releases newer than the watermark of each repository will be returned
+     * @return the releases (newest first) per releases url, repositories that could not be fetched are missing
+     */
+    public Map<String, JsonArray> fetchReleases(final String distro, final List<String> releasesUrls, final boolean onlyNewReleases) {
+        final List<Callable<JsonArray>> fetches = new ArrayList<>();
+        releasesUrls.forEach(releasesUrl -> fetches.add(() -> fetchReleases(distro, releasesUrl, onlyNewReleases)));
+        final List<JsonArray>        results  = UpdateManager.INSTANCE.invokeAll(fetches);
+        final Map<String, JsonArray> releases = new LinkedHashMap<>();
+        for (int i = 0 ; i < releasesUrls.size() ; i++) {
+            if (null != results.get(i)) { releases.put(releasesUrls.get(i), results.get(i)); }
+        }
+        return releases;
+    }
+
+    /**
+     * Fetches the releases of the given repository page by page
+     * @param distro api string of the distribution the watermark belongs to
+     * @param releasesUrl e.g. https://api.github.com/repos/adoptium/temurin17-binaries/releases
+     * @param onlyNewReleases if true only releases newer than the watermark of the repository (and recent releases with updated assets) will be returned
+     * @return the releases (newest first), null if the first page could not be fetched
+     */
+    public JsonArray fetchReleases(final String distro, final String releasesUrl, final boolean onlyNewReleases) {
+        final Watermark watermark = onlyNewReleases ? WatermarkCache.INSTANCE.get(distro, releasesUrl) : null;
+        final JsonArray releases  = new JsonArray();
+        for (int page = 1 ; page <= MAX_PAGES ; page++) {
+            final String               pageUrl  = releasesUrl + "?per_page=" + PER_PAGE + "&page=" + page;
+            final Map<String, String>  headers  = Map.of("accept", ACCEPT, "authorization", GithubTokenPool.INSTANCE.next());
+            // The first page will be requested conditionally, a 304 means that there are no new releases
+            final HttpResponse<String> response = 1 == page ? Helper.getConditional(distro, pageUrl, headers, onlyNewReleases) : Helper.get(pageUrl, headers);
+            if (Helper.isNotModified(response)) { break; }
+            if (null == response || response.statusCode() != 200) {
+                LOGGER.debug("Error fetching releases from {}. Response ({})", pageUrl, null == response ? "-" : response.statusCode());
+                return 1 == page ? null : releases;
+            }
+            final JsonArray pageReleases;
+            try {
+                final JsonElement element = JsonParser.parseString(response.body());
+                if (!element.isJsonArray()) { break; }
+                pageReleases = element.getAsJsonArray();
+            } catch (JsonParseException | IllegalStateException e) {
+                LOGGER.debug("Error parsing releases from {}. {}", pageUrl, e.getMessage());
+                return 1 == page ? null : releases;
+            }
+            final boolean reachedEndOfRescanWindow = addNewReleases(pageReleases, watermark, releases);
+            if (reachedEndOfRescanWindow || pageReleases.size() < PER_PAGE) { break; }
+        }
+        return releases;
+    }
+
+    /**
+     * Stages the watermark of the given distribution for the given repository at the newest of the given
+     * releases and the newest asset update of the given releases. Should be called once the releases were
+     * parsed, the watermark will be set with WatermarkCache.commit() after the packages were persisted.
+     * @param distro api string of the distribution
+     * @param releasesUrl
+     * @param releases
+     */
+    public void stageWatermark(final String distro, final String releasesUrl, final JsonArray releases) {
+        final JsonObject newest = getNewestRelease(releases);
+        if (null == newest) { return; }
+        Instant assetsUpdatedAt = null;
+        for (JsonElement element : releases) {
+            if (!element.isJsonObject()) { continue; }
+            final Instant releaseAssetsUpdatedAt = getAssetsUpdatedAt(element.getAsJsonObject());
+            if (null != releaseAssetsUpdatedAt && (null == assetsUpdatedAt || releaseAssetsUpdatedAt.isAfter(assetsUpdatedAt))) { assetsUpdatedAt = releaseAssetsUpdatedAt; }
+        }
+        WatermarkCache.INSTANCE.stage(new Watermark(distro, releasesUrl, getReleaseId(newest), getString(newest, FIELD_TAG_NAME), getString(newest, FIELD_HTML_URL), getPublishedAt(newest), assetsUpdatedAt));
+    }
+
+    public long getWatermark(final String distro, final String releasesUrl) {
+        final Watermark watermark = WatermarkCache.INSTANCE.get(distro, releasesUrl);
+        return null == watermark ? 0 : watermark.getReleaseId();
+    }
+
+    /**
+     * Adds all releases of the given page with an id above the given watermark to the given releases.
+     * Releases at or below the watermark that were published within the rescan window before the watermark
+     * will be added if one of their assets was updated after the watermark.
+     * @param pageReleases
+     * @param watermark null to add all releases
+     * @param releases
+     * @return true if the page contains a release at or below the watermark that is older than the rescan window
+     */
+    static boolean addNewReleases(final JsonArray pageReleases, final Watermark watermark, final JsonArray releases) {
+        final long    watermarkId         = null == watermark ? 0 : watermark.getReleaseId();
+        final Instant rescanWindowStart   = null == watermark ? Instant.EPOCH : watermark.getPublishedAt().minus(RESCAN_WINDOW);
+        boolean       reachedRescanWindow = false;
+        for (JsonElement element : pageReleases) {
+            if (!element.isJsonObject()) { continue; }
+            final JsonObject release = element.getAsJsonObject();
+            if (watermarkId <= 0 || getReleaseId(release) > watermarkId) {
+                releases.add(release);
+                continue;
+            }
+            final Instant publishedAt = getPublishedAt(release);
+            if (null == publishedAt || publishedAt.isBefore(rescanWindowStart)) {
+                reachedRescanWindow = true;
+                continue;
+            }
+            final Instant assetsUpdatedAt = getAssetsUpdatedAt(release);
+            if (null != assetsUpdatedAt && assetsUpdatedAt.isAfter(watermark.getAssetsUpdatedAt())) { releases.add(release); }
+        }
+        return reachedRescanWindow;
+    }
+
+    /**
+     * Returns the release with the highest id or null if there is none
+     * @param releases
+     * @return the release with the highest id or null if there is none
+     */
+    static JsonObject getNewestRelease(final JsonArray releases) {
+        JsonObject newest = null;
+        for (JsonElement element : releases) {
+            if (!element.isJsonObject()) { continue; }
+            final JsonObject release = element.getAsJsonObject();
+            if (getReleaseId(release) > 0 && (null == newest || getReleaseId(release) > getReleaseId(newest))) { newest = release; }
+        }
+        return newest;
+    }
+
+    private static String getString(final JsonObject release, final String field) {
+        return release.has(field) && release.get(field).isJsonPrimitive() ? release.get(field).getAsString() : "";
+    }
+
+    private static Instant getPublishedAt(final JsonObject release) { return getInstant(release, FIELD_PUBLISHED_AT); }
+
+    private static Instant getInstant(final JsonObject jsonObj, final String field) {
+        try {
+            final String text = getString(jsonObj, field);
+            return text.isEmpty() ? null : Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the newest updated_at of the assets of the given release or null if it has no assets
+     * @param release
+     * @return the newest updated_at of the assets of the given release or null if it has no assets
+     */
+    static Instant getAssetsUpdatedAt(final JsonObject release) {
+        if (!release.has(FIELD_ASSETS) || !release.get(FIELD_ASSETS).isJsonArray()) { return null; }
+        Instant assetsUpdatedAt = null;
+        for (JsonElement asset : release.getAsJsonArray(FIELD_ASSETS)) {
+            if (!asset.isJsonObject()) { continue; }
+            final Instant updatedAt = getInstant(asset.getAsJsonObject(), FIELD_UPDATED_AT);
+            if (null != updatedAt && (null == assetsUpdatedAt || updatedAt.isAfter(assetsUpdatedAt))) { assetsUpdatedAt = updatedAt; }
+        }
+        return assetsUpdatedAt;
+    }
+
+    static long getReleaseId(final JsonObject release) {
+        try {
+            return release.has(FIELD_ID) ? release.get(FIELD_ID).getAsLong() : 0;
+        } catch (NumberFormatException | UnsupportedOperationException e) {
+            return 0;
+        }
+    }
+}
@@ -19,20 +19,151 @@
 
 package io.foojay.api.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 
+/**
+ * Hands out the GitHub token with the most remaining requests. The remaining requests and the
+ * reset time of each token are taken from the X-RateLimit headers of the GitHub responses (see update()).
+ * If all tokens are exhausted callers will be parked until the earliest reset (limited by the
+ * deadline of the calling thread), so parallel updaters can use the combined rate limit of all tokens.
+ */
 public enum GithubTokenPool {
     INSTANCE;
 
-    private static final CopyOnWriteArrayList<String> TOKEN_LIST = new CopyOnWriteArrayList<>(List.of());
-    private static       int                          counter    = 0;
+    public  static final String               HEADER_RATE_LIMIT_LIMIT     = "X-RateLimit-Limit";
+    public  static final String               HEADER_RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    public  static final String               HEADER_RATE_LIMIT_RESET     = "X-RateLimit-Reset";
+    private static final Logger               LOGGER                      = LoggerFactory.getLogger(GithubTokenPool.class);
+    private static final long                 DEFAULT_LIMIT               = 5000;
+    private static final Duration             MAX_WAIT                    = Duration.ofMinutes(60);
+    private volatile     List<TokenState>     tokens;
+
+
+    GithubTokenPool() {
+        tokens = createTokenStates(Config.INSTANCE.getFoojayGithubTokens());
+    }
+
 
+    /**
+     * Replaces the tokens of the pool
+     * @param tokens authorization header values (e.g. "token ghp_...")
+     */
+    public void setTokens(final Collection<String> tokens) { this.tokens = createTokenStates(tokens); }
+
+    /**
+     * Returns the token with the most remaining requests. If all tokens are exhausted the calling thread
+     * will be parked until the earliest reset or its deadline (see HostLimiter), in the latter case the
+     * token with the earliest reset will be returned.
+     * @return the authorization header value of the token to use or an empty string if there are no tokens
+     */
     public String next() {
-        final String token = TOKEN_LIST.get(counter);
-        counter++;
-        if (counter > TOKEN_LIST.size() - 1) { counter = 0; }
-        return token;
+        final List<TokenState> states = tokens;
+        if (states.isEmpty()) { return ""; }
+        final long deadline = System.currentTimeMillis() + Math.max(0, HostLimiter.INSTANCE.getRemainingTime(MAX_WAIT).toMillis());
+        while (true) {
+            final long now  = System.currentTimeMillis();
+            TokenState best = null;
+            for (TokenState state : states) {
+                state.resetIfDue(now);
+                if (null == best || state.remaining.get() > best.remaining.get()) { best = state; }
+            }
+            if (best.tryAcquire())         { return best.token; }
+            if (best.remaining.get() > 0) { continue; }
+
+            // All tokens are exhausted, wait for the earliest reset
+            final TokenState earliest = states.stream().min(Comparator.comparingLong(state -> state.resetAt.get())).get();
+            if (now >= deadline || Thread.currentThread().isInterrupted()) {
+                LOGGER.debug("All github tokens are exhausted until {}", Instant.ofEpochMilli(earliest.resetAt.get()));
+                return earliest.token;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, Math.min(earliest.resetAt.get(), deadline) - now)));
+        }
+    }
+
+    /**
+     * Updates the remaining requests and the reset time of the given token from the rate limit headers of a GitHub response
+     * @param token   the authorization header value that was used for the request
+     * @param headers the headers of the response
+     */
+    public void update(final String token, final HttpHeaders headers) {
+        if (null == token || token.isEmpty() || null == headers) { return; }
+        for (TokenState state : tokens) {
+            if (!state.token.equals(token)) { continue; }
+            final long remaining = headers.firstValueAsLong(HEADER_RATE_LIMIT_REMAINING).orElse(-1);
+            final long reset     = headers.firstValueAsLong(HEADER_RATE_LIMIT_RESET).orElse(-1);
+            final long limit     = headers.firstValueAsLong(HEADER_RATE_LIMIT_LIMIT).orElse(-1);
+            if (remaining < 0 || reset < 0) { return; }
+            state.update(remaining, TimeUnit.SECONDS.toMillis(reset), limit);
+            return;
+        }
+    }
+
+    private static List<TokenState> createTokenStates(final Collection<String> tokens) {
+        final List<TokenState> states = new ArrayList<>();
+        if (null == tokens) { return states; }
+        for (String token : tokens) {
+            if (null == token || token.isBlank()) { continue; }
+            final String value = token.trim();
+            // Plain tokens will be used as "token <value>" in the authorization header
+            states.add(new TokenState(value.contains(" ") ? value : "token " + value));
+        }
+        return List.copyOf(states);
+    }
+
+
+    private static final class TokenState {
+        private final    String     token;
+        private final    AtomicLong remaining;
+        private final    AtomicLong resetAt;
+        private volatile long       limit;
+
+
+        TokenState(final String token) {
+            this.token     = token;
+            this.remaining = new AtomicLong(DEFAULT_LIMIT);
+            this.resetAt   = new AtomicLong(0);
+            this.limit     = DEFAULT_LIMIT;
+        }
+
+
+        boolean tryAcquire() {
+            long current;
+            do {
+                current = remaining.get();
+                if (current <= 0) { return false; }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        void resetIfDue(final long now) {
+            final long reset = resetAt.get();
+            // Only one thread will reset the remaining requests
+            if (reset > 0 && reset <= now && resetAt.compareAndSet(reset, 0)) { remaining.set(limit); }
+        }
+
+        void update(final long remainingRequests, final long reset, final long limitOfRequests) {
+            if (limitOfRequests > 0) { limit = limitOfRequests; }
+            final long currentReset = resetAt.get();
+            if (reset > currentReset && resetAt.compareAndSet(currentReset, reset)) {
+                // New rate limit window
+                remaining.set(remainingRequests);
+            } else {
+                // Responses of the same window may arrive out of order, the lowest value is the most recent one
+                remaining.accumulateAndGet(remainingRequests, Math::min);
+            }
+        }
     }
 }
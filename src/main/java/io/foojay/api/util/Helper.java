@@ -57,9 +57,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpClient.Redirect;
-import java.net.http.HttpClient.Version;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
@@ -77,6 +74,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -86,6 +84,10 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -104,6 +106,13 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class Helper {
     private static final Logger     LOGGER                                 = LoggerFactory.getLogger(Helper.class);
+    public  static final long       FNV_64_OFFSET_BASIS                    = 0xcbf29ce484222325L;
+    private static final long       FNV_64_PRIME                           = 0x100000001b3L;
+    private static final HexFormat  HEX_FORMAT                             = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> MD5_DIGEST             = threadLocalDigest("MD5");
+    private static final ThreadLocal<MessageDigest> SHA1_DIGEST            = threadLocalDigest("SHA-1");
+    private static final ThreadLocal<MessageDigest> SHA256_DIGEST          = threadLocalDigest("SHA-256");
+    private static final ThreadLocal<MessageDigest> SHA3_256_DIGEST        = threadLocalDigest("SHA3-256");
     public  static final Pattern    FILE_URL_PATTERN                       = Pattern.compile("(JDK|JRE)(\\s+\\|\\s?\\[[a-zA-Z0-9\\-\\._]+\\]\\()(https?:\\/\\/(www\\.)?[-a-zA-Z0-9@:%._\\+~#=]{1,256}\\.[a-zA-Z0-9()]{1,6}\\b([-a-zA-Z0-9()@:%_\\+.~#?&\\/=]*)(\\.zip|\\.msi|\\.pkg|\\.dmg|\\.tar\\.gz(?!\\.sig)|\\.deb|\\.rpm|\\.cab|\\.7z))");
     public  static final Pattern    CORRETTO_SIG_URI_PATTERN               = Pattern.compile("((\\[Download\\])\\(?(https?:\\/\\/(www\\.)?[-a-zA-Z0-9@:%._\\+~#=]{1,256}\\.[a-zA-Z0-9()]{1,6}\\b([-a-zA-Z0-9()@:%_\\+.~#?&\\/=]*)(\\.zip\\.sig|\\.tar\\.gz\\.sig)))\\)");
     public  static final Pattern    HREF_FILE_PATTERN                      = Pattern.compile("href=\"([^\"]*(\\.zip|\\.msi|\\.pkg|\\.dmg|\\.tar\\.gz|\\.deb|\\.rpm|\\.cab|\\.7z))\"");
@@ -112,16 +121,7 @@ public class Helper {
     public  static final Pattern    HREF_SIG_FILE_PATTERN                  = Pattern.compile("href=\"([^\"]*(\\.sig))\"");
     public  static final Pattern    HREF_SHA256_FILE_PATTERN               = Pattern.compile("href=\"([^\"]*(\\.sha256sum.txt))\"");
     public  static final Pattern    HREF_DOWNLOAD_PATTERN                  = Pattern.compile("(\\>)(\\s|\\h?(jdk|jre|serverjre)-(([0-9]+\\.[0-9]+\\.[0-9]+_[a-z]+-[a-z0-9]+_)|([0-9]+u[0-9]+-[a-z]+-[a-z0-9]+(-vfp-hflt)?)).*[a-zA-Z]+)(\\<)");
-    private static final Matcher    FILE_URL_MATCHER                       = FILE_URL_PATTERN.matcher("");
-    private static final Matcher    CORRETTO_SIG_URI_MATCHER               = CORRETTO_SIG_URI_PATTERN.matcher("");
-    private static final Matcher    HREF_FILE_MATCHER                      = HREF_FILE_PATTERN.matcher("");
-    private static final Matcher    DOWNLOAD_LINK_MATCHER                  = DOWNLOAD_LINK_PATTERN.matcher("");
-    private static final Matcher    SIG_MATCHER                            = SIG_PATTERN.matcher("");
-    private static final Matcher    HREF_SIG_FILE_MATCHER                  = HREF_SIG_FILE_PATTERN.matcher("");
-    private static final Matcher    HREF_SHA256_FILE_MATCHER               = HREF_SHA256_FILE_PATTERN.matcher("");
-    private static final Matcher    HREF_DOWNLOAD_MATCHER                  = HREF_DOWNLOAD_PATTERN.matcher("");
-    private static       HttpClient httpClient;
-    private static       HttpClient httpClientAsync;
+    private static final SizeProber SIZE_PROBER                            = new SizeProber(uri -> httpHeadRequestAsync(uri).thenApply(Helper::getContentLength), host -> HostLimiter.INSTANCE.getLimit(host), Duration.ofSeconds(10));
 
 
     public static final ArchiveType getFileEnding(final String fileName) {
@@ -136,29 +136,29 @@ public class Helper {
 
     public static final Set<String> getFileUrlsFromString(final String text) {
         Set<String> urlsFound = new HashSet<>();
-        FILE_URL_MATCHER.reset(text);
-        while (FILE_URL_MATCHER.find()) {
-            // JDK / JRE -> FILE_URL_MATCHER.group(1)
-            // File URL  -> FILE_URL_MATCHER.group(3)
-            urlsFound.add(FILE_URL_MATCHER.group(3));
+        final Matcher fileUrlMatcher = FILE_URL_PATTERN.matcher(text);
+        while (fileUrlMatcher.find()) {
+            // JDK / JRE -> fileUrlMatcher.group(1)
+            // File URL  -> fileUrlMatcher.group(3)
+            urlsFound.add(fileUrlMatcher.group(3));
         }
         return urlsFound;
     }
 
     public static final Set<Pair<String,String>> getPackageTypeAndFileUrlFromString(final String text) {
         Set<Pair<String,String>> pairsFound = new HashSet<>();
-        FILE_URL_MATCHER.reset(text);
-        while (FILE_URL_MATCHER.find()) {
-            pairsFound.add(new Pair<>(FILE_URL_MATCHER.group(1), FILE_URL_MATCHER.group(3)));
+        final Matcher fileUrlMatcher = FILE_URL_PATTERN.matcher(text);
+        while (fileUrlMatcher.find()) {
+            pairsFound.add(new Pair<>(fileUrlMatcher.group(1), fileUrlMatcher.group(3)));
         }
         return pairsFound;
     }
 
     public static final Map<String,String> getCorrettoSignatureUris(final String text) {
         Map signatureUrisFound = new HashMap<>();
-        CORRETTO_SIG_URI_MATCHER.reset(text);
-        while(CORRETTO_SIG_URI_MATCHER.find()) {
-            String sigUri   = CORRETTO_SIG_URI_MATCHER.group(3);
+        final Matcher correttoSigUriMatcher = CORRETTO_SIG_URI_PATTERN.matcher(text);
+        while(correttoSigUriMatcher.find()) {
+            String sigUri   = correttoSigUriMatcher.group(3);
             String filename = (sigUri.substring(sigUri.lastIndexOf("/") + 1)).replaceAll("\\.sig|\\.SIG", "");
             signatureUrisFound.put(filename, sigUri);
         }
@@ -167,54 +167,54 @@ public class Helper {
 
     public static final Set<String> getFileHrefsFromString(final String text) {
         Set<String> hrefsFound = new HashSet<>();
-        HREF_FILE_MATCHER.reset(text);
-        while (HREF_FILE_MATCHER.find()) {
-            hrefsFound.add(HREF_FILE_MATCHER.group(1));
+        final Matcher hrefFileMatcher = HREF_FILE_PATTERN.matcher(text);
+        while (hrefFileMatcher.find()) {
+            hrefsFound.add(hrefFileMatcher.group(1));
         }
         return hrefsFound;
     }
 
     public static final Set<String> getDownloadLinkFromString(final String text) {
         Set<String> downloadLinksFound = new HashSet<>();
-        DOWNLOAD_LINK_MATCHER.reset(text);
-        while (DOWNLOAD_LINK_MATCHER.find()) {
-            downloadLinksFound.add(DOWNLOAD_LINK_MATCHER.group(1));
+        final Matcher downloadLinkMatcher = DOWNLOAD_LINK_PATTERN.matcher(text);
+        while (downloadLinkMatcher.find()) {
+            downloadLinksFound.add(downloadLinkMatcher.group(1));
         }
         return downloadLinksFound;
     }
 
     public static final Set<String> getSigFromString(final String text) {
         Set<String> sigsFound = new HashSet<>();
-        SIG_MATCHER.reset(text);
-        while (SIG_MATCHER.find()) {
-            sigsFound.add(SIG_MATCHER.group(1));
+        final Matcher sigMatcher = SIG_PATTERN.matcher(text);
+        while (sigMatcher.find()) {
+            sigsFound.add(sigMatcher.group(1));
         }
         return sigsFound;
     }
 
     public static final Set<String> getSigFileHrefsFromString(final String text) {
         Set<String> sigHrefsFound = new HashSet<>();
-        HREF_SIG_FILE_MATCHER.reset(text);
-        while (HREF_SIG_FILE_MATCHER.find()) {
-            sigHrefsFound.add(HREF_SIG_FILE_MATCHER.group(1).toLowerCase());
+        final Matcher hrefSigFileMatcher = HREF_SIG_FILE_PATTERN.matcher(text);
+        while (hrefSigFileMatcher.find()) {
+            sigHrefsFound.add(hrefSigFileMatcher.group(1).toLowerCase());
         }
         return sigHrefsFound;
     }
 
     public static final Set<String> getSha256FileHrefsFromString(final String text) {
         Set<String> sha256HrefsFound = new HashSet<>();
-        HREF_SHA256_FILE_MATCHER.reset(text);
-        while (HREF_SHA256_FILE_MATCHER.find()) {
-            sha256HrefsFound.add(HREF_SHA256_FILE_MATCHER.group(1).toLowerCase());
+        final Matcher hrefSha256FileMatcher = HREF_SHA256_FILE_PATTERN.matcher(text);
+        while (hrefSha256FileMatcher.find()) {
+            sha256HrefsFound.add(hrefSha256FileMatcher.group(1).toLowerCase());
         }
         return sha256HrefsFound;
     }
 
     public static final Set<String> getDownloadHrefsFromString(final String text) {
         Set<String> hrefsFound = new HashSet<>();
-        HREF_DOWNLOAD_MATCHER.reset(text);
-        while (HREF_DOWNLOAD_MATCHER.find()) {
-            hrefsFound.add(HREF_DOWNLOAD_MATCHER.group(2).trim().replaceFirst("\\h", ""));
+        final Matcher hrefDownloadMatcher = HREF_DOWNLOAD_PATTERN.matcher(text);
+        while (hrefDownloadMatcher.find()) {
+            hrefsFound.add(hrefDownloadMatcher.group(2).trim().replaceFirst("\\h", ""));
         }
         return hrefsFound;
     }
@@ -369,17 +369,7 @@ public class Helper {
     public static final String getMD5(final byte[] bytes) {
         return bytesToHex(getMD5Bytes(bytes));
     }
-    public static final byte[] getMD5Bytes(final byte[] bytes) {
-        final MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            LOGGER.error("Error getting MD5 algorithm. {}", e.getMessage());
-            return new byte[]{};
-        }
-        final byte[] result = md.digest(bytes);
-        return result;
-    }
+    public static final byte[] getMD5Bytes(final byte[] bytes) { return digest(MD5_DIGEST, "MD5", bytes); }
     public static final String getMD5ForFile(final File file) throws Exception {
         final MessageDigest md  = MessageDigest.getInstance("MD5");
         final InputStream   fis = new FileInputStream(file);
@@ -403,17 +393,7 @@ public class Helper {
     public static final String getSHA1(final byte[] bytes) {
         return bytesToHex(getSHA1Bytes(bytes));
     }
-    public static final byte[] getSHA1Bytes(final byte[] bytes) {
-        final MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("SHA-1");
-        } catch (NoSuchAlgorithmException e) {
-            LOGGER.error("Error getting SHA-1 algorithm. {}", e.getMessage());
-            return new byte[]{};
-        }
-        final byte[] result = md.digest(bytes);
-        return result;
-    }
+    public static final byte[] getSHA1Bytes(final byte[] bytes) { return digest(SHA1_DIGEST, "SHA-1", bytes); }
     public static final String getSHA1ForFile(final File file) throws Exception {
         final MessageDigest md  = MessageDigest.getInstance("SHA-1");
         final InputStream   fis = new FileInputStream(file);
@@ -437,17 +417,7 @@ public class Helper {
     public static final String getSHA256(final byte[] bytes) {
         return bytesToHex(getSHA256Bytes(bytes));
     }
-    public static final byte[] getSHA256Bytes(final byte[] bytes) {
-        final MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            LOGGER.error("Error getting SHA2-256 algorithm. {}", e.getMessage());
-            return new byte[]{};
-        }
-        final byte[] result = md.digest(bytes);
-        return result;
-    }
+    public static final byte[] getSHA256Bytes(final byte[] bytes) { return digest(SHA256_DIGEST, "SHA2-256", bytes); }
     public static final String getSHA256ForFile(final File file) throws Exception {
         final MessageDigest md  = MessageDigest.getInstance("SHA-256");
         final InputStream   fis = new FileInputStream(file);
@@ -471,17 +441,7 @@ public class Helper {
     public static final String getSHA3_256(final byte[] bytes) {
         return bytesToHex(getSHA3_256Bytes(bytes));
     }
-    public static final byte[] getSHA3_256Bytes(final byte[] bytes) {
-        final MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("SHA3-256");
-        } catch (NoSuchAlgorithmException e) {
-            LOGGER.error("Error getting SHA3-256 algorithm. {}", e.getMessage());
-            return new byte[]{};
-        }
-        final byte[] result = md.digest(bytes);
-        return result;
-    }
+    public static final byte[] getSHA3_256Bytes(final byte[] bytes) { return digest(SHA3_256_DIGEST, "SHA3-256", bytes); }
     public static final String getSHA3_256ForFile(final File file) throws Exception {
         final MessageDigest md  = MessageDigest.getInstance("SHA3-256");
         final InputStream   fis = new FileInputStream(file);
@@ -501,16 +461,72 @@ public class Helper {
         return getSHA3_256(bytesToHex(byteData));
     }
 
-    public static final String bytesToHex(final byte[] bytes) {
-        final StringBuilder builder = new StringBuilder();
-        for (byte b : bytes) { builder.append(String.format("%02x", b)); }
-        return builder.toString();
+    /**
+     * Returns a MessageDigest per thread for the given algorithm to avoid the lookup of
+     * the provider on every call. The ThreadLocal will return null if the algorithm is not available.
+     * @param algorithm Name of the digest algorithm (e.g. SHA-1)
+     * @return a MessageDigest per thread for the given algorithm
+     */
+    private static final ThreadLocal<MessageDigest> threadLocalDigest(final String algorithm) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                return null;
+            }
+        });
+    }
+
+    private static final byte[] digest(final ThreadLocal<MessageDigest> digest, final String algorithmName, final byte[] bytes) {
+        final MessageDigest md = digest.get();
+        if (null == md) {
+            LOGGER.error("Error getting {} algorithm.", algorithmName);
+            return new byte[]{};
+        }
+        // digest() resets the MessageDigest so it can be reused by the next call on this thread
+        return md.digest(bytes);
     }
 
+    public static final String bytesToHex(final byte[] bytes) { return HEX_FORMAT.formatHex(bytes); }
+
     public static final String createEphemeralId(final long number, final String id) {
         return getSHA1(number + id);
     }
 
+    /**
+     * Returns the 64-bit FNV-1a hash of the given text continued from the given hash.
+     * Each value is terminated by a unit separator so that consecutive values cannot
+     * collide by shifting characters from one value to the next.
+     * @param hash The hash to continue from (start with FNV_64_OFFSET_BASIS)
+     * @param text The text to add to the hash, null is treated like an empty string
+     * @return the 64-bit FNV-1a hash of the given text continued from the given hash
+     */
+    public static final long fnv1a64(final long hash, final String text) {
+        long result = hash;
+        if (null != text) {
+            for (int i = 0, length = text.length() ; i < length ; i++) {
+                final char c = text.charAt(i);
+                result ^= (c & 0xff);
+                result *= FNV_64_PRIME;
+                result ^= (c >>> 8);
+                result *= FNV_64_PRIME;
+            }
+        }
+        result ^= 0x1f;
+        result *= FNV_64_PRIME;
+        return result;
+    }
+    public static final long fnv1a64(final long hash, final long value) {
+        long result = hash;
+        for (int i = 0 ; i < 8 ; i++) {
+            result ^= (value >>> (i * 8)) & 0xff;
+            result *= FNV_64_PRIME;
+        }
+        result ^= 0x1f;
+        result *= FNV_64_PRIME;
+        return result;
+    }
+
     public static final String trimPrefix(final String text, final String prefix) {
         return text.replaceFirst(prefix, "");
     }
@@ -549,14 +565,7 @@ public class Helper {
         return Files.readAllLines(Paths.get(filename), charset);
     }
 
-    public static final OperatingSystem fetchOperatingSystem(final String text) {
-        return Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                .stream()
-                                                .filter(entry -> text.contains(entry.getKey()))
-                                                .findFirst()
-                                                .map(Entry::getValue)
-                                                .orElse(OperatingSystem.NOT_FOUND);
-    }
+    public static final OperatingSystem fetchOperatingSystem(final String text) { return FilenameClassifier.INSTANCE.classify(text).getOperatingSystem(); }
 
     public static final OperatingSystem fetchOperatingSystemByArchiveType(final String text) {
         return Constants.OPERATING_SYSTEM_BY_ARCHIVE_TYPE_LOOKUP.entrySet()
@@ -567,44 +576,15 @@ public class Helper {
                                                                 .orElse(OperatingSystem.NOT_FOUND);
     }
 
-    public static final Architecture fetchArchitecture(final String text) {
-        return Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.contains(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(Architecture.NOT_FOUND);
-    }
+    public static final Architecture fetchArchitecture(final String text) { return FilenameClassifier.INSTANCE.classify(text).getArchitecture(); }
 
-    public static final ArchiveType fetchArchiveType(final String text) {
-        return Constants.ARCHIVE_TYPE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.endsWith(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(ArchiveType.NOT_FOUND);
-    }
+    public static final ArchiveType fetchArchiveType(final String text) { return FilenameClassifier.INSTANCE.classify(text).getArchiveType(); }
 
-    public static final PackageType fetchPackageType(final String text) {
-        return Constants.PACKAGE_TYPE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.contains(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(PackageType.NOT_FOUND);
-    }
+    public static final PackageType fetchPackageType(final String text) { return FilenameClassifier.INSTANCE.classify(text).getPackageType(); }
 
-    public static final ReleaseStatus fetchReleaseStatus(final String text) {
-        return Constants.RELEASE_STATUS_LOOKUP.entrySet()
-                                              .stream()
-                                              .filter(entry -> text.contains(entry.getKey()))
-                                              .findFirst()
-                                              .map(Entry::getValue)
-                                              .orElse(ReleaseStatus.NOT_FOUND);
-    }
+    public static final ReleaseStatus fetchReleaseStatus(final String text) { return FilenameClassifier.INSTANCE.classify(text).getReleaseStatus(); }
 
     public static final boolean isUriValid(final String uri) {
-        final HttpClient  httpClient = createHttpClient();
         final HttpRequest request;
         try {
             request = HttpRequest.newBuilder()
@@ -617,7 +597,7 @@ public class Helper {
             return false;
         }
         try {
-            HttpResponse<Void> response = httpClient.send(request, BodyHandlers.discarding());
+            HttpResponse<Void> response = HttpClientManager.INSTANCE.send(request, BodyHandlers.discarding());
             return 200 == response.statusCode();
         } catch (InterruptedException | IOException e) {
             LOGGER.debug("Uri request: {} failed with exception: {}", uri, e);
@@ -816,24 +796,55 @@ public class Helper {
         return String.format("%.1f %cB", bytes / 1000.0, ci.current());
     }
 
+    /**
+     * Returns the size of the file at the given uri or -1 if unknown. The size is memoized by uri,
+     * to probe the sizes of many files concurrently use probeFileSize() and awaitFileSizes().
+     * @param uri
+     * @return the size of the file at the given uri or -1 if unknown
+     */
     public static final long getFileSize(final String uri) {
-        long size = -1;
-        HttpResponse<String> response = Helper.httpHeadRequestSync(uri);
-        if (null != response) {
-            java.net.http.HttpHeaders headers   = response.headers();
-            Map<String, List<String>> headerMap = headers.map();
-            if (headerMap.containsKey("Content-Length")) {
-                List<String> content = headerMap.get("Content-Length");
-                if (content.size() > 0) {
-                    try {
-                        size = Long.parseLong(headerMap.get("Content-Length").get(0));
-                    } catch (NumberFormatException e) {
-                        LOGGER.debug("Error parsing file size from {}.", uri);
-                    }
-                }
-            }
+        try {
+            return SIZE_PROBER.getSize(uri).get(Math.max(0, HostLimiter.INSTANCE.getRemainingTime(Duration.ofSeconds(30)).toMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.debug("Error getting file size of {}. {}", uri, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Probes the size of the file at the given uri asynchronously and calls the given consumer
+     * (e.g. pkg::setSize) once it is known. The number of concurrent probes is limited per host.
+     * @param uri
+     * @param consumer
+     * @return future that completes when the size was probed
+     */
+    public static final CompletableFuture<Void> probeFileSize(final String uri, final LongConsumer consumer) {
+        return SIZE_PROBER.probe(uri, consumer);
+    }
+
+    /**
+     * Waits until the given probes are done, limited by the deadline of the current thread (or 5 minutes).
+     * Sizes that are not known by then stay unset.
+     * @param probes futures returned by probeFileSize()
+     */
+    public static final void awaitFileSizes(final Collection<CompletableFuture<Void>> probes) {
+        if (probes.isEmpty()) { return; }
+        final long start = System.currentTimeMillis();
+        final int  done  = SIZE_PROBER.awaitAll(probes, HostLimiter.INSTANCE.getRemainingTime(Duration.ofMinutes(5)));
+        LOGGER.debug("Probed {} of {} file sizes in {} ms", done, probes.size(), (System.currentTimeMillis() - start));
+    }
+
+    private static long getContentLength(final HttpResponse<String> response) {
+        if (null == response || response.statusCode() != 200) { return -1; }
+        try {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Error parsing file size from {}.", response.uri());
+            return -1;
         }
-        return size;
     }
 
     public static final String getReleaseDetailsUrl(final Semver semver) {
@@ -909,21 +920,10 @@ public class Helper {
 
 
     // ******************** REST calls ****************************************
-    private static HttpClient createHttpClient() {
-        return HttpClient.newBuilder()
-                               .connectTimeout(Duration.ofSeconds(20))
-                               .version(Version.HTTP_2)
-                               .followRedirects(Redirect.NORMAL)
-                               //.executor(Executors.newFixedThreadPool(4))
-                               .build();
-    }
-
     public static final HttpResponse<String> get(final String uri) {
         return get(uri, new HashMap<>());
     }
     public static final HttpResponse<String> get(final String uri, final Map<String,String> headers) {
-        if (null == httpClient) { httpClient = createHttpClient(); }
-
         List<String> requestHeaders = new LinkedList<>();
         requestHeaders.add("User-Agent");
         requestHeaders.add("DiscoAPI");
@@ -936,16 +936,28 @@ public class Helper {
             }
         });
 
+        final Duration timeout = HostLimiter.INSTANCE.getRemainingTime(Duration.ofSeconds(10));
+        if (timeout.isNegative() || timeout.isZero()) {
+            LOGGER.error("Error executing get request {} : deadline reached", uri);
+            return null;
+        }
+
         final HttpRequest request = HttpRequest.newBuilder()
                                          .GET()
                                          .uri(URI.create(uri))
                                          .headers(requestHeaders.toArray(new String[0]))
-                                         .timeout(Duration.ofSeconds(10))
+                                         .timeout(timeout)
                                          .build();
 
+        final String host = request.uri().getHost();
+        if (!HostLimiter.INSTANCE.acquire(host)) {
+            LOGGER.error("Error executing get request {} : no permit for host {} before deadline", uri, host);
+            return null;
+        }
         try {
-            HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
+            HttpResponse<String> response = HttpClientManager.INSTANCE.send(request, BodyHandlers.ofString());
+            updateGithubRateLimit(headers, response);
+            if (response.statusCode() == 200 || response.statusCode() == 304) {
                 return response;
             } else {
                 // Problem with url request
@@ -956,15 +968,36 @@ public class Helper {
         } catch (CompletionException | InterruptedException | IOException e) {
             LOGGER.error("Error executing get request {} : {}", uri, e.getMessage());
             return null;
+        } finally {
+            HostLimiter.INSTANCE.release(host);
         }
     }
 
+    /**
+     * Sends a get request to the given uri and stages the validators (ETag, Last-Modified) of the response
+     * for the given distribution, they will be stored once the packages of the distribution were persisted.
+     * If onlyIfModified is true the request will be sent as conditional request and the response will be
+     * a 304 (see isNotModified()) if the content did not change since the last full response.
+     * @param distro api string of the distribution the response will be parsed for
+     * @param uri
+     * @param headers
+     * @param onlyIfModified
+     * @return the response or null if the request failed
+     */
+    public static final HttpResponse<String> getConditional(final String distro, final String uri, final Map<String,String> headers, final boolean onlyIfModified) {
+        final Map<String, String> requestHeaders = new HashMap<>(headers);
+        if (onlyIfModified) { requestHeaders.putAll(HttpValidatorCache.INSTANCE.getConditionalHeaders(uri)); }
+        final HttpResponse<String> response = get(uri, requestHeaders);
+        if (null != response && response.statusCode() == 200) { HttpValidatorCache.INSTANCE.stage(distro, uri, response.headers()); }
+        return response;
+    }
+
+    public static final boolean isNotModified(final HttpResponse<String> response) { return null != response && response.statusCode() == 304; }
+
     public static final CompletableFuture<HttpResponse<String>> getAsync(final String uri) {
         return getAsync(uri, new HashMap<>());
     }
     public static final CompletableFuture<HttpResponse<String>> getAsync(final String uri, final Map<String, String> headers) {
-        if (null == httpClientAsync) { httpClientAsync = createHttpClient(); }
-
         List<String> requestHeaders = new LinkedList<>();
         requestHeaders.add("User-Agent");
         requestHeaders.add("DiscoAPI");
@@ -984,19 +1017,43 @@ public class Helper {
                                                .timeout(Duration.ofSeconds(10))
                                                .build();
 
-        return httpClientAsync.sendAsync(request, BodyHandlers.ofString());
+        return HttpClientManager.INSTANCE.sendAsync(request, BodyHandlers.ofString()).whenComplete((response, throwable) -> updateGithubRateLimit(headers, response));
+    }
+
+    /**
+     * Updates the rate limit of the GitHub token that was used for the request (if any) from the headers of the given response
+     * @param headers the headers of the request
+     * @param response
+     */
+    private static void updateGithubRateLimit(final Map<String, String> headers, final HttpResponse<String> response) {
+        if (null == response || !response.headers().firstValue(GithubTokenPool.HEADER_RATE_LIMIT_REMAINING).isPresent()) { return; }
+        headers.entrySet()
+               .stream()
+               .filter(entry -> "authorization".equalsIgnoreCase(entry.getKey()))
+               .findFirst()
+               .ifPresent(entry -> GithubTokenPool.INSTANCE.update(entry.getValue(), response.headers()));
     }
 
     public static final HttpResponse<String> httpHeadRequestSync(final String uri) {
-        if (null == httpClient) { httpClient = createHttpClient(); }
+        final Duration timeout = HostLimiter.INSTANCE.getRemainingTime(Duration.ofSeconds(10));
+        if (timeout.isNegative() || timeout.isZero()) {
+            LOGGER.error("Error executing head request {} : deadline reached", uri);
+            return null;
+        }
 
         final HttpRequest request = HttpRequest.newBuilder()
                                                .method("HEAD", HttpRequest.BodyPublishers.noBody())
                                                .uri(URI.create(uri))
+                                               .timeout(timeout)
                                                .build();
 
+        final String host = request.uri().getHost();
+        if (!HostLimiter.INSTANCE.acquire(host)) {
+            LOGGER.error("Error executing head request {} : no permit for host {} before deadline", uri, host);
+            return null;
+        }
         try {
-            HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+            HttpResponse<String> response = HttpClientManager.INSTANCE.send(request, BodyHandlers.ofString());
             if (response.statusCode() == 200) {
                 return response;
             } else {
@@ -1008,15 +1065,16 @@ public class Helper {
         } catch (CompletionException | InterruptedException | IOException e) {
             LOGGER.error("Error executing get request {} : {}", uri, e.getMessage());
             return null;
+        } finally {
+            HostLimiter.INSTANCE.release(host);
         }
     }
     public static final  CompletableFuture<HttpResponse<String>> httpHeadRequestAsync(final String uri) {
-        if (null == httpClientAsync) { httpClientAsync = createHttpClient(); }
-
         final HttpRequest request = HttpRequest.newBuilder()
                                                .method("HEAD", HttpRequest.BodyPublishers.noBody())
                                                .uri(URI.create(uri))
+                                               .timeout(Duration.ofSeconds(10))
                                                .build();
-        return httpClientAsync.sendAsync(request, BodyHandlers.ofString());
+        return HttpClientManager.INSTANCE.sendAsync(request, BodyHandlers.ofString());
     }
 }
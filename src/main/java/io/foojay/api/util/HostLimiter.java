@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Limits the number of concurrent requests per host (e.g. api.github.com) so that
+ * distributions that are updated in parallel do not overload a single source.
+ * A thread can set a deadline, requests of that thread will neither wait for a
+ * permit nor run longer than the deadline.
+ */
+public enum HostLimiter {
+    INSTANCE;
+
+    private static final Logger                 LOGGER           = LoggerFactory.getLogger(HostLimiter.class);
+    private static final Duration               DEFAULT_MAX_WAIT = Duration.ofSeconds(60);
+    private static final ThreadLocal<Instant>   DEADLINE         = new ThreadLocal<>();
+    private        final Map<String, Integer>   hostLimits;
+    private        final int                    defaultHostLimit;
+    private        final Map<String, Semaphore> semaphores;
+
+
+    HostLimiter() {
+        hostLimits       = parseHostLimits(Config.INSTANCE.getFoojayHostLimits());
+        defaultHostLimit = Config.INSTANCE.getFoojayDefaultHostLimit();
+        semaphores       = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * Waits for a permit to send a request to the given host. The wait is limited by the
+     * deadline of the current thread (or 60 seconds if there is no deadline).
+     * Every successful call has to be followed by a call to release().
+     * @param host
+     * @return true if a permit was acquired
+     */
+    public boolean acquire(final String host) {
+        if (null == host) { return true; }
+        final long maxWait = getRemainingTime(DEFAULT_MAX_WAIT).toMillis();
+        if (maxWait <= 0) {
+            LOGGER.debug("Deadline reached before request to {}", host);
+            return false;
+        }
+        try {
+            if (getSemaphore(host).tryAcquire(maxWait, TimeUnit.MILLISECONDS)) { return true; }
+            LOGGER.debug("No permit for request to {} within {} ms", host, maxWait);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release(final String host) {
+        if (null == host) { return; }
+        getSemaphore(host).release();
+    }
+
+    /**
+     * Returns the given duration or the remaining time until the deadline of the current thread if that is shorter
+     * @param maxDuration
+     * @return the given duration or the remaining time until the deadline of the current thread if that is shorter
+     */
+    public Duration getRemainingTime(final Duration maxDuration) {
+        final Instant deadline = DEADLINE.get();
+        if (null == deadline) { return maxDuration; }
+        final Duration remaining = Duration.between(Instant.now(), deadline);
+        return remaining.compareTo(maxDuration) < 0 ? remaining : maxDuration;
+    }
+
+    public Instant getDeadline() { return DEADLINE.get(); }
+
+    /**
+     * Sets the deadline for all requests of the current thread, null removes the deadline
+     * @param deadline
+     */
+    public void setDeadline(final Instant deadline) {
+        if (null == deadline) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+    }
+
+    public int getLimit(final String host) { return hostLimits.getOrDefault(host.toLowerCase(Locale.ENGLISH), defaultHostLimit); }
+
+    private Semaphore getSemaphore(final String host) {
+        return semaphores.computeIfAbsent(host.toLowerCase(Locale.ENGLISH), h -> new Semaphore(getLimit(h), true));
+    }
+
+    /**
+     * Returns the limits per host from the given text in the form host=limit,host=limit
+     * @param text
+     * @return the limits per host from the given text
+     */
+    static Map<String, Integer> parseHostLimits(final String text) {
+        final Map<String, Integer> limits = new HashMap<>();
+        if (null == text || text.isBlank()) { return limits; }
+        for (String entry : text.split(Constants.COMMA)) {
+            final String[] parts = entry.split("=");
+            if (parts.length != 2) { continue; }
+            try {
+                final int limit = Integer.parseInt(parts[1].trim());
+                if (limit > 0) { limits.put(parts[0].trim().toLowerCase(Locale.ENGLISH), limit); }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Wrong host limit {} will be ignored", entry);
+            }
+        }
+        return limits;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Holds the http clients that are shared by all requests to upstream sources so that connections
+ * (incl. HTTP/2 multiplexing) and TLS sessions are reused. The clients use a bounded pool of daemon
+ * threads and record the requests in flight and the latency per host in the global registry, which
+ * contains the registry of the application (see MeterRegistryBinder).
+ * The requests are sent by a transport which can be replaced, e.g. by a FixtureTransport that records
+ * the upstream responses or replays recorded ones (see FOOJAY_API_HTTP_FIXTURES_MODE).
+ */
+public enum HttpClientManager {
+    INSTANCE;
+
+    public  static final String                     METRIC_REQUESTS  = "foojay.http.client.requests";
+    public  static final String                     METRIC_IN_FLIGHT = "foojay.http.client.requests.in.flight";
+    private static final Logger                     LOGGER           = LoggerFactory.getLogger(HttpClientManager.class);
+    private static final String                     TAG_HOST         = "host";
+    private static final String                     TAG_STATUS       = "status";
+    private static final String                     STATUS_ERROR     = "error";
+    private        final ExecutorService            executor;
+    private        final HttpClient                 httpClient;
+    private        final HttpClient                 httpClientWithoutRedirects;
+    private        final HttpTransport              liveTransport;
+    private        final Map<String, AtomicInteger> inFlight;
+    private        final MeterRegistry              meterRegistry;
+    private volatile     HttpTransport              transport;
+
+
+    HttpClientManager() {
+        final AtomicInteger counter        = new AtomicInteger(0);
+        final Duration      connectTimeout = Duration.ofMillis(Config.INSTANCE.getFoojayHttpConnectTimeout());
+        executor                   = Executors.newFixedThreadPool(Config.INSTANCE.getFoojayHttpClientThreads(), runnable -> {
+            final Thread thread = new Thread(runnable, "http-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient                 = createHttpClient(connectTimeout, Redirect.NORMAL);
+        httpClientWithoutRedirects = createHttpClient(connectTimeout, Redirect.NEVER);
+        liveTransport              = new LiveTransport();
+        inFlight                   = new ConcurrentHashMap<>();
+        meterRegistry              = Metrics.globalRegistry;
+        transport                  = createTransport();
+    }
+
+
+    /**
+     * Sets the transport that sends the requests (null for the shared http clients)
+     * @param transport
+     */
+    public void setTransport(final HttpTransport transport) { this.transport = null == transport ? liveTransport : transport; }
+
+    public HttpTransport getTransport() { return transport; }
+
+    /**
+     * @return the transport that sends the requests with the shared http clients
+     */
+    public HttpTransport getLiveTransport() { return liveTransport; }
+
+    public <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        return send(request, bodyHandler, true);
+    }
+    /**
+     * Sends the given request with the transport (default the shared client) and records its latency for the host of the request
+     * @param request
+     * @param bodyHandler
+     * @param followRedirects
+     * @return the response
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler, final boolean followRedirects) throws IOException, InterruptedException {
+        final String        host         = getHost(request);
+        final AtomicInteger hostInFlight = getInFlight(host);
+        final long          start        = System.nanoTime();
+        String              status       = STATUS_ERROR;
+        hostInFlight.incrementAndGet();
+        try {
+            final HttpResponse<T> response = transport.send(request, bodyHandler, followRedirects);
+            status = Integer.toString(response.statusCode());
+            return response;
+        } finally {
+            hostInFlight.decrementAndGet();
+            record(host, status, start);
+        }
+    }
+
+    /**
+     * Sends the given request asynchronously with the transport (default the shared client) and records its latency for the host of the request
+     * @param request
+     * @param bodyHandler
+     * @return future of the response
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final BodyHandler<T> bodyHandler) {
+        final String        host         = getHost(request);
+        final AtomicInteger hostInFlight = getInFlight(host);
+        final long          start        = System.nanoTime();
+        hostInFlight.incrementAndGet();
+        return transport.sendAsync(request, bodyHandler).whenComplete((response, throwable) -> {
+            hostInFlight.decrementAndGet();
+            record(host, null == response ? STATUS_ERROR : Integer.toString(response.statusCode()), start);
+        });
+    }
+
+    private AtomicInteger getInFlight(final String host) {
+        return inFlight.computeIfAbsent(host, h -> meterRegistry.gauge(METRIC_IN_FLIGHT, Tags.of(TAG_HOST, h), new AtomicInteger(0)));
+    }
+
+    private void record(final String host, final String status, final long start) {
+        Timer.builder(METRIC_REQUESTS)
+             .tags(TAG_HOST, host, TAG_STATUS, status)
+             .register(meterRegistry)
+             .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private HttpTransport createTransport() {
+        final String mode      = Config.INSTANCE.getFoojayHttpFixturesMode();
+        final Path   directory = Path.of(Config.INSTANCE.getFoojayHttpFixturesDir());
+        return switch (mode) {
+            case "record" -> {
+                LOGGER.info("Upstream responses will be recorded to {}", directory.toAbsolutePath());
+                yield new FixtureTransport(FixtureTransport.Mode.RECORD, directory, liveTransport);
+            }
+            case "replay" -> {
+                LOGGER.info("Upstream responses will be replayed from {}", directory.toAbsolutePath());
+                yield new FixtureTransport(FixtureTransport.Mode.REPLAY, directory, null);
+            }
+            case "off"    -> liveTransport;
+            default       -> {
+                LOGGER.warn("Environment variable {} contains wrong value.", Config.FOOJAY_API_HTTP_FIXTURES_MODE);
+                yield liveTransport;
+            }
+        };
+    }
+
+    private HttpClient createHttpClient(final Duration connectTimeout, final Redirect redirect) {
+        return HttpClient.newBuilder()
+                         .connectTimeout(connectTimeout)
+                         .version(Version.HTTP_2)
+                         .followRedirects(redirect)
+                         .executor(executor)
+                         .build();
+    }
+
+    private static String getHost(final HttpRequest request) {
+        final String host = request.uri().getHost();
+        return null == host ? "unknown" : host.toLowerCase(Locale.ENGLISH);
+    }
+
+
+    private final class LiveTransport implements HttpTransport {
+        @Override public <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> bodyHandler, final boolean followRedirects) throws IOException, InterruptedException {
+            return (followRedirects ? httpClient : httpClientWithoutRedirects).send(request, bodyHandler);
+        }
+
+        @Override public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request, final BodyHandler<T> bodyHandler) {
+            return httpClient.sendAsync(request, bodyHandler);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+
+/**
+ * Keeps the validators (ETag and Last-Modified) of upstream responses per url so that
+ * subsequent requests can be sent as conditional requests. If the upstream content did not
+ * change the response will be a 304 without a body and the parsing of the content can be skipped.
+ * Validators that are older than the max age will not be used which forces a full fetch from time to time.
+ * Validators of full responses are staged per distribution and only committed once the packages of the
+ * distribution have been persisted, otherwise a failed update would skip the changed content with a 304.
+ */
+public enum HttpValidatorCache {
+    INSTANCE;
+
+    public  static final String                 HEADER_ETAG              = "ETag";
+    public  static final String                 HEADER_LAST_MODIFIED     = "Last-Modified";
+    public  static final String                 HEADER_IF_NONE_MATCH     = "If-None-Match";
+    public  static final String                 HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final Logger                 LOGGER                   = LoggerFactory.getLogger(HttpValidatorCache.class);
+    private static final Duration               MAX_AGE                  = Duration.ofHours(24);
+    private        final Map<String, Validator>              validators;
+    private        final Map<String, Map<String, Validator>> staged;
+    private volatile     Consumer<Validator>                 persister;
+    private volatile     Consumer<String>                    remover;
+
+
+    HttpValidatorCache() {
+        validators = new ConcurrentHashMap<>();
+        staged     = new ConcurrentHashMap<>();
+        persister  = validator -> {};
+        remover    = url -> {};
+    }
+
+
+    /**
+     * Replaces the cached validators with the given ones (e.g. loaded from the database)
+     * @param storedValidators
+     */
+    public void load(final Collection<Validator> storedValidators) {
+        validators.clear();
+        storedValidators.forEach(validator -> validators.put(validator.getUrl(), validator));
+        LOGGER.debug("Loaded {} http validators", validators.size());
+    }
+
+    /**
+     * Sets the consumer that persists updated validators (e.g. in the database)
+     * @param persister
+     */
+    public void setPersister(final Consumer<Validator> persister) { this.persister = null == persister ? validator -> {} : persister; }
+
+    /**
+     * Sets the consumer that removes the persisted validators of a url (e.g. from the database)
+     * @param remover
+     */
+    public void setRemover(final Consumer<String> remover) { this.remover = null == remover ? url -> {} : remover; }
+
+    /**
+     * Returns the headers for a conditional request to the given url, empty if there is no valid validator
+     * @param url
+     * @return the headers for a conditional request to the given url
+     */
+    public Map<String, String> getConditionalHeaders(final String url) {
+        final Map<String, String> headers   = new HashMap<>();
+        final Validator           validator = validators.get(url);
+        if (null == validator || validator.getValidatedAt().plus(MAX_AGE).isBefore(Instant.now())) { return headers; }
+        if (!validator.getEtag().isEmpty())         { headers.put(HEADER_IF_NONE_MATCH, validator.getEtag()); }
+        if (!validator.getLastModified().isEmpty()) { headers.put(HEADER_IF_MODIFIED_SINCE, validator.getLastModified()); }
+        return headers;
+    }
+
+    /**
+     * Stores the validators of a successful (200) response to the given url
+     * @param url
+     * @param headers
+     */
+    public void update(final String url, final HttpHeaders headers) { update(createValidator(url, headers)); }
+
+    /**
+     * Stages the validators of a successful (200) response to the given url, they will be stored with commit()
+     * once the packages of the given distribution were persisted
+     * @param distro api string of the distribution
+     * @param url
+     * @param headers
+     */
+    public void stage(final String distro, final String url, final HttpHeaders headers) {
+        staged.computeIfAbsent(distro, key -> new ConcurrentHashMap<>()).put(url, createValidator(url, headers));
+    }
+
+    /**
+     * Stores all staged validators of the given distribution, should be called once its packages were persisted
+     * @param distro api string of the distribution
+     * @return the number of stored or removed validators
+     */
+    public int commit(final String distro) {
+        final Map<String, Validator> stagedValidators = staged.remove(distro);
+        if (null == stagedValidators) { return 0; }
+        stagedValidators.values().forEach(this::update);
+        LOGGER.debug("Committed {} staged http validators of {}", stagedValidators.size(), distro);
+        return stagedValidators.size();
+    }
+
+    /**
+     * Drops all staged validators of the given distribution, e.g. if its packages could not be persisted
+     * @param distro api string of the distribution
+     */
+    public void discard(final String distro) { staged.remove(distro); }
+
+    private void update(final Validator validator) {
+        final String url = validator.getUrl();
+        try {
+            if (validator.getEtag().isEmpty() && validator.getLastModified().isEmpty()) {
+                // Without validators the next request has to be a full one
+                if (null != validators.remove(url)) { remover.accept(url); }
+            } else {
+                validators.put(url, validator);
+                persister.accept(validator);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error persisting http validator for {}. {}", url, e.getMessage());
+        }
+    }
+
+    private static Validator createValidator(final String url, final HttpHeaders headers) {
+        return new Validator(url, headers.firstValue(HEADER_ETAG).orElse(""), headers.firstValue(HEADER_LAST_MODIFIED).orElse(""), Instant.now());
+    }
+
+
+    public static final class Validator {
+        private final String  url;
+        private final String  etag;
+        private final String  lastModified;
+        private final Instant validatedAt;
+
+
+        public Validator(final String url, final String etag, final String lastModified, final Instant validatedAt) {
+            this.url          = url;
+            this.etag         = null == etag         ? "" : etag;
+            this.lastModified = null == lastModified ? "" : lastModified;
+            this.validatedAt  = validatedAt;
+        }
+
+
+        public String getUrl() { return url; }
+
+        public String getEtag() { return etag; }
+
+        public String getLastModified() { return lastModified; }
+
+        /**
+         * @return the time of the last full (200) response
+         */
+        public Instant getValidatedAt() { return validatedAt; }
+    }
+}
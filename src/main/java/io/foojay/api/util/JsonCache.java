@@ -24,18 +24,20 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 public class JsonCache<T extends String, U extends String> implements Cache<T, U> {
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonCache.class);
 
-    private final ConcurrentHashMap<T, U> cache = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final ConcurrentHashMap<T, U>    cache        = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final ConcurrentHashMap<T, Long> fingerprints = new ConcurrentHashMap<>(16, 0.9f, 1);
 
 
     @Override public void add(final T key, final U json) {
@@ -43,8 +45,10 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
         if (null == json) {
             LOGGER.debug("Package cannot be null -> removed key {}", key);
             cache.remove(key);
+            fingerprints.remove(key);
         } else {
             cache.put(key, json);
+            fingerprints.remove(key);
         }
     }
 
@@ -54,15 +58,18 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
 
     @Override public void remove(final T key) {
         cache.remove(key);
+        fingerprints.remove(key);
     }
-    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> cache.remove(key)); }
+    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> remove(key)); }
 
     @Override public synchronized void addAll(final Map<T,U> entries) {
         cache.putAll(entries);
+        entries.keySet().forEach(fingerprints::remove);
     }
 
     @Override public synchronized void clear() {
         cache.clear();
+        fingerprints.clear();
         LOGGER.debug("JSON cache cleared");
     }
 
@@ -74,7 +81,27 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
 
     public void putIfAbsent(final T key, final U json) { cache.putIfAbsent(key, json); }
 
-    public void put(final T key, final U json) { cache.put(key, json); }
+    public void put(final T key, final U json) {
+        cache.put(key, json);
+        fingerprints.remove(key);
+    }
+
+    /**
+     * Puts the json created by the given supplier into the cache if the given fingerprint
+     * differs from the fingerprint the cached json was created with. This makes it possible
+     * to skip re-rendering of packages whose content did not change.
+     * @param key
+     * @param fingerprint The content fingerprint of the source the json will be created from
+     * @param jsonSupplier Supplier that creates the json, will only be called if needed
+     * @return true if the json was (re-)created
+     */
+    public boolean putIfChanged(final T key, final long fingerprint, final Supplier<U> jsonSupplier) {
+        final Long cachedFingerprint = fingerprints.get(key);
+        if (null != cachedFingerprint && cachedFingerprint == fingerprint && cache.containsKey(key)) { return false; }
+        cache.put(key, jsonSupplier.get());
+        fingerprints.put(key, fingerprint);
+        return true;
+    }
 
     /**
      * Replaces all entries in the cache with the ones in the given patch
@@ -82,6 +109,7 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
      */
     public void setAll(final Map<T,U> patch) {
         cache.clear();
+        fingerprints.clear();
         cache.putAll(patch);
         LOGGER.debug("JSON cache cleared and set with new data");
     }
@@ -101,14 +129,12 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
      * @param removeIfNotInPatch
      */
     public void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-        patch.forEach((key, value) -> cache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
-        if (removeIfNotInPatch) {
-            if (cache.size() > patch.size()) {
-                Map<T, U> toRemoveFromTarget = new HashMap<>();
-                cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-            }
-        }
+        patch.forEach((key, value) -> cache.merge(key, value, (v1, v2) -> {
+            if (v1.equals(v2)) { return v1; }
+            fingerprints.remove(key);
+            return v2;
+        }));
+        if (removeIfNotInPatch) { removeIfNotIn(patch); }
     }
 
     /**
@@ -118,14 +144,20 @@ public class JsonCache<T extends String, U extends String> implements Cache<T, U
      * @param removeIfNotInPatch
      */
     public void replace(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-        patch.forEach((key, value) -> cache.replace(key, value));
-        if (removeIfNotInPatch) {
-            if (cache.size() > patch.size()) {
-                Map<T, U> toRemoveFromTarget = new HashMap<>();
-                cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-            }
-        }
+        patch.forEach((key, value) -> {
+            if (null != cache.replace(key, value)) { fingerprints.remove(key); }
+        });
+        if (removeIfNotInPatch) { removeIfNotIn(patch); }
+    }
+
+    /**
+     * Removes all entries whose key is not in the given patch (independent of the size of the patch,
+     * e.g. if one entry was removed and another one added)
+     * @param patch
+     */
+    private void removeIfNotIn(final Map<T, U> patch) {
+        final List<T> keysToRemove = cache.keySet().stream().filter(key -> !patch.containsKey(key)).collect(Collectors.toList());
+        keysToRemove.forEach(key -> remove(key));
     }
 
     public boolean containsKey(final T key) { return cache.containsKey(key); }
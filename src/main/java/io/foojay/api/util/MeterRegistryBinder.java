@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.Requires;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Adds the meter registry of the application (the registry that is exported by the metrics endpoint)
+ * to the global registry when the application context starts. The singletons (e.g. MongoDbManager and
+ * HttpClientManager) register their meters in the global registry, which also forwards the meters
+ * that have been registered before the application registry was added.
+ */
+@Context
+@Requires(beans = MeterRegistry.class)
+public class MeterRegistryBinder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeterRegistryBinder.class);
+
+
+    public MeterRegistryBinder(final MeterRegistry meterRegistry) {
+        bind(meterRegistry);
+    }
+
+
+    /**
+     * Adds the given registry to the global registry if it has not been added before
+     * @param meterRegistry
+     */
+    public static void bind(final MeterRegistry meterRegistry) {
+        if (null == meterRegistry || Metrics.globalRegistry == meterRegistry || Metrics.globalRegistry.getRegistries().contains(meterRegistry)) { return; }
+        Metrics.addRegistry(meterRegistry);
+        LOGGER.debug("Added {} to the global meter registry", meterRegistry.getClass().getSimpleName());
+    }
+}
@@ -25,18 +25,21 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 
 public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PkgCache.class);
 
-    private final ConcurrentHashMap<T, U> cache = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final    ConcurrentHashMap<T, U> cache         = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final    AtomicLong              modifications = new AtomicLong(0);
+    private volatile FilenameIndex           filenameIndex = new FilenameIndex(-1, Map.of());
 
 
     @Override public void add(final T key, final U pkg) {
@@ -47,6 +50,7 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
         } else {
             cache.put(key, pkg);
         }
+        modifications.incrementAndGet();
     }
 
     @Override public U get(final T key) {
@@ -55,15 +59,21 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
 
     @Override public void remove(final T key) {
         cache.remove(key);
+        modifications.incrementAndGet();
+    }
+    @Override public void remove(final List<T> keysToRemove) {
+        keysToRemove.forEach(key -> cache.remove(key));
+        modifications.incrementAndGet();
     }
-    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> cache.remove(key)); }
 
     @Override public synchronized void addAll(final Map<T,U> entries) {
         cache.putAll(entries);
+        modifications.incrementAndGet();
     }
 
     @Override public synchronized void clear() {
         cache.clear();
+        modifications.incrementAndGet();
         LOGGER.debug("Package cache cleared");
     }
 
@@ -80,6 +90,7 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
     public void setAll(final Map<T,U> patch) {
         cache.clear();
         cache.putAll(patch);
+        modifications.incrementAndGet();
         LOGGER.debug("Package cache cleared and set with new data");
     }
 
@@ -88,24 +99,23 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
      * existing entries.
      * @param patch Map that contains existing and new entries
      */
-    public void synchronize(final Map<T, U> patch) { patch.forEach(cache::putIfAbsent); }
+    public void synchronize(final Map<T, U> patch) {
+        patch.forEach(cache::putIfAbsent);
+        modifications.incrementAndGet();
+    }
 
     /**
      * Updates the cache with the values from the given patch map including updates
-     * of existing entries in cache. In addition entries that are in the cache but not
-     * in the patch map can be removed if removeIfNotInPatch flag is true
+     * of existing entries in cache. Existing entries will only be replaced if their
+     * content fingerprint differs from the one in the patch. In addition entries that
+     * are in the cache but not in the patch map can be removed if removeIfNotInPatch flag is true
      * @param patch
      * @param removeIfNotInPatch
      */
     public void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-            patch.forEach((key, value) -> cache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
-            if (removeIfNotInPatch) {
-                if (cache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-                }
-            }
+            patch.forEach((key, value) -> cache.merge(key, value, (v1, v2) -> v1.getFingerprint() == v2.getFingerprint() ? v1 : v2));
+            if (removeIfNotInPatch) { removeIfNotIn(patch); }
+            modifications.incrementAndGet();
         }
 
     /**
@@ -116,17 +126,43 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
      */
     public void replace(final Map<T, U> patch, final boolean removeIfNotInPatch) {
             patch.forEach((key, value) -> cache.replace(key, value));
-            if (removeIfNotInPatch) {
-                if (cache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-                }
-            }
+            if (removeIfNotInPatch) { removeIfNotIn(patch); }
+            modifications.incrementAndGet();
         }
 
+    /**
+     * Removes all entries whose key is not in the given patch (independent of the size of the patch,
+     * e.g. if one entry was removed and another one added)
+     * @param patch
+     */
+    private void removeIfNotIn(final Map<T, U> patch) {
+        final List<T> keysToRemove = cache.keySet().stream().filter(key -> !patch.containsKey(key)).collect(Collectors.toList());
+        keysToRemove.forEach(key -> cache.remove(key));
+    }
+
     public boolean containsKey(final T key) { return cache.containsKey(key); }
 
+    /**
+     * Returns true if the cache contains a package with the given filename and direct download uri.
+     * The lookup uses an index of the download uris per filename that will be rebuilt after the cache
+     * was modified, so that the parsers do not have to scan all packages for every asset.
+     * @param filename
+     * @param directDownloadUri
+     * @return true if the cache contains a package with the given filename and direct download uri
+     */
+    public boolean containsPkg(final String filename, final String directDownloadUri) {
+        FilenameIndex index = filenameIndex;
+        final long modification = modifications.get();
+        if (index.modification != modification) {
+            index         = new FilenameIndex(modification, cache.values().stream()
+                                                                 .filter(pkg -> null != pkg.getFilename())
+                                                                 .collect(Collectors.groupingBy(Pkg::getFilename, Collectors.mapping(Pkg::getDirectDownloadUri, Collectors.toSet()))));
+            filenameIndex = index;
+        }
+        final Set<String> directDownloadUris = index.directDownloadUris.get(filename);
+        return null != directDownloadUris && directDownloadUris.contains(directDownloadUri);
+    }
+
     public Set<Entry<T,U>> getEntrySet() { return cache.entrySet(); }
 
     public Collection<T> getKeys() { return cache.keySet(); }
@@ -151,5 +187,17 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
         }
         return deepCopy;
     }
+
+
+    private static final class FilenameIndex {
+        private final long                     modification;
+        private final Map<String, Set<String>> directDownloadUris;
+
+
+        FilenameIndex(final long modification, final Map<String, Set<String>> directDownloadUris) {
+            this.modification       = modification;
+            this.directDownloadUris = directDownloadUris;
+        }
+    }
 }
 
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * Probes the size of files asynchronously (e.g. with HEAD requests) instead of one blocking request per package.
+ * The number of probes in flight is limited per host, every probe has a timeout and successful results are
+ * memoized by uri. Failed probes will not be memoized so that they will be retried with the next update.
+ */
+public class SizeProber {
+    private static final Logger                                    LOGGER           = LoggerFactory.getLogger(SizeProber.class);
+    private static final int                                       MAX_CACHED_SIZES = 100_000;
+    private static final Long                                      UNKNOWN_SIZE     = -1L;
+    private        final Function<String, CompletableFuture<Long>> sizeFetcher;
+    private        final ToIntFunction<String>                     hostLimit;
+    private        final Duration                                  timeout;
+    private        final Map<String, CompletableFuture<Long>>      sizes;
+    private        final Map<String, HostQueue>                    hostQueues;
+
+
+    /**
+     * @param sizeFetcher function that requests the size of the file at the given uri (-1 if unknown)
+     * @param hostLimit   max number of probes in flight per host
+     * @param timeout     max duration of a single probe
+     */
+    public SizeProber(final Function<String, CompletableFuture<Long>> sizeFetcher, final ToIntFunction<String> hostLimit, final Duration timeout) {
+        this.sizeFetcher = sizeFetcher;
+        this.hostLimit   = hostLimit;
+        this.timeout     = timeout;
+        this.sizes       = new ConcurrentHashMap<>();
+        this.hostQueues  = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * Returns the size of the file at the given uri, the future completes with -1 if the size is unknown
+     * @param uri
+     * @return the size of the file at the given uri
+     */
+    public CompletableFuture<Long> getSize(final String uri) {
+        if (null == uri || uri.isEmpty()) { return CompletableFuture.completedFuture(UNKNOWN_SIZE); }
+        final CompletableFuture<Long> cachedSize = sizes.get(uri);
+        if (null != cachedSize) { return cachedSize; }
+
+        if (sizes.size() >= MAX_CACHED_SIZES) { sizes.clear(); }
+        final CompletableFuture<Long> size         = new CompletableFuture<>();
+        final CompletableFuture<Long> existingSize = sizes.putIfAbsent(uri, size);
+        if (null != existingSize) { return existingSize; }
+
+        enqueue(uri, size);
+        return size;
+    }
+
+    /**
+     * Probes the size of the file at the given uri and calls the given consumer with the size once it is known
+     * (e.g. pkg::setSize). Use awaitAll() to wait for the returned futures.
+     * @param uri
+     * @param consumer
+     * @return future that completes when the consumer was called (or the size is unknown)
+     */
+    public CompletableFuture<Void> probe(final String uri, final LongConsumer consumer) {
+        return getSize(uri).thenAccept(size -> { if (size >= 0) { consumer.accept(size); } });
+    }
+
+    /**
+     * Waits until all given probes are done or the given time is over. Probes that are not done in time
+     * will be cancelled and won't call their consumer anymore.
+     * @param probes
+     * @param maxWait
+     * @return the number of probes that were done in time
+     */
+    public int awaitAll(final Collection<CompletableFuture<Void>> probes, final Duration maxWait) {
+        if (probes.isEmpty()) { return 0; }
+        try {
+            CompletableFuture.allOf(probes.toArray(new CompletableFuture[0])).get(Math.max(0, maxWait.toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            LOGGER.debug("Not all file sizes probed within {} ms", maxWait.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int done = 0;
+        for (CompletableFuture<Void> probe : probes) {
+            if (!probe.cancel(false)) { done++; }
+        }
+        return done;
+    }
+
+    private void enqueue(final String uri, final CompletableFuture<Long> size) {
+        final String host;
+        try {
+            host = URI.create(uri).getHost();
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Cannot probe size of {}. {}", uri, e.getMessage());
+            complete(uri, size, UNKNOWN_SIZE);
+            return;
+        }
+        final String    key   = null == host ? "" : host.toLowerCase(Locale.ENGLISH);
+        final HostQueue queue = hostQueues.computeIfAbsent(key, h -> new HostQueue(Math.max(1, hostLimit.applyAsInt(h))));
+        queue.add(new Probe(uri, size));
+        dispatch(queue);
+    }
+
+    private void dispatch(final HostQueue queue) {
+        Probe probe;
+        while (null != (probe = queue.poll())) {
+            final Probe p = probe;
+            CompletableFuture<Long> request;
+            try {
+                request = sizeFetcher.apply(p.uri);
+            } catch (RuntimeException e) {
+                request = CompletableFuture.failedFuture(e);
+            }
+            // Completion runs async to avoid a deep recursion of dispatch() if requests complete immediately
+            request.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                   .whenCompleteAsync((size, throwable) -> {
+                       queue.done();
+                       if (null != throwable) { LOGGER.debug("Error probing size of {}. {}", p.uri, throwable.getMessage()); }
+                       complete(p.uri, p.size, null == throwable && null != size ? size : UNKNOWN_SIZE);
+                       dispatch(queue);
+                   });
+        }
+    }
+
+    private void complete(final String uri, final CompletableFuture<Long> future, final Long size) {
+        // Remove failed probes before completion so that subsequent calls will retry them
+        if (size < 0) { sizes.remove(uri, future); }
+        future.complete(size);
+    }
+
+
+    private static final class Probe {
+        private final String                  uri;
+        private final CompletableFuture<Long> size;
+
+
+        Probe(final String uri, final CompletableFuture<Long> size) {
+            this.uri  = uri;
+            this.size = size;
+        }
+    }
+
+
+    private static final class HostQueue {
+        private final int          limit;
+        private final Queue<Probe> pending;
+        private       int          inFlight;
+
+
+        HostQueue(final int limit) {
+            this.limit    = limit;
+            this.pending  = new ArrayDeque<>();
+            this.inFlight = 0;
+        }
+
+
+        synchronized void add(final Probe probe) { pending.add(probe); }
+
+        /**
+         * Returns the next pending probe if there is a free slot for this host, otherwise null
+         * @return the next pending probe if there is a free slot for this host, otherwise null
+         */
+        synchronized Probe poll() {
+            if (inFlight >= limit || pending.isEmpty()) { return null; }
+            inFlight++;
+            return pending.poll();
+        }
+
+        synchronized void done() { inFlight--; }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Case insensitive lookup from text (api strings, ui strings, synonyms) to a value.
+ * The texts are normalized to lower case and spaces and dashes are treated like
+ * underscores, so "Zulu Prime", "ZULU-PRIME" and "zulu_prime" are the same key.
+ * The lookup is meant to be filled once in a static initializer and is read-only after that.
+ * @param <E> Type of the values
+ */
+public class TextLookup<E> {
+    private final Map<String, E> lookup;
+    private final E              notFound;
+
+
+    public TextLookup(final E notFound) {
+        this.lookup   = new HashMap<>();
+        this.notFound = notFound;
+    }
+
+
+    /**
+     * Adds the given texts for the given value. If a text was already added for
+     * another value, the first value will be kept.
+     * @param value
+     * @param texts
+     * @return the lookup itself
+     */
+    public TextLookup<E> add(final E value, final Iterable<String> texts) {
+        if (null == texts) { return this; }
+        for (String text : texts) { add(value, text); }
+        return this;
+    }
+    public TextLookup<E> add(final E value, final String... texts) {
+        if (null == texts) { return this; }
+        for (String text : texts) {
+            if (null == text || text.isEmpty()) { continue; }
+            lookup.putIfAbsent(normalize(text), value);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the value for the given text or the not found value
+     * @param text
+     * @return the value for the given text or the not found value
+     */
+    public E get(final String text) {
+        if (null == text || text.isEmpty()) { return notFound; }
+        final E value = lookup.get(normalize(text));
+        return null == value ? notFound : value;
+    }
+
+    public int size() { return lookup.size(); }
+
+    /**
+     * Returns the given text in lower case where spaces and dashes are replaced by underscores
+     * @param text
+     * @return the given text in lower case where spaces and dashes are replaced by underscores
+     */
+    public static String normalize(final String text) {
+        final int length = text.length();
+        int i = 0;
+        // Most texts are already normalized (api strings) -> avoid copying them
+        while (i < length) {
+            final char c = text.charAt(i);
+            if (c == ' ' || c == '-' || Character.isUpperCase(c)) { break; }
+            i++;
+        }
+        if (i == length) { return text; }
+
+        final char[] chars = text.toCharArray();
+        for ( ; i < length ; i++) {
+            final char c = chars[i];
+            if (c == ' ' || c == '-') {
+                chars[i] = '_';
+            } else {
+                chars[i] = Character.toLowerCase(c);
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+
+/**
+ * Keeps the scraping watermark per distribution and source (e.g. a GitHub releases url), which is
+ * the newest release that was processed together with the newest asset update that was seen.
+ * Incremental updates only fetch and parse content that is newer than the watermark. Watermarks
+ * only move forward and are persisted (e.g. in the database) so that they survive restarts.
+ * Watermarks of a parsed source are staged first and only committed once the packages of the
+ * distribution have been persisted, otherwise a failed update would skip these releases for good.
+ */
+public enum WatermarkCache {
+    INSTANCE;
+
+    private static final Logger                 LOGGER = LoggerFactory.getLogger(WatermarkCache.class);
+    private        final Map<String, Watermark>              watermarks;
+    private        final Map<String, Map<String, Watermark>> staged;
+    private volatile     Consumer<Watermark>                 persister;
+
+
+    WatermarkCache() {
+        watermarks = new ConcurrentHashMap<>();
+        staged     = new ConcurrentHashMap<>();
+        persister  = watermark -> {};
+    }
+
+
+    /**
+     * Replaces the cached watermarks with the given ones (e.g. loaded from the database)
+     * @param storedWatermarks
+     */
+    public void load(final Collection<Watermark> storedWatermarks) {
+        watermarks.clear();
+        storedWatermarks.forEach(watermark -> watermarks.put(getKey(watermark.getDistro(), watermark.getSource()), watermark));
+        LOGGER.debug("Loaded {} watermarks", watermarks.size());
+    }
+
+    /**
+     * Sets the consumer that persists updated watermarks (e.g. in the database)
+     * @param persister
+     */
+    public void setPersister(final Consumer<Watermark> persister) { this.persister = null == persister ? watermark -> {} : persister; }
+
+    /**
+     * Returns the watermark of the given distribution and source or null if there is none
+     * @param distro api string of the distribution
+     * @param source e.g. the url that was scraped
+     * @return the watermark of the given distribution and source or null if there is none
+     */
+    public Watermark get(final String distro, final String source) { return watermarks.get(getKey(distro, source)); }
+
+    /**
+     * Moves the current watermark forward to the given one, the release and the assets updated at
+     * will only be taken over if they are newer (higher release id, later assets update)
+     * @param watermark
+     * @return true if the watermark was updated
+     */
+    public boolean update(final Watermark watermark) {
+        final String      key     = getKey(watermark.getDistro(), watermark.getSource());
+        final Watermark[] updated = new Watermark[1];
+        watermarks.compute(key, (k, existing) -> {
+            final Watermark merged = merge(existing, watermark);
+            if (merged != existing) { updated[0] = merged; }
+            return merged;
+        });
+        if (null == updated[0]) { return false; }
+        try {
+            persister.accept(updated[0]);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error persisting watermark of {} for {}. {}", watermark.getDistro(), watermark.getSource(), e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Stages the given watermark, it will be set with commit() once the packages of its distribution were persisted
+     * @param watermark
+     */
+    public void stage(final Watermark watermark) {
+        staged.computeIfAbsent(watermark.getDistro(), distro -> new ConcurrentHashMap<>()).merge(watermark.getSource(), watermark, WatermarkCache::merge);
+    }
+
+    /**
+     * Sets all staged watermarks of the given distribution, should be called once its packages were persisted
+     * @param distro api string of the distribution
+     * @return the number of updated watermarks
+     */
+    public int commit(final String distro) {
+        final Map<String, Watermark> stagedWatermarks = staged.remove(distro);
+        if (null == stagedWatermarks) { return 0; }
+        int updated = 0;
+        for (Watermark watermark : stagedWatermarks.values()) {
+            if (update(watermark)) { updated++; }
+        }
+        LOGGER.debug("Committed {} of {} staged watermarks of {}", updated, stagedWatermarks.size(), distro);
+        return updated;
+    }
+
+    /**
+     * Drops all staged watermarks of the given distribution, e.g. if its packages could not be persisted
+     * @param distro api string of the distribution
+     */
+    public void discard(final String distro) { staged.remove(distro); }
+
+    private static Watermark merge(final Watermark existing, final Watermark candidate) {
+        if (null == existing) { return candidate; }
+        final Watermark newest          = candidate.getReleaseId() > existing.getReleaseId() ? candidate : existing;
+        final Instant   assetsUpdatedAt = candidate.getAssetsUpdatedAt().isAfter(existing.getAssetsUpdatedAt()) ? candidate.getAssetsUpdatedAt() : existing.getAssetsUpdatedAt();
+        if (newest == existing && assetsUpdatedAt.equals(existing.getAssetsUpdatedAt())) { return existing; }
+        if (newest == candidate && assetsUpdatedAt.equals(candidate.getAssetsUpdatedAt())) { return candidate; }
+        return new Watermark(newest.getDistro(), newest.getSource(), newest.getReleaseId(), newest.getTag(), newest.getUrl(), newest.getPublishedAt(), assetsUpdatedAt);
+    }
+
+    private static String getKey(final String distro, final String source) { return distro + "|" + source; }
+
+
+    public static final class Watermark {
+        private final String  distro;
+        private final String  source;
+        private final long    releaseId;
+        private final String  tag;
+        private final String  url;
+        private final Instant publishedAt;
+        private final Instant assetsUpdatedAt;
+
+
+        public Watermark(final String distro, final String source, final long releaseId, final String tag, final String url, final Instant publishedAt) {
+            this(distro, source, releaseId, tag, url, publishedAt, publishedAt);
+        }
+        public Watermark(final String distro, final String source, final long releaseId, final String tag, final String url, final Instant publishedAt, final Instant assetsUpdatedAt) {
+            this.distro          = Objects.requireNonNull(distro);
+            this.source          = Objects.requireNonNull(source);
+            this.releaseId       = releaseId;
+            this.tag             = null == tag ? "" : tag;
+            this.url             = null == url ? "" : url;
+            this.publishedAt     = null == publishedAt ? Instant.EPOCH : publishedAt;
+            this.assetsUpdatedAt = null == assetsUpdatedAt ? this.publishedAt : assetsUpdatedAt;
+        }
+
+
+        public String getDistro() { return distro; }
+
+        public String getSource() { return source; }
+
+        public long getReleaseId() { return releaseId; }
+
+        public String getTag() { return tag; }
+
+        public String getUrl() { return url; }
+
+        public Instant getPublishedAt() { return publishedAt; }
+
+        /**
+         * @return the newest update of an asset of the processed releases (assets can be added to existing releases)
+         */
+        public Instant getAssetsUpdatedAt() { return assetsUpdatedAt; }
+    }
+}
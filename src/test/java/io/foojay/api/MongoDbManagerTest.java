@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.foojay.api.util.MeterRegistryBinder;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+
+public class MongoDbManagerTest {
+
+    @Test
+    public void poolMetricsExportedTest() {
+        final ConnectionPoolListener listener = MongoDbManager.createConnectionPoolListener();
+        final ServerId               serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+        // The pool is created before the application registry is bound
+        listener.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId, ConnectionPoolSettings.builder().build()));
+
+        final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        MeterRegistryBinder.bind(registry);
+        try {
+            listener.connectionCreated(new ConnectionCreatedEvent(new ConnectionId(serverId)));
+            assert null != registry.find("mongodb.driver.pool.size").gauge();
+            assert 1 == registry.find("mongodb.driver.pool.size").gauge().value();
+            assert registry.scrape().contains("mongodb_driver_pool_size");
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api;
+
+import io.foojay.api.distribution.Semeru;
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.FixtureTransport;
+import io.foojay.api.util.FixtureTransport.Mode;
+import io.foojay.api.util.HostLimiter;
+import io.foojay.api.util.HttpClientManager;
+import io.foojay.api.util.HttpTransport;
+import io.foojay.api.util.HttpValidatorCache;
+import io.foojay.api.util.HttpValidatorCache.Validator;
+import io.foojay.api.util.WatermarkCache;
+import io.foojay.api.util.WatermarkCache.Watermark;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+public class UpdateManagerTest {
+
+    @Test
+    public void dueDistrosTest() {
+        final Instant              now         = Instant.now();
+        final Map<Distro, Instant> lastUpdates = Map.of(Distro.ZULU,    now.minus(Duration.ofMinutes(Distro.ZULU.getUpdateIntervalInMinutes() + 1)),
+                                                        Distro.TEMURIN, now.minus(Duration.ofMinutes(1)));
+
+        final List<Distro> dueDistros = UpdateManager.INSTANCE.getDueDistros(List.of(Distro.ZULU, Distro.TEMURIN, Distro.SEMERU), lastUpdates, now);
+        assert List.of(Distro.ZULU, Distro.SEMERU).equals(dueDistros) : dueDistros;
+    }
+
+    @Test
+    public void updateDistrosTest() {
+        final List<Pkg>                        zuluPkgs      = new ArrayList<>();
+        final List<Pkg>                        konaPkgs      = new ArrayList<>();
+        final CountDownLatch                   bothRunning   = new CountDownLatch(2);
+        final Set<Distro>                      storedDistros = ConcurrentHashMap.newKeySet();
+        final Map<Distro, Callable<List<Pkg>>> fetchers      = new LinkedHashMap<>();
+        // Only finish if both run at the same time
+        fetchers.put(Distro.ZULU, () -> {
+            assert null != HostLimiter.INSTANCE.getDeadline();
+            bothRunning.countDown();
+            assert bothRunning.await(5, TimeUnit.SECONDS);
+            return zuluPkgs;
+        });
+        fetchers.put(Distro.KONA, () -> {
+            bothRunning.countDown();
+            assert bothRunning.await(5, TimeUnit.SECONDS);
+            return konaPkgs;
+        });
+        // Fails and must not influence the others
+        fetchers.put(Distro.SEMERU, () -> { throw new IllegalStateException("upstream not available"); });
+        // Does not finish before the deadline of the update and will be dropped
+        fetchers.put(Distro.TEMURIN, () -> {
+            Thread.sleep(10_000);
+            return new ArrayList<>();
+        });
+        // Can not be stored
+        fetchers.put(Distro.MICROSOFT, () -> new ArrayList<>());
+        // Not due
+        fetchers.put(Distro.TRAVA, () -> new ArrayList<>());
+
+        final long                   start  = System.currentTimeMillis();
+        final Map<Distro, List<Pkg>> result = UpdateManager.INSTANCE.updateDistros(fetchers, Map.of(Distro.TRAVA, Instant.now()), Duration.ofSeconds(2), (distro, pkgs) -> {
+            storedDistros.add(distro);
+            return Distro.MICROSOFT != distro;
+        });
+
+        assert System.currentTimeMillis() - start < 5_000;
+        assert Set.of(Distro.ZULU, Distro.KONA).equals(result.keySet()) : result.keySet();
+        assert zuluPkgs == result.get(Distro.ZULU);
+        assert konaPkgs == result.get(Distro.KONA);
+        assert Set.of(Distro.ZULU, Distro.KONA, Distro.MICROSOFT).equals(storedDistros) : storedDistros;
+        assert null == HostLimiter.INSTANCE.getDeadline();
+    }
+
+    // Parses the recorded Semeru releases, stores the packages and commits the watermark and the http validator
+    @Test
+    public void parseStoreCommitTest() throws Exception {
+        final String                           releasesUrl       = "https://api.github.com/repos/ibmruntimes/semeru17-binaries/releases";
+        final List<Watermark>                  watermarks        = new ArrayList<>();
+        final List<Validator>                  validators        = new ArrayList<>();
+        final List<List<Pkg>>                  stored            = new ArrayList<>();
+        final Map<Distro, Callable<List<Pkg>>> fetchers          = Map.of(Distro.SEMERU, () -> new Semeru().getAllPkgs(true));
+        final HttpTransport                    previousTransport = HttpClientManager.INSTANCE.getTransport();
+        HttpClientManager.INSTANCE.setTransport(new FixtureTransport(Mode.REPLAY, Path.of(UpdateManagerTest.class.getResource("/fixtures").toURI()), null));
+        WatermarkCache.INSTANCE.load(List.of());
+        WatermarkCache.INSTANCE.setPersister(watermarks::add);
+        HttpValidatorCache.INSTANCE.load(List.of());
+        HttpValidatorCache.INSTANCE.setPersister(validators::add);
+        try {
+            // Nothing will be committed if the packages could not be stored
+            assert UpdateManager.INSTANCE.updateDistros(fetchers, Map.of(), Duration.ofMinutes(1), (distro, pkgs) -> false).isEmpty();
+            assert null == WatermarkCache.INSTANCE.get(Distro.SEMERU.getApiString(), releasesUrl);
+            assert watermarks.isEmpty() && validators.isEmpty();
+            assert 0 == WatermarkCache.INSTANCE.commit(Distro.SEMERU.getApiString());
+
+            final Map<Distro, List<Pkg>> result = UpdateManager.INSTANCE.updateDistros(fetchers, Map.of(), Duration.ofMinutes(1), (distro, pkgs) -> stored.add(pkgs));
+            assert !result.get(Distro.SEMERU).isEmpty();
+            assert 54000002 == WatermarkCache.INSTANCE.get(Distro.SEMERU.getApiString(), releasesUrl).getReleaseId();
+            assert 1 == watermarks.size();
+            assert validators.stream().anyMatch(validator -> validator.getUrl().startsWith(releasesUrl) && !validator.getEtag().isEmpty());
+            assert !HttpValidatorCache.INSTANCE.getConditionalHeaders(releasesUrl + "?per_page=100&page=1").isEmpty();
+
+            // The next incremental update skips the releases up to the watermark
+            final Map<Distro, List<Pkg>> nextResult = UpdateManager.INSTANCE.updateDistros(fetchers, Map.of(), Duration.ofMinutes(1), (distro, pkgs) -> stored.add(pkgs));
+            assert nextResult.get(Distro.SEMERU).isEmpty();
+            assert 2 == stored.size();
+            assert 54000002 == WatermarkCache.INSTANCE.get(Distro.SEMERU.getApiString(), releasesUrl).getReleaseId();
+        } finally {
+            HttpClientManager.INSTANCE.setTransport(previousTransport);
+            WatermarkCache.INSTANCE.setPersister(null);
+            WatermarkCache.INSTANCE.load(List.of());
+            HttpValidatorCache.INSTANCE.setPersister(null);
+            HttpValidatorCache.INSTANCE.load(List.of());
+        }
+    }
+
+    @Test
+    public void fetchersTest() {
+        final Map<Distro, Callable<List<Pkg>>> fetchers = UpdateManager.INSTANCE.getFetchers(true);
+        assert fetchers.containsKey(Distro.TEMURIN);
+        assert fetchers.containsKey(Distro.ZULU);
+        assert fetchers.keySet().stream().allMatch(Distro::isMaintained);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.distribution;
+
+import io.foojay.api.CacheManager;
+import io.foojay.api.pkg.BuildScope;
+import io.foojay.api.pkg.MajorVersion;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.FixtureTransport;
+import io.foojay.api.util.FixtureTransport.Mode;
+import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpClientManager;
+import io.foojay.api.util.HttpTransport;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Runs getAllPkgs() of several distributions concurrently against the checked-in fixtures in
+ * src/test/resources/fixtures and compares the packages with the ones of a sequential run.
+ * Requests without a fixture fail (e.g. the file size probes), which is the same for every run.
+ * The major versions are seeded because Temurin only parses the releases of known major versions.
+ */
+public class ConcurrentGetAllPkgsTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS  = 3;
+    private static final int LATEST  = 22;
+
+
+    @Test
+    public void getAllPkgsConcurrentlyTest() throws Exception {
+        final HttpTransport previousTransport = HttpClientManager.INSTANCE.getTransport();
+        HttpClientManager.INSTANCE.setTransport(new FixtureTransport(Mode.REPLAY, Path.of(ConcurrentGetAllPkgsTest.class.getResource("/fixtures").toURI()), null));
+        final List<MajorVersion> majorVersions = new ArrayList<>();
+        for (int i = 8 ; i <= LATEST ; i++) { majorVersions.add(new MajorVersion(i, Helper.getTermOfSupport(i), true)); }
+        CacheManager.INSTANCE.setMajorVersions(majorVersions, List.of(new MajorVersion(17, Helper.getTermOfSupport(17), true, BuildScope.BUILD_OF_GRAALVM)));
+        try {
+            final Map<String, Supplier<List<Pkg>>> distributions = new LinkedHashMap<>();
+            distributions.put("temurin",   () -> new Temurin().getAllPkgs(false));
+            distributions.put("semeru",    () -> new Semeru().getAllPkgs(false));
+            distributions.put("zulu",      () -> new Zulu().getAllPackagesFromCDN(false));
+            distributions.put("microsoft", () -> new Microsoft().getAllPkgs(false));
+            distributions.put("bisheng",   () -> new BiSheng().getAllPackagesFromCDN(false));
+
+            // Results of the sequential run are the reference for the concurrent runs
+            final Map<String, List<String>> expected = new LinkedHashMap<>();
+            distributions.forEach((name, getAllPkgs) -> expected.put(name, toSignatures(getAllPkgs.get())));
+            assert !expected.get("temurin").isEmpty() : "temurin returned no packages";
+            assert !expected.get("semeru").isEmpty() && !expected.get("zulu").isEmpty() && !expected.get("microsoft").isEmpty() && !expected.get("bisheng").isEmpty();
+
+            final ExecutorService                        executor = Executors.newFixedThreadPool(THREADS);
+            final List<Entry<String, Future<List<Pkg>>>> results  = new ArrayList<>();
+            try {
+                for (int round = 0 ; round < ROUNDS ; round++) {
+                    distributions.forEach((name, getAllPkgs) -> results.add(Map.entry(name, executor.submit(getAllPkgs::get))));
+                }
+                for (Entry<String, Future<List<Pkg>>> result : results) {
+                    final List<String> signatures = toSignatures(result.getValue().get(120, TimeUnit.SECONDS));
+                    assert expected.get(result.getKey()).equals(signatures) : result.getKey() + " returned " + signatures;
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            HttpClientManager.INSTANCE.setTransport(previousTransport);
+            CacheManager.INSTANCE.setMajorVersions(List.of(), List.of());
+        }
+    }
+
+    private static List<String> toSignatures(final List<Pkg> pkgs) {
+        return pkgs.stream().map(pkg -> pkg.getId() + "|" + pkg.getFilename() + "|" + pkg.getFingerprint()).sorted().collect(Collectors.toList());
+    }
+}
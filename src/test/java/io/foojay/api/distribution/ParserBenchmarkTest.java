@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.distribution;
+
+import io.foojay.api.CacheManager;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.Config;
+import io.foojay.api.util.FixtureTransport;
+import io.foojay.api.util.FixtureTransport.Mode;
+import io.foojay.api.util.HttpClientManager;
+import io.foojay.api.util.HttpValidatorCache;
+import io.foojay.api.util.WatermarkCache;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * Measures the end to end throughput of getAllPkgs(onlyNewPkgs) per distribution against recorded upstream responses.
+ * Only runs if FOOJAY_API_HTTP_FIXTURES_MODE is set:
+ * record: fetches everything once from upstream and stores the responses in FOOJAY_API_HTTP_FIXTURES_DIR
+ * replay: runs the benchmark against the fixtures in FOOJAY_API_HTTP_FIXTURES_DIR without any network access
+ * The parsers read the package cache, the http validators and the watermarks, which are otherwise loaded from mongodb.
+ * The benchmark starts with all three empty and without persisters, so it must not run in a process that is connected
+ * to mongodb. Watermarks and validators are only staged by the parsers and committed by the UpdateManager once the
+ * packages were stored, which the benchmark never does, so runs with onlyNewPkgs do not depend on the runs before and
+ * nothing is persisted.
+ * Results are logged on info level.
+ */
+public class ParserBenchmarkTest {
+    private static final Logger LOGGER      = LoggerFactory.getLogger(ParserBenchmarkTest.class);
+    private static final int    WARMUP_RUNS = 1;
+    private static final int    RUNS        = 5;
+
+
+    @Test
+    public void getAllPkgsBenchmark() {
+        Assumptions.assumeTrue(HttpClientManager.INSTANCE.getTransport() instanceof FixtureTransport, "Set " + Config.FOOJAY_API_HTTP_FIXTURES_MODE + " to record or replay to run the benchmark");
+        final Mode mode = ((FixtureTransport) HttpClientManager.INSTANCE.getTransport()).getMode();
+
+        CacheManager.INSTANCE.pkgCache.clear();
+        WatermarkCache.INSTANCE.setPersister(null);
+        WatermarkCache.INSTANCE.load(List.of());
+        HttpValidatorCache.INSTANCE.setPersister(null);
+        HttpValidatorCache.INSTANCE.setRemover(null);
+        HttpValidatorCache.INSTANCE.load(List.of());
+
+        final Map<String, Function<Boolean, Collection<Pkg>>> distributions = new LinkedHashMap<>();
+        distributions.put("temurin",           onlyNewPkgs -> new Temurin().getAllPkgs(onlyNewPkgs));
+        distributions.put("zulu",              onlyNewPkgs -> new Zulu().getAllPackagesFromCDN(onlyNewPkgs));
+        distributions.put("zulu_prime",        onlyNewPkgs -> new ZuluPrime().getAllPkgs(onlyNewPkgs));
+        distributions.put("corretto",          onlyNewPkgs -> new Corretto().getAllPkgs(onlyNewPkgs));
+        distributions.put("microsoft",         onlyNewPkgs -> new Microsoft().getAllPkgs(onlyNewPkgs));
+        distributions.put("semeru",            onlyNewPkgs -> new Semeru().getAllPkgs(onlyNewPkgs));
+        distributions.put("semeru_certified",  onlyNewPkgs -> new SemeruCertified().getAllPkgs(onlyNewPkgs));
+        distributions.put("sap_machine",       onlyNewPkgs -> new SAPMachine().getAllPkgs(onlyNewPkgs));
+        distributions.put("oracle_open_jdk",   onlyNewPkgs -> new OracleOpenJDK().getAllPkgs(onlyNewPkgs));
+        distributions.put("kona",              onlyNewPkgs -> new Kona().getAllPkgs(onlyNewPkgs));
+        distributions.put("trava",             onlyNewPkgs -> new Trava().getAllPkgs(onlyNewPkgs));
+        distributions.put("ojdk_build",        onlyNewPkgs -> new OJDKBuild().getAllPkgs(onlyNewPkgs));
+        distributions.put("mandrel",           onlyNewPkgs -> new Mandrel().getAllPkgs(onlyNewPkgs));
+        distributions.put("liberica_native",   onlyNewPkgs -> new LibericaNative().getAllPkgs(onlyNewPkgs));
+        distributions.put("jetbrains",         onlyNewPkgs -> new JetBrains().getAllPkgs(onlyNewPkgs));
+        distributions.put("openlogic",         onlyNewPkgs -> new OpenLogic().getAllPkgs(onlyNewPkgs));
+        distributions.put("gluon_graalvm",     onlyNewPkgs -> new GluonGraalVM().getAllPkgs(onlyNewPkgs));
+        distributions.put("graalvm_ce17",      onlyNewPkgs -> new GraalVMCE17().getAllPkgs(true, onlyNewPkgs));
+        distributions.put("graalvm_community", onlyNewPkgs -> new GraalVM_Community().getAllPkgs(true, onlyNewPkgs));
+        distributions.put("bisheng",           onlyNewPkgs -> new BiSheng().getAllPackagesFromCDN(onlyNewPkgs));
+
+        for (boolean onlyNewPkgs : new boolean[] { false, true }) {
+            for (Map.Entry<String, Function<Boolean, Collection<Pkg>>> entry : distributions.entrySet()) {
+                if (Mode.RECORD == mode) {
+                    final int noOfPkgs = entry.getValue().apply(onlyNewPkgs).size();
+                    LOGGER.info("Recorded {} (onlyNewPkgs: {}) -> {} pkgs", entry.getKey(), onlyNewPkgs, noOfPkgs);
+                    continue;
+                }
+                for (int i = 0 ; i < WARMUP_RUNS ; i++) { entry.getValue().apply(onlyNewPkgs); }
+                int  noOfPkgs = 0;
+                long nanos    = 0;
+                for (int i = 0 ; i < RUNS ; i++) {
+                    final long start = System.nanoTime();
+                    noOfPkgs = entry.getValue().apply(onlyNewPkgs).size();
+                    nanos   += System.nanoTime() - start;
+                }
+                final double millisPerRun = nanos / 1_000_000.0 / RUNS;
+                final double pkgsPerSec   = 0 == nanos ? 0 : noOfPkgs * RUNS / (nanos / 1_000_000_000.0);
+                LOGGER.info(String.format("%-16s onlyNewPkgs: %-5s -> %6d pkgs, %9.2f ms/run, %10.0f pkgs/s", entry.getKey(), onlyNewPkgs, noOfPkgs, millisPerRun, pkgsPerSec));
+            }
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.scopes.Scope;
+import io.foojay.api.requester.Requester;
+import io.foojay.api.scopes.IDEScope;
+import io.foojay.api.util.Config;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+
+public class DistroTest {
+    private static final Logger LOGGER      = LoggerFactory.getLogger(DistroTest.class);
+    private static final int    WARMUP_RUNS = 2;
+    private static final int    RUNS        = 5;
+
+    @Test public void fromTextTest() {
+        for (Distro distro : Distro.values()) {
+            if (Distro.NONE == distro || Distro.NOT_FOUND == distro) { continue; }
+            assert distro == Distro.fromText(distro.getApiString()) : distro.getApiString();
+            assert distro == Distro.fromText(distro.getUiString())  : distro.getUiString();
+            assert distro == Distro.fromText(distro.name())         : distro.name();
+            for (String synonym : distro.get().getSynonyms()) {
+                assert distro == Distro.fromText(synonym)                             : synonym;
+                assert distro == Distro.fromText(synonym.toUpperCase(Locale.ENGLISH)) : synonym;
+            }
+        }
+        assert Distro.GRAALVM_CE17     == Distro.fromText("GraalVM CE 17");
+        assert Distro.LIBERICA_NATIVE  == Distro.fromText("Liberica NIK");
+        assert Distro.GLUON_GRAALVM    == Distro.fromText("Gluon");
+        assert Distro.ZULU_PRIME       == Distro.fromText("zulu-prime");
+        assert Distro.NOT_FOUND        == Distro.fromText(null);
+        assert Distro.NOT_FOUND        == Distro.fromText("");
+        assert Distro.NOT_FOUND        == Distro.fromText("-");
+        assert Distro.NOT_FOUND        == Distro.fromText("unknown");
+
+        assert Feature.KONA_FIBER      == Feature.fromText("Kona Fiber");
+        assert Feature.CRAC            == Feature.fromText("CRaC");
+        assert Feature.NOT_FOUND       == Feature.fromText("");
+        assert Requester.NOT_FOUND     == Requester.fromText("anything");
+        assert IDEScope.VISUAL_STUDIO_CODE == IDEScope.fromText("vscode");
+        assert Scope.NOT_FOUND             == IDEScope.fromText(null);
+    }
+
+    // Every text the former switch in Distro.fromText() accepted has to resolve to the same distribution
+    @Test public void fromTextLegacyTest() {
+        getLegacyTexts().forEach((distro, texts) -> texts.forEach(text -> { assert distro == Distro.fromText(text) : text; }));
+    }
+
+    /**
+     * Compares the time to resolve a realistic mix of api strings, ui strings, synonyms, legacy texts and unknown texts
+     * with Distro.fromText() and with the former switch.
+     * Only runs if FOOJAY_API_BENCHMARKS is set to true, results are logged on info level.
+     */
+    @Test public void fromTextBenchmark() {
+        Assumptions.assumeTrue(Boolean.parseBoolean(System.getenv(Config.FOOJAY_API_BENCHMARKS)), "Set " + Config.FOOJAY_API_BENCHMARKS + " to true to run the benchmark");
+
+        final List<Distro> distros     = Distro.getAsListWithoutNoneAndNotFound();
+        final List<String> legacyTexts = getLegacyTexts().values().stream().flatMap(List::stream).collect(Collectors.toList());
+        final List<String> unknown     = List.of("", "-", "unknown", "zulu-prime", "Temurin ", "OPENjdk");
+        final Random       random      = new Random(42);
+        final List<String> texts       = new ArrayList<>(200_000);
+        for (int i = 0 ; i < 200_000 ; i++) {
+            final Distro distro = distros.get(random.nextInt(distros.size()));
+            final int    type   = random.nextInt(100);
+            if (type < 60) {
+                texts.add(distro.getApiString());
+            } else if (type < 70) {
+                texts.add(distro.getUiString());
+            } else if (type < 80) {
+                final List<String> synonyms = distro.get().getSynonyms();
+                texts.add(synonyms.isEmpty() ? distro.name() : synonyms.get(random.nextInt(synonyms.size())));
+            } else if (type < 95) {
+                texts.add(legacyTexts.get(random.nextInt(legacyTexts.size())));
+            } else {
+                texts.add(unknown.get(random.nextInt(unknown.size())));
+            }
+        }
+
+        final long switchNanos = measure(texts, text -> legacyFromText(text).ordinal());
+        final long lookupNanos = measure(texts, text -> Distro.fromText(text).ordinal());
+        LOGGER.info("{} texts, former switch: {} ms, fromText: {} ms, speedup: {}", texts.size(), switchNanos / 1_000_000, lookupNanos / 1_000_000,
+                    String.format("%.1fx", (double) switchNanos / lookupNanos));
+    }
+
+    // Returns the best time of all runs in ns
+    private static long measure(final List<String> texts, final ToIntFunction<String> fromText) {
+        long best  = Long.MAX_VALUE;
+        long check = 0;
+        for (int run = 0 ; run < WARMUP_RUNS + RUNS ; run++) {
+            final long start = System.nanoTime();
+            for (String text : texts) { check += fromText.applyAsInt(text); }
+            final long nanos = System.nanoTime() - start;
+            if (run >= WARMUP_RUNS) { best = Math.min(best, nanos); }
+        }
+        LOGGER.debug("Checksum {}", check);
+        return best;
+    }
+
+    // Every text the former switch accepted
+    private static Map<Distro, List<String>> getLegacyTexts() {
+        final Map<Distro, List<String>> legacyTexts = new LinkedHashMap<>();
+        legacyTexts.put(Distro.ZULU, List.of("zulu", "ZULU", "Zulu", "zulucore", "ZULUCORE", "ZuluCore", "zulu_core", "ZULU_CORE", "Zulu_Core", "zulu core", "ZULU CORE", "Zulu Core"));
+        legacyTexts.put(Distro.ZULU_PRIME, List.of("zing", "ZING", "Zing", "prime", "PRIME", "Prime", "zuluprime", "ZULUPRIME", "ZuluPrime", "zulu_prime", "ZULU_PRIME", "Zulu_Prime", "zulu prime", "ZULU PRIME", "Zulu Prime"));
+        legacyTexts.put(Distro.AOJ, List.of("aoj", "AOJ"));
+        legacyTexts.put(Distro.AOJ_OPENJ9, List.of("aoj_openj9", "AOJ_OpenJ9", "AOJ_OPENJ9", "AOJ OpenJ9", "AOJ OPENJ9", "aoj openj9"));
+        legacyTexts.put(Distro.CORRETTO, List.of("corretto", "CORRETTO", "Corretto"));
+        legacyTexts.put(Distro.DRAGONWELL, List.of("dragonwell", "DRAGONWELL", "Dragonwell"));
+        legacyTexts.put(Distro.GLUON_GRAALVM, List.of("gluon_graalvm", "GLUON_GRAALVM", "gluongraalvm", "GLUONGRAALVM", "gluon graalvm", "GLUON GRAALVM", "Gluon GraalVM", "Gluon"));
+        legacyTexts.put(Distro.GRAALVM_CE8, List.of("graalvm_ce8", "graalvmce8", "GraalVM CE 8", "GraalVMCE8", "GraalVM_CE8"));
+        legacyTexts.put(Distro.GRAALVM_CE11, List.of("graalvm_ce11", "graalvmce11", "GraalVM CE 11", "GraalVMCE11", "GraalVM_CE11"));
+        legacyTexts.put(Distro.GRAALVM_CE16, List.of("graalvm_ce16", "graalvmce16", "GraalVM CE 16", "GraalVMCE16", "GraalVM_CE16"));
+        legacyTexts.put(Distro.GRAALVM_CE17, List.of("graalvm_ce17", "graalvmce17", "GraalVM CE 17", "GraalVMCE17", "GraalVM_CE17"));
+        legacyTexts.put(Distro.GRAALVM_CE19, List.of("graalvm_ce19", "graalvmce19", "GraalVM CE 19", "GraalVMCE19", "GraalVM_CE19"));
+        legacyTexts.put(Distro.GRAALVM_CE20, List.of("graalvm_ce20", "graalvmce20", "GraalVM CE 20", "GraalVMCE20", "GraalVM_CE20"));
+        legacyTexts.put(Distro.GRAALVM_COMMUNITY, List.of("graalvm_community", "graalvmcommunity", "GraalVM Community", "GraalVM_Community", "GraalVMCommunity", "GraalVM-Community", "GRAALVM_COMMUNITY", "GRAALVM-COMMUNITY"));
+        legacyTexts.put(Distro.GRAALVM, List.of("graalvm", "GRAALVM", "GraalVM"));
+        legacyTexts.put(Distro.JETBRAINS, List.of("jetbrains", "JetBrains", "JETBRAINS"));
+        legacyTexts.put(Distro.LIBERICA, List.of("liberica", "LIBERICA", "Liberica"));
+        legacyTexts.put(Distro.LIBERICA_NATIVE, List.of("liberica_native", "LIBERICA_NATIVE", "libericaNative", "LibericaNative", "liberica native", "LIBERICA NATIVE", "Liberica Native", "Liberica NIK", "liberica nik", "LIBERICA NIK", "liberica_nik", "LIBERICA_NIK"));
+        legacyTexts.put(Distro.MANDREL, List.of("mandrel", "MANDREL", "Mandrel"));
+        legacyTexts.put(Distro.MICROSOFT, List.of("microsoft", "Microsoft", "MICROSOFT", "Microsoft OpenJDK", "Microsoft Build of OpenJDK"));
+        legacyTexts.put(Distro.OJDK_BUILD, List.of("ojdk_build", "OJDK_BUILD", "OJDK Build", "ojdk build", "ojdkbuild", "OJDKBuild"));
+        legacyTexts.put(Distro.OPEN_LOGIC, List.of("openlogic", "OPENLOGIC", "OpenLogic", "open_logic", "OPEN_LOGIC", "Open Logic", "OPEN LOGIC", "open logic"));
+        legacyTexts.put(Distro.ORACLE, List.of("oracle", "Oracle", "ORACLE"));
+        legacyTexts.put(Distro.ORACLE_OPEN_JDK, List.of("oracle_open_jdk", "ORACLE_OPEN_JDK", "oracle_openjdk", "ORACLE_OPENJDK", "Oracle_OpenJDK", "Oracle OpenJDK", "oracle openjdk", "ORACLE OPENJDK", "open_jdk", "openjdk", "OpenJDK", "Open JDK", "OPEN_JDK", "open-jdk", "OPEN-JDK", "Oracle-OpenJDK", "oracle-openjdk", "ORACLE-OPENJDK", "oracle-open-jdk", "ORACLE-OPEN-JDK"));
+        legacyTexts.put(Distro.RED_HAT, List.of("RedHat", "redhat", "REDHAT", "Red Hat", "red hat", "RED HAT", "Red_Hat", "red_hat", "red-hat", "Red-Hat", "RED-HAT"));
+        legacyTexts.put(Distro.SAP_MACHINE, List.of("sap_machine", "sapmachine", "SAPMACHINE", "SAP_MACHINE", "SAPMachine", "SAP Machine", "sap-machine", "SAP-Machine", "SAP-MACHINE"));
+        legacyTexts.put(Distro.SEMERU, List.of("semeru", "Semeru", "SEMERU"));
+        legacyTexts.put(Distro.SEMERU_CERTIFIED, List.of("semeru_certified", "SEMERU_CERTIFIED", "Semeru_Certified", "Semeru_certified", "semeru certified", "SEMERU CERTIFIED", "Semeru Certified", "Semeru certified"));
+        legacyTexts.put(Distro.TEMURIN, List.of("temurin", "Temurin", "TEMURIN"));
+        legacyTexts.put(Distro.TRAVA, List.of("trava", "TRAVA", "Trava", "trava_openjdk", "TRAVA_OPENJDK", "trava openjdk", "TRAVA OPENJDK"));
+        legacyTexts.put(Distro.KONA, List.of("kona", "KONA", "Kona"));
+        legacyTexts.put(Distro.BISHENG, List.of("bisheng", "BISHENG", "BiSheng", "bi_sheng", "BI_SHENG", "bi-sheng", "BI-SHENG", "bi sheng", "Bi Sheng", "BI SHENG"));
+        legacyTexts.put(Distro.DEBIAN, List.of("debian", "DEBIAN", "Debian"));
+
+        return legacyTexts;
+    }
+
+    // The former switch of Distro.fromText()
+    private static Distro legacyFromText(final String text) {
+        if (null == text) { return Distro.NOT_FOUND; }
+        switch (text) {
+            case "zulu":
+            case "ZULU":
+            case "Zulu":
+            case "zulucore":
+            case "ZULUCORE":
+            case "ZuluCore":
+            case "zulu_core":
+            case "ZULU_CORE":
+            case "Zulu_Core":
+            case "zulu core":
+            case "ZULU CORE":
+            case "Zulu Core":
+                return Distro.ZULU;
+            case "zing":
+            case "ZING":
+            case "Zing":
+            case "prime":
+            case "PRIME":
+            case "Prime":
+            case "zuluprime":
+            case "ZULUPRIME":
+            case "ZuluPrime":
+            case "zulu_prime":
+            case "ZULU_PRIME":
+            case "Zulu_Prime":
+            case "zulu prime":
+            case "ZULU PRIME":
+            case "Zulu Prime":
+                return Distro.ZULU_PRIME;
+            case "aoj":
+            case "AOJ":
+                return Distro.AOJ;
+            case "aoj_openj9":
+            case "AOJ_OpenJ9":
+            case "AOJ_OPENJ9":
+            case "AOJ OpenJ9":
+            case "AOJ OPENJ9":
+            case "aoj openj9":
+                return Distro.AOJ_OPENJ9;
+            case "corretto":
+            case "CORRETTO":
+            case "Corretto":
+                return Distro.CORRETTO;
+            case "dragonwell":
+            case "DRAGONWELL":
+            case "Dragonwell":
+                return Distro.DRAGONWELL;
+            case "gluon_graalvm":
+            case "GLUON_GRAALVM":
+            case "gluongraalvm":
+            case "GLUONGRAALVM":
+            case "gluon graalvm":
+            case "GLUON GRAALVM":
+            case "Gluon GraalVM":
+            case "Gluon":
+                return Distro.GLUON_GRAALVM;
+            case "graalvm_ce8":
+            case "graalvmce8":
+            case "GraalVM CE 8":
+            case "GraalVMCE8":
+            case "GraalVM_CE8":
+                return Distro.GRAALVM_CE8;
+            case "graalvm_ce11":
+            case "graalvmce11":
+            case "GraalVM CE 11":
+            case "GraalVMCE11":
+            case "GraalVM_CE11":
+                return Distro.GRAALVM_CE11;
+            case "graalvm_ce16":
+            case "graalvmce16":
+            case "GraalVM CE 16":
+            case "GraalVMCE16":
+            case "GraalVM_CE16":
+                return Distro.GRAALVM_CE16;
+            case "graalvm_ce17":
+            case "graalvmce17":
+            case "GraalVM CE 17":
+            case "GraalVMCE17":
+            case "GraalVM_CE17":
+                return Distro.GRAALVM_CE17;
+            case "graalvm_ce19":
+            case "graalvmce19":
+            case "GraalVM CE 19":
+            case "GraalVMCE19":
+            case "GraalVM_CE19":
+                return Distro.GRAALVM_CE19;
+            case "graalvm_ce20":
+            case "graalvmce20":
+            case "GraalVM CE 20":
+            case "GraalVMCE20":
+            case "GraalVM_CE20":
+                return Distro.GRAALVM_CE20;
+            case "graalvm_community":
+            case "graalvmcommunity":
+            case "GraalVM Community":
+            case "GraalVM_Community":
+            case "GraalVMCommunity":
+            case "GraalVM-Community":
+            case "GRAALVM_COMMUNITY":
+            case "GRAALVM-COMMUNITY":
+                return Distro.GRAALVM_COMMUNITY;
+            case "graalvm":
+            case "GRAALVM":
+            case "GraalVM":
+                return Distro.GRAALVM;
+            case "jetbrains":
+            case "JetBrains":
+            case "JETBRAINS":
+                return Distro.JETBRAINS;
+            case "liberica":
+            case "LIBERICA":
+            case "Liberica":
+                return Distro.LIBERICA;
+            case "liberica_native":
+            case "LIBERICA_NATIVE":
+            case "libericaNative":
+            case "LibericaNative":
+            case "liberica native":
+            case "LIBERICA NATIVE":
+            case "Liberica Native":
+            case "Liberica NIK":
+            case "liberica nik":
+            case "LIBERICA NIK":
+            case "liberica_nik":
+            case "LIBERICA_NIK":
+                return Distro.LIBERICA_NATIVE;
+            case "mandrel":
+            case "MANDREL":
+            case "Mandrel":
+                return Distro.MANDREL;
+            case "microsoft":
+            case "Microsoft":
+            case "MICROSOFT":
+            case "Microsoft OpenJDK":
+            case "Microsoft Build of OpenJDK":
+                return Distro.MICROSOFT;
+            case "ojdk_build":
+            case "OJDK_BUILD":
+            case "OJDK Build":
+            case "ojdk build":
+            case "ojdkbuild":
+            case "OJDKBuild":
+                return Distro.OJDK_BUILD;
+            case "openlogic":
+            case "OPENLOGIC":
+            case "OpenLogic":
+            case "open_logic":
+            case "OPEN_LOGIC":
+            case "Open Logic":
+            case "OPEN LOGIC":
+            case "open logic":
+                return Distro.OPEN_LOGIC;
+            case "oracle":
+            case "Oracle":
+            case "ORACLE":
+                return Distro.ORACLE;
+            case "oracle_open_jdk":
+            case "ORACLE_OPEN_JDK":
+            case "oracle_openjdk":
+            case "ORACLE_OPENJDK":
+            case "Oracle_OpenJDK":
+            case "Oracle OpenJDK":
+            case "oracle openjdk":
+            case "ORACLE OPENJDK":
+            case "open_jdk":
+            case "openjdk":
+            case "OpenJDK":
+            case "Open JDK":
+            case "OPEN_JDK":
+            case "open-jdk":
+            case "OPEN-JDK":
+            case "Oracle-OpenJDK":
+            case "oracle-openjdk":
+            case "ORACLE-OPENJDK":
+            case "oracle-open-jdk":
+            case "ORACLE-OPEN-JDK":
+                return Distro.ORACLE_OPEN_JDK;
+            case "RedHat":
+            case "redhat":
+            case "REDHAT":
+            case "Red Hat":
+            case "red hat":
+            case "RED HAT":
+            case "Red_Hat":
+            case "red_hat":
+            case "red-hat":
+            case "Red-Hat":
+            case "RED-HAT":
+                return Distro.RED_HAT;
+            case "sap_machine":
+            case "sapmachine":
+            case "SAPMACHINE":
+            case "SAP_MACHINE":
+            case "SAPMachine":
+            case "SAP Machine":
+            case "sap-machine":
+            case "SAP-Machine":
+            case "SAP-MACHINE":
+                return Distro.SAP_MACHINE;
+            case "semeru":
+            case "Semeru":
+            case "SEMERU":
+                return Distro.SEMERU;
+            case "semeru_certified":
+            case "SEMERU_CERTIFIED":
+            case "Semeru_Certified":
+            case "Semeru_certified":
+            case "semeru certified":
+            case "SEMERU CERTIFIED":
+            case "Semeru Certified":
+            case "Semeru certified":
+                return Distro.SEMERU_CERTIFIED;
+            case "temurin":
+            case "Temurin":
+            case "TEMURIN":
+                return Distro.TEMURIN;
+            case "trava":
+            case "TRAVA":
+            case "Trava":
+            case "trava_openjdk":
+            case "TRAVA_OPENJDK":
+            case "trava openjdk":
+            case "TRAVA OPENJDK":
+                return Distro.TRAVA;
+            case "kona":
+            case "KONA":
+            case "Kona":
+                return Distro.KONA;
+            case "bisheng":
+            case "BISHENG":
+            case "BiSheng":
+            case "bi_sheng":
+            case "BI_SHENG":
+            case "bi-sheng":
+            case "BI-SHENG":
+            case "bi sheng":
+            case "Bi Sheng":
+            case "BI SHENG":
+                return Distro.BISHENG;
+            case "debian":
+            case "DEBIAN":
+            case "Debian":
+                return Distro.DEBIAN;
+            default:
+                return Distro.NOT_FOUND;
+        }
+    }
+}
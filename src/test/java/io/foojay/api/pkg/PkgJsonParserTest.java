@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.LibCType;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.versioning.Semver;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import io.foojay.api.util.Constants;
+import io.foojay.api.util.Helper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+public class PkgJsonParserTest {
+    // Documents in the format they are returned from mongodb (FULL_COMPRESSED incl. _id and fingerprint)
+    private static final List<String> CORPUS = List.of(
+        "{\"_id\": {\"$oid\": \"62b1e4a5c7f1a23b4d5e6f70\"}, \"id\":\"4a8b5e6f7c1d2e3f4a5b6c7d8e9f0a1b\",\"archive_type\":\"tar.gz\",\"distribution\":\"zulu\",\"major_version\":17,\"java_version\":\"17.0.5+8\",\"distribution_version\":\"17.38.21\",\"jdk_version\":17,\"latest_build_available\":true,\"release_status\":\"ga\",\"term_of_support\":\"lts\",\"operating_system\":\"linux\",\"lib_c_type\":\"glibc\",\"architecture\":\"x64\",\"fpu\":\"unknown\",\"package_type\":\"jdk\",\"javafx_bundled\":false,\"directly_downloadable\":true,\"filename\":\"zulu17.38.21-ca-jdk17.0.5-linux_x64.tar.gz\",\"direct_download_uri\":\"https://cdn.azul.com/zulu/bin/zulu17.38.21-ca-jdk17.0.5-linux_x64.tar.gz\",\"download_site_uri\":\"\",\"signature_uri\":\"\",\"checksum_uri\":\"\",\"checksum\":\"a1b2c3\",\"checksum_type\":\"sha256\",\"free_use_in_production\":true,\"tck_tested\":\"yes\",\"tck_cert_uri\":\"https://www.azul.com/products/zulu-verification/\",\"aqavit_certified\":\"unknown\",\"aqavit_cert_uri\":\"\",\"validated_at\":1671200000,\"url_valid\":true,\"size\":191234567,\"feature\":[{\"name\":\"CRAC\",\"ui_string\":\"CRaC\",\"api_string\":\"crac\"}],\"fingerprint\": -6605587628743419064}",
+        "{ \"id\" : \"0f1e2d3c4b5a69788796a5b4c3d2e1f0\", \"archive_type\" : \"\", \"distribution\" : \"temurin\", \"major_version\" : 8, \"java_version\" : \"8.0.352+8\", \"distribution_version\" : \"8.0.352\", \"release_status\" : \"ga\", \"term_of_support\" : \"lts\", \"operating_system\" : \"windows\", \"lib_c_type\" : \"c_std_lib\", \"architecture\" : \"x86\", \"package_type\" : \"jre\", \"javafx_bundled\" : false, \"filename\" : \"OpenJDK8U-jre_x86-32_windows_hotspot_8u352b08.msi\", \"direct_download_uri\" : \"https:\\/\\/github.com\\/adoptium\\/temurin8-binaries\\/releases\\/download\\/jdk8u352-b08\\/OpenJDK8U-jre_x86-32_windows_hotspot_8u352b08.msi\", \"download_site_uri\" : \"\", \"tck_cert_uri\" : \"tab\\there \\\"quoted\\\" \\u00e9\", \"size\" : 4.0E7, \"feature\" : [\"loom\", \"PANAMA\"] }",
+        "{\"id\":\"x\",\"distribution\":\"graalvm_ce17\",\"java_version\":\"17.0.5\",\"distribution_version\":\"22.3.0\",\"jdk_version\":\"17\",\"latest_build_available\":\"true\",\"release_status\":\"ea\",\"term_of_support\":\"\",\"operating_system\":\"macos\",\"lib_c_type\":\"libc\",\"architecture\":\"aarch64\",\"package_type\":\"jdk\",\"javafx_bundled\":\"false\",\"filename\":\"graalvm-ce-java17-darwin-aarch64-22.3.0.tar.gz\",\"direct_download_uri\":\"\",\"download_site_uri\":\"\",\"archive_type\":\"tar.gz\",\"feature\":[],\"checksum\":null,\"links\":{\"pkg_info_uri\":\"a\",\"nested\":[1,{\"a\":\"]}\"}]}}"
+    );
+
+
+    @Test
+    public void parserEquivalentToGsonTest() {
+        final Gson gson = new Gson();
+        for (String jsonText : CORPUS) {
+            final JsonObject    expected = gson.fromJson(jsonText, JsonObject.class);
+            final PkgJsonParser parser   = PkgJsonParser.parse(jsonText);
+            for (PkgField field : PkgField.values()) {
+                if (PkgField.FEATURE == field) { continue; }
+                final String fieldName = field.fieldName();
+                assert expected.has(fieldName) == parser.has(field) : fieldName;
+                if (!expected.has(fieldName)) { continue; }
+                final JsonElement element = expected.get(fieldName);
+                if (!element.isJsonPrimitive()) {
+                    try {
+                        parser.getString(field);
+                        assert false : fieldName;
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                }
+                if (element.getAsJsonPrimitive().isNumber()) {
+                    assert element.getAsLong() == parser.getLong(field) : fieldName;
+                    assert element.getAsInt()  == parser.getInt(field)  : fieldName;
+                } else {
+                    assert element.getAsString().equals(parser.getString(field)) : fieldName;
+                }
+                assert element.getAsBoolean() == parser.getBoolean(field) : fieldName;
+            }
+
+            final List<String> expectedFeatures = new ArrayList<>();
+            if (expected.has(PkgField.FEATURE.fieldName())) {
+                final JsonArray featureArray = expected.getAsJsonArray(PkgField.FEATURE.fieldName());
+                for (int i = 0 ; i < featureArray.size() ; i++) {
+                    expectedFeatures.add(featureArray.get(i).isJsonObject() ? featureArray.get(i).getAsJsonObject().get("name").getAsString() : featureArray.get(i).getAsString());
+                }
+            }
+            assert expected.has(PkgField.FEATURE.fieldName()) == parser.has(PkgField.FEATURE);
+            assert expectedFeatures.equals(parser.getFeatures());
+        }
+    }
+
+    @Test
+    public void pkgEquivalentToGsonPkgTest() throws IOException, URISyntaxException {
+        // Sample documents in the format of Document.toJson() of the packages collection
+        final List<String> documents = Files.readAllLines(Path.of(PkgJsonParserTest.class.getResource("/pkgs/pkgs_sample.ndjson").toURI()), UTF_8);
+        int rejected = 0;
+        for (String jsonText : documents) {
+            final Map<String, Object> expected = getGsonPkgValues(jsonText);
+            final Map<String, Object> actual;
+            try {
+                actual = getPkgValues(new Pkg(jsonText));
+            } catch (RuntimeException e) {
+                assert null == expected : "Pkg rejected " + jsonText + ". " + e;
+                rejected++;
+                continue;
+            }
+            assert null != expected : "Pkg accepted " + jsonText;
+            for (Entry<String, Object> entry : expected.entrySet()) {
+                final String field = entry.getKey();
+                if (PkgField.VALIDATED_AT.fieldName().equals(field) && null == entry.getValue()) {
+                    // Both fall back to the current time minus one month
+                    assert Math.abs(Instant.now().getEpochSecond() - Constants.SECONDS_PER_MONTH - (long) actual.get(field)) < 60 : field;
+                    continue;
+                }
+                assert entry.getValue().equals(actual.get(field)) : field + ": " + entry.getValue() + " != " + actual.get(field) + " in " + jsonText;
+            }
+        }
+        assert 2 == rejected;
+    }
+
+    @Test
+    public void invalidJsonTest() {
+        for (String jsonText : List.of("", "[]", "{\"id\":", "{\"filename\":\"abc}", "{\"filename\":\"abc\" \"size\":1}", "{\"feature\":[{\"ui_string\":\"Loom\"}]}")) {
+            try {
+                PkgJsonParser.parse(jsonText);
+                assert false : jsonText;
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static Map<String, Object> getPkgValues(final Pkg pkg) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put(PkgField.DISTRIBUTION.fieldName(), pkg.getDistribution().getDistro());
+        values.put(PkgField.JAVA_VERSION.fieldName(), pkg.getJavaVersion().toString());
+        values.put("version_number", pkg.getVersionNumber().toString());
+        values.put(PkgField.DISTRIBUTION_VERSION.fieldName(), pkg.getDistributionVersion().toString());
+        values.put(PkgField.JDK_VERSION.fieldName(), pkg.getJdkVersion().getAsInt());
+        values.put(PkgField.LATEST_BUILD_AVAILABLE.fieldName(), pkg.isLatestBuildAvailable());
+        values.put(PkgField.ARCHITECTURE.fieldName(), pkg.getArchitecture());
+        values.put("bitness", pkg.getBitness());
+        values.put(PkgField.FPU.fieldName(), pkg.getFPU());
+        values.put(PkgField.OPERATING_SYSTEM.fieldName(), pkg.getOperatingSystem());
+        values.put(PkgField.LIB_C_TYPE.fieldName(), pkg.getLibCType());
+        values.put(PkgField.PACKAGE_TYPE.fieldName(), pkg.getPackageType());
+        values.put(PkgField.RELEASE_STATUS.fieldName(), pkg.getReleaseStatus());
+        values.put(PkgField.TERM_OF_SUPPORT.fieldName(), pkg.getTermOfSupport());
+        values.put(PkgField.JAVAFX_BUNDLED.fieldName(), pkg.isJavaFXBundled());
+        values.put(PkgField.DIRECTLY_DOWNLOADABLE.fieldName(), pkg.isDirectlyDownloadable());
+        values.put(PkgField.FILENAME.fieldName(), pkg.getFilename());
+        values.put(PkgField.ARCHIVE_TYPE.fieldName(), pkg.getArchiveType());
+        values.put(PkgField.DIRECT_DOWNLOAD_URI.fieldName(), pkg.getDirectDownloadUri());
+        values.put(PkgField.DOWNLOAD_SITE_URI.fieldName(), pkg.getDownloadSiteUri());
+        values.put(PkgField.SIGNATURE_URI.fieldName(), pkg.getSignatureUri());
+        values.put(PkgField.CHECKSUM_URI.fieldName(), pkg.getChecksumUri());
+        values.put(PkgField.CHECKSUM.fieldName(), pkg.getChecksum());
+        values.put(PkgField.CHECKSUM_TYPE.fieldName(), pkg.getChecksumType());
+        values.put("semver", pkg.getSemver().toString());
+        values.put(PkgField.FREE_USE_IN_PROD.fieldName(), pkg.getFreeUseInProduction());
+        values.put(PkgField.TCK_TESTED.fieldName(), pkg.getTckTested());
+        values.put(PkgField.TCK_CERT_URI.fieldName(), pkg.getTckCertUri());
+        values.put(PkgField.AQAVIT_CERTIFIED.fieldName(), pkg.getAqavitCertified());
+        values.put(PkgField.AQAVIT_CERT_URI.fieldName(), pkg.getAqavitCertUri());
+        values.put(PkgField.VALIDATED_AT.fieldName(), pkg.getValidatedAt());
+        values.put(PkgField.URL_VALID.fieldName(), pkg.isUrlValid());
+        values.put(PkgField.SIZE.fieldName(), pkg.getSize());
+        values.put(PkgField.FEATURE.fieldName(), pkg.getFeatures());
+        return values;
+    }
+
+    /**
+     * Returns the values the former Gson based Pkg(String) constructor would have set
+     * @param jsonText
+     * @return the values of the package or null if the constructor would have thrown an exception
+     */
+    private static Map<String, Object> getGsonPkgValues(final String jsonText) {
+        try {
+            final JsonObject    json          = new Gson().fromJson(jsonText, JsonObject.class);
+            final Distro        distro        = Distro.fromText(json.get(PkgField.DISTRIBUTION.fieldName()).getAsString());
+            final VersionNumber versionNumber = VersionNumber.fromText(json.get(PkgField.JAVA_VERSION.fieldName()).getAsString());
+            final Architecture  architecture  = Architecture.fromText(json.get(PkgField.ARCHITECTURE.fieldName()).getAsString());
+            final String        filename;
+
+            final Map<String, Object> values = new LinkedHashMap<>();
+            values.put(PkgField.DISTRIBUTION.fieldName(), distro.get().getDistro());
+            values.put(PkgField.JAVA_VERSION.fieldName(), versionNumber.toString());
+            values.put("version_number", versionNumber.toString());
+            values.put(PkgField.DISTRIBUTION_VERSION.fieldName(), VersionNumber.fromText(json.get(PkgField.DISTRIBUTION_VERSION.fieldName()).getAsString()).toString());
+            values.put(PkgField.JDK_VERSION.fieldName(), json.has(PkgField.JDK_VERSION.fieldName()) ? json.get(PkgField.JDK_VERSION.fieldName()).getAsInt() : versionNumber.getFeature().getAsInt());
+            values.put(PkgField.LATEST_BUILD_AVAILABLE.fieldName(), json.has(PkgField.LATEST_BUILD_AVAILABLE.fieldName()) ? json.get(PkgField.LATEST_BUILD_AVAILABLE.fieldName()).getAsBoolean() : Boolean.FALSE);
+            values.put(PkgField.ARCHITECTURE.fieldName(), architecture);
+            values.put("bitness", architecture.getBitness());
+            values.put(PkgField.FPU.fieldName(), json.has(PkgField.FPU.fieldName()) ? FPU.fromText(json.get(PkgField.FPU.fieldName()).getAsString()) : FPU.UNKNOWN);
+            values.put(PkgField.OPERATING_SYSTEM.fieldName(), OperatingSystem.fromText(json.get(PkgField.OPERATING_SYSTEM.fieldName()).getAsString()));
+            values.put(PkgField.LIB_C_TYPE.fieldName(), LibCType.fromText(json.get(PkgField.LIB_C_TYPE.fieldName()).getAsString()));
+            values.put(PkgField.PACKAGE_TYPE.fieldName(), PackageType.fromText(json.get(PkgField.PACKAGE_TYPE.fieldName()).getAsString()));
+            values.put(PkgField.RELEASE_STATUS.fieldName(), ReleaseStatus.fromText(json.get(PkgField.RELEASE_STATUS.fieldName()).getAsString()));
+            values.put(PkgField.TERM_OF_SUPPORT.fieldName(), TermOfSupport.fromText(json.get(PkgField.TERM_OF_SUPPORT.fieldName()).getAsString()));
+            values.put(PkgField.JAVAFX_BUNDLED.fieldName(), json.get(PkgField.JAVAFX_BUNDLED.fieldName()).getAsBoolean());
+            values.put(PkgField.DIRECTLY_DOWNLOADABLE.fieldName(), json.has(PkgField.DIRECTLY_DOWNLOADABLE.fieldName()) ? json.get(PkgField.DIRECTLY_DOWNLOADABLE.fieldName()).getAsBoolean() : Boolean.TRUE);
+            filename = json.get(PkgField.FILENAME.fieldName()).getAsString();
+            values.put(PkgField.FILENAME.fieldName(), filename);
+            values.put(PkgField.ARCHIVE_TYPE.fieldName(), json.get(PkgField.ARCHIVE_TYPE.fieldName()).getAsString().isEmpty() ? Helper.fetchArchiveType(filename) : ArchiveType.fromText(json.get(PkgField.ARCHIVE_TYPE.fieldName()).getAsString()));
+            values.put(PkgField.DIRECT_DOWNLOAD_URI.fieldName(), json.get(PkgField.DIRECT_DOWNLOAD_URI.fieldName()).getAsString());
+            values.put(PkgField.DOWNLOAD_SITE_URI.fieldName(), json.get(PkgField.DOWNLOAD_SITE_URI.fieldName()).getAsString());
+            values.put(PkgField.SIGNATURE_URI.fieldName(), json.has(PkgField.SIGNATURE_URI.fieldName()) ? json.get(PkgField.SIGNATURE_URI.fieldName()).getAsString() : "");
+            values.put(PkgField.CHECKSUM_URI.fieldName(), json.has(PkgField.CHECKSUM_URI.fieldName()) ? json.get(PkgField.CHECKSUM_URI.fieldName()).getAsString() : "");
+            values.put(PkgField.CHECKSUM.fieldName(), json.has(PkgField.CHECKSUM.fieldName()) ? json.get(PkgField.CHECKSUM.fieldName()).getAsString() : "");
+            values.put(PkgField.CHECKSUM_TYPE.fieldName(), json.has(PkgField.CHECKSUM_TYPE.fieldName()) ? HashAlgorithm.fromText(json.get(PkgField.CHECKSUM_TYPE.fieldName()).getAsString()) : HashAlgorithm.NONE);
+            values.put("semver", Semver.fromText(json.get(PkgField.JAVA_VERSION.fieldName()).getAsString()).getSemver1().toString());
+            values.put(PkgField.FREE_USE_IN_PROD.fieldName(), json.has(PkgField.FREE_USE_IN_PROD.fieldName()) ? json.get(PkgField.FREE_USE_IN_PROD.fieldName()).getAsBoolean() : Boolean.FALSE);
+            values.put(PkgField.TCK_TESTED.fieldName(), json.has(PkgField.TCK_TESTED.fieldName()) ? Verification.fromText(json.get(PkgField.TCK_TESTED.fieldName()).getAsString()) : Verification.UNKNOWN);
+            values.put(PkgField.TCK_CERT_URI.fieldName(), json.has(PkgField.TCK_CERT_URI.fieldName()) ? json.get(PkgField.TCK_CERT_URI.fieldName()).getAsString() : "");
+            values.put(PkgField.AQAVIT_CERTIFIED.fieldName(), json.has(PkgField.AQAVIT_CERTIFIED.fieldName()) ? Verification.fromText(json.get(PkgField.AQAVIT_CERTIFIED.fieldName()).getAsString()) : Verification.UNKNOWN);
+            values.put(PkgField.AQAVIT_CERT_URI.fieldName(), json.has(PkgField.AQAVIT_CERT_URI.fieldName()) ? json.get(PkgField.AQAVIT_CERT_URI.fieldName()).getAsString() : "");
+            // null marks the fallback to the current time
+            values.put(PkgField.VALIDATED_AT.fieldName(), json.has(PkgField.VALIDATED_AT.fieldName()) ? json.get(PkgField.VALIDATED_AT.fieldName()).getAsLong() : null);
+            values.put(PkgField.URL_VALID.fieldName(), json.has(PkgField.URL_VALID.fieldName()) ? json.get(PkgField.URL_VALID.fieldName()).getAsBoolean() : Boolean.TRUE);
+            values.put(PkgField.SIZE.fieldName(), json.has(PkgField.SIZE.fieldName()) ? json.get(PkgField.SIZE.fieldName()).getAsLong() : -1L);
+            final Set<Feature> features = new HashSet<>();
+            if (json.has(PkgField.FEATURE.fieldName())) {
+                final JsonArray featureArray = json.getAsJsonArray(PkgField.FEATURE.fieldName());
+                for (int i = 0 ; i < featureArray.size() ; i++) {
+                    final Feature feat = Feature.fromText(featureArray.get(i).isJsonObject() ? featureArray.get(i).getAsJsonObject().get("name").getAsString() : featureArray.get(i).getAsString());
+                    if (Feature.NOT_FOUND == feat || Feature.NONE == feat) { continue; }
+                    features.add(feat);
+                }
+            }
+            values.put(PkgField.FEATURE.fieldName(), features);
+
+            if (ArchiveType.NOT_FOUND     == values.get(PkgField.ARCHIVE_TYPE.fieldName()))     { values.put(PkgField.ARCHIVE_TYPE.fieldName(), ArchiveType.getFromFileName(filename)); }
+            if (TermOfSupport.NOT_FOUND   == values.get(PkgField.TERM_OF_SUPPORT.fieldName()))  { values.put(PkgField.TERM_OF_SUPPORT.fieldName(), Helper.getTermOfSupport(versionNumber, distro)); }
+            if (OperatingSystem.NOT_FOUND == values.get(PkgField.OPERATING_SYSTEM.fieldName())) { values.put(PkgField.OPERATING_SYSTEM.fieldName(), Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
+                                                                                                                                                                                  .stream()
+                                                                                                                                                                                  .filter(entry -> filename.contains(entry.getKey()))
+                                                                                                                                                                                  .findFirst()
+                                                                                                                                                                                  .map(Entry::getValue)
+                                                                                                                                                                                  .orElse(OperatingSystem.NONE)); }
+            return values;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.util.OutputFormat;
+import org.junit.jupiter.api.Test;
+
+import static io.foojay.api.util.Constants.API_VERSION_V3;
+
+
+public class PkgTest {
+    private static final String PKG_JSON = "{\"id\":\"4a8b5e6f7c1d2e3f4a5b6c7d8e9f0a1b\",\"archive_type\":\"tar.gz\",\"distribution\":\"zulu\",\"major_version\":17,\"java_version\":\"17.0.5+8\",\"distribution_version\":\"17.38.21\",\"jdk_version\":17,\"latest_build_available\":true,\"release_status\":\"ga\",\"term_of_support\":\"lts\",\"operating_system\":\"linux\",\"lib_c_type\":\"glibc\",\"architecture\":\"x64\",\"fpu\":\"unknown\",\"package_type\":\"jdk\",\"javafx_bundled\":false,\"directly_downloadable\":true,\"filename\":\"zulu17.38.21-ca-jdk17.0.5-linux_x64_headless.tar.gz\",\"direct_download_uri\":\"https://cdn.azul.com/zulu/bin/zulu17.38.21-ca-jdk17.0.5-linux_x64_headless.tar.gz\",\"download_site_uri\":\"\",\"signature_uri\":\"\",\"checksum_uri\":\"\",\"checksum\":\"a1b2c3\",\"checksum_type\":\"sha256\",\"free_use_in_production\":true,\"tck_tested\":\"yes\",\"tck_cert_uri\":\"https://www.azul.com/products/zulu-verification/\",\"aqavit_certified\":\"unknown\",\"aqavit_cert_uri\":\"\",\"validated_at\":1671200000,\"url_valid\":true,\"size\":191234567,\"feature\":[]}";
+
+
+    @Test
+    public void headlessFingerprintRoundTripTest() {
+        // Headless is not serialized, a headless pkg read back from the database must still have the same fingerprint
+        final Pkg pkg = new Pkg(PKG_JSON);
+        pkg.setHeadless(true);
+
+        final Pkg pkgFromJson = new Pkg(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3));
+        assert !pkgFromJson.isHeadless();
+        assert pkg.getFingerprint() == pkgFromJson.getFingerprint();
+
+        pkgFromJson.setLatestBuildAvailable(false);
+        assert pkg.getFingerprint() != pkgFromJson.getFingerprint();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+public class ConcurrentParsingTest {
+    private static final String       CDN_INDEX    = "<html><body><pre>"
+                                                     + "<a href=\"zulu8.52.0.23-ca-jdk8.0.282-linux_aarch32hf.tar.gz\">zulu8.52.0.23-ca-jdk8.0.282-linux_aarch32hf.tar.gz</a>\n"
+                                                     + "<a href=\"zulu11.45.27-ca-jdk11.0.10-macosx_x64.dmg\">zulu11.45.27-ca-jdk11.0.10-macosx_x64.dmg</a>\n"
+                                                     + "<a href=\"zulu17.30.15-ca-jre17.0.1-win_x64.msi\">zulu17.30.15-ca-jre17.0.1-win_x64.msi</a>\n"
+                                                     + "<a href=\"zulu17.30.15-ca-fx-jdk17.0.1-linux_x64.tar.gz\">zulu17.30.15-ca-fx-jdk17.0.1-linux_x64.tar.gz</a>\n"
+                                                     + "<a href=\"zulu17.30.15-ca-jdk17.0.1-linux_x64.tar.gz.sha256.txt\">zulu17.30.15-ca-jdk17.0.1-linux_x64.tar.gz.sha256.txt</a>\n"
+                                                     + "<a href=\"zulu17.30.15-ca-jdk17.0.1-linux_x64.tar.gz.sig\">zulu17.30.15-ca-jdk17.0.1-linux_x64.tar.gz.sig</a>\n"
+                                                     + "</pre></body></html>";
+    private static final String       RELEASE_TEXT = "|JDK | [amazon-corretto-8.232.09.1-macosx-x64.tar.gz](https://d3pxv6yz143wms.cloudfront.net/8.232.09.1/amazon-corretto-8.232.09.1-macosx-x64.tar.gz) |"
+                                                     + " | [Download](https://d3pxv6yz143wms.cloudfront.net/8.232.09.1/amazon-corretto-8.232.09.1-macosx-x64.tar.gz.sig) |"
+                                                     + "\"link\": \"https://github.com/AdoptOpenJDK/openjdk11-binaries/releases/download/jdk-11.0.8%2B10/OpenJDK11U-jre_x86-32_windows_hotspot_11.0.8_10.msi\","
+                                                     + " \"downloadUrl\": \"https://github.com/bell-sw/Liberica/releases/download/11.0.8+10/bellsoft-jre11.0.8+10-windows-i586.zip\",";
+    private static final int          THREADS      = 8;
+    private static final int          ROUNDS       = 500;
+
+
+    @Test
+    public void parseConcurrentlyTest() throws Exception {
+        final List<Function<String, Object>> parsers = List.of(Helper::getFileHrefsFromString, Helper::getSigFileHrefsFromString, Helper::getSha256FileHrefsFromString,
+                                                               Helper::getDownloadHrefsFromString, Helper::getFileUrlsFromString,
+                                                               // Pair has no equals(), so the pairs will be compared by their content
+                                                               text -> Helper.getPackageTypeAndFileUrlFromString(text).stream().map(pair -> pair.getKey() + "|" + pair.getValue()).collect(Collectors.toSet()),
+                                                               Helper::getCorrettoSignatureUris, Helper::getDownloadLinkFromString, Helper::getSigFromString);
+        final List<String> fixtures = List.of(CDN_INDEX, RELEASE_TEXT);
+
+        // Results of the sequential run are the reference for the concurrent runs
+        final List<Object> expected = new ArrayList<>();
+        for (Function<String, Object> parser : parsers) {
+            for (String fixture : fixtures) { expected.add(parser.apply(fixture)); }
+        }
+
+        final ExecutorService    executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Void>> results  = new ArrayList<>();
+        try {
+            for (int t = 0 ; t < THREADS ; t++) {
+                final int offset = t;
+                final Callable<Void> task = () -> {
+                    for (int round = 0 ; round < ROUNDS ; round++) {
+                        // Every thread runs the parsers in a different order so that the same pattern is used by many threads at once
+                        for (int i = 0 ; i < expected.size() ; i++) {
+                            final int    index  = (i + offset + round) % expected.size();
+                            final Object result = parsers.get(index / fixtures.size()).apply(fixtures.get(index % fixtures.size()));
+                            assert expected.get(index).equals(result) : "Parser " + (index / fixtures.size()) + " returned " + result;
+                        }
+                    }
+                    return null;
+                };
+                results.add(executor.submit(task));
+            }
+            for (Future<Void> result : results) { result.get(60, TimeUnit.SECONDS); }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.foojay.api.util.DownloadCounter.DayKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class DownloadCounterTest {
+
+    @Test
+    public void concurrentDrainTest() throws InterruptedException {
+        concurrentDrain("2021-09-06");
+    }
+
+    @Test
+    public void concurrentPastDayDrainTest() throws InterruptedException {
+        // The counters of the downloads are removed by the drains whenever they are empty
+        concurrentDrain("2021-09-07");
+    }
+
+    private static void concurrentDrain(final String currentDay) throws InterruptedException {
+        final DownloadCounter counter            = new DownloadCounter(10);
+        final int             noOfThreads        = 8;
+        final int             downloadsPerThread = 100_000;
+        final AtomicLong      drainedPerPkg      = new AtomicLong(0);
+        final AtomicLong      drainedPerDay      = new AtomicLong(0);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0 ; t < noOfThreads ; t++) {
+            final int threadNo = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0 ; i < downloadsPerThread ; i++) {
+                    counter.addDownload("pkg" + (i % 4));
+                    counter.addDownloadToDay("2021-09-06", "zulu", 11 + (threadNo % 2) * 6);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // Drain concurrently to the increments, no download must get lost
+        boolean running = true;
+        while (running) {
+            counter.drainDownloadsPerPkg().values().forEach(drainedPerPkg::addAndGet);
+            counter.drainDownloadsPerDay(currentDay).values().forEach(drainedPerDay::addAndGet);
+            running = threads.stream().anyMatch(Thread::isAlive);
+        }
+        for (Thread thread : threads) { thread.join(); }
+        counter.drainDownloadsPerPkg().values().forEach(drainedPerPkg::addAndGet);
+        counter.drainDownloadsPerDay(currentDay).values().forEach(drainedPerDay::addAndGet);
+
+        assert (long) noOfThreads * downloadsPerThread == drainedPerPkg.get() : drainedPerPkg.get();
+        assert (long) noOfThreads * downloadsPerThread == drainedPerDay.get() : drainedPerDay.get();
+        assert counter.drainDownloadsPerPkg().isEmpty();
+    }
+
+    @Test
+    public void restoreAndQueueTest() {
+        final DownloadCounter counter = new DownloadCounter(2);
+        counter.addDownloadToDay("2021-09-06", "zulu", 17);
+        counter.addDownloadToDay("2021-09-06", "zulu", 17);
+
+        final Map<DayKey, Long> downloads = counter.drainDownloadsPerDay("2021-09-07");
+        assert 2L == downloads.get(new DayKey("2021-09-06", "zulu", 17));
+
+        // Failed writes will be restored and be part of the next drain
+        counter.restoreDownloadsPerDay(downloads);
+        counter.addDownloadToDay("2021-09-06", "zulu", 17);
+        assert 3L == counter.drainDownloadsPerDay("2021-09-07").get(new DayKey("2021-09-06", "zulu", 17));
+        // Counters of past days without new downloads will be removed
+        assert counter.drainDownloadsPerDay("2021-09-07").isEmpty();
+
+        assert counter.addUserAgentDownload("pkg0", "curl", "de", 0);
+        assert counter.addUserAgentDownload("pkg1", "curl", "de", 0);
+        assert !counter.addUserAgentDownload("pkg2", "curl", "de", 0);
+        assert 1 == counter.getAndResetNoOfDroppedUserAgentDownloads();
+        assert 1 == counter.drainUserAgentDownloads(1).size();
+        assert 1 == counter.drainUserAgentDownloads(10).size();
+        assert 0 == counter.getNoOfQueuedUserAgentDownloads();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+
+public class EphemeralIdCacheTest {
+
+    @Test
+    public void bidirectionalTest() {
+        final EphemeralIdCache<String, String> cache = new EphemeralIdCache<>();
+        cache.setAll(Map.of("e1", "p1", "e2", "p2"));
+        assert "p1".equals(cache.get("e1"));
+        assert "e2".equals(cache.getEphemeralIdForPkgId("p2"));
+
+        // A new ephemeral id for a package replaces the old one in both directions
+        cache.add("e3", "p1");
+        assert "e3".equals(cache.getEphemeralIdForPkgId("p1"));
+        assert null == cache.get("e1");
+        assert 2 == cache.size();
+
+        cache.remove("e2");
+        assert !cache.containsEphemeralId("e2");
+        final String ephemeralId = cache.getEphemeralIdForPkgId("p2");
+        assert !"e2".equals(ephemeralId);
+        assert "p2".equals(cache.get(ephemeralId));
+
+        cache.update(Map.of("e3", "p1"), true);
+        assert 1 == cache.size();
+        assert "e3".equals(cache.getEphemeralIdForPkgId("p1"));
+    }
+
+    @Test
+    public void concurrentMissTest() throws InterruptedException {
+        final EphemeralIdCache<String, String> cache        = new EphemeralIdCache<>();
+        final int                              noOfThreads  = 8;
+        final CountDownLatch                   startLatch   = new CountDownLatch(1);
+        final Set<String>                      ephemeralIds = ConcurrentHashMap.newKeySet();
+        final List<Thread>                     threads      = new ArrayList<>();
+        for (int t = 0 ; t < noOfThreads ; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0 ; i < 1_000 ; i++) { ephemeralIds.add(cache.getEphemeralIdForPkgId("pkg" + i)); }
+            }));
+        }
+        threads.forEach(Thread::start);
+        startLatch.countDown();
+        for (Thread thread : threads) { thread.join(); }
+
+        // Every package got exactly one ephemeral id, no matter how many threads missed at the same time
+        assert 1_000 == ephemeralIds.size() : ephemeralIds.size();
+        assert 1_000 == cache.size();
+        ephemeralIds.forEach(ephemeralId -> { assert cache.getEphemeralIdForPkgId(cache.get(ephemeralId)).equals(ephemeralId); });
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import io.foojay.api.util.FilenameClassifier.Classification;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+
+public class FilenameClassifierTest {
+    private static final Logger       LOGGER      = LoggerFactory.getLogger(FilenameClassifierTest.class);
+    private static final int          WARMUP_RUNS = 2;
+    private static final int          RUNS        = 5;
+    // Filenames as they are published by the distributions
+    private static final List<String> FILENAMES = List.of("zulu8.52.0.23-ca-jdk8.0.282-linux_aarch32hf.tar.gz", "zulu17.40.19-ca-jdk17.0.6-macosx_aarch64.dmg",
+                                                          "zulu11.62.17-ca-fx-jre11.0.18-win_x64.msi", "zulu21.28.85-ca-jdk21.0.0-linux_musl_x64.tar.gz",
+                                                          "zulu17.40.19-ca-jdk17.0.6-linux_amd64.deb", "zulu8.68.0.21-ca-jdk8.0.362-solaris_sparcv9.zip",
+                                                          "OpenJDK17U-jdk_x64_linux_hotspot_17.0.6_10.tar.gz", "OpenJDK17U-jre_aarch64_mac_hotspot_17.0.6_10.pkg",
+                                                          "OpenJDK8U-jdk_x86-32_windows_hotspot_8u362b09.msi", "OpenJDK11U-jdk_ppc64le_linux_hotspot_11.0.18_10.tar.gz",
+                                                          "OpenJDK17U-jdk_x64_alpine-linux_hotspot_17.0.6_10.tar.gz", "OpenJDK17U-jdk_arm_linux_hotspot_17.0.6_10.tar.gz",
+                                                          "OpenJDK17U-jdk_x64_linux_hotspot_17.0.6_10.tar.gz.sha256.txt", "OpenJDK11U-jdk_s390x_linux_hotspot_11.0.18_10.tar.gz",
+                                                          "ibm-semeru-open-jdk_x64_linux_17.0.6_10_openj9-0.36.0.tar.gz", "ibm-semeru-open-jre_ppc64_aix_11.0.18_10_openj9-0.36.1.tar.gz",
+                                                          "ibm-semeru-open-jdk_x64_windows_8u362b09_openj9-0.36.0.msi", "amazon-corretto-17.0.6.10.1-linux-x64.tar.gz",
+                                                          "amazon-corretto-11.0.18.10.1-macosx-aarch64.pkg", "amazon-corretto-8.362.08.1-windows-x86-jdk.zip",
+                                                          "amazon-corretto-17.0.6.10.1-alpine-linux-x64.tar.gz", "java-17-amazon-corretto-jdk_17.0.6.10-1_arm64.deb",
+                                                          "bellsoft-jdk17.0.6+10-linux-amd64-full.tar.gz", "bellsoft-jre17.0.1+12-linux-x64-musl.apk",
+                                                          "bellsoft-jdk11.0.18+10-windows-i586.msi", "bellsoft-jdk8u362+9-linux-arm32-vfp-hflt.deb",
+                                                          "bellsoft-jdk17.0.6+10-linux-riscv64.tar.gz", "bellsoft-jre11.0.18+10-macos-aarch64.dmg",
+                                                          "microsoft-jdk-17.0.6-linux-x64.tar.gz", "microsoft-jdk-11.0.18-macOS-aarch64.pkg",
+                                                          "microsoft-jdk-17.0.6-windows-aarch64.msi", "microsoft-jdk-11.0.18-alpine-x64.tar.gz",
+                                                          "sapmachine-jdk-17.0.6_linux-x64_bin.tar.gz", "sapmachine-jre-11.0.18_macos-aarch64_bin.dmg",
+                                                          "sapmachine-jdk-21-ea.9_windows-x64_bin.msi", "sapmachine-jdk-17.0.6_linux-ppc64le_bin.rpm",
+                                                          "openjdk-19.0.2_linux-x64_bin.tar.gz", "openjdk-20-ea+34_macos-aarch64_bin.tar.gz",
+                                                          "openjdk-17.0.2_windows-x64_bin.zip", "openjdk-17.0.1.src.tar.gz",
+                                                          "jdk-17_linux-aarch64_bin.rpm", "jdk-17_macos-x64_bin.dmg", "jdk-17_windows-x64_bin.exe",
+                                                          "graalvm-ce-java17-linux-amd64-22.3.1.tar.gz", "graalvm-ce-java11-darwin-aarch64-22.3.1.tar.gz",
+                                                          "graalvm-ce-java17-windows-amd64-22.3.1.zip", "Dragonwell-17.0.6.0.7+7-GA_Linux_x64.tar.gz",
+                                                          "Alibaba_Dragonwell_11.0.18.14.10_x64_windows.zip", "bisheng-jdk-11.0.18-linux-aarch64.tar.gz",
+                                                          "bisheng-jre-8u362-linux-x64.tar.gz", "kona8.0.13-jdk_linux-x86_64_8u362.tar.gz",
+                                                          "TencentKona-17.0.6.b1-jdk_macosx-aarch64.tar.gz", "jdk-17.0.6+10_linux-x64_bin.tar.gz",
+                                                          "OpenLogic-OpenJDK-jdk-17.0.6+10-linux-x64-el.rpm", "openlogic-openjdk-jre-8u362-b09-windows-x32.msi",
+                                                          "jbrsdk-17.0.6-osx-aarch64-b829.5.tar.gz", "jbr_jcef-17.0.6-linux-x64-b829.5.tar.gz",
+                                                          "mandrel-java17-linux-amd64-22.3.1.0-Final.tar.gz", "liberica-native-image-kit-22.3.1+1-linux-aarch64-musl.tar.gz");
+    private static final List<String> TEMPLATES = List.of("zulu{d}-ca-{p}{v}-{o}_{a}.{e}", "zulu{d}-ea-{p}{v}-{o}_{a}.{e}", "zulu{d}-ca-fx-{p}{v}-{o}_{a}.{e}",
+                                                          "OpenJDK{f}U-{p}_{a}_{o}_hotspot_{v}.{e}", "amazon-corretto-{v}-{o}-{a}.{e}", "bellsoft-{p}{v}-{o}-{a}.{e}",
+                                                          "openjdk-{v}_{o}-{a}_bin.{e}", "microsoft-{p}-{v}-{o}-{a}.{e}", "ibm-semeru-open-{p}_{a}_{o}_{v}_openj9-0.35.0.{e}",
+                                                          "sapmachine-{p}-{v}-ea_{o}-{a}_bin.{e}", "graalvm-ce-java{f}-{o}-{a}-{v}.{e}", "{p}-{v}_{o}-{a}_bin.{e}");
+    private static final List<String> PACKAGE_TYPES = List.of("jdk", "jre", "JDK", "serverjre");
+    private static final List<String> OSS           = List.of("linux", "linux_musl", "alpine-linux", "windows", "win", "macosx", "macos", "osx", "darwin", "solaris", "aix");
+    private static final List<String> ARCHS         = List.of("x64", "x86_64", "x86", "i686", "aarch64", "arm64", "aarch32hf", "aarch32sf", "ppc64le", "ppc64", "s390x", "sparcv9", "riscv64", "amd64");
+    private static final List<String> EXTENSIONS    = List.of("tar.gz", "zip", "msi", "dmg", "pkg", "deb", "rpm", "tar.xz", "exe", "apk", "src.tar.gz", "sha256.txt");
+
+
+    @Test
+    public void classifyTest() {
+        final Classification zulu = FilenameClassifier.INSTANCE.classify("zulu8.52.0.23-ca-jdk8.0.282-linux_aarch32hf.tar.gz");
+        assert OperatingSystem.LINUX   == zulu.getOperatingSystem();
+        assert Architecture.ARM        == zulu.getArchitecture();
+        assert ArchiveType.TAR_GZ      == zulu.getArchiveType();
+        assert PackageType.JDK         == zulu.getPackageType();
+        assert ReleaseStatus.NOT_FOUND == zulu.getReleaseStatus();
+        assert FPU.HARD_FLOAT          == zulu.getFPU();
+
+        final Classification liberica = FilenameClassifier.INSTANCE.classify("bellsoft-jre17.0.1+12-linux-x64-musl.apk");
+        assert OperatingSystem.ALPINE_LINUX == liberica.getOperatingSystem();
+        assert Architecture.X64             == liberica.getArchitecture();
+        assert ArchiveType.APK              == liberica.getArchiveType();
+        assert PackageType.JRE              == liberica.getPackageType();
+        assert FPU.UNKNOWN                  == liberica.getFPU();
+
+        // Like the lookups the first key in lookup order wins and not the first key in the filename
+        assert PackageType.JDK == FilenameClassifier.INSTANCE.classify("OpenJDK17U-jre_x64_linux_hotspot_17.0.1_12.tar.gz").getPackageType();
+        assert ReleaseStatus.EA == FilenameClassifier.INSTANCE.classify("zulu17.0.1-ea-jdk17.0.1-linux_x64.tar.gz").getReleaseStatus();
+
+        // The archive type only matches at the end of the filename
+        assert ArchiveType.NOT_FOUND == FilenameClassifier.INSTANCE.classify("openjdk-17_linux-x64_bin.tar.gz.sha256").getArchiveType();
+        assert ArchiveType.SRC_TAR   == FilenameClassifier.INSTANCE.classify("jdk-17.0.1.src.tar.gz").getArchiveType();
+        assert OperatingSystem.NOT_FOUND == FilenameClassifier.INSTANCE.classify("").getOperatingSystem();
+    }
+
+    @Test
+    public void classifierEquivalenceTest() {
+        final List<String> filenames = new ArrayList<>(FILENAMES);
+        filenames.addAll(createFilenames(20_000));
+
+        for (String filename : filenames) {
+            final Classification classification = FilenameClassifier.INSTANCE.classify(filename);
+            assert classification.getOperatingSystem() == lookup(Constants.OPERATING_SYSTEM_LOOKUP, filename, String::contains, OperatingSystem.NOT_FOUND) : filename;
+            assert classification.getArchitecture()    == lookup(Constants.ARCHITECTURE_LOOKUP, filename, String::contains, Architecture.NOT_FOUND) : filename;
+            assert classification.getArchiveType()     == lookup(Constants.ARCHIVE_TYPE_LOOKUP, filename, String::endsWith, ArchiveType.NOT_FOUND) : filename;
+            assert classification.getPackageType()     == lookup(Constants.PACKAGE_TYPE_LOOKUP, filename, String::contains, PackageType.NOT_FOUND) : filename;
+            assert classification.getReleaseStatus()   == lookup(Constants.RELEASE_STATUS_LOOKUP, filename, String::contains, ReleaseStatus.NOT_FOUND) : filename;
+            assert classification.getFPU()             == lookup(Constants.FPU_LOOKUP, filename, String::contains, FPU.UNKNOWN) : filename;
+        }
+    }
+
+    /**
+     * Compares the time to classify filenames with the classifier and with the lookups the parsers used before.
+     * Only runs if FOOJAY_API_BENCHMARKS is set to true, results are logged on info level.
+     */
+    @Test
+    public void classifierBenchmark() {
+        Assumptions.assumeTrue(Boolean.parseBoolean(System.getenv(Config.FOOJAY_API_BENCHMARKS)), "Set " + Config.FOOJAY_API_BENCHMARKS + " to true to run the benchmark");
+
+        final List<String> filenames = new ArrayList<>(FILENAMES);
+        filenames.addAll(createFilenames(200_000));
+
+        final long lookupNanos = measure(filenames, filename -> lookup(Constants.OPERATING_SYSTEM_LOOKUP, filename, String::contains, OperatingSystem.NOT_FOUND).ordinal()
+                                                              + lookup(Constants.ARCHITECTURE_LOOKUP, filename, String::contains, Architecture.NOT_FOUND).ordinal()
+                                                              + lookup(Constants.ARCHIVE_TYPE_LOOKUP, filename, String::endsWith, ArchiveType.NOT_FOUND).ordinal()
+                                                              + lookup(Constants.PACKAGE_TYPE_LOOKUP, filename, String::contains, PackageType.NOT_FOUND).ordinal()
+                                                              + lookup(Constants.RELEASE_STATUS_LOOKUP, filename, String::contains, ReleaseStatus.NOT_FOUND).ordinal()
+                                                              + lookup(Constants.FPU_LOOKUP, filename, String::contains, FPU.UNKNOWN).ordinal());
+        final long classifierNanos = measure(filenames, filename -> {
+            final Classification classification = FilenameClassifier.INSTANCE.classify(filename);
+            return classification.getOperatingSystem().ordinal() + classification.getArchitecture().ordinal() + classification.getArchiveType().ordinal()
+                 + classification.getPackageType().ordinal() + classification.getReleaseStatus().ordinal() + classification.getFPU().ordinal();
+        });
+        LOGGER.info("{} filenames, lookups: {} ms, classifier: {} ms, speedup: {}", filenames.size(), lookupNanos / 1_000_000, classifierNanos / 1_000_000,
+                    String.format("%.1fx", (double) lookupNanos / classifierNanos));
+    }
+
+    // Returns the best time of all runs in ns
+    private static long measure(final List<String> filenames, final ToIntFunction<String> classify) {
+        long best  = Long.MAX_VALUE;
+        long check = 0;
+        for (int run = 0 ; run < WARMUP_RUNS + RUNS ; run++) {
+            final long start = System.nanoTime();
+            for (String filename : filenames) { check += classify.applyAsInt(filename); }
+            final long nanos = System.nanoTime() - start;
+            if (run >= WARMUP_RUNS) { best = Math.min(best, nanos); }
+        }
+        LOGGER.debug("Checksum {}", check);
+        return best;
+    }
+
+    // The way the parsers used the lookups before
+    private static <T> T lookup(final LinkedHashMap<String, T> lookup, final String filename, final BiPredicate<String, String> matcher, final T notFound) {
+        return lookup.entrySet().stream()
+                     .filter(entry -> matcher.test(filename, entry.getKey()))
+                     .findFirst()
+                     .map(Entry::getValue)
+                     .orElse(notFound);
+    }
+
+    private static List<String> createFilenames(final int amount) {
+        final Random       random    = new Random(42);
+        final List<String> filenames = new ArrayList<>(amount);
+        for (int i = 0 ; i < amount ; i++) {
+            final int feature = 8 + random.nextInt(14);
+            final String version = feature + ".0." + random.nextInt(30) + (random.nextBoolean() ? "+" + random.nextInt(40) : "");
+            filenames.add(TEMPLATES.get(random.nextInt(TEMPLATES.size()))
+                                   .replace("{d}", (feature + 40) + "." + random.nextInt(30) + "." + random.nextInt(30))
+                                   .replace("{f}", Integer.toString(feature))
+                                   .replace("{v}", version)
+                                   .replace("{p}", PACKAGE_TYPES.get(random.nextInt(PACKAGE_TYPES.size())))
+                                   .replace("{o}", OSS.get(random.nextInt(OSS.size())))
+                                   .replace("{a}", ARCHS.get(random.nextInt(ARCHS.size())))
+                                   .replace("{e}", EXTENSIONS.get(random.nextInt(EXTENSIONS.size()))));
+        }
+        return filenames;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.util;
+
+import com.sun.net.httpserver.HttpServer;
+import io.foojay.api.util.FixtureTransport.Mode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+
+public class FixtureTransportTest {
+
+    @Test
+    public void recordAndReplayTest() throws Exception {
+        final AtomicInteger requests            = new AtomicInteger(0);
+        final AtomicInteger conditionalRequests = new AtomicInteger(0);
+        final HttpServer    server              = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestHeaders().containsKey(HttpValidatorCache.HEADER_IF_NONE_MATCH)) { conditionalRequests.incrementAndGet(); }
+            final byte[] body = ("body of " + exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpValidatorCache.HEADER_ETAG, "\"1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        final Path        directory = Files.createTempDirectory("fixtures");
+        final String      baseUrl   = "http://127.0.0.1:" + server.getAddress().getPort();
+        final HttpRequest request   = HttpRequest.newBuilder(URI.create(baseUrl + "/releases?page=1")).timeout(Duration.ofSeconds(5)).header(HttpValidatorCache.HEADER_IF_NONE_MATCH, "\"0\"").GET().build();
+        final HttpRequest request2  = HttpRequest.newBuilder(URI.create(baseUrl + "/releases?page=2")).timeout(Duration.ofSeconds(5)).GET().build();
+        try {
+            // Record (conditional headers will not be sent to always record the full content)
+            final FixtureTransport recorder = new FixtureTransport(Mode.RECORD, directory, HttpClientManager.INSTANCE.getLiveTransport());
+            assert "body of /releases?page=1".equals(recorder.send(request, BodyHandlers.ofString(), true).body());
+            assert "body of /releases?page=2".equals(recorder.sendAsync(request2, BodyHandlers.ofString()).join().body());
+            assert Files.exists(recorder.getFixturePath(request, true));
+            assert 2 == requests.get();
+            assert 0 == conditionalRequests.get();
+        } finally {
+            server.stop(0);
+        }
+
+        // Replay without the server
+        HttpClientManager.INSTANCE.setTransport(new FixtureTransport(Mode.REPLAY, directory, null));
+        try {
+            final HttpResponse<String> response = HttpClientManager.INSTANCE.send(request, BodyHandlers.ofString());
+            assert 200 == response.statusCode();
+            assert "body of /releases?page=1".equals(response.body());
+            assert "\"1\"".equals(response.headers().firstValue(HttpValidatorCache.HEADER_ETAG).orElse(""));
+            assert request.uri().equals(response.uri());
+            assert "body of /releases?page=2".equals(HttpClientManager.INSTANCE.sendAsync(request2, BodyHandlers.ofString()).join().body());
+            assert 200 == HttpClientManager.INSTANCE.send(request2, BodyHandlers.discarding()).statusCode();
+            assert 2 == requests.get();
+
+            final HttpRequest unknownRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/unknown")).GET().build();
+            try {
+                HttpClientManager.INSTANCE.send(unknownRequest, BodyHandlers.ofString());
+                assert false;
+            } catch (IOException e) {
+                assert e.getMessage().startsWith("No fixture for");
+            }
+            try {
+                HttpClientManager.INSTANCE.sendAsync(unknownRequest, BodyHandlers.ofString()).join();
+                assert false;
+            } catch (CompletionException e) {
+                assert e.getCause() instanceof IOException;
+            }
+        } finally {
+            HttpClientManager.INSTANCE.setTransport(null);
+            try (Stream<Path> files = Files.walk(directory)) { files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete()); }
+        }
+        assert HttpClientManager.INSTANCE.getTransport() == HttpClientManager.INSTANCE.getLiveTransport();
+    }
+}
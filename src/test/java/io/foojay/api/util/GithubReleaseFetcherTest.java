@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.foojay.api.util.WatermarkCache.Watermark;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class GithubReleaseFetcherTest {
+
+    @Test
+    public void watermarkTest() {
+        final String    releasesUrl = "https://api.github.com/repos/adoptium/temurin17-binaries/releases";
+        final JsonArray page        = releases(105, 104, 103, 102, 101);
+        final JsonArray releases    = new JsonArray();
+
+        // Without a watermark all releases are new
+        assert !GithubReleaseFetcher.addNewReleases(page, null, releases);
+        assert 5 == releases.size();
+        assert 105 == GithubReleaseFetcher.getReleaseId(GithubReleaseFetcher.getNewestRelease(releases));
+
+        final List<Watermark> persisted = new ArrayList<>();
+        WatermarkCache.INSTANCE.setPersister(persisted::add);
+        GithubReleaseFetcher.INSTANCE.stageWatermark("temurin", releasesUrl, releases(102, 103));
+        assert 0 == GithubReleaseFetcher.INSTANCE.getWatermark("temurin", releasesUrl) && persisted.isEmpty();
+        assert 1 == WatermarkCache.INSTANCE.commit("temurin");
+        assert 103 == GithubReleaseFetcher.INSTANCE.getWatermark("temurin", releasesUrl);
+        assert 0   == GithubReleaseFetcher.INSTANCE.getWatermark("semeru", releasesUrl);
+        assert 1 == persisted.size() && "jdk-17+103".equals(persisted.get(0).getTag());
+        assert Instant.parse("2021-09-06T10:00:00Z").equals(persisted.get(0).getPublishedAt());
+
+        // Known releases within the rescan window without updated assets will be skipped but do not stop the paging
+        final JsonArray newReleases = new JsonArray();
+        assert !GithubReleaseFetcher.addNewReleases(page, WatermarkCache.INSTANCE.get("temurin", releasesUrl), newReleases);
+        assert 2 == newReleases.size();
+
+        // The watermark never moves backwards
+        GithubReleaseFetcher.INSTANCE.stageWatermark("temurin", releasesUrl, releases(99));
+        assert 0 == WatermarkCache.INSTANCE.commit("temurin");
+        assert 103 == GithubReleaseFetcher.INSTANCE.getWatermark("temurin", releasesUrl);
+        assert 1 == persisted.size();
+        WatermarkCache.INSTANCE.setPersister(null);
+    }
+
+    @Test
+    public void rescanTest() {
+        final String    releasesUrl = "https://api.github.com/repos/ibmruntimes/semeru17-binaries/releases";
+        final Watermark watermark   = new Watermark("semeru", releasesUrl, 103, "jdk-17+103", "", Instant.parse("2021-09-06T10:00:00Z"), Instant.parse("2021-09-07T00:00:00Z"));
+        final JsonArray page        = new JsonArray();
+        page.add(release(104, "2021-09-10T10:00:00Z"));
+        page.add(release(103, "2021-09-06T10:00:00Z", "2021-09-08T00:00:00Z"));
+        page.add(release(102, "2021-09-01T10:00:00Z", "2021-09-06T12:00:00Z"));
+        page.add(release(90,  "2021-07-01T10:00:00Z", "2021-09-09T00:00:00Z"));
+
+        // New releases and known releases within the rescan window with assets uploaded after the watermark
+        final JsonArray releases = new JsonArray();
+        assert GithubReleaseFetcher.addNewReleases(page, watermark, releases);
+        assert 2 == releases.size();
+        assert 104 == GithubReleaseFetcher.getReleaseId(releases.get(0).getAsJsonObject());
+        assert 103 == GithubReleaseFetcher.getReleaseId(releases.get(1).getAsJsonObject());
+        assert Instant.parse("2021-09-08T00:00:00Z").equals(GithubReleaseFetcher.getAssetsUpdatedAt(releases.get(1).getAsJsonObject()));
+
+        final List<Watermark> persisted = new ArrayList<>();
+        WatermarkCache.INSTANCE.load(List.of(watermark));
+        WatermarkCache.INSTANCE.setPersister(persisted::add);
+        GithubReleaseFetcher.INSTANCE.stageWatermark("semeru", releasesUrl, releases);
+        WatermarkCache.INSTANCE.commit("semeru");
+        assert 104 == WatermarkCache.INSTANCE.get("semeru", releasesUrl).getReleaseId();
+        assert Instant.parse("2021-09-08T00:00:00Z").equals(WatermarkCache.INSTANCE.get("semeru", releasesUrl).getAssetsUpdatedAt());
+
+        // Assets uploaded to an older release move the assets updated at but not the release
+        final JsonArray lateAssets = new JsonArray();
+        lateAssets.add(release(103, "2021-09-06T10:00:00Z", "2021-09-12T00:00:00Z"));
+        GithubReleaseFetcher.INSTANCE.stageWatermark("semeru", releasesUrl, lateAssets);
+        WatermarkCache.INSTANCE.commit("semeru");
+        assert 104 == WatermarkCache.INSTANCE.get("semeru", releasesUrl).getReleaseId();
+        assert Instant.parse("2021-09-12T00:00:00Z").equals(WatermarkCache.INSTANCE.get("semeru", releasesUrl).getAssetsUpdatedAt());
+        assert 2 == persisted.size();
+
+        WatermarkCache.INSTANCE.setPersister(null);
+        WatermarkCache.INSTANCE.load(List.of());
+    }
+
+    private static JsonObject release(final long id, final String publishedAt, final String... assetsUpdatedAt) {
+        final JsonObject release = new JsonObject();
+        final JsonArray  assets  = new JsonArray();
+        for (String updatedAt : assetsUpdatedAt) {
+            final JsonObject asset = new JsonObject();
+            asset.addProperty("updated_at", updatedAt);
+            assets.add(asset);
+        }
+        release.addProperty("id", id);
+        release.addProperty("tag_name", "jdk-17+" + id);
+        release.addProperty("published_at", publishedAt);
+        release.add("assets", assets);
+        return release;
+    }
+
+    private static JsonArray releases(final long... ids) {
+        final JsonArray releases = new JsonArray();
+        for (long id : ids) {
+            final JsonObject release = new JsonObject();
+            release.addProperty("id", id);
+            release.addProperty("tag_name", "jdk-17+" + id);
+            release.addProperty("published_at", "2021-09-06T10:00:00Z");
+            releases.add(release);
+        }
+        return releases;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class GithubTokenPoolTest {
+
+    @Test
+    public void rateLimitTest() throws InterruptedException {
+        final GithubTokenPool pool  = GithubTokenPool.INSTANCE;
+        final long            reset = System.currentTimeMillis() / 1000 + 2;
+        pool.setTokens(List.of("tokenA", "token tokenB"));
+        assert !pool.next().isEmpty();
+        pool.update("token tokenA", headers(30, reset));
+        pool.update("token tokenB", headers(70, reset));
+
+        // Concurrent callers must not get more requests than the tokens have left
+        final Map<String, AtomicInteger> handedOut = new ConcurrentHashMap<>();
+        final List<Thread>               threads   = new ArrayList<>();
+        for (int t = 0 ; t < 10 ; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0 ; i < 10 ; i++) { handedOut.computeIfAbsent(pool.next(), k -> new AtomicInteger()).incrementAndGet(); }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) { thread.join(); }
+        assert 30 == handedOut.get("token tokenA").get() : handedOut;
+        assert 70 == handedOut.get("token tokenB").get() : handedOut;
+
+        // All tokens are exhausted, the next caller has to wait for the reset
+        final long start = System.currentTimeMillis();
+        assert pool.next().startsWith("token ");
+        assert System.currentTimeMillis() - start >= 500 : System.currentTimeMillis() - start;
+
+        pool.setTokens(List.of());
+        assert pool.next().isEmpty();
+    }
+
+    private static HttpHeaders headers(final long remaining, final long reset) {
+        return HttpHeaders.of(Map.of(GithubTokenPool.HEADER_RATE_LIMIT_REMAINING, List.of(Long.toString(remaining)),
+                                     GithubTokenPool.HEADER_RATE_LIMIT_RESET, List.of(Long.toString(reset)),
+                                     GithubTokenPool.HEADER_RATE_LIMIT_LIMIT, List.of("5000")), (name, value) -> true);
+    }
+}
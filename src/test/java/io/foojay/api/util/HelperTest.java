@@ -19,16 +19,30 @@
 
 package io.foojay.api.util;
 
+import com.sun.net.httpserver.HttpServer;
 import eu.hansolo.jdktools.PackageType;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 
 public class HelperTest {
+    private static final Logger LOGGER      = LoggerFactory.getLogger(HelperTest.class);
+    private static final int    WARMUP_RUNS = 2;
+    private static final int    RUNS        = 5;
 
     @Test
     public void findFileUrl() {
@@ -170,4 +184,118 @@ public class HelperTest {
         final String numberString3 = "text";
         assert !Helper.isPositiveInteger(numberString3);
     }
+
+    @Test
+    public void fnv1a64Test() {
+        final long hash1 = Helper.fnv1a64(Helper.fnv1a64(Helper.FNV_64_OFFSET_BASIS, "zulu"), "17.0.5");
+        final long hash2 = Helper.fnv1a64(Helper.fnv1a64(Helper.FNV_64_OFFSET_BASIS, "zulu"), "17.0.5");
+        assert hash1 == hash2;
+
+        // Values must not collide by shifting characters between them
+        final long hash3 = Helper.fnv1a64(Helper.fnv1a64(Helper.FNV_64_OFFSET_BASIS, "zulu1"), "7.0.5");
+        assert hash1 != hash3;
+
+        final long hash4 = Helper.fnv1a64(Helper.fnv1a64(Helper.FNV_64_OFFSET_BASIS, 1L), 2L);
+        final long hash5 = Helper.fnv1a64(Helper.fnv1a64(Helper.FNV_64_OFFSET_BASIS, 2L), 1L);
+        assert hash4 != hash5;
+    }
+
+    @Test
+    public void hashTest() {
+        assert "d41d8cd98f00b204e9800998ecf8427e".equals(Helper.getMD5(""));
+        assert "a9993e364706816aba3e25717850c26c9cd0d89d".equals(Helper.getSHA1("abc"));
+        assert "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad".equals(Helper.getSHA256("abc"));
+        assert "000fff80".equals(Helper.bytesToHex(new byte[] { 0x00, 0x0f, (byte) 0xff, (byte) 0x80 }));
+        // Reusing the digest of the thread must not influence the result
+        assert Helper.getSHA1("abc").equals(Helper.getSHA1("abc"));
+    }
+
+    // Ids and ephemeral ids must be the same as with a new digest per call and formatting every byte
+    @Test
+    public void idGenerationTest() throws Exception {
+        final long number = System.currentTimeMillis();
+        for (int i = 0 ; i < 1_000 ; i++) {
+            final String uri = "https://cdn.azul.com/zulu/bin/zulu17.38." + i + "-ca-jdk17.0.5-linux_x64.tar.gz";
+            final String id  = legacyHex(MessageDigest.getInstance("MD5").digest(uri.getBytes(UTF_8)));
+            assert id.equals(Helper.getMD5(uri));
+            assert legacyHex(MessageDigest.getInstance("SHA-1").digest((number + id).getBytes(UTF_8))).equals(Helper.createEphemeralId(number, Helper.getMD5(uri)));
+        }
+    }
+
+    /**
+     * Compares the time to create the ids and ephemeral ids of 200k packages with the digests of the thread and with a
+     * new digest per call and formatting every byte as before.
+     * Only runs if FOOJAY_API_BENCHMARKS is set to true, results are logged on info level.
+     */
+    @Test
+    public void idGenerationBenchmark() {
+        Assumptions.assumeTrue(Boolean.parseBoolean(System.getenv(Config.FOOJAY_API_BENCHMARKS)), "Set " + Config.FOOJAY_API_BENCHMARKS + " to true to run the benchmark");
+
+        final long         number = System.currentTimeMillis();
+        final List<String> uris   = new ArrayList<>(200_000);
+        for (int i = 0 ; i < 200_000 ; i++) { uris.add("https://cdn.azul.com/zulu/bin/zulu17.38." + i + "-ca-jdk17.0.5-linux_x64.tar.gz"); }
+
+        final long legacyNanos = measure(uris, uri -> {
+            final String id = legacyHex(legacyDigest("MD5", uri));
+            return id.length() + legacyHex(legacyDigest("SHA-1", number + id)).length();
+        });
+        final long helperNanos = measure(uris, uri -> {
+            final String id = Helper.getMD5(uri);
+            return id.length() + Helper.createEphemeralId(number, id).length();
+        });
+        LOGGER.info("{} ids and ephemeral ids, new digest per call: {} ms, helper: {} ms, speedup: {}", uris.size(), legacyNanos / 1_000_000, helperNanos / 1_000_000,
+                    String.format("%.1fx", (double) legacyNanos / helperNanos));
+    }
+
+    // The timeout of a head request must be capped by the deadline of the thread
+    @Test
+    public void headRequestDeadlineTest() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try { Thread.sleep(3_000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            HostLimiter.INSTANCE.setDeadline(Instant.now().plusMillis(300));
+            final long start = System.currentTimeMillis();
+            assert null == Helper.httpHeadRequestSync("http://127.0.0.1:" + server.getAddress().getPort() + "/jdk.tar.gz");
+            assert System.currentTimeMillis() - start < 2_000;
+
+            HostLimiter.INSTANCE.setDeadline(Instant.now().minusMillis(1));
+            assert null == Helper.httpHeadRequestSync("http://127.0.0.1:" + server.getAddress().getPort() + "/jdk.tar.gz");
+        } finally {
+            HostLimiter.INSTANCE.setDeadline(null);
+            server.stop(0);
+        }
+    }
+
+    // Returns the best time of all runs in ns
+    private static long measure(final List<String> uris, final ToIntFunction<String> createIds) {
+        long best  = Long.MAX_VALUE;
+        long check = 0;
+        for (int run = 0 ; run < WARMUP_RUNS + RUNS ; run++) {
+            final long start = System.nanoTime();
+            for (String uri : uris) { check += createIds.applyAsInt(uri); }
+            final long nanos = System.nanoTime() - start;
+            if (run >= WARMUP_RUNS) { best = Math.min(best, nanos); }
+        }
+        LOGGER.debug("Checksum {}", check);
+        return best;
+    }
+
+    private static byte[] legacyDigest(final String algorithm, final String text) {
+        try {
+            return MessageDigest.getInstance(algorithm).digest(text.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String legacyHex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) { builder.append(String.format("%02x", b)); }
+        return builder.toString();
+    }
 }
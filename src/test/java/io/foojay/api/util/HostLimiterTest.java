@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+
+public class HostLimiterTest {
+
+    @Test
+    public void parseHostLimitsTest() {
+        final Map<String, Integer> limits = HostLimiter.parseHostLimits("api.github.com=4, CDN.azul.com = 8,broken,negative=-1,nan=x");
+        assert 2 == limits.size();
+        assert 4 == limits.get("api.github.com");
+        assert 8 == limits.get("cdn.azul.com");
+        assert HostLimiter.parseHostLimits(null).isEmpty();
+    }
+
+    @Test
+    public void limitAndDeadlineTest() {
+        final HostLimiter limiter = HostLimiter.INSTANCE;
+        final String      host    = "limit.test.invalid";
+        final int         limit   = limiter.getLimit(host);
+        try {
+            limiter.setDeadline(Instant.now().plusMillis(200));
+            for (int i = 0 ; i < limit ; i++) { assert limiter.acquire(host); }
+            // All permits are taken -> waits until the deadline of the thread
+            final long start = System.currentTimeMillis();
+            assert !limiter.acquire(host);
+            assert System.currentTimeMillis() - start < 5_000;
+            assert limiter.getRemainingTime(Duration.ofSeconds(10)).compareTo(Duration.ofMillis(200)) <= 0;
+
+            limiter.release(host);
+            limiter.setDeadline(null);
+            assert limiter.acquire(host);
+            assert Duration.ofSeconds(10).equals(limiter.getRemainingTime(Duration.ofSeconds(10)));
+        } finally {
+            limiter.setDeadline(null);
+            for (int i = 0 ; i < limit ; i++) { limiter.release(host); }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+public class HttpClientManagerTest {
+
+    @Test
+    public void metricsPerHostTest() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        final PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        try {
+            final URI         uri     = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/test");
+            final HttpRequest request = HttpRequest.newBuilder().uri(uri).timeout(Duration.ofSeconds(5)).GET().build();
+            // The meters of the host are registered before the application registry is bound
+            assert "ok".equals(HttpClientManager.INSTANCE.send(request, BodyHandlers.ofString()).body());
+            MeterRegistryBinder.bind(registry);
+
+            final List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0 ; i < 10 ; i++) { futures.add(HttpClientManager.INSTANCE.sendAsync(request, BodyHandlers.ofString())); }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            assert 10 == registry.get(HttpClientManager.METRIC_REQUESTS).tags("host", "127.0.0.1", "status", "200").timer().count();
+            assert 0  == registry.get(HttpClientManager.METRIC_IN_FLIGHT).tags("host", "127.0.0.1").gauge().value();
+            assert registry.scrape().contains("foojay_http_client_requests_in_flight");
+        } finally {
+            Metrics.removeRegistry(registry);
+            server.stop(0);
+        }
+    }
+}
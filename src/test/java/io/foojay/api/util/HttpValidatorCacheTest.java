@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.foojay.api.util.HttpValidatorCache.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+public class HttpValidatorCacheTest {
+
+    @Test
+    public void conditionalHeadersTest() {
+        final HttpValidatorCache cache     = HttpValidatorCache.INSTANCE;
+        final List<Validator>    persisted = new ArrayList<>();
+        final String             url       = "https://api.github.com/repos/adoptium/temurin17-binaries/releases";
+        cache.load(List.of(new Validator("https://cdn.azul.com/zulu/bin/", "", "Mon, 06 Sep 2021 10:00:00 GMT", Instant.now().minus(Duration.ofDays(2)))));
+        cache.setPersister(persisted::add);
+
+        assert cache.getConditionalHeaders(url).isEmpty();
+        // Validators older than the max age will not be used
+        assert cache.getConditionalHeaders("https://cdn.azul.com/zulu/bin/").isEmpty();
+
+        cache.update(url, HttpHeaders.of(Map.of("ETag", List.of("W/\"abc\""), "Last-Modified", List.of("Mon, 06 Sep 2021 10:00:00 GMT")), (name, value) -> true));
+        final Map<String, String> headers = cache.getConditionalHeaders(url);
+        assert "W/\"abc\"".equals(headers.get(HttpValidatorCache.HEADER_IF_NONE_MATCH));
+        assert "Mon, 06 Sep 2021 10:00:00 GMT".equals(headers.get(HttpValidatorCache.HEADER_IF_MODIFIED_SINCE));
+        assert 1 == persisted.size() && url.equals(persisted.get(0).getUrl());
+
+        // Responses without validators remove the cached and the persisted ones
+        final List<String> removed = new ArrayList<>();
+        cache.setRemover(removed::add);
+        cache.update(url, HttpHeaders.of(Map.of(), (name, value) -> true));
+        assert cache.getConditionalHeaders(url).isEmpty();
+        assert List.of(url).equals(removed);
+        cache.setPersister(null);
+        cache.setRemover(null);
+    }
+
+    @Test
+    public void stageTest() {
+        final HttpValidatorCache cache     = HttpValidatorCache.INSTANCE;
+        final List<Validator>    persisted = new ArrayList<>();
+        final List<String>       removed   = new ArrayList<>();
+        final String             url       = "https://cdn.azul.com/zulu/bin/";
+        final String             staleUrl  = "https://jdk.java.net/archive/";
+        cache.load(List.of(new Validator(staleUrl, "\"1\"", "", Instant.now())));
+        cache.setPersister(persisted::add);
+        cache.setRemover(removed::add);
+
+        // Staged validators are neither used nor persisted before they were committed
+        cache.stage("zulu", url, HttpHeaders.of(Map.of("ETag", List.of("\"2\"")), (name, value) -> true));
+        cache.stage("oracle_open_jdk", staleUrl, HttpHeaders.of(Map.of(), (name, value) -> true));
+        assert cache.getConditionalHeaders(url).isEmpty();
+        assert "\"1\"".equals(cache.getConditionalHeaders(staleUrl).get(HttpValidatorCache.HEADER_IF_NONE_MATCH));
+        assert persisted.isEmpty() && removed.isEmpty();
+
+        assert 1 == cache.commit("zulu");
+        assert "\"2\"".equals(cache.getConditionalHeaders(url).get(HttpValidatorCache.HEADER_IF_NONE_MATCH));
+        assert 1 == persisted.size();
+        assert "\"1\"".equals(cache.getConditionalHeaders(staleUrl).get(HttpValidatorCache.HEADER_IF_NONE_MATCH));
+
+        assert 1 == cache.commit("oracle_open_jdk");
+        assert cache.getConditionalHeaders(staleUrl).isEmpty();
+        assert List.of(staleUrl).equals(removed);
+        assert 0 == cache.commit("zulu");
+
+        cache.setPersister(null);
+        cache.setRemover(null);
+        cache.load(List.of());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+
+public class JsonCacheTest {
+
+    @Test
+    public void removeIfNotInPatchTest() {
+        final JsonCache<String, String> cache = new JsonCache<>();
+        cache.put("a", "{\"a\":1}");
+        cache.put("b", "{\"b\":1}");
+
+        // Same size as the cache but "a" was deleted and "c" added
+        cache.update(Map.of("b", "{\"b\":2}", "c", "{\"c\":1}"), true);
+        assert 2 == cache.size();
+        assert !cache.containsKey("a");
+        assert "{\"b\":2}".equals(cache.get("b"));
+        assert "{\"c\":1}".equals(cache.get("c"));
+
+        cache.replace(Map.of("b", "{\"b\":3}", "d", "{\"d\":1}"), true);
+        assert 1 == cache.size();
+        assert "{\"b\":3}".equals(cache.get("b"));
+
+        cache.update(Map.of("e", "{\"e\":1}"), false);
+        assert 2 == cache.size();
+    }
+}
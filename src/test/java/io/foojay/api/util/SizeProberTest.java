@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class SizeProberTest {
+
+    @Test
+    public void hostLimitAndMemoizationTest() {
+        final AtomicInteger inFlight    = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+        final AtomicInteger requests    = new AtomicInteger(0);
+        final Executor      delayed     = CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS);
+        final SizeProber    prober      = new SizeProber(uri -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return (long) uri.length();
+            }, delayed);
+        }, host -> 2, Duration.ofSeconds(5));
+
+        final List<CompletableFuture<Void>> probes = new ArrayList<>();
+        final AtomicLong                    total  = new AtomicLong(0);
+        for (int i = 0 ; i < 20 ; i++) {
+            probes.add(prober.probe("https://cdn.example.com/file" + (i % 10) + ".tar.gz", total::addAndGet));
+        }
+        assert 20 == prober.awaitAll(probes, Duration.ofSeconds(10));
+
+        assert 10 == requests.get() : requests.get();
+        assert maxInFlight.get() <= 2 : maxInFlight.get();
+        assert 20 * "https://cdn.example.com/file0.tar.gz".length() == total.get();
+
+        // Memoized sizes do not need another request
+        assert 36L == prober.getSize("https://cdn.example.com/file1.tar.gz").join();
+        assert 10 == requests.get();
+    }
+
+    @Test
+    public void timeoutTest() {
+        final ConcurrentHashMap<String, Integer> attempts = new ConcurrentHashMap<>();
+        final SizeProber prober = new SizeProber(uri -> {
+            attempts.merge(uri, 1, Integer::sum);
+            return new CompletableFuture<>();
+        }, host -> 1, Duration.ofMillis(50));
+
+        final AtomicLong size = new AtomicLong(-2);
+        assert 1 == prober.awaitAll(List.of(prober.probe("https://slow.example.com/file.zip", size::set)), Duration.ofSeconds(5));
+        assert -2 == size.get();
+
+        // Failed probes will not be memoized
+        assert -1L == prober.getSize("https://slow.example.com/file.zip").join();
+        assert 2 == attempts.get("https://slow.example.com/file.zip");
+        assert -1L == prober.getSize("not a uri").join();
+    }
+}
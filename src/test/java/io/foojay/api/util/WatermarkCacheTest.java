@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.foojay.api.util.WatermarkCache.Watermark;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class WatermarkCacheTest {
+
+    @Test
+    public void updateTest() {
+        final String          source    = "https://api.github.com/repos/adoptium/temurin11-binaries/releases";
+        final List<Watermark> persisted = new ArrayList<>();
+        WatermarkCache.INSTANCE.load(List.of(new Watermark("temurin", source, 10, "jdk-11.0.12+7", "", Instant.EPOCH)));
+        WatermarkCache.INSTANCE.setPersister(persisted::add);
+
+        assert 10 == WatermarkCache.INSTANCE.get("temurin", source).getReleaseId();
+        assert null == WatermarkCache.INSTANCE.get("semeru", source);
+
+        // Watermarks only move forward and only updated watermarks will be persisted
+        assert !WatermarkCache.INSTANCE.update(new Watermark("temurin", source, 9, "jdk-11.0.11+9", "", null));
+        assert persisted.isEmpty();
+        assert WatermarkCache.INSTANCE.update(new Watermark("temurin", source, 12, "jdk-11.0.13+8", null, null));
+        assert "jdk-11.0.13+8".equals(WatermarkCache.INSTANCE.get("temurin", source).getTag());
+        assert 1 == persisted.size() && Instant.EPOCH.equals(persisted.get(0).getPublishedAt());
+
+        // A failing persister does not break the update
+        WatermarkCache.INSTANCE.setPersister(watermark -> { throw new IllegalStateException("offline"); });
+        assert WatermarkCache.INSTANCE.update(new Watermark("temurin", source, 13, "jdk-11.0.14+9", "", null));
+        assert 13 == WatermarkCache.INSTANCE.get("temurin", source).getReleaseId();
+
+        WatermarkCache.INSTANCE.setPersister(null);
+        WatermarkCache.INSTANCE.load(List.of());
+    }
+
+    @Test
+    public void stageTest() {
+        final String          source    = "https://api.github.com/repos/ibmruntimes/semeru17-binaries/releases";
+        final List<Watermark> persisted = new ArrayList<>();
+        WatermarkCache.INSTANCE.load(List.of());
+        WatermarkCache.INSTANCE.setPersister(persisted::add);
+
+        // Staged watermarks are neither visible nor persisted before they were committed
+        WatermarkCache.INSTANCE.stage(new Watermark("semeru", source, 20, "jdk-17.0.1+12", "", null));
+        WatermarkCache.INSTANCE.stage(new Watermark("semeru", source, 18, "jdk-17+35", "", null));
+        assert null == WatermarkCache.INSTANCE.get("semeru", source);
+        assert persisted.isEmpty();
+
+        // Committing another distribution leaves the staged watermarks untouched
+        assert 0 == WatermarkCache.INSTANCE.commit("temurin");
+        assert null == WatermarkCache.INSTANCE.get("semeru", source);
+
+        assert 1 == WatermarkCache.INSTANCE.commit("semeru");
+        assert 20 == WatermarkCache.INSTANCE.get("semeru", source).getReleaseId();
+        assert 1 == persisted.size();
+        assert 0 == WatermarkCache.INSTANCE.commit("semeru");
+
+        WatermarkCache.INSTANCE.setPersister(null);
+        WatermarkCache.INSTANCE.load(List.of());
+    }
+}